@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.benchmarks;
+
+import io.venable.amazonaws.dynamo.model.DynamoBinary;
+import io.venable.amazonaws.dynamo.model.DynamoItem;
+import io.venable.amazonaws.dynamo.model.DynamoItemFactory;
+import io.venable.amazonaws.dynamo.model.DynamoJsonReader;
+import io.venable.amazonaws.dynamo.model.DynamoJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding order items with {@link DynamoBinary},
+ * with and without the table's shape, against DynamoDB JSON, one item
+ * at a time and in batches.
+ * <p>
+ * Run the {@link #main(String[])} method of this class to print the
+ * encoded sizes of the same items.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamoBinaryBenchmark
+{
+    private static final int BATCH_SIZE = 100;
+
+    private DynamoBinary binary;
+    private DynamoBinary shapedBinary;
+
+    private DynamoItem order;
+    private List<DynamoItem> orders;
+    private ByteBuffer jsonBuffer;
+
+    private byte[] binaryOrder;
+    private byte[] shapedBinaryOrder;
+    private byte[] jsonOrder;
+    private byte[] shapedBinaryOrders;
+    private byte[] jsonOrders;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        binary = new DynamoBinary();
+        shapedBinary = new DynamoBinary(DynamoItemFactory.defineShape("Orders", Orders.ATTRIBUTE_NAMES));
+
+        order = Orders.createOrder(42);
+        orders = Orders.createOrders(BATCH_SIZE);
+        jsonBuffer = ByteBuffer.allocate(4096);
+
+        binaryOrder = binary.encode(order);
+        shapedBinaryOrder = shapedBinary.encode(order);
+        jsonOrder = toJson(order);
+        shapedBinaryOrders = shapedBinary.encodeAll(orders);
+        jsonOrders = toJson(orders);
+    }
+
+    private static byte[] toJson(DynamoItem item)
+    {
+        ByteBuffer encoded = DynamoJsonWriter.writeItem(item, null);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] toJson(List<DynamoItem> items) throws IOException
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(1024 * items.size());
+        try(DynamoJsonWriter writer = new DynamoJsonWriter(outputStream))
+        {
+            for (DynamoItem item : items)
+                writer.writeItem(item);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static List<DynamoItem> fromJson(byte[] json) throws IOException
+    {
+        List<DynamoItem> items = new ArrayList<>(BATCH_SIZE);
+        try(DynamoJsonReader reader = new DynamoJsonReader(json))
+        {
+            DynamoItem item;
+            while((item = reader.readItem()) != null)
+                items.add(item);
+        }
+        return items;
+    }
+
+    @Benchmark
+    public byte[] encode_binary()
+    {
+        return binary.encode(order);
+    }
+
+    @Benchmark
+    public byte[] encode_binary_shaped()
+    {
+        return shapedBinary.encode(order);
+    }
+
+    @Benchmark
+    public ByteBuffer encode_json()
+    {
+        jsonBuffer = DynamoJsonWriter.writeItem(order, jsonBuffer);
+        return jsonBuffer;
+    }
+
+    @Benchmark
+    public DynamoItem decode_binary()
+    {
+        return binary.decode(binaryOrder);
+    }
+
+    @Benchmark
+    public DynamoItem decode_binary_shaped()
+    {
+        return shapedBinary.decode(shapedBinaryOrder);
+    }
+
+    @Benchmark
+    public DynamoItem decode_json() throws IOException
+    {
+        try(DynamoJsonReader reader = new DynamoJsonReader(jsonOrder))
+        {
+            return reader.readItem();
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeAll_binary_shaped()
+    {
+        return shapedBinary.encodeAll(orders);
+    }
+
+    @Benchmark
+    public byte[] encodeAll_json() throws IOException
+    {
+        return toJson(orders);
+    }
+
+    @Benchmark
+    public List<DynamoItem> decodeAll_binary_shaped()
+    {
+        return shapedBinary.decodeAll(shapedBinaryOrders);
+    }
+
+    @Benchmark
+    public List<DynamoItem> decodeAll_json() throws IOException
+    {
+        return fromJson(jsonOrders);
+    }
+
+    /**
+     * Prints the encoded sizes of the items used by the benchmarks.
+     *
+     * @param args ignored
+     * @throws IOException never, as the items are written to memory
+     */
+    public static void main(String[] args) throws IOException
+    {
+        DynamoBinaryBenchmark benchmark = new DynamoBinaryBenchmark();
+        benchmark.setUp();
+
+        System.out.println("One order:");
+        System.out.println("  DynamoDB JSON         " + benchmark.jsonOrder.length + " bytes");
+        System.out.println("  binary                " + benchmark.binaryOrder.length + " bytes");
+        System.out.println("  binary with shape     " + benchmark.shapedBinaryOrder.length + " bytes");
+
+        int binaryTotal = benchmark.binary.encodeAll(benchmark.orders).length;
+        System.out.println(BATCH_SIZE + " orders:");
+        System.out.println("  DynamoDB JSON         " + benchmark.jsonOrders.length + " bytes");
+        System.out.println("  binary                " + binaryTotal + " bytes");
+        System.out.println("  binary with shape     " + benchmark.shapedBinaryOrders.length + " bytes");
+    }
+}
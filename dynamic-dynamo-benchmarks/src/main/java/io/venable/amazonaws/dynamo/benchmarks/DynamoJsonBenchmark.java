@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.benchmarks;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.transform.AttributeValueJsonMarshaller;
+import com.amazonaws.services.dynamodbv2.model.transform.GetItemResultJsonUnmarshaller;
+import com.amazonaws.transform.JsonUnmarshallerContextImpl;
+import com.amazonaws.util.json.JSONWriter;
+import com.fasterxml.jackson.core.JsonFactory;
+import io.venable.amazonaws.dynamo.model.DynamoItem;
+import io.venable.amazonaws.dynamo.model.DynamoJsonReader;
+import io.venable.amazonaws.dynamo.model.DynamoJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many order items per second are written and read as
+ * DynamoDB JSON by {@link DynamoJsonWriter} and {@link DynamoJsonReader},
+ * against the marshallers the SDK uses for its own requests.
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation per item.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamoJsonBenchmark
+{
+    private static final int ORDER_COUNT = 256;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private List<DynamoItem> orders;
+    private byte[][] encodedOrders;
+    private byte[][] encodedResults;
+    private int next;
+
+    private ByteBuffer buffer;
+    private DynamoJsonWriter streamWriter;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        orders = Orders.createOrders(ORDER_COUNT);
+        encodedOrders = new byte[ORDER_COUNT][];
+        encodedResults = new byte[ORDER_COUNT][];
+        for (int i = 0; i < ORDER_COUNT; i++)
+        {
+            ByteBuffer encoded = DynamoJsonWriter.writeItem(orders.get(i), null);
+            encodedOrders[i] = new byte[encoded.remaining()];
+            encoded.get(encodedOrders[i]);
+            encodedResults[i] = ("{\"Item\":" + new String(encodedOrders[i], StandardCharsets.UTF_8) + "}").getBytes(StandardCharsets.UTF_8);
+        }
+
+        buffer = ByteBuffer.allocate(4096);
+        streamWriter = new DynamoJsonWriter(new DiscardingOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        streamWriter.close();
+    }
+
+    private int nextIndex()
+    {
+        next = (next + 1) & (ORDER_COUNT - 1);
+        return next;
+    }
+
+    @Benchmark
+    public ByteBuffer writeItem_buffer()
+    {
+        buffer = DynamoJsonWriter.writeItem(orders.get(nextIndex()), buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public DynamoJsonWriter writeItem_stream() throws IOException
+    {
+        streamWriter.writeItem(orders.get(nextIndex()));
+        return streamWriter;
+    }
+
+    @Benchmark
+    public byte[] writeItem_sdk_marshaller() throws Exception
+    {
+        StringWriter stringWriter = new StringWriter(1024);
+        JSONWriter jsonWriter = new JSONWriter(stringWriter);
+        AttributeValueJsonMarshaller marshaller = AttributeValueJsonMarshaller.getInstance();
+
+        jsonWriter.object();
+        for (Map.Entry<String, AttributeValue> entry : orders.get(nextIndex()).entrySet())
+        {
+            jsonWriter.key(entry.getKey());
+            marshaller.marshall(entry.getValue(), jsonWriter);
+        }
+        jsonWriter.endObject();
+        return stringWriter.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public DynamoItem readItem() throws IOException
+    {
+        try(DynamoJsonReader reader = new DynamoJsonReader(encodedOrders[nextIndex()]))
+        {
+            return reader.readItem();
+        }
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> readItem_sdk_unmarshaller() throws Exception
+    {
+        JsonUnmarshallerContextImpl context = new JsonUnmarshallerContextImpl(jsonFactory.createParser(encodedResults[nextIndex()]));
+        GetItemResult result = GetItemResultJsonUnmarshaller.getInstance().unmarshall(context);
+        return result.getItem();
+    }
+
+    /**
+     * Discards everything written to it, so that the streaming
+     * writer measures only the encoding.
+     */
+    private static class DiscardingOutputStream extends OutputStream
+    {
+        @Override
+        public void write(int b)
+        {
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+        {
+        }
+    }
+}
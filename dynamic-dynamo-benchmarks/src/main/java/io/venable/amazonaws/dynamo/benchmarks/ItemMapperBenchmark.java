@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.benchmarks;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import io.venable.amazonaws.dynamo.model.DynamoEntity;
+import io.venable.amazonaws.dynamo.model.DynamoItem;
+import io.venable.amazonaws.dynamo.model.DynamoItemFactory;
+import io.venable.amazonaws.dynamo.model.ItemCodec;
+import io.venable.amazonaws.dynamo.model.ItemMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares converting JavaBeans to and from items with the codecs of
+ * {@link ItemMapper} against a mapper which uses reflection for every
+ * property on every call.
+ * <p>
+ * The plain {@link Player} is mapped through {@link java.lang.invoke.MethodHandle}s
+ * looked up at runtime. {@link GeneratedPlayer} has the same properties, and is
+ * mapped by the codec which the processor generates for it.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemMapperBenchmark
+{
+    private Player player;
+    private GeneratedPlayer generatedPlayer;
+    private DynamoItem item;
+    private ItemCodec<Player> reflectiveCodec;
+    private ItemCodec<Player> methodHandleCodec;
+    private ItemCodec<GeneratedPlayer> generatedCodec;
+
+    @Setup
+    public void setUp()
+    {
+        player = new Player();
+        generatedPlayer = new GeneratedPlayer();
+        populate(player);
+        populate(generatedPlayer);
+
+        reflectiveCodec = new ReflectiveCodec<>(Player.class);
+        methodHandleCodec = ItemMapper.codecFor(Player.class);
+        generatedCodec = ItemMapper.codecFor(GeneratedPlayer.class);
+        if(generatedCodec.getClass().getSimpleName().startsWith("MethodHandle"))
+            throw new IllegalStateException("The codec for GeneratedPlayer was not generated.");
+
+        item = methodHandleCodec.toItem(player);
+    }
+
+    private static void populate(Player player)
+    {
+        player.setId("0f8fad5b-d9cb-469f-a165-70867728950e");
+        player.setName("Ada Lovelace");
+        player.setTeam("Analytical Engines");
+        player.setScore(1234567L);
+        player.setLevel(42);
+        player.setRatio(0.875);
+        player.setActive(true);
+        player.setVersion(17L);
+        player.setUpdatedAt(1450000000123L);
+        player.setTags(new LinkedHashSet<>(Arrays.asList("founder", "mathematician", "poet")));
+    }
+
+    @Benchmark
+    public DynamoItem toItem_reflection()
+    {
+        return reflectiveCodec.toItem(player);
+    }
+
+    @Benchmark
+    public DynamoItem toItem_method_handles()
+    {
+        return methodHandleCodec.toItem(player);
+    }
+
+    @Benchmark
+    public DynamoItem toItem_generated()
+    {
+        return generatedCodec.toItem(generatedPlayer);
+    }
+
+    @Benchmark
+    public Player fromItem_reflection()
+    {
+        return reflectiveCodec.fromItem(item);
+    }
+
+    @Benchmark
+    public Player fromItem_method_handles()
+    {
+        return methodHandleCodec.fromItem(item);
+    }
+
+    @Benchmark
+    public GeneratedPlayer fromItem_generated()
+    {
+        return generatedCodec.fromItem(item);
+    }
+
+    public static class Player
+    {
+        private String id;
+        private String name;
+        private String team;
+        private long score;
+        private int level;
+        private double ratio;
+        private boolean active;
+        private Long version;
+        private Long updatedAt;
+        private Set<String> tags;
+
+        public String getId()
+        {
+            return id;
+        }
+
+        public void setId(String id)
+        {
+            this.id = id;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public String getTeam()
+        {
+            return team;
+        }
+
+        public void setTeam(String team)
+        {
+            this.team = team;
+        }
+
+        public long getScore()
+        {
+            return score;
+        }
+
+        public void setScore(long score)
+        {
+            this.score = score;
+        }
+
+        public int getLevel()
+        {
+            return level;
+        }
+
+        public void setLevel(int level)
+        {
+            this.level = level;
+        }
+
+        public double getRatio()
+        {
+            return ratio;
+        }
+
+        public void setRatio(double ratio)
+        {
+            this.ratio = ratio;
+        }
+
+        public boolean isActive()
+        {
+            return active;
+        }
+
+        public void setActive(boolean active)
+        {
+            this.active = active;
+        }
+
+        public Long getVersion()
+        {
+            return version;
+        }
+
+        public void setVersion(Long version)
+        {
+            this.version = version;
+        }
+
+        public Long getUpdatedAt()
+        {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(Long updatedAt)
+        {
+            this.updatedAt = updatedAt;
+        }
+
+        public Set<String> getTags()
+        {
+            return tags;
+        }
+
+        public void setTags(Set<String> tags)
+        {
+            this.tags = tags;
+        }
+    }
+
+    @DynamoEntity
+    public static class GeneratedPlayer extends Player
+    {
+    }
+
+    /**
+     * Maps each property by calling its getter or setter through
+     * {@link Method#invoke(Object, Object...)}, and choosing how to
+     * convert it from its type, on every call.
+     */
+    private static class ReflectiveCodec<T> implements ItemCodec<T>
+    {
+        private final Class<T> type;
+        private final List<PropertyDescriptor> properties = new ArrayList<>();
+
+        ReflectiveCodec(Class<T> type)
+        {
+            this.type = type;
+            try
+            {
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors())
+                {
+                    if(descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null)
+                        properties.add(descriptor);
+                }
+            }
+            catch (IntrospectionException ex)
+            {
+                throw new IllegalArgumentException(ex);
+            }
+        }
+
+        @Override
+        public DynamoItem toItem(T object)
+        {
+            DynamoItem item = DynamoItemFactory.createItem(properties.size());
+            try
+            {
+                for (PropertyDescriptor property : properties)
+                {
+                    Object value = property.getReadMethod().invoke(object);
+                    if(value == null)
+                        continue;
+
+                    Class<?> propertyType = property.getPropertyType();
+                    String attributeName = property.getName();
+                    if(propertyType == String.class)
+                        item.putString(attributeName, (String) value);
+                    else if(propertyType == long.class || propertyType == Long.class)
+                        item.putLong(attributeName, (Long) value);
+                    else if(propertyType == int.class || propertyType == Integer.class)
+                        item.putInteger(attributeName, (Integer) value);
+                    else if(propertyType == double.class)
+                        item.putDouble(attributeName, (Double) value);
+                    else if(propertyType == boolean.class)
+                        item.putBoolean(attributeName, (Boolean) value);
+                    else if(propertyType == Set.class)
+                        item.putStringSet(attributeName, (Collection<String>) value);
+                }
+            }
+            catch (ReflectiveOperationException ex)
+            {
+                throw new IllegalStateException(ex);
+            }
+            return item;
+        }
+
+        @Override
+        public T fromItem(Map<String, AttributeValue> map)
+        {
+            DynamoItem item = map instanceof DynamoItem ? (DynamoItem) map : DynamoItemFactory.createItem(map);
+            try
+            {
+                T object = type.newInstance();
+                for (PropertyDescriptor property : properties)
+                {
+                    String attributeName = property.getName();
+                    if(!item.containsKey(attributeName))
+                        continue;
+
+                    Class<?> propertyType = property.getPropertyType();
+                    Object value;
+                    if(propertyType == String.class)
+                        value = item.getString(attributeName);
+                    else if(propertyType == long.class || propertyType == Long.class)
+                        value = item.getLong(attributeName);
+                    else if(propertyType == int.class || propertyType == Integer.class)
+                        value = item.getInteger(attributeName);
+                    else if(propertyType == double.class)
+                        value = item.getDouble(attributeName, 0);
+                    else if(propertyType == boolean.class)
+                        value = item.getBoolean(attributeName, false);
+                    else if(propertyType == Set.class)
+                        value = item.getStringSet(attributeName);
+                    else
+                        continue;
+                    property.getWriteMethod().invoke(object, value);
+                }
+                return object;
+            }
+            catch (ReflectiveOperationException ex)
+            {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
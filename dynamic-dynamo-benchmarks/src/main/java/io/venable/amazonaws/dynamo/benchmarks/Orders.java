@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.benchmarks;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import io.venable.amazonaws.dynamo.model.DynamoItem;
+import io.venable.amazonaws.dynamo.model.DynamoItemFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates realistic order items for the serialization benchmarks: fourteen
+ * attributes holding identifiers, timestamps, amounts, a flag, a string
+ * set, a nested address and a list of order lines.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+final class Orders
+{
+    static final List<String> ATTRIBUTE_NAMES = Collections.unmodifiableList(Arrays.asList(
+            "OrderId", "CustomerId", "CreatedAt", "UpdatedAt", "Status", "Total", "Currency",
+            "LineCount", "Express", "Version", "Tags", "ShippingAddress", "Lines", "Notes"));
+
+    private static final String[] STATUSES = { "PENDING", "PAID", "SHIPPED", "DELIVERED" };
+    private static final String[] CITIES = { "Seattle", "Denver", "Austin", "Portland" };
+
+    private Orders()
+    { }
+
+    static List<DynamoItem> createOrders(int count)
+    {
+        List<DynamoItem> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            orders.add(createOrder(i));
+        return orders;
+    }
+
+    static DynamoItem createOrder(int number)
+    {
+        DynamoItem order = DynamoItemFactory.createItem();
+        order.putString("OrderId", new UUID(0x5eedL, number).toString());
+        order.putString("CustomerId", "customer-" + (100000 + number * 7919 % 90000));
+        order.putLong("CreatedAt", 1450000000000L + number * 60000L);
+        order.putLong("UpdatedAt", 1450000000000L + number * 60000L + 3600000L);
+        order.putString("Status", STATUSES[number % STATUSES.length]);
+        order.putDecimal("Total", new BigDecimal(1995 + number * 37 % 50000).movePointLeft(2));
+        order.putString("Currency", "USD");
+        order.putInteger("LineCount", 3);
+        order.putBoolean("Express", number % 3 == 0);
+        order.putLong("Version", number % 5 + 1);
+        order.putStringSet("Tags", Arrays.asList("web", number % 2 == 0 ? "gift" : "repeat", "region-" + number % 4));
+
+        DynamoItem address = DynamoItemFactory.createItem();
+        address.putString("Street", (100 + number % 900) + " Pine Street");
+        address.putString("City", CITIES[number % CITIES.length]);
+        address.putString("PostalCode", String.valueOf(98000 + number % 1000));
+        address.putString("Country", "US");
+        order.putItem("ShippingAddress", address);
+
+        List<AttributeValue> lines = new ArrayList<>();
+        for (int line = 0; line < 3; line++)
+        {
+            DynamoItem orderLine = DynamoItemFactory.createItem();
+            orderLine.putString("Sku", "SKU-" + (number + line * 131) % 10000);
+            orderLine.putInteger("Quantity", line + 1);
+            orderLine.putDecimal("Price", new BigDecimal(499 + line * 250).movePointLeft(2));
+            lines.add(new AttributeValue().withM(orderLine));
+        }
+        order.put("Lines", new AttributeValue().withL(lines));
+
+        order.putString("Notes", "Leave the package at the side door if nobody answers. Order " + number + ".");
+        return order;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.benchmarks;
+
+import io.venable.amazonaws.dynamo.model.DynamoItem;
+import io.venable.amazonaws.dynamo.model.DynamoItemFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the same number attributes many times through the
+ * parsed number cache of an item against parsing the text on each read,
+ * as a request handler reading a version and a timestamp would.
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation of each read.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParsedNumberBenchmark
+{
+    private static final int READS_PER_ITEM = 8;
+
+    private DynamoItem item;
+
+    @Setup
+    public void setUp()
+    {
+        item = DynamoItemFactory.createItem();
+        item.putString("Id", "0f8fad5b-d9cb-469f-a165-70867728950e");
+        item.putLong("Version", 1234567L);
+        item.putLong("UpdatedAt", 1450000000123L);
+    }
+
+    @Benchmark
+    public long getLong_cached()
+    {
+        long sum = 0;
+        for (int i = 0; i < READS_PER_ITEM; i++)
+            sum += item.getLong("Version", 0) + item.getLong("UpdatedAt", 0);
+        return sum;
+    }
+
+    @Benchmark
+    public long getLong_boxed_cached()
+    {
+        long sum = 0;
+        for (int i = 0; i < READS_PER_ITEM; i++)
+            sum += item.getLong("Version") + item.getLong("UpdatedAt");
+        return sum;
+    }
+
+    @Benchmark
+    public long parseLong_each_read()
+    {
+        long sum = 0;
+        for (int i = 0; i < READS_PER_ITEM; i++)
+            sum += Long.parseLong(item.get("Version").getN()) + Long.parseLong(item.get("UpdatedAt").getN());
+        return sum;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link NumberCodec} against the JDK's {@code Long.parseLong}
+ * and {@code Long.toString}, and its fallback for whole numbers written
+ * as decimals or with exponents against parsing a {@link BigDecimal}.
+ * <p>
+ * It is in the model package because the codec is internal to it.
+ * Run with {@code -prof gc} to compare the allocation of each number.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NumberCodecBenchmark
+{
+    private static final int COUNT = 8;
+
+    private final String[] integers = {
+            "0", "7", "-42", "1200", "1234567", "1450000000123", "-9223372036854775808", "9223372036854775807"
+    };
+    private final String[] wholeDecimals = {
+            "1.0", "1.2E3", "-4.2e1", "12.000", "1.234567E6", "1450000000123.0", "9E18", "-1E2"
+    };
+    private long[] values;
+
+    @Setup
+    public void setUp()
+    {
+        values = new long[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            values[i] = Long.parseLong(integers[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseLong_codec()
+    {
+        long sum = 0;
+        for (String integer : integers)
+            sum += NumberCodec.parseLong(integer);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseLong_jdk()
+    {
+        long sum = 0;
+        for (String integer : integers)
+            sum += Long.parseLong(integer);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void formatLong_codec(Blackhole blackhole)
+    {
+        for (long value : values)
+            blackhole.consume(NumberCodec.formatLong(value));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void formatLong_jdk(Blackhole blackhole)
+    {
+        for (long value : values)
+            blackhole.consume(Long.toString(value));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseLong_codec_whole_decimals()
+    {
+        long sum = 0;
+        for (String wholeDecimal : wholeDecimals)
+            sum += NumberCodec.parseLong(wholeDecimal);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseLong_big_decimal_whole_decimals()
+    {
+        long sum = 0;
+        for (String wholeDecimal : wholeDecimals)
+            sum += new BigDecimal(wholeDecimal).longValueExact();
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseLong_big_decimal_integers()
+    {
+        long sum = 0;
+        for (String integer : integers)
+            sum += new BigDecimal(integer).longValueExact();
+        return sum;
+    }
+}
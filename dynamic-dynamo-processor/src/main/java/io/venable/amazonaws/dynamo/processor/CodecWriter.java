@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the source of a generated {@link io.venable.amazonaws.dynamo.model.ItemCodec}.
+ * <p>
+ * The generated code calls each getter and setter directly and refers
+ * to each attribute through a constant, without any loops or lookups.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class CodecWriter
+{
+    private final String packageName;
+    private final String codecName;
+    private final String entityName;
+    private final List<EntityProperty> properties;
+
+    CodecWriter(String packageName, String codecName, String entityName, List<EntityProperty> properties)
+    {
+        this.packageName = packageName;
+        this.codecName = codecName;
+        this.entityName = entityName;
+        this.properties = properties;
+    }
+
+    void write(Writer writer) throws IOException
+    {
+        StringBuilder source = new StringBuilder();
+        if(!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+
+        source.append("import com.amazonaws.services.dynamodbv2.model.AttributeValue;\n")
+                .append("import io.venable.amazonaws.dynamo.model.DynamoItem;\n")
+                .append("import io.venable.amazonaws.dynamo.model.DynamoItemFactory;\n")
+                .append("import io.venable.amazonaws.dynamo.model.ItemCodec;\n\n")
+                .append("import java.util.Map;\n\n")
+                .append("/**\n")
+                .append(" * Converts {@link ").append(entityName).append("} objects to and from items.\n")
+                .append(" * <p>\n")
+                .append(" * Generated by ").append(ItemCodecProcessor.class.getName()).append(". Do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(codecName).append(" implements ItemCodec<").append(entityName).append(">\n")
+                .append("{\n");
+
+        for (EntityProperty property : properties)
+        {
+            source.append("    public static final String ").append(property.getConstantName())
+                    .append(" = \"").append(escape(property.getAttributeName())).append("\";\n");
+        }
+        if(!properties.isEmpty())
+            source.append('\n');
+
+        appendToItem(source);
+        appendFromItem(source);
+
+        source.append("    private static boolean hasValue(DynamoItem item, String attributeName)\n")
+                .append("    {\n")
+                .append("        AttributeValue attributeValue = item.get(attributeName);\n")
+                .append("        return attributeValue != null && !Boolean.TRUE.equals(attributeValue.getNULL());\n")
+                .append("    }\n");
+
+        if(hasPropertyOfKind(PropertyKind.STRING_SET))
+        {
+            // An attribute which is present but is not a string set reads as null, as it does for ItemMapper.
+            source.append("\n")
+                    .append("    private static java.util.Set<String> copyOf(java.util.Set<String> strings)\n")
+                    .append("    {\n")
+                    .append("        return strings != null ? new java.util.LinkedHashSet<String>(strings) : null;\n")
+                    .append("    }\n");
+        }
+        source.append("}\n");
+
+        writer.write(source.toString());
+    }
+
+    private void appendToItem(StringBuilder source)
+    {
+        source.append("    @Override\n")
+                .append("    public DynamoItem toItem(").append(entityName).append(" object)\n")
+                .append("    {\n")
+                .append("        DynamoItem item = DynamoItemFactory.createItem(").append(properties.size()).append(");\n");
+
+        for (EntityProperty property : properties)
+        {
+            PropertyKind kind = property.getKind();
+            String valueVariable = property.getPropertyName() + "Value";
+            String condition = kind.presentCondition(valueVariable);
+            if(condition == null)
+            {
+                source.append("        item.").append(kind.getPutMethod()).append('(').append(property.getConstantName())
+                        .append(", object.").append(property.getGetterName()).append("());\n");
+            }
+            else
+            {
+                source.append("        ").append(kind.getTypeName()).append(' ').append(valueVariable)
+                        .append(" = object.").append(property.getGetterName()).append("();\n")
+                        .append("        if(").append(condition).append(")\n")
+                        .append("            item.").append(kind.getPutMethod()).append('(').append(property.getConstantName())
+                        .append(", ").append(valueVariable).append(");\n");
+            }
+        }
+
+        source.append("        return item;\n")
+                .append("    }\n\n");
+    }
+
+    private void appendFromItem(StringBuilder source)
+    {
+        source.append("    @Override\n")
+                .append("    public ").append(entityName).append(" fromItem(Map<String, AttributeValue> item)\n")
+                .append("    {\n")
+                .append("        DynamoItem dynamoItem = item instanceof DynamoItem ? (DynamoItem) item : DynamoItemFactory.createItem(item);\n")
+                .append("        ").append(entityName).append(" object = new ").append(entityName).append("();\n");
+
+        for (EntityProperty property : properties)
+        {
+            source.append("        if(hasValue(dynamoItem, ").append(property.getConstantName()).append("))\n")
+                    .append("            object.").append(property.getSetterName()).append('(')
+                    .append(property.getKind().readExpression("dynamoItem", property.getConstantName())).append(");\n");
+        }
+
+        source.append("        return object;\n")
+                .append("    }\n\n");
+    }
+
+    private boolean hasPropertyOfKind(PropertyKind kind)
+    {
+        for (EntityProperty property : properties)
+        {
+            if(property.getKind() == kind)
+                return true;
+        }
+        return false;
+    }
+
+    private static String escape(String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.processor;
+
+/**
+ * A property of an entity, mapped to one attribute.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class EntityProperty
+{
+    private final String propertyName;
+    private final String attributeName;
+    private final String getterName;
+    private final String setterName;
+    private final PropertyKind kind;
+
+    EntityProperty(String propertyName, String attributeName, String getterName, String setterName, PropertyKind kind)
+    {
+        this.propertyName = propertyName;
+        this.attributeName = attributeName;
+        this.getterName = getterName;
+        this.setterName = setterName;
+        this.kind = kind;
+    }
+
+    String getPropertyName()
+    {
+        return propertyName;
+    }
+
+    String getAttributeName()
+    {
+        return attributeName;
+    }
+
+    String getGetterName()
+    {
+        return getterName;
+    }
+
+    String getSetterName()
+    {
+        return setterName;
+    }
+
+    PropertyKind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Gets the name of the constant holding the attribute
+     * name, such as {@code TEAM_NAME} for {@code teamName}.
+     */
+    String getConstantName()
+    {
+        StringBuilder constantName = new StringBuilder();
+        for (int i = 0; i < propertyName.length(); i++)
+        {
+            char character = propertyName.charAt(i);
+            if(Character.isUpperCase(character) && i > 0 && !Character.isUpperCase(propertyName.charAt(i - 1)))
+                constantName.append('_');
+            constantName.append(Character.toUpperCase(character));
+        }
+        return constantName.toString();
+    }
+}
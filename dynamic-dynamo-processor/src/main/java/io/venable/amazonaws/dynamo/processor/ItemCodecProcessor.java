@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.processor;
+
+import io.venable.amazonaws.dynamo.model.DynamoAttribute;
+import io.venable.amazonaws.dynamo.model.DynamoEntity;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates an {@link io.venable.amazonaws.dynamo.model.ItemCodec} for
+ * each class marked with {@link DynamoEntity}.
+ * <p>
+ * Properties are found the same way {@link io.venable.amazonaws.dynamo.model.ItemMapper}
+ * finds them at runtime: each public getter with a matching public
+ * setter is mapped, named by the property or by {@link DynamoAttribute}.
+ * Classes which cannot be mapped are reported as compile errors.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+@SupportedAnnotationTypes("io.venable.amazonaws.dynamo.model.DynamoEntity")
+public class ItemCodecProcessor extends AbstractProcessor
+{
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment)
+    {
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(DynamoEntity.class))
+        {
+            if(element.getKind() != ElementKind.CLASS)
+            {
+                error("Only classes can be marked with @DynamoEntity.", element);
+                continue;
+            }
+
+            TypeElement entity = (TypeElement) element;
+            if(isMappable(entity))
+            {
+                List<EntityProperty> properties = findProperties(entity);
+                if(properties != null)
+                    writeCodec(entity, properties);
+            }
+        }
+        return true;
+    }
+
+    private boolean isMappable(TypeElement entity)
+    {
+        for (Element enclosing = entity; enclosing.getKind().isClass(); enclosing = enclosing.getEnclosingElement())
+        {
+            if(!enclosing.getModifiers().contains(Modifier.PUBLIC))
+            {
+                error("A @DynamoEntity class must be public, as must any class enclosing it.", entity);
+                return false;
+            }
+        }
+
+        if(entity.getNestingKind() == NestingKind.MEMBER && !entity.getModifiers().contains(Modifier.STATIC))
+        {
+            error("A nested @DynamoEntity class must be static.", entity);
+            return false;
+        }
+        if(entity.getModifiers().contains(Modifier.ABSTRACT))
+        {
+            error("A @DynamoEntity class cannot be abstract.", entity);
+            return false;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(entity.getEnclosedElements()))
+        {
+            if(constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))
+                return true;
+        }
+        error("A @DynamoEntity class must have a public constructor without arguments.", entity);
+        return false;
+    }
+
+    /**
+     * Finds the properties of an entity, or returns null
+     * after reporting any which cannot be mapped.
+     */
+    private List<EntityProperty> findProperties(TypeElement entity)
+    {
+        Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+        Map<String, List<ExecutableElement>> setters = new LinkedHashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(entity)))
+        {
+            Set<Modifier> modifiers = method.getModifiers();
+            if(!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC))
+                continue;
+            if(((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals(Object.class.getName()))
+                continue;
+
+            String methodName = method.getSimpleName().toString();
+            TypeMirror returnType = method.getReturnType();
+            int parameterCount = method.getParameters().size();
+            if(parameterCount == 0 && methodName.length() > 3 && methodName.startsWith("get") && returnType.getKind() != TypeKind.VOID)
+            {
+                getters.put(Introspector.decapitalize(methodName.substring(3)), method);
+            }
+            else if(parameterCount == 0 && methodName.length() > 2 && methodName.startsWith("is") && returnType.getKind() == TypeKind.BOOLEAN)
+            {
+                getters.put(Introspector.decapitalize(methodName.substring(2)), method);
+            }
+            else if(parameterCount == 1 && methodName.length() > 3 && methodName.startsWith("set") && returnType.getKind() == TypeKind.VOID)
+            {
+                String propertyName = Introspector.decapitalize(methodName.substring(3));
+                if(!setters.containsKey(propertyName))
+                    setters.put(propertyName, new ArrayList<ExecutableElement>());
+                setters.get(propertyName).add(method);
+            }
+        }
+
+        List<EntityProperty> properties = new ArrayList<>();
+        Set<String> attributeNames = new HashSet<>();
+        boolean valid = true;
+        for (Map.Entry<String, ExecutableElement> getterEntry : getters.entrySet())
+        {
+            ExecutableElement getter = getterEntry.getValue();
+            ExecutableElement setter = findSetter(setters.get(getterEntry.getKey()), getter.getReturnType());
+            if(setter == null)
+                continue;
+
+            String typeName = getter.getReturnType().toString();
+            PropertyKind kind = PropertyKind.forTypeName(typeName);
+            if(kind == null)
+            {
+                error("The property " + getterEntry.getKey() + " has an unsupported type " + typeName + ".", getter);
+                valid = false;
+                continue;
+            }
+
+            DynamoAttribute dynamoAttribute = getter.getAnnotation(DynamoAttribute.class);
+            String attributeName = dynamoAttribute != null ? dynamoAttribute.value() : getterEntry.getKey();
+            if(!attributeNames.add(attributeName))
+            {
+                error("More than one property maps to the attribute " + attributeName + ".", getter);
+                valid = false;
+                continue;
+            }
+
+            properties.add(new EntityProperty(getterEntry.getKey(), attributeName,
+                    getter.getSimpleName().toString(), setter.getSimpleName().toString(), kind));
+        }
+        return valid ? properties : null;
+    }
+
+    private ExecutableElement findSetter(List<ExecutableElement> candidates, TypeMirror propertyType)
+    {
+        if(candidates == null)
+            return null;
+
+        for (ExecutableElement candidate : candidates)
+        {
+            if(processingEnv.getTypeUtils().isSameType(candidate.getParameters().get(0).asType(), propertyType))
+                return candidate;
+        }
+        return null;
+    }
+
+    private void writeCodec(TypeElement entity, List<EntityProperty> properties)
+    {
+        String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String codecName = simpleBinaryName.replace('$', '_') + "ItemCodec";
+        String qualifiedCodecName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+
+        CodecWriter codecWriter = new CodecWriter(packageName, codecName, entity.getQualifiedName().toString(), properties);
+        try
+        {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedCodecName, entity);
+            try(Writer writer = sourceFile.openWriter())
+            {
+                codecWriter.write(writer);
+            }
+        }
+        catch (IOException ex)
+        {
+            error("Unable to write " + qualifiedCodecName + ": " + ex.getMessage(), entity);
+        }
+    }
+
+    private void error(String message, Element element)
+    {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
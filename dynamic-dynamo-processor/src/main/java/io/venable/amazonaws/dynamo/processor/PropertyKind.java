@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.processor;
+
+/**
+ * The property types which generated codecs support, along with
+ * the code to put each into an item and read it back.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+enum PropertyKind
+{
+    LONG("long", "putLong", "%1$s.getLong(%2$s, 0L)", null),
+    INTEGER("int", "putInteger", "%1$s.getInteger(%2$s, 0)", null),
+    DOUBLE("double", "putDouble", "%1$s.getDouble(%2$s, 0d)", null),
+    BOOLEAN("boolean", "putBoolean", "%1$s.getBoolean(%2$s, false)", null),
+    STRING("java.lang.String", "putString", "%1$s.getString(%2$s)", "%1$s != null"),
+    BOXED_LONG("java.lang.Long", "putLong", "%1$s.getLong(%2$s)", "%1$s != null"),
+    BOXED_INTEGER("java.lang.Integer", "putInteger", "%1$s.getInteger(%2$s)", "%1$s != null"),
+    BOXED_DOUBLE("java.lang.Double", "putDouble", "%1$s.getDouble(%2$s, 0d)", "%1$s != null"),
+    BOXED_BOOLEAN("java.lang.Boolean", "putBoolean", "%1$s.getBoolean(%2$s, false)", "%1$s != null"),
+    DECIMAL("java.math.BigDecimal", "putDecimal", "%1$s.getDecimal(%2$s)", "%1$s != null"),
+    BINARY("java.nio.ByteBuffer", "putBinary", "%1$s.getBinary(%2$s)", "%1$s != null"),
+    LONG_ARRAY("long[]", "putLongArray", "%1$s.getLongArray(%2$s)", "%1$s != null && %1$s.length > 0"),
+    STRING_SET("java.util.Set<java.lang.String>", "putStringSet",
+            "copyOf(%1$s.getStringSet(%2$s))", "%1$s != null && !%1$s.isEmpty()");
+
+    private final String typeName;
+    private final String putMethod;
+    private final String readFormat;
+    private final String presentFormat;
+
+    PropertyKind(String typeName, String putMethod, String readFormat, String presentFormat)
+    {
+        this.typeName = typeName;
+        this.putMethod = putMethod;
+        this.readFormat = readFormat;
+        this.presentFormat = presentFormat;
+    }
+
+    /**
+     * Gets the kind for the source name of a type.
+     *
+     * @param typeName the type, as written in source
+     * @return the kind, or null if the type is not supported
+     */
+    static PropertyKind forTypeName(String typeName)
+    {
+        for (PropertyKind propertyKind : values())
+        {
+            if(propertyKind.typeName.equals(typeName))
+                return propertyKind;
+        }
+        return null;
+    }
+
+    String getTypeName()
+    {
+        return typeName;
+    }
+
+    String getPutMethod()
+    {
+        return putMethod;
+    }
+
+    /**
+     * Gets an expression which reads the property from an item.
+     */
+    String readExpression(String itemVariable, String attributeConstant)
+    {
+        return String.format(readFormat, itemVariable, attributeConstant);
+    }
+
+    /**
+     * Gets a condition which is true when a value should be put into
+     * the item, or null if the value is always put.
+     */
+    String presentCondition(String valueVariable)
+    {
+        if(presentFormat == null)
+            return null;
+        return String.format(presentFormat, valueVariable);
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.processor;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import io.venable.amazonaws.dynamo.model.DynamoItem;
+import io.venable.amazonaws.dynamo.model.ItemCodec;
+import io.venable.amazonaws.dynamo.model.ItemMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ItemCodecProcessorTest
+{
+    private File directory;
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("processor").toFile();
+        diagnostics = new DiagnosticCollector<>();
+    }
+
+    @After
+    public void tearDown()
+    {
+        delete(directory);
+    }
+
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if(children != null)
+        {
+            for (File child : children)
+                delete(child);
+        }
+        file.delete();
+    }
+
+    private boolean compile(String className, String source) throws IOException
+    {
+        File sourceFile = new File(directory, className.replace('.', '/') + ".java");
+        sourceFile.getParentFile().mkdirs();
+        Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try(StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8))
+        {
+            return compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                            "-processor", ItemCodecProcessor.class.getName(),
+                            "-d", directory.getPath()),
+                    null, fileManager.getJavaFileObjects(sourceFile)).call();
+        }
+    }
+
+    private String errors()
+    {
+        StringBuilder errors = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+        {
+            if(diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                errors.append(diagnostic.getMessage(null)).append('\n');
+        }
+        return errors.toString();
+    }
+
+    private ClassLoader classLoader() throws IOException
+    {
+        return new URLClassLoader(new URL[] { directory.toURI().toURL() }, getClass().getClassLoader());
+    }
+
+    private static String player()
+    {
+        return "package example;\n"
+                + "import io.venable.amazonaws.dynamo.model.DynamoAttribute;\n"
+                + "import io.venable.amazonaws.dynamo.model.DynamoEntity;\n"
+                + "import java.util.Set;\n"
+                + "@DynamoEntity\n"
+                + "public class Player {\n"
+                + "    private String name = \"Ada\";\n"
+                + "    private long score = 1200;\n"
+                + "    private boolean active = true;\n"
+                + "    private Long version;\n"
+                + "    private long[] history = { 5, 6 };\n"
+                + "    private Set<String> tags;\n"
+                + "    private String teamName = \"blue\";\n"
+                + "    public String getName() { return name; }\n"
+                + "    public void setName(String name) { this.name = name; }\n"
+                + "    public long getScore() { return score; }\n"
+                + "    public void setScore(long score) { this.score = score; }\n"
+                + "    public boolean isActive() { return active; }\n"
+                + "    public void setActive(boolean active) { this.active = active; }\n"
+                + "    public Long getVersion() { return version; }\n"
+                + "    public void setVersion(Long version) { this.version = version; }\n"
+                + "    public long[] getHistory() { return history; }\n"
+                + "    public void setHistory(long[] history) { this.history = history; }\n"
+                + "    public Set<String> getTags() { return tags; }\n"
+                + "    public void setTags(Set<String> tags) { this.tags = tags; }\n"
+                + "    @DynamoAttribute(\"team_name\")\n"
+                + "    public String getTeamName() { return teamName; }\n"
+                + "    public void setTeamName(String teamName) { this.teamName = teamName; }\n"
+                + "    public String getDisplayName() { return \"Player \" + name; }\n"
+                + "}\n";
+    }
+
+    @Test
+    public void should_generate_codec_with_attribute_name_constants() throws Exception
+    {
+        assertThat(errors(), compile("example.Player", player()), is(true));
+
+        Class<?> codecClass = classLoader().loadClass("example.PlayerItemCodec");
+
+        assertThat(codecClass.getField("NAME").get(null), is((Object) "name"));
+        assertThat(codecClass.getField("TEAM_NAME").get(null), is((Object) "team_name"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void generated_codec_should_put_properties_into_item() throws Exception
+    {
+        compile("example.Player", player());
+        ClassLoader classLoader = classLoader();
+        ItemCodec<Object> codec = (ItemCodec<Object>) classLoader.loadClass("example.PlayerItemCodec").newInstance();
+
+        DynamoItem item = codec.toItem(classLoader.loadClass("example.Player").newInstance());
+
+        assertThat(item.getString("name"), is("Ada"));
+        assertThat(item.getLong("score"), is(1200L));
+        assertThat(item.getBoolean("active", false), is(true));
+        assertThat(item.getLongArray("history"), is(new long[] { 5, 6 }));
+        assertThat(item.getString("team_name"), is("blue"));
+        assertThat(item.containsKey("version"), is(false));
+        assertThat(item.containsKey("tags"), is(false));
+        assertThat(item.containsKey("displayName"), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void generated_codec_should_read_properties_from_item() throws Exception
+    {
+        compile("example.Player", player());
+        ClassLoader classLoader = classLoader();
+        ItemCodec<Object> codec = (ItemCodec<Object>) classLoader.loadClass("example.PlayerItemCodec").newInstance();
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("name", new AttributeValue().withS("Grace"));
+        item.put("version", new AttributeValue().withN("4"));
+        item.put("tags", new AttributeValue().withSS("a"));
+        item.put("team_name", new AttributeValue().withNULL(true));
+
+        Object player = codec.fromItem(item);
+
+        Class<?> playerClass = player.getClass();
+        assertThat(playerClass.getMethod("getName").invoke(player), is((Object) "Grace"));
+        assertThat(playerClass.getMethod("getVersion").invoke(player), is((Object) 4L));
+        assertThat(playerClass.getMethod("getScore").invoke(player), is((Object) 1200L));
+        assertThat(playerClass.getMethod("getTeamName").invoke(player), is((Object) "blue"));
+        assertThat(playerClass.getMethod("getTags").invoke(player).toString(), is("[a]"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void generated_codec_should_read_a_string_set_which_is_not_a_string_set_as_null() throws Exception
+    {
+        compile("example.Player", player());
+        ClassLoader classLoader = classLoader();
+        ItemCodec<Object> codec = (ItemCodec<Object>) classLoader.loadClass("example.PlayerItemCodec").newInstance();
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("tags", new AttributeValue().withS("a"));
+
+        Object player = codec.fromItem(item);
+
+        assertThat(player.getClass().getMethod("getTags").invoke(player), nullValue());
+    }
+
+    @Test
+    public void ItemMapper_should_use_generated_codec() throws Exception
+    {
+        compile("example.Player", player());
+
+        Class<?> playerClass = classLoader().loadClass("example.Player");
+
+        assertThat(ItemMapper.codecFor(playerClass).getClass().getName(), is("example.PlayerItemCodec"));
+    }
+
+    @Test
+    public void should_name_codecs_of_nested_classes_after_enclosing_class() throws Exception
+    {
+        String source = "package example;\n"
+                + "public class Outer {\n"
+                + "    @io.venable.amazonaws.dynamo.model.DynamoEntity\n"
+                + "    public static class Inner {\n"
+                + "        private int count;\n"
+                + "        public int getCount() { return count; }\n"
+                + "        public void setCount(int count) { this.count = count; }\n"
+                + "    }\n"
+                + "}\n";
+
+        assertThat(errors(), compile("example.Outer", source), is(true));
+
+        Class<?> innerClass = classLoader().loadClass("example.Outer$Inner");
+        assertThat(ItemMapper.codecFor(innerClass).getClass().getName(), is("example.Outer_InnerItemCodec"));
+    }
+
+    @Test
+    public void should_report_unsupported_property_types() throws Exception
+    {
+        String source = "package example;\n"
+                + "@io.venable.amazonaws.dynamo.model.DynamoEntity\n"
+                + "public class Unsupported {\n"
+                + "    public java.util.List<Object> getValues() { return null; }\n"
+                + "    public void setValues(java.util.List<Object> values) { }\n"
+                + "}\n";
+
+        assertThat(compile("example.Unsupported", source), is(false));
+        assertThat(errors(), containsString("unsupported type"));
+    }
+
+    @Test
+    public void should_report_classes_without_default_constructor() throws Exception
+    {
+        String source = "package example;\n"
+                + "@io.venable.amazonaws.dynamo.model.DynamoEntity\n"
+                + "public class NoDefaultConstructor {\n"
+                + "    public NoDefaultConstructor(String name) { }\n"
+                + "}\n";
+
+        assertThat(compile("example.NoDefaultConstructor", source), is(false));
+        assertThat(errors(), containsString("constructor without arguments"));
+    }
+
+    @Test
+    public void should_report_classes_which_are_not_public() throws Exception
+    {
+        String source = "package example;\n"
+                + "@io.venable.amazonaws.dynamo.model.DynamoEntity\n"
+                + "class Hidden {\n"
+                + "}\n";
+
+        assertThat(compile("example.Hidden", source), is(false));
+        assertThat(errors(), containsString("must be public"));
+    }
+}
@@ -0,0 +1,569 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An internal base class for implementations of {@link DynamoItem}.
+ * <p>
+ * It provides the typed accessors on top of {@link #get(Object)}
+ * and {@link #put(String, AttributeValue)}. Subclasses must call
+ * {@link #attributeChanged(Object)} or {@link #attributesCleared()}
+ * whenever they modify their attributes, including through their views,
+ * or call {@link #attributesShared()} if they cannot.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+abstract class AbstractDynamoItem implements DynamoItem
+{
+    private static final int WRITE_UNIT_BYTES = 1024;
+    private static final int READ_UNIT_BYTES = 4096;
+
+    private Map<String, ParsedNumber> parsedNumbers;
+    private long trackedSize = -1;
+    private boolean attributesShared;
+    private Set<Object> resizedAttributes;
+    private CompressionPolicy compressionPolicy;
+
+    @Override
+    public String getString(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null)
+            return null;
+
+        if(attributeValue.getS() == null && attributeValue.getB() != null && CompressionPolicy.isCompressed(attributeValue.getB()))
+            return CompressionPolicy.decompress(attributeValue.getB(), compressionPolicy != null ? compressionPolicy.getStats() : null);
+
+        return attributeValue.getS();
+    }
+
+    @Override
+    public void putString(String attributeName, String value)
+    {
+        if(compressionPolicy != null)
+            put(attributeName, compressionPolicy.toAttributeValue(value));
+        else
+            put(attributeName, CommonAttributeValues.ofString(value));
+    }
+
+    @Override
+    public void setCompressionPolicy(CompressionPolicy compressionPolicy)
+    {
+        this.compressionPolicy = compressionPolicy;
+    }
+
+    @Override
+    public CompressionPolicy getCompressionPolicy()
+    {
+        return compressionPolicy;
+    }
+
+    @Override
+    public Long getLong(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null)
+            return null;
+
+        return parsedNumber(attributeName, attributeValue).boxedValue();
+    }
+
+    @Override
+    public void putLong(String attributeName, Long value)
+    {
+        putLong(attributeName, value.longValue());
+    }
+
+    @Override
+    public long getLong(String attributeName, long defaultValue)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getN() == null)
+            return defaultValue;
+
+        return parsedNumber(attributeName, attributeValue).value;
+    }
+
+    @Override
+    public void putLong(String attributeName, long value)
+    {
+        put(attributeName, CommonAttributeValues.ofLong(value));
+    }
+
+    @Override
+    public void addLong(String attributeName, long delta)
+    {
+        putLong(attributeName, getLong(attributeName, 0) + delta);
+    }
+
+    @Override
+    public Integer getInteger(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null)
+            return null;
+
+        return parseInteger(attributeName, attributeValue);
+    }
+
+    @Override
+    public void putInteger(String attributeName, Integer value)
+    {
+        putInteger(attributeName, value.intValue());
+    }
+
+    @Override
+    public int getInteger(String attributeName, int defaultValue)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getN() == null)
+            return defaultValue;
+
+        return parseInteger(attributeName, attributeValue);
+    }
+
+    @Override
+    public void putInteger(String attributeName, int value)
+    {
+        put(attributeName, CommonAttributeValues.ofLong(value));
+    }
+
+    @Override
+    public double getDouble(String attributeName, double defaultValue)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getN() == null)
+            return defaultValue;
+
+        return NumberCodec.parseDouble(attributeValue.getN());
+    }
+
+    @Override
+    public void putDouble(String attributeName, double value)
+    {
+        putNumber(attributeName, NumberCodec.formatDouble(value));
+    }
+
+    @Override
+    public BigDecimal getDecimal(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getN() == null)
+            return null;
+
+        return NumberCodec.parseDecimal(attributeValue.getN());
+    }
+
+    @Override
+    public void putDecimal(String attributeName, BigDecimal value)
+    {
+        putNumber(attributeName, NumberCodec.formatDecimal(value));
+    }
+
+    @Override
+    public boolean getBoolean(String attributeName, boolean defaultValue)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getBOOL() == null)
+            return defaultValue;
+
+        return attributeValue.getBOOL();
+    }
+
+    @Override
+    public void putBoolean(String attributeName, boolean value)
+    {
+        put(attributeName, CommonAttributeValues.ofBoolean(value));
+    }
+
+    @Override
+    public ByteBuffer getBinary(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getB() == null)
+            return null;
+
+        return attributeValue.getB().asReadOnlyBuffer();
+    }
+
+    @Override
+    public void putBinary(String attributeName, ByteBuffer value)
+    {
+        put(attributeName, new AttributeValue().withB(value));
+    }
+
+    @Override
+    public List<ByteBuffer> getBinarySet(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getBS() == null)
+            return null;
+
+        List<ByteBuffer> binaries = attributeValue.getBS();
+        List<ByteBuffer> views = new ArrayList<>(binaries.size());
+        for (ByteBuffer binary : binaries)
+            views.add(binary.asReadOnlyBuffer());
+        return views;
+    }
+
+    @Override
+    public void putBinarySet(String attributeName, Collection<ByteBuffer> values)
+    {
+        put(attributeName, new AttributeValue().withBS(values));
+    }
+
+    @Override
+    public long[] getLongArray(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getNS() == null)
+            return null;
+
+        List<String> numbers = attributeValue.getNS();
+        long[] values = new long[numbers.size()];
+        int index = 0;
+        for (String number : numbers)
+            values[index++] = NumberCodec.parseLong(number);
+        return values;
+    }
+
+    @Override
+    public void putLongArray(String attributeName, long[] values)
+    {
+        if(values.length == 0)
+            throw new IllegalArgumentException("DynamoDB cannot store an empty number set.");
+
+        List<String> numbers = new ArrayList<>(values.length);
+        for (long value : values)
+            numbers.add(NumberCodec.formatLong(value));
+        put(attributeName, new AttributeValue().withNS(numbers));
+    }
+
+    @Override
+    public Set<String> getStringSet(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getSS() == null)
+            return null;
+
+        return Collections.unmodifiableSet(new LinkedHashSet<>(attributeValue.getSS()));
+    }
+
+    @Override
+    public void putStringSet(String attributeName, Collection<String> values)
+    {
+        if(values.isEmpty())
+            throw new IllegalArgumentException("DynamoDB cannot store an empty string set.");
+
+        put(attributeName, new AttributeValue().withSS(values));
+    }
+
+    @Override
+    public DynamoItem getItem(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getM() == null)
+            return null;
+
+        return new NestedDynamoItem(this, attributeName, attributeValue.getM());
+    }
+
+    @Override
+    public void putItem(String attributeName, Map<String, AttributeValue> item)
+    {
+        put(attributeName, new AttributeValue().withM(item));
+    }
+
+    /**
+     * Gets the size of this item. The first call measures every
+     * attribute. Later calls only measure the attributes which were
+     * put or removed since the previous call, unless the attributes
+     * are shared, in which case every call measures every attribute.
+     */
+    @Override
+    public long sizeInBytes()
+    {
+        if(attributesShared)
+            return AttributeSizes.sizeOf(this);
+
+        if(trackedSize < 0)
+        {
+            resizedAttributes = null;
+            trackedSize = AttributeSizes.sizeOf(this);
+        }
+        else if(resizedAttributes != null && !resizedAttributes.isEmpty())
+        {
+            for (Object attributeName : resizedAttributes)
+                trackedSize += attributeSize(attributeName);
+            resizedAttributes.clear();
+        }
+        return trackedSize;
+    }
+
+    @Override
+    public int estimatedWriteUnits()
+    {
+        return capacityUnits(sizeInBytes(), WRITE_UNIT_BYTES);
+    }
+
+    @Override
+    public int estimatedReadUnits()
+    {
+        return capacityUnits(sizeInBytes(), READ_UNIT_BYTES);
+    }
+
+    private static int capacityUnits(long sizeInBytes, int unitBytes)
+    {
+        return (int) Math.max(1, (sizeInBytes + unitBytes - 1) / unitBytes);
+    }
+
+    private long attributeSize(Object attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null && !containsKey(attributeName))
+            return 0;
+        return AttributeSizes.sizeOf((String) attributeName, attributeValue);
+    }
+
+    @Override
+    public DynamoItem freeze()
+    {
+        return new FrozenDynamoItem(this);
+    }
+
+    @Override
+    public DynamoItem mutableCopy()
+    {
+        DynamoItem copy = DynamoItemFactory.createItem(size());
+        copy.putAll(this);
+        return copy;
+    }
+
+    /**
+     * Called by subclasses when an attribute is put or removed.
+     *
+     * @param attributeName the name of the changed attribute
+     */
+    protected void attributeChanged(Object attributeName)
+    {
+        if(parsedNumbers != null)
+            parsedNumbers.remove(attributeName);
+
+        if(trackedSize >= 0)
+        {
+            if(resizedAttributes == null)
+                resizedAttributes = new HashSet<>();
+            if(resizedAttributes.add(attributeName))
+                trackedSize -= attributeSize(attributeName);
+        }
+    }
+
+    /**
+     * Called by subclasses when all attributes are removed.
+     */
+    protected void attributesCleared()
+    {
+        parsedNumbers = null;
+        if(trackedSize >= 0)
+        {
+            trackedSize = 0;
+            resizedAttributes = null;
+        }
+    }
+
+    /**
+     * Called by subclasses whose attributes may be changed without
+     * {@link #attributeChanged(Object)} being called, such as when
+     * they are backed by a map which others still hold. From then
+     * on, the size of the item is measured every time it is needed.
+     */
+    protected void attributesShared()
+    {
+        attributesShared = true;
+        trackedSize = -1;
+        resizedAttributes = null;
+    }
+
+    /**
+     * Compares the attributes of this item with a map, following
+     * the contract of {@link Map#equals(Object)}.
+     *
+     * @param o the object to compare against
+     * @return true if the object is a map with the same attributes
+     */
+    protected boolean attributesEqual(Object o)
+    {
+        if(o == this)
+            return true;
+        if(!(o instanceof Map))
+            return false;
+
+        Map<?, ?> other = (Map<?, ?>) o;
+        if(other.size() != size())
+            return false;
+
+        for (Entry<String, AttributeValue> entry : entrySet())
+        {
+            AttributeValue value = entry.getValue();
+            Object otherValue = other.get(entry.getKey());
+            if(value == null)
+            {
+                if(otherValue != null || !other.containsKey(entry.getKey()))
+                    return false;
+            }
+            else if(!value.equals(otherValue))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a hash code for the attributes of this item, following
+     * the contract of {@link Map#hashCode()}.
+     *
+     * @return the hash code
+     */
+    protected int attributesHashCode()
+    {
+        int hashCode = 0;
+        for (Entry<String, AttributeValue> entry : entrySet())
+            hashCode += Objects.hashCode(entry.getKey()) ^ Objects.hashCode(entry.getValue());
+        return hashCode;
+    }
+
+    /**
+     * Gets a string for the attributes of this item, in the
+     * same format as {@link java.util.AbstractMap#toString()}.
+     *
+     * @return the string
+     */
+    protected String attributesToString()
+    {
+        StringBuilder stringBuilder = new StringBuilder("{");
+        for (Entry<String, AttributeValue> entry : entrySet())
+        {
+            if(stringBuilder.length() > 1)
+                stringBuilder.append(", ");
+            stringBuilder.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return stringBuilder.append('}').toString();
+    }
+
+    private void putNumber(String attributeName, String value)
+    {
+        put(attributeName, new AttributeValue().withN(value));
+    }
+
+    private int parseInteger(String attributeName, AttributeValue attributeValue)
+    {
+        ParsedNumber parsedNumber = parsedNumber(attributeName, attributeValue);
+        long value = parsedNumber.value;
+        if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw new NumberFormatException("For input string: \"" + parsedNumber.text + "\"");
+
+        return (int) value;
+    }
+
+    /**
+     * Parses the number in an attribute, reusing the last parsed value
+     * while the attribute still holds the same {@link AttributeValue}
+     * and number text.
+     * <p>
+     * This caches the parsed value, so implementations which may be
+     * read from multiple threads must override it.
+     *
+     * @param attributeName the name of the attribute
+     * @param attributeValue the current value of the attribute
+     * @return the parsed number
+     */
+    protected ParsedNumber parsedNumber(String attributeName, AttributeValue attributeValue)
+    {
+        String text = attributeValue.getN();
+        if(parsedNumbers != null)
+        {
+            ParsedNumber parsedNumber = parsedNumbers.get(attributeName);
+            if(parsedNumber != null && parsedNumber.isParsedFrom(attributeValue))
+                return parsedNumber;
+        }
+        else
+        {
+            parsedNumbers = new HashMap<>(4);
+        }
+
+        ParsedNumber parsedNumber = new ParsedNumber(attributeValue);
+        parsedNumbers.put(attributeName, parsedNumber);
+        return parsedNumber;
+    }
+
+    /**
+     * A number parsed from an attribute, along with the
+     * {@link AttributeValue} and text it was parsed from.
+     */
+    static class ParsedNumber
+    {
+        private final AttributeValue source;
+        private final String text;
+        private final long value;
+        private Long boxedValue;
+
+        ParsedNumber(AttributeValue source)
+        {
+            this.source = source;
+            text = source.getN();
+            value = NumberCodec.parseLong(text);
+        }
+
+        boolean isParsedFrom(AttributeValue attributeValue)
+        {
+            return source == attributeValue && text == attributeValue.getN();
+        }
+
+        /**
+         * Boxes the value the first time it is needed, so that the primitive
+         * accessors never box. Threads which race here may each box the
+         * value, which is harmless since {@link Long} is immutable.
+         */
+        Long boxedValue()
+        {
+            Long boxed = boxedValue;
+            if(boxed == null)
+            {
+                boxed = value;
+                boxedValue = boxed;
+            }
+            return boxed;
+        }
+    }
+}
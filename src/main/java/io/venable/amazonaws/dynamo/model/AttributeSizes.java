@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the sizes of attributes the way DynamoDB measures them
+ * for item size limits and capacity units.
+ * <p>
+ * An attribute's size is the UTF-8 length of its name plus the size of
+ * its value. Strings count their UTF-8 length and binaries their length.
+ * Numbers count one byte for every two significant digits, plus one.
+ * Booleans and nulls count one byte. Sets count the sum of their
+ * elements. Lists and maps count three bytes, plus one byte and the
+ * size of each element, including the names of map entries.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+final class AttributeSizes
+{
+    private static final int CONTAINER_OVERHEAD = 3;
+    private static final int ELEMENT_OVERHEAD = 1;
+
+    private AttributeSizes()
+    {
+    }
+
+    /**
+     * Gets the size of all the attributes in an item.
+     */
+    static long sizeOf(Map<String, AttributeValue> item)
+    {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet())
+            size += sizeOf(entry.getKey(), entry.getValue());
+        return size;
+    }
+
+    /**
+     * Gets the size of an attribute, including its name.
+     */
+    static long sizeOf(String attributeName, AttributeValue attributeValue)
+    {
+        return utf8Length(attributeName) + sizeOf(attributeValue);
+    }
+
+    /**
+     * Gets the size of an attribute value.
+     */
+    static long sizeOf(AttributeValue attributeValue)
+    {
+        if(attributeValue == null)
+            return 0;
+
+        if(attributeValue.getS() != null)
+            return utf8Length(attributeValue.getS());
+        if(attributeValue.getN() != null)
+            return numberSize(attributeValue.getN());
+        if(attributeValue.getB() != null)
+            return attributeValue.getB().remaining();
+        if(attributeValue.getBOOL() != null || attributeValue.getNULL() != null)
+            return 1;
+
+        long size = 0;
+        if(attributeValue.getSS() != null)
+        {
+            for (String string : attributeValue.getSS())
+                size += utf8Length(string);
+        }
+        else if(attributeValue.getNS() != null)
+        {
+            for (String number : attributeValue.getNS())
+                size += numberSize(number);
+        }
+        else if(attributeValue.getBS() != null)
+        {
+            for (ByteBuffer binary : attributeValue.getBS())
+                size += binary.remaining();
+        }
+        else if(attributeValue.getL() != null)
+        {
+            List<AttributeValue> elements = attributeValue.getL();
+            size = CONTAINER_OVERHEAD + (long) ELEMENT_OVERHEAD * elements.size();
+            for (AttributeValue element : elements)
+                size += sizeOf(element);
+        }
+        else if(attributeValue.getM() != null)
+        {
+            Map<String, AttributeValue> entries = attributeValue.getM();
+            size = CONTAINER_OVERHEAD + (long) ELEMENT_OVERHEAD * entries.size() + sizeOf(entries);
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of bytes in the UTF-8 encoding of a
+     * string, without encoding it.
+     */
+    static long utf8Length(String string)
+    {
+        long length = 0;
+        for (int i = 0; i < string.length(); i++)
+        {
+            char character = string.charAt(i);
+            if(character < 0x80)
+            {
+                length++;
+            }
+            else if(character < 0x800)
+            {
+                length += 2;
+            }
+            else if(Character.isHighSurrogate(character) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1)))
+            {
+                length += 4;
+                i++;
+            }
+            else
+            {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Gets the size of a number from its significant digits,
+     * ignoring the sign, decimal point, exponent and any
+     * leading or trailing zeros.
+     */
+    static long numberSize(String number)
+    {
+        int end = number.length();
+        for (int i = 0; i < number.length(); i++)
+        {
+            char character = number.charAt(i);
+            if(character == 'e' || character == 'E')
+            {
+                end = i;
+                break;
+            }
+        }
+
+        int significantDigits = 0;
+        int trailingZeros = 0;
+        for (int i = 0; i < end; i++)
+        {
+            char character = number.charAt(i);
+            if(character < '0' || character > '9' || (character == '0' && significantDigits == 0))
+                continue;
+
+            significantDigits++;
+            trailingZeros = character == '0' ? trailingZeros + 1 : 0;
+        }
+        significantDigits -= trailingZeros;
+
+        return (significantDigits + 1) / 2 + 1;
+    }
+}
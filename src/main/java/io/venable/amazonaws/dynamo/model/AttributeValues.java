@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Internal utilities for working with {@link AttributeValue}.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class AttributeValues
+{
+    private AttributeValues()
+    { }
+
+    /**
+     * Copies an attribute value, including any lists and maps within it,
+     * so that changes to the original are not seen in the copy.
+     * <p>
+     * Binary values are not copied. The copy gets a read-only view
+     * sharing the content of the original buffer.
+     */
+    static AttributeValue copyOf(AttributeValue attributeValue)
+    {
+        if(attributeValue == null)
+            return null;
+
+        AttributeValue copy = new AttributeValue();
+        copy.setS(attributeValue.getS());
+        copy.setN(attributeValue.getN());
+        copy.setBOOL(attributeValue.getBOOL());
+        copy.setNULL(attributeValue.getNULL());
+        if(attributeValue.getB() != null)
+            copy.setB(attributeValue.getB().asReadOnlyBuffer());
+        if(attributeValue.getSS() != null)
+            copy.setSS(new ArrayList<>(attributeValue.getSS()));
+        if(attributeValue.getNS() != null)
+            copy.setNS(new ArrayList<>(attributeValue.getNS()));
+        if(attributeValue.getBS() != null)
+        {
+            List<ByteBuffer> binaries = new ArrayList<>(attributeValue.getBS().size());
+            for (ByteBuffer binary : attributeValue.getBS())
+                binaries.add(binary.asReadOnlyBuffer());
+            copy.setBS(binaries);
+        }
+        if(attributeValue.getL() != null)
+        {
+            List<AttributeValue> list = new ArrayList<>(attributeValue.getL().size());
+            for (AttributeValue element : attributeValue.getL())
+                list.add(copyOf(element));
+            copy.setL(list);
+        }
+        if(attributeValue.getM() != null)
+        {
+            Map<String, AttributeValue> map = new HashMap<>();
+            for (Map.Entry<String, AttributeValue> entry : attributeValue.getM().entrySet())
+                map.put(entry.getKey(), copyOf(entry.getValue()));
+            copy.setM(map);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Provides buffers for binary attribute values.
+ *
+ * @author David Venable
+ * @see DynamoItem#putBinary(String, ByteBuffer)
+ * @since 0.4
+ */
+public interface ByteBufferAllocator
+{
+    /**
+     * Gets a buffer with at least the requested capacity.
+     * <p>
+     * The buffer's position is zero and its limit is the
+     * requested capacity.
+     *
+     * @param capacity the number of bytes needed
+     * @return the buffer
+     * @since 0.4
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Returns a buffer which is no longer used, so that
+     * it can be allocated again.
+     * <p>
+     * A buffer must only be released once, and only after any
+     * items holding it are no longer used.
+     *
+     * @param buffer the buffer from {@link #allocate(int)}
+     * @since 0.4
+     */
+    void release(ByteBuffer buffer);
+}
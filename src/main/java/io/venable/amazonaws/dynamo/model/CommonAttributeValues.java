@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared instances of common attribute values, such as small integers,
+ * booleans and registered strings, which save allocating an
+ * {@link AttributeValue} for each attribute put.
+ * <p>
+ * The {@code put} methods of {@link DynamoItem} use these instances.
+ * The shared instances throw an {@link UnsupportedOperationException}
+ * if they are changed, so replace attribute values rather than
+ * changing them in place.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public final class CommonAttributeValues
+{
+    /**
+     * The smallest integer which has a shared instance.
+     */
+    public static final int MINIMUM_SHARED_INTEGER = -128;
+
+    /**
+     * The largest integer which has a shared instance.
+     */
+    public static final int MAXIMUM_SHARED_INTEGER = 1024;
+
+    /**
+     * The largest number of strings which can be registered.
+     */
+    public static final int MAXIMUM_REGISTERED_STRINGS = 10000;
+
+    private static final AttributeValue TRUE = ImmutableAttributeValue.ofBoolean(true);
+    private static final AttributeValue FALSE = ImmutableAttributeValue.ofBoolean(false);
+    private static final AttributeValue NULL = ImmutableAttributeValue.ofNull();
+    private static final AttributeValue[] INTEGERS = new AttributeValue[MAXIMUM_SHARED_INTEGER - MINIMUM_SHARED_INTEGER + 1];
+    private static final ConcurrentMap<String, AttributeValue> strings = new ConcurrentHashMap<>();
+
+    static
+    {
+        for (int i = 0; i < INTEGERS.length; i++)
+            INTEGERS[i] = ImmutableAttributeValue.ofNumber(Integer.toString(i + MINIMUM_SHARED_INTEGER));
+        registerString("");
+    }
+
+    private CommonAttributeValues()
+    { }
+
+    /**
+     * Registers a string which many items have, such as a status or
+     * the name of an enum constant, so that it has a shared instance.
+     *
+     * @param value the string to register
+     * @throws IllegalStateException if {@link #MAXIMUM_REGISTERED_STRINGS} strings are already registered
+     * @since 0.4
+     */
+    public static void registerString(String value)
+    {
+        if(strings.containsKey(value))
+            return;
+        if(strings.size() >= MAXIMUM_REGISTERED_STRINGS)
+            throw new IllegalStateException("No more than " + MAXIMUM_REGISTERED_STRINGS + " strings can be registered.");
+
+        strings.putIfAbsent(value, ImmutableAttributeValue.ofString(value));
+    }
+
+    /**
+     * Registers strings which many items have.
+     *
+     * @param values the strings to register
+     * @throws IllegalStateException if {@link #MAXIMUM_REGISTERED_STRINGS} strings are already registered
+     * @see #registerString(String)
+     * @since 0.4
+     */
+    public static void registerStrings(Collection<String> values)
+    {
+        for (String value : values)
+            registerString(value);
+    }
+
+    /**
+     * Gets an attribute value for a string, which is
+     * shared if the string is registered.
+     *
+     * @param value the string
+     * @return the attribute value
+     * @since 0.4
+     */
+    public static AttributeValue ofString(String value)
+    {
+        if(value != null)
+        {
+            AttributeValue attributeValue = strings.get(value);
+            if(attributeValue != null)
+                return attributeValue;
+        }
+        return new AttributeValue().withS(value);
+    }
+
+    /**
+     * Gets an attribute value for an integer, which is shared if the
+     * integer is from {@link #MINIMUM_SHARED_INTEGER} to {@link #MAXIMUM_SHARED_INTEGER}.
+     *
+     * @param value the integer
+     * @return the attribute value
+     * @since 0.4
+     */
+    public static AttributeValue ofLong(long value)
+    {
+        if(value >= MINIMUM_SHARED_INTEGER && value <= MAXIMUM_SHARED_INTEGER)
+            return INTEGERS[(int) value - MINIMUM_SHARED_INTEGER];
+        return new AttributeValue().withN(NumberCodec.formatLong(value));
+    }
+
+    /**
+     * Gets the shared attribute value for a boolean.
+     *
+     * @param value the boolean
+     * @return the attribute value
+     * @since 0.4
+     */
+    public static AttributeValue ofBoolean(boolean value)
+    {
+        return value ? TRUE : FALSE;
+    }
+
+    /**
+     * Gets the shared attribute value for null.
+     *
+     * @return the attribute value
+     * @since 0.4
+     */
+    public static AttributeValue ofNull()
+    {
+        return NULL;
+    }
+}
@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An internal implementation of {@link DynamoItem} for items
+ * with few attributes.
+ * <p>
+ * Attributes are stored in parallel key and value arrays using
+ * open addressing with linear probing. This avoids the entry
+ * objects and table of a {@link java.util.HashMap}, which make up
+ * most of the memory of a small item.
+ * <p>
+ * Attribute names may not be {@code null}.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class CompactDynamoItem extends AbstractDynamoItem
+{
+    private static final int MINIMUM_CAPACITY = 4;
+
+    private String[] keys;
+    private AttributeValue[] values;
+    private int size;
+    private int modCount;
+
+    public CompactDynamoItem()
+    {
+        this(0);
+    }
+
+    public CompactDynamoItem(int expectedSize)
+    {
+        int capacity = capacityFor(expectedSize);
+        keys = new String[capacity];
+        values = new AttributeValue[capacity];
+    }
+
+    /**
+     * Gets the smallest power-of-two capacity which holds the
+     * given number of attributes at no more than a three-quarters load.
+     * This always leaves at least one slot empty, which lookups rely on.
+     */
+    private static int capacityFor(int expectedSize)
+    {
+        int capacity = MINIMUM_CAPACITY;
+        while(expectedSize > capacity - capacity / 4)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        for (int i = 0; i < keys.length; i++)
+        {
+            if(keys[i] != null && Objects.equals(values[i], value))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public AttributeValue get(Object key)
+    {
+        int index = indexOf(key);
+        if(index < 0)
+            return null;
+        return values[index];
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value)
+    {
+        Objects.requireNonNull(key);
+        attributeChanged(key);
+
+        int index = indexOf(key);
+        if(index >= 0)
+        {
+            AttributeValue previousValue = values[index];
+            values[index] = value;
+            return previousValue;
+        }
+
+        if(size + 1 > keys.length - keys.length / 4)
+            resize(keys.length << 1);
+
+        insert(key, value);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public AttributeValue remove(Object key)
+    {
+        attributeChanged(key);
+
+        int index = indexOf(key);
+        if(index < 0)
+            return null;
+
+        AttributeValue previousValue = values[index];
+        removeAt(index);
+        return previousValue;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m)
+    {
+        int expectedSize = size + m.size();
+        if(expectedSize > keys.length - keys.length / 4)
+            resize(capacityFor(expectedSize));
+
+        for (Entry<? extends String, ? extends AttributeValue> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public void clear()
+    {
+        attributesCleared();
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return new AbstractSet<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                return new SlotIterator<String>()
+                {
+                    @Override
+                    String element(int index)
+                    {
+                        return keys[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o)
+            {
+                int index = indexOf(o);
+                if(index < 0)
+                    return false;
+
+                attributeChanged(o);
+                removeAt(index);
+                return true;
+            }
+
+            @Override
+            public void clear()
+            {
+                CompactDynamoItem.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<AttributeValue> values()
+    {
+        return new AbstractCollection<AttributeValue>()
+        {
+            @Override
+            public Iterator<AttributeValue> iterator()
+            {
+                return new SlotIterator<AttributeValue>()
+                {
+                    @Override
+                    AttributeValue element(int index)
+                    {
+                        return values[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return containsValue(o);
+            }
+
+            @Override
+            public void clear()
+            {
+                CompactDynamoItem.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet()
+    {
+        return new AbstractSet<Entry<String, AttributeValue>>()
+        {
+            @Override
+            public Iterator<Entry<String, AttributeValue>> iterator()
+            {
+                return new SlotIterator<Entry<String, AttributeValue>>()
+                {
+                    @Override
+                    Entry<String, AttributeValue> element(int index)
+                    {
+                        return new ItemEntry(keys[index], values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+
+            @Override
+            public void clear()
+            {
+                CompactDynamoItem.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return attributesEqual(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return attributesHashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return attributesToString();
+    }
+
+    private int slotFor(Object key)
+    {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private int nextSlot(int index)
+    {
+        return (index + 1) & (keys.length - 1);
+    }
+
+    private int indexOf(Object key)
+    {
+        if(key == null)
+            return -1;
+
+        for (int i = slotFor(key); keys[i] != null; i = nextSlot(i))
+        {
+            if(keys[i] == key || keys[i].equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    private void insert(String key, AttributeValue value)
+    {
+        int index = slotFor(key);
+        while(keys[index] != null)
+            index = nextSlot(index);
+
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    private void resize(int capacity)
+    {
+        String[] oldKeys = keys;
+        AttributeValue[] oldValues = values;
+
+        keys = new String[capacity];
+        values = new AttributeValue[capacity];
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if(oldKeys[i] != null)
+                insert(oldKeys[i], oldValues[i]);
+        }
+        modCount++;
+    }
+
+    /**
+     * Removes the attribute in a slot, then shifts back any following
+     * attributes in the same probe sequence so that lookups never stop
+     * early at the new empty slot.
+     */
+    private void removeAt(int index)
+    {
+        int mask = keys.length - 1;
+        int hole = index;
+        keys[hole] = null;
+        values[hole] = null;
+
+        for (int i = nextSlot(hole); keys[i] != null; i = nextSlot(i))
+        {
+            int idealSlot = slotFor(keys[i]);
+            if(((i - idealSlot) & mask) >= ((i - hole) & mask))
+            {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                keys[i] = null;
+                values[i] = null;
+                hole = i;
+            }
+        }
+
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Iterates the occupied slots, starting just after an empty slot.
+     * <p>
+     * Since removal only shifts attributes back toward the slot being
+     * removed, starting after an empty slot means that {@link #remove()}
+     * can only move attributes which have not yet been visited, and only
+     * into the slot just removed. That slot is visited again.
+     */
+    private abstract class SlotIterator<E> implements Iterator<E>
+    {
+        private final int start;
+        private int offset;
+        private int lastIndex = -1;
+        private int expectedModCount = modCount;
+
+        SlotIterator()
+        {
+            int emptySlot = 0;
+            while(keys[emptySlot] != null)
+                emptySlot++;
+            start = nextSlot(emptySlot);
+        }
+
+        abstract E element(int index);
+
+        @Override
+        public boolean hasNext()
+        {
+            advance();
+            return offset < keys.length;
+        }
+
+        @Override
+        public E next()
+        {
+            checkForComodification();
+            advance();
+            if(offset >= keys.length)
+                throw new NoSuchElementException();
+
+            lastIndex = (start + offset) & (keys.length - 1);
+            offset++;
+            return element(lastIndex);
+        }
+
+        @Override
+        public void remove()
+        {
+            if(lastIndex < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+
+            attributeChanged(keys[lastIndex]);
+            removeAt(lastIndex);
+            offset--;
+            lastIndex = -1;
+            expectedModCount = modCount;
+        }
+
+        private void advance()
+        {
+            while(offset < keys.length && keys[(start + offset) & (keys.length - 1)] == null)
+                offset++;
+        }
+
+        private void checkForComodification()
+        {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    private class ItemEntry implements Entry<String, AttributeValue>
+    {
+        private final String key;
+        private AttributeValue value;
+
+        private ItemEntry(String key, AttributeValue value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey()
+        {
+            return key;
+        }
+
+        @Override
+        public AttributeValue getValue()
+        {
+            return value;
+        }
+
+        @Override
+        public AttributeValue setValue(AttributeValue value)
+        {
+            this.value = value;
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(!(o instanceof Entry))
+                return false;
+
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            return key.equals(other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + "=" + value;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A policy for storing large string attributes compressed.
+ * <p>
+ * Once a policy is set on an item using {@link DynamoItem#setCompressionPolicy(CompressionPolicy)},
+ * {@link DynamoItem#putString(String, String)} stores strings whose UTF-8 encoding
+ * is at least the threshold as binary attributes, compressed with {@link Deflater}
+ * and prefixed with a header. The header holds an eight byte marker, the length
+ * of the string and a CRC-32 checksum of it. {@link DynamoItem#getString(String)}
+ * recognizes the marker and inflates these attributes again, whether or not the
+ * item has a policy. A binary value written by another client would have to begin
+ * with the same eight bytes to be mistaken for a compressed string, and would then
+ * fail the checksum rather than be read as a string. Strings which do not become
+ * smaller are stored as they are.
+ * <p>
+ * Other readers of the table see the compressed attributes as binary values.
+ * Policies are immutable, apart from their statistics, and may be shared
+ * between items and threads.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public final class CompressionPolicy
+{
+    private static final byte[] MARKER = { 0, 'D', 'D', 'Z', 'S', 'T', 'R', 2 };
+    private static final int HEADER_LENGTH = MARKER.length + 8;
+
+    /**
+     * The most that {@link Deflater} can compress data, which bounds
+     * the length a header can honestly claim for its compressed bytes.
+     */
+    private static final int MAXIMUM_RATIO = 1032;
+
+    private static final ThreadLocal<Inflater> INFLATERS = new ThreadLocal<Inflater>()
+    {
+        @Override
+        protected Inflater initialValue()
+        {
+            return new Inflater(true);
+        }
+    };
+
+    private final int threshold;
+    private final ThreadLocal<Deflater> deflaters;
+    private final CompressionStats stats = new CompressionStats();
+
+    /**
+     * Creates a policy which compresses strings of at least the given
+     * size, using {@link Deflater#DEFAULT_COMPRESSION}.
+     *
+     * @param threshold the size in bytes of the smallest strings to compress
+     */
+    public CompressionPolicy(int threshold)
+    {
+        this(threshold, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a policy which compresses strings of at least the given size.
+     *
+     * @param threshold the size in bytes of the smallest strings to compress
+     * @param level the {@link Deflater} compression level, from 0 to 9, or -1 for the default
+     */
+    public CompressionPolicy(int threshold, final int level)
+    {
+        if(threshold < 0)
+            throw new IllegalArgumentException("The threshold cannot be negative.");
+        if(level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("The compression level must be from -1 to 9.");
+
+        this.threshold = threshold;
+        this.deflaters = new ThreadLocal<Deflater>()
+        {
+            @Override
+            protected Deflater initialValue()
+            {
+                return new Deflater(level, true);
+            }
+        };
+    }
+
+    /**
+     * Gets the size of the smallest strings which are compressed.
+     *
+     * @return the threshold in bytes
+     * @since 0.4
+     */
+    public int getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Gets the statistics of the strings compressed and
+     * inflated by items using this policy.
+     *
+     * @return the statistics, which are updated as items are used
+     * @since 0.4
+     */
+    public CompressionStats getStats()
+    {
+        return stats;
+    }
+
+    /**
+     * Creates the attribute value for a string, which is
+     * compressed if it is large enough and becomes smaller.
+     */
+    AttributeValue toAttributeValue(String value)
+    {
+        if(value == null || (long) value.length() * 3 < threshold)
+            return CommonAttributeValues.ofString(value);
+
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        if(encoded.length < threshold)
+            return CommonAttributeValues.ofString(value);
+
+        long start = System.nanoTime();
+        byte[] compressed = compress(encoded);
+        long elapsed = System.nanoTime() - start;
+
+        if(compressed == null)
+        {
+            stats.recordIncompressible(elapsed);
+            return CommonAttributeValues.ofString(value);
+        }
+
+        stats.recordCompression(encoded.length, compressed.length, elapsed);
+        return new AttributeValue().withB(ByteBuffer.wrap(compressed));
+    }
+
+    /**
+     * Compresses into an array holding the marker, the original length, its
+     * checksum and the compressed bytes, or returns null if the result would
+     * not be smaller.
+     */
+    private byte[] compress(byte[] encoded)
+    {
+        if(encoded.length <= HEADER_LENGTH)
+            return null;
+
+        Deflater deflater = deflaters.get();
+        try
+        {
+            deflater.setInput(encoded);
+            deflater.finish();
+
+            byte[] compressed = new byte[encoded.length];
+            System.arraycopy(MARKER, 0, compressed, 0, MARKER.length);
+            writeInt(compressed, MARKER.length, encoded.length);
+            writeInt(compressed, MARKER.length + 4, checksum(encoded, encoded.length));
+
+            int length = HEADER_LENGTH;
+            while(!deflater.finished() && length < compressed.length)
+                length += deflater.deflate(compressed, length, compressed.length - length);
+
+            if(!deflater.finished())
+                return null;
+            return Arrays.copyOf(compressed, length);
+        }
+        finally
+        {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * Determines whether a binary value is a string compressed by a policy.
+     */
+    static boolean isCompressed(ByteBuffer value)
+    {
+        if(value.remaining() < HEADER_LENGTH)
+            return false;
+
+        int position = value.position();
+        for (int i = 0; i < MARKER.length; i++)
+        {
+            if(value.get(position + i) != MARKER[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Inflates a compressed string, recording the time taken
+     * in the statistics if they are given.
+     * <p>
+     * The length in the header is not trusted to allocate the string.
+     * It must be possible for the compressed bytes, and the buffer only
+     * grows as bytes are actually inflated.
+     *
+     * @throws MalformedItemException if the value cannot be inflated, or does not match its checksum
+     */
+    static String decompress(ByteBuffer value, CompressionStats stats)
+    {
+        long start = System.nanoTime();
+
+        ByteBuffer source = value.duplicate();
+        source.position(source.position() + MARKER.length);
+        int length = source.getInt();
+        int checksum = source.getInt();
+        byte[] compressed = new byte[source.remaining()];
+        source.get(compressed);
+        if(length < 0 || length > (long) compressed.length * MAXIMUM_RATIO)
+            throw new MalformedItemException("The compressed string cannot have a length of " + length + " bytes.");
+
+        byte[] encoded = new byte[(int) Math.min(length, compressed.length * 4L)];
+        int inflatedLength = 0;
+        Inflater inflater = INFLATERS.get();
+        try
+        {
+            inflater.setInput(compressed);
+            while(inflatedLength < length && !inflater.finished())
+            {
+                if(inflatedLength == encoded.length)
+                    encoded = Arrays.copyOf(encoded, (int) Math.min(length, encoded.length * 2L));
+
+                int count = inflater.inflate(encoded, inflatedLength, encoded.length - inflatedLength);
+                if(count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                inflatedLength += count;
+            }
+            if(inflatedLength != length)
+                throw new MalformedItemException("The compressed string is truncated.");
+        }
+        catch (DataFormatException ex)
+        {
+            throw new MalformedItemException("The compressed string is corrupt.", ex);
+        }
+        finally
+        {
+            inflater.reset();
+        }
+
+        if(checksum(encoded, length) != checksum)
+            throw new MalformedItemException("The compressed string does not match its checksum.");
+
+        String string = new String(encoded, 0, length, StandardCharsets.UTF_8);
+        if(stats != null)
+            stats.recordDecompression(System.nanoTime() - start);
+        return string;
+    }
+
+    private static int checksum(byte[] bytes, int length)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value)
+    {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
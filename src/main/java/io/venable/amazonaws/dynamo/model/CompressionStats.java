@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the strings compressed and inflated under a
+ * {@link CompressionPolicy}. The counters are updated as items
+ * are used, and may be read from any thread.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public final class CompressionStats
+{
+    private static final int WRITE_UNIT_BYTES = 1024;
+
+    private final AtomicLong compressedCount = new AtomicLong();
+    private final AtomicLong incompressibleCount = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong compressionNanos = new AtomicLong();
+    private final AtomicLong decompressedCount = new AtomicLong();
+    private final AtomicLong decompressionNanos = new AtomicLong();
+
+    CompressionStats()
+    { }
+
+    void recordCompression(int originalLength, int compressedLength, long nanos)
+    {
+        compressedCount.incrementAndGet();
+        uncompressedBytes.addAndGet(originalLength);
+        compressedBytes.addAndGet(compressedLength);
+        compressionNanos.addAndGet(nanos);
+    }
+
+    void recordIncompressible(long nanos)
+    {
+        incompressibleCount.incrementAndGet();
+        compressionNanos.addAndGet(nanos);
+    }
+
+    void recordDecompression(long nanos)
+    {
+        decompressedCount.incrementAndGet();
+        decompressionNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Gets the number of strings stored compressed.
+     *
+     * @return the number of strings compressed
+     * @since 0.4
+     */
+    public long getCompressedCount()
+    {
+        return compressedCount.get();
+    }
+
+    /**
+     * Gets the number of strings which were large enough to compress,
+     * but were stored as they were because they did not become smaller.
+     *
+     * @return the number of strings which could not be compressed
+     * @since 0.4
+     */
+    public long getIncompressibleCount()
+    {
+        return incompressibleCount.get();
+    }
+
+    /**
+     * Gets the total size of the strings stored compressed, before compression.
+     *
+     * @return the size in bytes
+     * @since 0.4
+     */
+    public long getUncompressedBytes()
+    {
+        return uncompressedBytes.get();
+    }
+
+    /**
+     * Gets the total size of the strings stored compressed, after compression.
+     *
+     * @return the size in bytes
+     * @since 0.4
+     */
+    public long getCompressedBytes()
+    {
+        return compressedBytes.get();
+    }
+
+    /**
+     * Gets the ratio of the compressed size to the uncompressed
+     * size of the strings stored compressed.
+     *
+     * @return the compression ratio, or 1 if nothing has been compressed
+     * @since 0.4
+     */
+    public double getCompressionRatio()
+    {
+        long uncompressed = uncompressedBytes.get();
+        if(uncompressed == 0)
+            return 1;
+        return (double) compressedBytes.get() / uncompressed;
+    }
+
+    /**
+     * Gets the number of bytes saved by compressing strings.
+     *
+     * @return the size in bytes
+     * @since 0.4
+     */
+    public long getBytesSaved()
+    {
+        return uncompressedBytes.get() - compressedBytes.get();
+    }
+
+    /**
+     * Estimates the write capacity units saved, were each
+     * compressed string written once.
+     *
+     * @return the estimated write units saved
+     * @since 0.4
+     */
+    public long getEstimatedWriteUnitsSaved()
+    {
+        return getBytesSaved() / WRITE_UNIT_BYTES;
+    }
+
+    /**
+     * Gets the total time spent compressing strings, including
+     * those which could not be compressed.
+     *
+     * @return the time in nanoseconds
+     * @since 0.4
+     */
+    public long getCompressionNanos()
+    {
+        return compressionNanos.get();
+    }
+
+    /**
+     * Gets the average time spent compressing a string.
+     *
+     * @return the time in nanoseconds, or 0 if nothing has been compressed
+     * @since 0.4
+     */
+    public long getAverageCompressionNanos()
+    {
+        long count = compressedCount.get() + incompressibleCount.get();
+        return count == 0 ? 0 : compressionNanos.get() / count;
+    }
+
+    /**
+     * Gets the number of strings inflated.
+     *
+     * @return the number of strings inflated
+     * @since 0.4
+     */
+    public long getDecompressedCount()
+    {
+        return decompressedCount.get();
+    }
+
+    /**
+     * Gets the total time spent inflating strings.
+     *
+     * @return the time in nanoseconds
+     * @since 0.4
+     */
+    public long getDecompressionNanos()
+    {
+        return decompressionNanos.get();
+    }
+
+    /**
+     * Gets the average time spent inflating a string.
+     *
+     * @return the time in nanoseconds, or 0 if nothing has been inflated
+     * @since 0.4
+     */
+    public long getAverageDecompressionNanos()
+    {
+        long count = decompressedCount.get();
+        return count == 0 ? 0 : decompressionNanos.get() / count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressionStats{" +
+                "compressedCount=" + getCompressedCount() +
+                ", incompressibleCount=" + getIncompressibleCount() +
+                ", compressionRatio=" + getCompressionRatio() +
+                ", bytesSaved=" + getBytesSaved() +
+                ", estimatedWriteUnitsSaved=" + getEstimatedWriteUnitsSaved() +
+                ", averageCompressionNanos=" + getAverageCompressionNanos() +
+                ", decompressedCount=" + getDecompressedCount() +
+                ", averageDecompressionNanos=" + getAverageDecompressionNanos() +
+                '}';
+    }
+}
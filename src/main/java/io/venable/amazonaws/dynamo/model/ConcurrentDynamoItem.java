@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An internal implementation of {@link DynamoItem} which many
+ * threads may read and modify at once, backed by a {@link ConcurrentHashMap}.
+ * <p>
+ * Attributes added to with {@link #addLong(String, long)} are kept
+ * as {@link StripedCounter}s rather than as attribute values, and are
+ * only turned into number attribute values when they are read. Putting
+ * or removing an attribute while other threads add to it has no defined
+ * order. The views of this item are weakly consistent, like those of
+ * {@link ConcurrentHashMap}. Like that map, this item does not permit
+ * {@code null} attribute names or values.
+ * <p>
+ * Parsed numbers and the size of the item are not cached, since
+ * they could not be kept consistent across threads.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class ConcurrentDynamoItem extends AbstractDynamoItem
+{
+    private final ConcurrentMap<String, AttributeValue> map = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StripedCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, AttributeValue> view = new AttributeView();
+
+    @Override
+    public void addLong(String attributeName, long delta)
+    {
+        StripedCounter counter = counters.get(attributeName);
+        if(counter != null)
+        {
+            counter.add(delta);
+            return;
+        }
+
+        AttributeValue attributeValue = map.get(attributeName);
+        long initialValue = attributeValue != null && attributeValue.getN() != null
+                ? NumberCodec.parseLong(attributeValue.getN())
+                : 0;
+
+        StripedCounter newCounter = new StripedCounter(initialValue + delta);
+        counter = counters.putIfAbsent(attributeName, newCounter);
+        if(counter != null)
+        {
+            counter.add(delta);
+            return;
+        }
+
+        if(attributeValue != null)
+            map.remove(attributeName, attributeValue);
+    }
+
+    @Override
+    protected ParsedNumber parsedNumber(String attributeName, AttributeValue attributeValue)
+    {
+        return new ParsedNumber(attributeValue);
+    }
+
+    /**
+     * Measures every attribute each time, since the size
+     * cannot be tracked consistently across threads.
+     */
+    @Override
+    public long sizeInBytes()
+    {
+        return AttributeSizes.sizeOf(this);
+    }
+
+    @Override
+    public int size()
+    {
+        return view.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return map.isEmpty() && counters.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return counters.containsKey(key) || map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        return view.containsValue(value);
+    }
+
+    @Override
+    public AttributeValue get(Object key)
+    {
+        StripedCounter counter = counters.get(key);
+        if(counter != null)
+            return CommonAttributeValues.ofLong(counter.sum());
+        return map.get(key);
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value)
+    {
+        StripedCounter counter = counters.remove(key);
+        AttributeValue previousValue = map.put(key, value);
+        return counter != null ? CommonAttributeValues.ofLong(counter.sum()) : previousValue;
+    }
+
+    @Override
+    public AttributeValue remove(Object key)
+    {
+        StripedCounter counter = counters.remove(key);
+        AttributeValue previousValue = map.remove(key);
+        return counter != null ? CommonAttributeValues.ofLong(counter.sum()) : previousValue;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m)
+    {
+        for (Map.Entry<? extends String, ? extends AttributeValue> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public void clear()
+    {
+        counters.clear();
+        map.clear();
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return view.keySet();
+    }
+
+    @Override
+    public Collection<AttributeValue> values()
+    {
+        return view.values();
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet()
+    {
+        return view.entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return attributesEqual(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return attributesHashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return attributesToString();
+    }
+
+    /**
+     * The attributes of the item, including the counters
+     * turned into attribute values. Changes write through to the item.
+     */
+    private class AttributeView extends AbstractMap<String, AttributeValue>
+    {
+        private final Set<Entry<String, AttributeValue>> entrySet = new AbstractSet<Entry<String, AttributeValue>>()
+        {
+            @Override
+            public Iterator<Entry<String, AttributeValue>> iterator()
+            {
+                return new AttributeIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                int size = map.size() + counters.size();
+                for (String attributeName : counters.keySet())
+                {
+                    if(map.containsKey(attributeName))
+                        size--;
+                }
+                return size;
+            }
+
+            @Override
+            public void clear()
+            {
+                ConcurrentDynamoItem.this.clear();
+            }
+        };
+
+        @Override
+        public Set<Entry<String, AttributeValue>> entrySet()
+        {
+            return entrySet;
+        }
+
+        @Override
+        public AttributeValue put(String key, AttributeValue value)
+        {
+            return ConcurrentDynamoItem.this.put(key, value);
+        }
+
+        @Override
+        public AttributeValue remove(Object key)
+        {
+            return ConcurrentDynamoItem.this.remove(key);
+        }
+    }
+
+    /**
+     * Iterates over the attribute values, skipping any shadowed by a
+     * counter, and then over the counters.
+     */
+    private class AttributeIterator implements Iterator<Entry<String, AttributeValue>>
+    {
+        private final Iterator<Entry<String, AttributeValue>> valueIterator = map.entrySet().iterator();
+        private final Iterator<Entry<String, StripedCounter>> counterIterator = counters.entrySet().iterator();
+        private Entry<String, AttributeValue> next;
+        private String lastKey;
+
+        @Override
+        public boolean hasNext()
+        {
+            while(next == null && valueIterator.hasNext())
+            {
+                Entry<String, AttributeValue> entry = valueIterator.next();
+                if(!counters.containsKey(entry.getKey()))
+                    next = new AttributeEntry(entry.getKey(), entry.getValue());
+            }
+            if(next == null && counterIterator.hasNext())
+            {
+                Entry<String, StripedCounter> entry = counterIterator.next();
+                next = new AttributeEntry(entry.getKey(), CommonAttributeValues.ofLong(entry.getValue().sum()));
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, AttributeValue> next()
+        {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            Entry<String, AttributeValue> entry = next;
+            next = null;
+            lastKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove()
+        {
+            if(lastKey == null)
+                throw new IllegalStateException();
+
+            ConcurrentDynamoItem.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    private class AttributeEntry extends AbstractMap.SimpleEntry<String, AttributeValue>
+    {
+        private static final long serialVersionUID = 1L;
+
+        AttributeEntry(String key, AttributeValue value)
+        {
+            super(key, value);
+        }
+
+        @Override
+        public AttributeValue setValue(AttributeValue value)
+        {
+            ConcurrentDynamoItem.this.put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An internal implementation of {@link DynamoItem} which reads from an
+ * immutable item until it is first modified, and only then copies it.
+ * <p>
+ * Getting any of the views of this item also copies it, so
+ * that the views can be modified.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class CopyOnWriteDynamoItem extends AbstractDynamoItem
+{
+    private final FrozenDynamoItem original;
+    private DynamoItem copy;
+
+    public CopyOnWriteDynamoItem(FrozenDynamoItem original)
+    {
+        this.original = original;
+    }
+
+    @Override
+    public DynamoItem freeze()
+    {
+        if(copy == null)
+            return original;
+        return super.freeze();
+    }
+
+    @Override
+    public int size()
+    {
+        return current().size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return current().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return current().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        return current().containsValue(value);
+    }
+
+    @Override
+    public AttributeValue get(Object key)
+    {
+        return current().get(key);
+    }
+
+    /**
+     * Measures the copy once there is one, which tracks
+     * changes made through its views as well.
+     */
+    @Override
+    public long sizeInBytes()
+    {
+        return current().sizeInBytes();
+    }
+
+    /**
+     * Copies the item, and the nested item, so that the
+     * returned view can be modified.
+     */
+    @Override
+    public DynamoItem getItem(String attributeName)
+    {
+        DynamoItem item = copy();
+        AttributeValue attributeValue = item.get(attributeName);
+        if(attributeValue != null && attributeValue == original.get(attributeName))
+            item.put(attributeName, AttributeValues.copyOf(attributeValue));
+
+        return item.getItem(attributeName);
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value)
+    {
+        attributeChanged(key);
+        return copy().put(key, value);
+    }
+
+    @Override
+    public AttributeValue remove(Object key)
+    {
+        attributeChanged(key);
+        return copy().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m)
+    {
+        for (String key : m.keySet())
+            attributeChanged(key);
+        copy().putAll(m);
+    }
+
+    @Override
+    public void clear()
+    {
+        attributesCleared();
+        copy = DynamoItemFactory.createItem(0);
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return copy().keySet();
+    }
+
+    @Override
+    public Collection<AttributeValue> values()
+    {
+        return copy().values();
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet()
+    {
+        return copy().entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(copy == null)
+            return original.equals(o);
+        return attributesEqual(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        if(copy == null)
+            return original.hashCode();
+        return attributesHashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return current().toString();
+    }
+
+    private DynamoItem current()
+    {
+        return copy != null ? copy : original;
+    }
+
+    private DynamoItem copy()
+    {
+        if(copy == null)
+        {
+            DynamoItem newCopy = DynamoItemFactory.createItem(original.size() + 1);
+            newCopy.putAll(original);
+            copy = newCopy;
+        }
+        return copy;
+    }
+}
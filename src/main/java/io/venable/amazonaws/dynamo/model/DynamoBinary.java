@@ -0,0 +1,609 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes items in a compact, versioned binary format, for caching
+ * items locally, spilling them to disk, or handing them to another service.
+ * <p>
+ * Lengths and counts are written as variable-length integers, and
+ * numbers are written in binary wherever that reproduces their exact
+ * text. Attribute names found in the codec's {@link ItemShape} are
+ * written as their position in the shape rather than as text, so
+ * items must be decoded with a codec for an identical shape. Other
+ * attribute names are written in full.
+ * <p>
+ * Codecs are immutable and may be shared between threads.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class DynamoBinary
+{
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int ITEM_MARKER = 0xD1;
+    private static final int BATCH_MARKER = 0xD2;
+
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_INTEGER = 2;
+    private static final int TYPE_DECIMAL = 3;
+    private static final int TYPE_NUMBER_TEXT = 4;
+    private static final int TYPE_BINARY = 5;
+    private static final int TYPE_TRUE = 6;
+    private static final int TYPE_FALSE = 7;
+    private static final int TYPE_NULL = 8;
+    private static final int TYPE_STRING_SET = 9;
+    private static final int TYPE_NUMBER_SET = 10;
+    private static final int TYPE_BINARY_SET = 11;
+    private static final int TYPE_LIST = 12;
+    private static final int TYPE_MAP = 13;
+
+    private final ItemShape shape;
+    private final int shapeHash;
+
+    /**
+     * Creates a codec which writes all attribute names in full.
+     */
+    public DynamoBinary()
+    {
+        this(new ItemShape(new ArrayList<String>()));
+    }
+
+    /**
+     * Creates a codec which writes the attribute names in a shape
+     * as their position in the shape.
+     *
+     * @param shape the attribute names to encode by position
+     */
+    public DynamoBinary(ItemShape shape)
+    {
+        this.shape = shape;
+        this.shapeHash = shape.getAttributeNames().hashCode();
+    }
+
+    /**
+     * Encodes an item.
+     *
+     * @param item the item to encode
+     * @return the encoded item
+     * @since 0.4
+     */
+    public byte[] encode(Map<String, AttributeValue> item)
+    {
+        Encoder encoder = new Encoder();
+        writeHeader(encoder, ITEM_MARKER);
+        writeItem(encoder, item);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a batch of items together.
+     *
+     * @param items the items to encode
+     * @return the encoded items
+     * @since 0.4
+     */
+    public byte[] encodeAll(Collection<? extends Map<String, AttributeValue>> items)
+    {
+        Encoder encoder = new Encoder();
+        writeHeader(encoder, BATCH_MARKER);
+        encoder.writeVarInt(items.size());
+        for (Map<String, AttributeValue> item : items)
+            writeItem(encoder, item);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes an item encoded by {@link #encode(Map)}.
+     *
+     * @param bytes the encoded item
+     * @return the item
+     * @throws MalformedItemException if the bytes are not an item encoded with the same shape
+     * @since 0.4
+     */
+    public DynamoItem decode(byte[] bytes)
+    {
+        Decoder decoder = new Decoder(bytes);
+        readHeader(decoder, ITEM_MARKER);
+        DynamoItem item = readItem(decoder, true);
+        decoder.expectEnd();
+        return item;
+    }
+
+    /**
+     * Decodes a batch of items encoded by {@link #encodeAll(Collection)}.
+     *
+     * @param bytes the encoded items
+     * @return the items, in the order they were encoded
+     * @throws MalformedItemException if the bytes are not items encoded with the same shape
+     * @since 0.4
+     */
+    public List<DynamoItem> decodeAll(byte[] bytes)
+    {
+        Decoder decoder = new Decoder(bytes);
+        readHeader(decoder, BATCH_MARKER);
+        int count = decoder.readLength();
+        List<DynamoItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            items.add(readItem(decoder, true));
+        decoder.expectEnd();
+        return items;
+    }
+
+    private void writeHeader(Encoder encoder, int marker)
+    {
+        encoder.writeByte(marker);
+        encoder.writeByte(FORMAT_VERSION);
+        encoder.writeInt(shapeHash);
+    }
+
+    private void readHeader(Decoder decoder, int expectedMarker)
+    {
+        int marker = decoder.readByte();
+        if(marker != expectedMarker)
+            throw new MalformedItemException(marker == ITEM_MARKER || marker == BATCH_MARKER
+                    ? "Expected " + (expectedMarker == ITEM_MARKER ? "an item" : "a batch of items") + "."
+                    : "The bytes are not an encoded item.");
+
+        int version = decoder.readByte();
+        if(version != FORMAT_VERSION)
+            throw new MalformedItemException("Unsupported format version " + version);
+
+        if(decoder.readInt() != shapeHash)
+            throw new MalformedItemException("The item was encoded with a different shape.");
+    }
+
+    private void writeItem(Encoder encoder, Map<String, AttributeValue> item)
+    {
+        int count = 0;
+        for (AttributeValue value : item.values())
+        {
+            if(value != null)
+                count++;
+        }
+
+        encoder.writeVarInt(count);
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet())
+        {
+            if(entry.getValue() == null)
+                continue;
+
+            int index = shape.indexOf(entry.getKey());
+            encoder.writeVarInt(index + 1);
+            if(index < 0)
+                encoder.writeString(entry.getKey());
+            writeValue(encoder, entry.getValue());
+        }
+    }
+
+    private DynamoItem readItem(Decoder decoder, boolean topLevel)
+    {
+        int count = decoder.readLength();
+        DynamoItem item = topLevel && shape.size() > 0 ? DynamoItemFactory.createItem(shape) : DynamoItemFactory.createItem(count);
+        for (int i = 0; i < count; i++)
+        {
+            String name = readName(decoder);
+            item.put(name, readValue(decoder));
+        }
+        return item;
+    }
+
+    private String readName(Decoder decoder)
+    {
+        int reference = decoder.readLength();
+        if(reference == 0)
+            return decoder.readString();
+        if(reference > shape.size())
+            throw new MalformedItemException("Unknown attribute name reference " + reference);
+        return shape.getAttributeNames().get(reference - 1);
+    }
+
+    private void writeValue(Encoder encoder, AttributeValue value)
+    {
+        if(value.getS() != null)
+        {
+            encoder.writeByte(TYPE_STRING);
+            encoder.writeString(value.getS());
+        }
+        else if(value.getN() != null)
+        {
+            writeNumber(encoder, value.getN());
+        }
+        else if(value.getB() != null)
+        {
+            encoder.writeByte(TYPE_BINARY);
+            encoder.writeBinary(value.getB());
+        }
+        else if(value.getBOOL() != null)
+        {
+            encoder.writeByte(value.getBOOL() ? TYPE_TRUE : TYPE_FALSE);
+        }
+        else if(value.getNULL() != null)
+        {
+            encoder.writeByte(TYPE_NULL);
+        }
+        else if(value.getSS() != null)
+        {
+            encoder.writeByte(TYPE_STRING_SET);
+            encoder.writeVarInt(value.getSS().size());
+            for (String string : value.getSS())
+                encoder.writeString(string);
+        }
+        else if(value.getNS() != null)
+        {
+            encoder.writeByte(TYPE_NUMBER_SET);
+            encoder.writeVarInt(value.getNS().size());
+            for (String number : value.getNS())
+                writeNumber(encoder, number);
+        }
+        else if(value.getBS() != null)
+        {
+            encoder.writeByte(TYPE_BINARY_SET);
+            encoder.writeVarInt(value.getBS().size());
+            for (ByteBuffer binary : value.getBS())
+                encoder.writeBinary(binary);
+        }
+        else if(value.getL() != null)
+        {
+            encoder.writeByte(TYPE_LIST);
+            encoder.writeVarInt(value.getL().size());
+            for (AttributeValue element : value.getL())
+                writeValue(encoder, element);
+        }
+        else if(value.getM() != null)
+        {
+            encoder.writeByte(TYPE_MAP);
+            writeItem(encoder, value.getM());
+        }
+        else
+        {
+            throw new IllegalArgumentException("The attribute value has no value.");
+        }
+    }
+
+    private AttributeValue readValue(Decoder decoder)
+    {
+        int type = decoder.readByte();
+        switch (type)
+        {
+            case TYPE_STRING:
+                return new AttributeValue().withS(decoder.readString());
+            case TYPE_INTEGER:
+            case TYPE_DECIMAL:
+            case TYPE_NUMBER_TEXT:
+                return new AttributeValue().withN(readNumber(decoder, type));
+            case TYPE_BINARY:
+                return new AttributeValue().withB(decoder.readBinary());
+            case TYPE_TRUE:
+                return new AttributeValue().withBOOL(true);
+            case TYPE_FALSE:
+                return new AttributeValue().withBOOL(false);
+            case TYPE_NULL:
+                return new AttributeValue().withNULL(true);
+            case TYPE_STRING_SET:
+            {
+                int count = decoder.readLength();
+                List<String> strings = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                    strings.add(decoder.readString());
+                return new AttributeValue().withSS(strings);
+            }
+            case TYPE_NUMBER_SET:
+            {
+                int count = decoder.readLength();
+                List<String> numbers = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                    numbers.add(readNumber(decoder, decoder.readByte()));
+                return new AttributeValue().withNS(numbers);
+            }
+            case TYPE_BINARY_SET:
+            {
+                int count = decoder.readLength();
+                List<ByteBuffer> binaries = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                    binaries.add(decoder.readBinary());
+                return new AttributeValue().withBS(binaries);
+            }
+            case TYPE_LIST:
+            {
+                int count = decoder.readLength();
+                List<AttributeValue> list = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                    list.add(readValue(decoder));
+                return new AttributeValue().withL(list);
+            }
+            case TYPE_MAP:
+                return new AttributeValue().withM(readItem(decoder, false));
+            default:
+                throw new MalformedItemException("Unknown attribute type " + type);
+        }
+    }
+
+    /**
+     * Writes a number in binary if that reproduces its text
+     * exactly, and as text otherwise.
+     */
+    private static void writeNumber(Encoder encoder, String text)
+    {
+        if(isCanonicalLong(text))
+        {
+            encoder.writeByte(TYPE_INTEGER);
+            encoder.writeVarLong(zigZag(Long.parseLong(text)));
+            return;
+        }
+
+        BigDecimal decimal = null;
+        try
+        {
+            decimal = new BigDecimal(text);
+        }
+        catch (NumberFormatException ex)
+        {
+            // Written as text, since it cannot be reproduced otherwise.
+        }
+
+        if(decimal != null && decimal.toString().equals(text))
+        {
+            encoder.writeByte(TYPE_DECIMAL);
+            encoder.writeVarLong(zigZag(decimal.scale()));
+            byte[] unscaled = decimal.unscaledValue().toByteArray();
+            encoder.writeVarInt(unscaled.length);
+            encoder.writeBytes(unscaled, 0, unscaled.length);
+        }
+        else
+        {
+            encoder.writeByte(TYPE_NUMBER_TEXT);
+            encoder.writeString(text);
+        }
+    }
+
+    private static String readNumber(Decoder decoder, int type)
+    {
+        switch (type)
+        {
+            case TYPE_INTEGER:
+                return Long.toString(unZigZag(decoder.readVarLong()));
+            case TYPE_DECIMAL:
+            {
+                int scale = (int) unZigZag(decoder.readVarLong());
+                byte[] unscaled = decoder.readBytes(decoder.readLength());
+                if(unscaled.length == 0)
+                    throw new MalformedItemException("The number has no digits.");
+                return new BigDecimal(new BigInteger(unscaled), scale).toString();
+            }
+            case TYPE_NUMBER_TEXT:
+                return decoder.readString();
+            default:
+                throw new MalformedItemException("Unknown number type " + type);
+        }
+    }
+
+    private static boolean isCanonicalLong(String text)
+    {
+        int length = text.length();
+        if(length == 0 || length > 20)
+            return false;
+
+        int firstDigit = text.charAt(0) == '-' ? 1 : 0;
+        if(length == firstDigit || (text.charAt(firstDigit) == '0' && length > 1))
+            return false;
+
+        for (int index = firstDigit; index < length; index++)
+        {
+            char character = text.charAt(index);
+            if(character < '0' || character > '9')
+                return false;
+        }
+
+        if(length - firstDigit < 19)
+            return true;
+
+        try
+        {
+            Long.parseLong(text);
+            return true;
+        }
+        catch (NumberFormatException ex)
+        {
+            return false;
+        }
+    }
+
+    private static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Appends to a growable array.
+     */
+    private static class Encoder
+    {
+        private byte[] bytes = new byte[256];
+        private int position;
+
+        void writeByte(int value)
+        {
+            ensureRemaining(1);
+            bytes[position++] = (byte) value;
+        }
+
+        void writeInt(int value)
+        {
+            ensureRemaining(4);
+            bytes[position++] = (byte) (value >>> 24);
+            bytes[position++] = (byte) (value >>> 16);
+            bytes[position++] = (byte) (value >>> 8);
+            bytes[position++] = (byte) value;
+        }
+
+        void writeVarInt(int value)
+        {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value)
+        {
+            ensureRemaining(10);
+            while((value & ~0x7FL) != 0)
+            {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] source, int offset, int length)
+        {
+            ensureRemaining(length);
+            System.arraycopy(source, offset, bytes, position, length);
+            position += length;
+        }
+
+        void writeString(String string)
+        {
+            byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(encoded.length);
+            writeBytes(encoded, 0, encoded.length);
+        }
+
+        void writeBinary(ByteBuffer binary)
+        {
+            int length = binary.remaining();
+            writeVarInt(length);
+            ensureRemaining(length);
+            binary.duplicate().get(bytes, position, length);
+            position += length;
+        }
+
+        byte[] toByteArray()
+        {
+            return Arrays.copyOf(bytes, position);
+        }
+
+        private void ensureRemaining(int length)
+        {
+            if(bytes.length - position < length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + length));
+        }
+    }
+
+    /**
+     * Reads from an array, failing on truncated input.
+     */
+    private static class Decoder
+    {
+        private final byte[] bytes;
+        private int position;
+
+        Decoder(byte[] bytes)
+        {
+            this.bytes = bytes;
+        }
+
+        int readByte()
+        {
+            require(1);
+            return bytes[position++] & 0xFF;
+        }
+
+        int readInt()
+        {
+            require(4);
+            int value = ((bytes[position] & 0xFF) << 24) | ((bytes[position + 1] & 0xFF) << 16)
+                    | ((bytes[position + 2] & 0xFF) << 8) | (bytes[position + 3] & 0xFF);
+            position += 4;
+            return value;
+        }
+
+        long readVarLong()
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if((b & 0x80) == 0)
+                    return value;
+            }
+            throw new MalformedItemException("The variable-length integer is too long.");
+        }
+
+        int readLength()
+        {
+            long length = readVarLong();
+            if(length > bytes.length - position)
+                throw new MalformedItemException("The encoded item is truncated.");
+            return (int) length;
+        }
+
+        byte[] readBytes(int length)
+        {
+            require(length);
+            byte[] result = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return result;
+        }
+
+        String readString()
+        {
+            int length = readLength();
+            require(length);
+            String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+
+        ByteBuffer readBinary()
+        {
+            return ByteBuffer.wrap(readBytes(readLength()));
+        }
+
+        void expectEnd()
+        {
+            if(position != bytes.length)
+                throw new MalformedItemException("Unexpected bytes after the item.");
+        }
+
+        private void require(int length)
+        {
+            if(length < 0 || bytes.length - position < length)
+                throw new MalformedItemException("The encoded item is truncated.");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a JavaBean which is stored as a DynamoDB item.
+ * <p>
+ * When the dynamic-dynamo-processor annotation processor is on the
+ * compiler's path, it generates an {@link ItemCodec} for each marked
+ * class, in the same package. The codec is named after the class, with
+ * {@code ItemCodec} appended and nested class names joined by
+ * underscores, as in {@code Outer_InnerItemCodec}. {@link ItemMapper}
+ * uses the generated codec when it is present, and otherwise maps the
+ * class at runtime.
+ *
+ * @author David Venable
+ * @see ItemMapper
+ * @since 0.4
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DynamoEntity
+{
+}
@@ -18,7 +18,12 @@ package io.venable.amazonaws.dynamo.model;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This interface represents an item in a DynamoDB database.
@@ -27,12 +32,23 @@ import java.util.Map;
  * SDK item. Using it helps avoid creating instances of
  * {@link com.amazonaws.services.dynamodbv2.model.AttributeValue}
  * and performing your own casts.
+ * <p>
+ * Strings, integers and booleans put into an item may share an
+ * {@link AttributeValue} instance with other items, as described
+ * in {@link CommonAttributeValues}. Such values cannot be changed in place.
  *
  * @author David Venable
  * @since 0.1
  */
 public interface DynamoItem extends Map<String, AttributeValue>
 {
+    /**
+     * The largest item DynamoDB stores, 400 KB.
+     *
+     * @since 0.4
+     */
+    long MAXIMUM_SIZE_IN_BYTES = 400 * 1024;
+
     /**
      * Gets a {@link java.lang.String} value for an attribute.
      *
@@ -51,6 +67,29 @@ public interface DynamoItem extends Map<String, AttributeValue>
      */
     void putString(String attributeName, String value);
 
+    /**
+     * Sets the policy for storing large strings compressed. Strings put
+     * afterwards using {@link #putString(String, String)} which are at least
+     * the policy's threshold are stored as compressed binary attributes.
+     * Strings which are already stored are not changed.
+     * <p>
+     * {@link #getString(String)} inflates compressed strings whether or not a
+     * policy is set. Copies made by {@link #freeze()} and {@link #mutableCopy()}
+     * do not have a policy.
+     *
+     * @param compressionPolicy the policy, or null to store strings as they are
+     * @since 0.4
+     */
+    void setCompressionPolicy(CompressionPolicy compressionPolicy);
+
+    /**
+     * Gets the policy for storing large strings compressed.
+     *
+     * @return the policy, or null if strings are stored as they are
+     * @since 0.4
+     */
+    CompressionPolicy getCompressionPolicy();
+
     /**
      * Gets a {@link java.lang.Long} value for an attribute.
      * <p>
@@ -75,6 +114,43 @@ public interface DynamoItem extends Map<String, AttributeValue>
      */
     void putLong(String attributeName, Long value);
 
+    /**
+     * Gets a primitive {@code long} value for an attribute.
+     * <p>
+     * Unlike {@link #getLong(String)}, this does not box the
+     * value and returns {@code defaultValue} if the attribute
+     * is not present or is not a number.
+     *
+     * @param attributeName the name of the attribute to get
+     * @param defaultValue the value to return if the attribute has no number
+     * @return the long value for the attribute
+     * @since 0.4
+     */
+    long getLong(String attributeName, long defaultValue);
+
+    /**
+     * Puts a primitive {@code long} value into an attribute.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param value the long value to set for the attribute
+     * @since 0.4
+     */
+    void putLong(String attributeName, long value);
+
+    /**
+     * Adds to the integer value of an attribute. An attribute
+     * which is not set, or is not a number, is treated as zero.
+     * <p>
+     * Items created by {@link DynamoItemFactory#createConcurrentItem()}
+     * add atomically, and may be added to from many threads at once.
+     *
+     * @param attributeName the name of the attribute to add to
+     * @param delta the amount to add
+     * @throws NumberFormatException if the attribute is a number which is not a {@code long}
+     * @since 0.4
+     */
+    void addLong(String attributeName, long delta);
+
     /**
      * Gets an {@link java.lang.Integer} value for an attribute.
      * <p>
@@ -98,4 +174,268 @@ public interface DynamoItem extends Map<String, AttributeValue>
      * @since 0.1
      */
     void putInteger(String attributeName, Integer value);
+
+    /**
+     * Gets a primitive {@code int} value for an attribute.
+     * <p>
+     * Unlike {@link #getInteger(String)}, this does not box the
+     * value and returns {@code defaultValue} if the attribute
+     * is not present or is not a number.
+     *
+     * @param attributeName the name of the attribute to get
+     * @param defaultValue the value to return if the attribute has no number
+     * @return the integer value for the attribute
+     * @since 0.4
+     */
+    int getInteger(String attributeName, int defaultValue);
+
+    /**
+     * Puts a primitive {@code int} value into an attribute.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param value the integer value to set for the attribute
+     * @since 0.4
+     */
+    void putInteger(String attributeName, int value);
+
+    /**
+     * Gets a primitive {@code double} value for an attribute.
+     *
+     * @param attributeName the name of the attribute to get
+     * @param defaultValue the value to return if the attribute has no number
+     * @return the double value for the attribute
+     * @since 0.4
+     */
+    double getDouble(String attributeName, double defaultValue);
+
+    /**
+     * Puts a primitive {@code double} value into an attribute.
+     * <p>
+     * DynamoDB cannot store infinite values or NaN.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param value the double value to set for the attribute
+     * @throws IllegalArgumentException if the value is infinite or NaN
+     * @since 0.4
+     */
+    void putDouble(String attributeName, double value);
+
+    /**
+     * Gets the exact number value for an attribute.
+     *
+     * @param attributeName the name of the attribute to get
+     * @return the number value for the attribute, or null if the attribute has no number
+     * @since 0.4
+     */
+    BigDecimal getDecimal(String attributeName);
+
+    /**
+     * Puts an exact number value into an attribute.
+     * <p>
+     * The number is stored the way DynamoDB normalizes it,
+     * without trailing zeros. DynamoDB can store up to 38
+     * significant digits.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param value the number value to set for the attribute
+     * @throws IllegalArgumentException if DynamoDB cannot store the value
+     * @since 0.4
+     */
+    void putDecimal(String attributeName, BigDecimal value);
+
+    /**
+     * Gets a primitive {@code boolean} value for an attribute.
+     *
+     * @param attributeName the name of the attribute to get
+     * @param defaultValue the value to return if the attribute has no boolean
+     * @return the boolean value for the attribute
+     * @since 0.4
+     */
+    boolean getBoolean(String attributeName, boolean defaultValue);
+
+    /**
+     * Puts a primitive {@code boolean} value into an attribute.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param value the boolean value to set for the attribute
+     * @since 0.4
+     */
+    void putBoolean(String attributeName, boolean value);
+
+    /**
+     * Gets a binary value for an attribute.
+     * <p>
+     * This returns a read-only view of the attribute's buffer,
+     * without copying its content.
+     *
+     * @param attributeName the name of the attribute to get
+     * @return the binary value for the attribute, or {@code null} if it has none
+     * @since 0.4
+     */
+    ByteBuffer getBinary(String attributeName);
+
+    /**
+     * Puts a binary value into an attribute.
+     * <p>
+     * The buffer is stored without being copied, so it may be a direct
+     * buffer or one taken from a pool such as {@link PooledByteBufferAllocator}.
+     * The bytes between its position and limit are the value. The buffer
+     * must not be modified or returned to a pool while the item uses it.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param value the binary value to set for the attribute
+     * @since 0.4
+     */
+    void putBinary(String attributeName, ByteBuffer value);
+
+    /**
+     * Gets a binary set value for an attribute.
+     * <p>
+     * This returns read-only views of the attribute's buffers,
+     * without copying their content.
+     *
+     * @param attributeName the name of the attribute to get
+     * @return the binary values for the attribute, or {@code null} if it has none
+     * @since 0.4
+     */
+    List<ByteBuffer> getBinarySet(String attributeName);
+
+    /**
+     * Puts a binary set value into an attribute.
+     * <p>
+     * As with {@link #putBinary(String, ByteBuffer)}, the
+     * buffers are stored without being copied.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param values the binary values to set for the attribute
+     * @since 0.4
+     */
+    void putBinarySet(String attributeName, Collection<ByteBuffer> values);
+
+    /**
+     * Gets the numbers of a number set attribute, without boxing them.
+     *
+     * @param attributeName the name of the attribute to get
+     * @return the numbers, or null if the attribute is not a number set
+     * @throws NumberFormatException if any number is not a whole {@code long} value
+     * @since 0.4
+     */
+    long[] getLongArray(String attributeName);
+
+    /**
+     * Puts numbers into a number set attribute.
+     * <p>
+     * DynamoDB requires the numbers in a set to be distinct.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param values the numbers to set for the attribute
+     * @throws IllegalArgumentException if there are no values
+     * @since 0.4
+     */
+    void putLongArray(String attributeName, long[] values);
+
+    /**
+     * Gets the strings of a string set attribute.
+     *
+     * @param attributeName the name of the attribute to get
+     * @return an unmodifiable set of the strings, or null if the attribute is not a string set
+     * @since 0.4
+     */
+    Set<String> getStringSet(String attributeName);
+
+    /**
+     * Puts strings into a string set attribute.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param values the strings to set for the attribute
+     * @throws IllegalArgumentException if there are no values
+     * @since 0.4
+     */
+    void putStringSet(String attributeName, Collection<String> values);
+
+    /**
+     * Gets a map attribute as an item.
+     * <p>
+     * The item is a view over the map held by the attribute. Nothing
+     * is copied, and changes to the item change the attribute.
+     *
+     * @param attributeName the name of the attribute to get
+     * @return a view of the nested item, or null if the attribute is not a map
+     * @since 0.4
+     */
+    DynamoItem getItem(String attributeName);
+
+    /**
+     * Puts an item into a map attribute.
+     * <p>
+     * The attribute holds the given map itself, not a copy of it.
+     *
+     * @param attributeName the name of the attribute to set
+     * @param item the nested item to set for the attribute
+     * @since 0.4
+     */
+    void putItem(String attributeName, Map<String, AttributeValue> item);
+
+    /**
+     * Estimates the size of this item the way DynamoDB measures it,
+     * from the lengths of the attribute names and the sizes of the values.
+     * <p>
+     * The size is kept up to date as attributes are put and removed,
+     * including through the views and through items returned by
+     * {@link #getItem(String)}. Items backed by a map which the caller
+     * still holds are measured each time instead. Changes made directly
+     * to {@link AttributeValue} instances after they are put into this
+     * item are not seen.
+     *
+     * @return the estimated size in bytes
+     * @see #MAXIMUM_SIZE_IN_BYTES
+     * @since 0.4
+     */
+    long sizeInBytes();
+
+    /**
+     * Estimates the write capacity units needed to write this item,
+     * at one unit for each 1 KB.
+     *
+     * @return the estimated write capacity units
+     * @since 0.4
+     */
+    int estimatedWriteUnits();
+
+    /**
+     * Estimates the read capacity units needed for a strongly
+     * consistent read of this item, at one unit for each 4 KB.
+     * Eventually consistent reads need half as many.
+     *
+     * @return the estimated read capacity units
+     * @since 0.4
+     */
+    int estimatedReadUnits();
+
+    /**
+     * Gets an immutable snapshot of this item.
+     * <p>
+     * The snapshot can be shared between threads without any locking.
+     * It is not affected by later changes to this item. Modifying the
+     * snapshot throws {@link UnsupportedOperationException}. Calling
+     * this on an item which is already immutable returns the same item.
+     *
+     * @return an immutable copy of this item
+     * @since 0.4
+     */
+    DynamoItem freeze();
+
+    /**
+     * Gets a modifiable copy of this item.
+     * <p>
+     * The copy of an immutable item shares its attributes until the
+     * copy is first modified. Replace attributes of the copy using
+     * the put methods rather than modifying the
+     * {@link com.amazonaws.services.dynamodbv2.model.AttributeValue}
+     * instances, since those may be shared.
+     *
+     * @return a modifiable copy of this item
+     * @since 0.4
+     */
+    DynamoItem mutableCopy();
 }
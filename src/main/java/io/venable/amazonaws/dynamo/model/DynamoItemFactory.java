@@ -17,8 +17,16 @@
 package io.venable.amazonaws.dynamo.model;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A factory class to create instances of {@link DynamoItem}.
@@ -28,6 +36,12 @@ import java.util.Map;
  */
 public class DynamoItemFactory
 {
+    private static final int COMPACT_ITEM_MAXIMUM_SIZE = 16;
+    private static final ConcurrentMap<String, ItemShape> shapesByTable = new ConcurrentHashMap<>();
+    private static final ItemPool itemPool = new ItemPool();
+    private static final ConcurrentMap<String, StringDeduplicator> deduplicatorsByTable = new ConcurrentHashMap<>();
+    private static volatile StringDeduplicator deduplicator;
+
     /**
      * Creates a new, empty {@link DynamoItem}.
      *
@@ -39,17 +53,322 @@ public class DynamoItemFactory
         return new StandardDynamoItem();
     }
 
+    /**
+     * Creates a new, empty {@link DynamoItem} sized for the number
+     * of attributes it is expected to hold.
+     * <p>
+     * Items expected to hold few attributes are backed by arrays
+     * rather than a {@link java.util.HashMap}, which uses considerably
+     * less memory. These items do not permit {@code null} attribute names.
+     *
+     * @param expectedSize the number of attributes the item is expected to hold
+     * @return An empty item
+     * @since 0.4
+     */
+    public static DynamoItem createItem(int expectedSize)
+    {
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("The expected size cannot be negative.");
+
+        if(expectedSize <= COMPACT_ITEM_MAXIMUM_SIZE)
+            return new CompactDynamoItem(expectedSize);
+
+        return new StandardDynamoItem(expectedSize * 4 / 3 + 1);
+    }
+
     /**
      * Creates a new instance of {@link DynamoItem}
      * populated from the Java AWS-SDK representation of a DynamoDB item. That is, from
      * a {@link java.util.Map} of {@link java.lang.String} to {@link com.amazonaws.services.dynamodbv2.model.AttributeValue}.
      *
+     * <p>
+     * If a deduplicator is set with {@link #setDeduplicator(StringDeduplicator)},
+     * the string values of the item are first replaced with shared instances.
+     *
      * @param item the AWS-SDK DynamoDB item
      * @return a new instance of a DynamoDB item
      * @since 0.1
      */
     public static DynamoItem createItem(Map<String, AttributeValue> item)
     {
+        StringDeduplicator currentDeduplicator = deduplicator;
+        if(currentDeduplicator != null)
+            currentDeduplicator.deduplicate(item);
         return new StandardDynamoItem(item);
     }
+
+    /**
+     * Sets the deduplicator applied to items created by {@link #createItem(Map)}.
+     *
+     * @param deduplicator the deduplicator, or null to leave items as they are
+     * @since 0.4
+     */
+    public static void setDeduplicator(StringDeduplicator deduplicator)
+    {
+        DynamoItemFactory.deduplicator = deduplicator;
+    }
+
+    /**
+     * Sets the deduplicator applied to items created for a table
+     * by {@link #createItem(String, Map)}.
+     *
+     * @param tableName the name of the table
+     * @param deduplicator the deduplicator, or null to leave items as they are
+     * @since 0.4
+     */
+    public static void setDeduplicator(String tableName, StringDeduplicator deduplicator)
+    {
+        if(deduplicator == null)
+            deduplicatorsByTable.remove(tableName);
+        else
+            deduplicatorsByTable.put(tableName, deduplicator);
+    }
+
+    /**
+     * Creates a new, empty {@link DynamoItem} which many threads may
+     * read and modify at once, such as to combine partial results.
+     * <p>
+     * {@link DynamoItem#addLong(String, long)} adds to the item atomically,
+     * and spreads the additions of different threads across separate
+     * counters, which are only summed when the attribute is read.
+     * The item does not permit {@code null} attribute names or values.
+     *
+     * @return An empty item
+     * @since 0.4
+     */
+    public static DynamoItem createConcurrentItem()
+    {
+        return new ConcurrentDynamoItem();
+    }
+
+    /**
+     * Creates a {@link DynamoItem} which records the attributes set
+     * or removed after it is created, so that only those changes
+     * need to be written.
+     * <p>
+     * Like {@link #createItem(Map)}, the item is backed by the given map.
+     * Replace attribute values rather than modifying {@link AttributeValue}
+     * instances in place, since those changes cannot be seen.
+     *
+     * @param item the AWS-SDK DynamoDB item, as loaded from DynamoDB
+     * @return an item backed by the given map
+     * @see ItemUpdates#createUpdateItemRequest(String, Map, DynamoItem)
+     * @since 0.4
+     */
+    public static DynamoItem createTrackedItem(Map<String, AttributeValue> item)
+    {
+        return new TrackedDynamoItem(item);
+    }
+
+    /**
+     * Borrows an empty item from the pool of the current thread,
+     * creating one if the pool is empty.
+     * <p>
+     * This avoids creating an item for each of many short-lived items,
+     * such as those read by a scan. Release the item with
+     * {@link ReusableDynamoItem#release()} once it is no longer used,
+     * and keep no references to it or to its views.
+     *
+     * @return An empty item
+     * @since 0.4
+     */
+    public static ReusableDynamoItem borrowItem()
+    {
+        return itemPool.borrow();
+    }
+
+    /**
+     * Enables or disables detecting when pooled items are used
+     * after they are released.
+     * <p>
+     * When enabled, each item borrowed is a new instance over pooled
+     * storage. Using it after it is released always throws an
+     * {@link IllegalStateException} whose cause shows where it was released.
+     * When disabled, the item instances themselves are reused, so an
+     * item is only detected as released until it is borrowed again.
+     *
+     * @param debugEnabled true to detect using items after they are released
+     * @since 0.4
+     */
+    public static void setPoolDebugEnabled(boolean debugEnabled)
+    {
+        itemPool.setDebugEnabled(debugEnabled);
+    }
+
+    /**
+     * Creates an immutable {@link DynamoItem} from a copy of
+     * the Java AWS-SDK representation of a DynamoDB item.
+     *
+     * @param item the AWS-SDK DynamoDB item
+     * @return an immutable copy of the item
+     * @see DynamoItem#freeze()
+     * @since 0.4
+     */
+    public static DynamoItem immutableCopy(Map<String, AttributeValue> item)
+    {
+        if(item instanceof FrozenDynamoItem)
+            return (DynamoItem) item;
+        return new FrozenDynamoItem(item);
+    }
+
+    /**
+     * Creates a new, empty {@link DynamoItem} laid out by
+     * the given {@link ItemShape}.
+     *
+     * @param shape the shape of the item
+     * @return An empty item
+     * @since 0.4
+     */
+    public static DynamoItem createItem(ItemShape shape)
+    {
+        return new ShapedDynamoItem(shape);
+    }
+
+    /**
+     * Creates a new instance of {@link DynamoItem} populated from
+     * the Java AWS-SDK representation of an item from the given table.
+     * <p>
+     * Unlike {@link #createItem(java.util.Map)}, this copies the
+     * attributes into an item laid out by the shape of the table.
+     * The first item created for a table defines its shape, unless
+     * one was set using {@link #defineShape(String, java.util.Collection)}.
+     * Attributes which are not part of the shape are still stored,
+     * though less compactly.
+     * <p>
+     * If a deduplicator is set for the table with {@link #setDeduplicator(String, StringDeduplicator)},
+     * the string values are replaced with shared instances as they are copied.
+     * The given map is not changed.
+     *
+     * @param tableName the name of the table the item belongs to
+     * @param item the AWS-SDK DynamoDB item
+     * @return a new instance of a DynamoDB item
+     * @since 0.4
+     */
+    public static DynamoItem createItem(String tableName, Map<String, AttributeValue> item)
+    {
+        ItemShape shape = shapesByTable.get(tableName);
+        if(shape == null)
+            shape = internShape(tableName, new ItemShape(item.keySet()));
+
+        ShapedDynamoItem shapedItem = new ShapedDynamoItem(shape);
+        StringDeduplicator tableDeduplicator = deduplicatorsByTable.get(tableName);
+        if(tableDeduplicator == null)
+        {
+            shapedItem.putAll(item);
+            return shapedItem;
+        }
+
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet())
+            shapedItem.put(entry.getKey(), tableDeduplicator.deduplicate(entry.getKey(), entry.getValue()));
+        return shapedItem;
+    }
+
+    /**
+     * Sets the shape used for items created for a table.
+     * <p>
+     * Items which were already created keep their existing shape.
+     *
+     * @param tableName the name of the table
+     * @param attributeNames the attribute names which items in the table usually have
+     * @return the new shape of the table
+     * @since 0.4
+     */
+    public static ItemShape defineShape(String tableName, Collection<String> attributeNames)
+    {
+        ItemShape shape = new ItemShape(attributeNames);
+        shapesByTable.put(tableName, shape);
+        return shape;
+    }
+
+    /**
+     * Gets the shape used for items created for a table.
+     *
+     * @param tableName the name of the table
+     * @return the shape of the table, or {@code null} if it does not have one yet
+     * @since 0.4
+     */
+    public static ItemShape getShape(String tableName)
+    {
+        return shapesByTable.get(tableName);
+    }
+
+    /**
+     * Creates a new instance of {@link DynamoItem} from the DynamoDB JSON
+     * of a single item, such as <code>{"Id":{"S":"abc"}}</code>.
+     * <p>
+     * The item keeps the JSON and only decodes the attributes which are
+     * read from it. This saves considerable work when only a few attributes
+     * of a wide item are used. The array must not be modified afterwards.
+     *
+     * @param json the UTF-8 encoded DynamoDB JSON of the item
+     * @return a new instance of a DynamoDB item
+     * @since 0.4
+     */
+    public static DynamoItem createLazyItem(byte[] json)
+    {
+        return new LazyDynamoItem(json);
+    }
+
+    /**
+     * Creates lazily decoded instances of {@link DynamoItem} for the items in
+     * the JSON payload of a DynamoDB response. This reads the <code>Item</code>
+     * of a GetItem response or the <code>Items</code> of a Query or Scan response.
+     * <p>
+     * Each item keeps a reference to the payload and only decodes the
+     * attributes which are read from it. The array must not be modified
+     * afterwards.
+     *
+     * @param responsePayload the UTF-8 encoded JSON payload of a DynamoDB response
+     * @return the items in the response, which may be empty
+     * @throws MalformedItemException if the payload is not valid JSON
+     * @see #createLazyItem(byte[])
+     * @since 0.4
+     */
+    public static List<DynamoItem> createLazyItems(byte[] responsePayload)
+    {
+        List<DynamoItem> items = new ArrayList<>();
+        try(JsonParser parser = DynamoJson.JSON_FACTORY.createParser(responsePayload))
+        {
+            parser.nextToken();
+            DynamoJson.expect(parser, JsonToken.START_OBJECT);
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if("Item".equals(fieldName) && token == JsonToken.START_OBJECT)
+                {
+                    items.add(createLazyItem(parser, responsePayload));
+                }
+                else if("Items".equals(fieldName) && token == JsonToken.START_ARRAY)
+                {
+                    while(parser.nextToken() == JsonToken.START_OBJECT)
+                        items.add(createLazyItem(parser, responsePayload));
+                    DynamoJson.expect(parser, JsonToken.END_ARRAY);
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new MalformedItemException("The response is not valid JSON.", ex);
+        }
+        return items;
+    }
+
+    private static DynamoItem createLazyItem(JsonParser parser, byte[] responsePayload) throws IOException
+    {
+        int start = (int) parser.getCurrentLocation().getByteOffset() - 1;
+        parser.skipChildren();
+        int end = (int) parser.getCurrentLocation().getByteOffset();
+        return new LazyDynamoItem(responsePayload, start, end - start);
+    }
+
+    private static ItemShape internShape(String tableName, ItemShape shape)
+    {
+        ItemShape existingShape = shapesByTable.putIfAbsent(tableName, shape);
+        return existingShape != null ? existingShape : shape;
+    }
 }
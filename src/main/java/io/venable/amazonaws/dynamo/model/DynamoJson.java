@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Internal support for reading and writing items in the DynamoDB JSON format,
+ * where each attribute value is an object keyed by its type.
+ * For example, <code>{"Id":{"S":"abc"},"Count":{"N":"5"}}</code>.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class DynamoJson
+{
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private DynamoJson()
+    { }
+
+    /**
+     * Reads an attribute value. The parser must be positioned
+     * on the {@link JsonToken#START_OBJECT} of the value, and
+     * is left on its {@link JsonToken#END_OBJECT}.
+     */
+    static AttributeValue readAttributeValue(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_OBJECT);
+
+        AttributeValue attributeValue = new AttributeValue();
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String type = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (type)
+            {
+                case "S":
+                    attributeValue.setS(parser.getText());
+                    break;
+                case "N":
+                    attributeValue.setN(parser.getText());
+                    break;
+                case "B":
+                    attributeValue.setB(ByteBuffer.wrap(parser.getBinaryValue()));
+                    break;
+                case "BOOL":
+                    attributeValue.setBOOL(token == JsonToken.VALUE_TRUE);
+                    break;
+                case "NULL":
+                    attributeValue.setNULL(token == JsonToken.VALUE_TRUE);
+                    break;
+                case "SS":
+                    attributeValue.setSS(readStrings(parser));
+                    break;
+                case "NS":
+                    attributeValue.setNS(readStrings(parser));
+                    break;
+                case "BS":
+                    attributeValue.setBS(readBinaries(parser));
+                    break;
+                case "L":
+                    attributeValue.setL(readList(parser));
+                    break;
+                case "M":
+                    attributeValue.setM(readItem(parser));
+                    break;
+                default:
+                    throw new MalformedItemException("Unknown attribute type " + type);
+            }
+        }
+        expect(parser, JsonToken.END_OBJECT);
+        return attributeValue;
+    }
+
+    /**
+     * Reads an item, or the value of an M attribute. The parser must be
+     * positioned on its {@link JsonToken#START_OBJECT}, and is left
+     * on its {@link JsonToken#END_OBJECT}.
+     */
+    static Map<String, AttributeValue> readItem(JsonParser parser) throws IOException
+    {
+        return readItem(parser, new HashMap<String, AttributeValue>());
+    }
+
+    /**
+     * Reads the attributes of an item into a map. The parser must be
+     * positioned on its {@link JsonToken#START_OBJECT}, and is left
+     * on its {@link JsonToken#END_OBJECT}.
+     */
+    static <M extends Map<String, AttributeValue>> M readItem(JsonParser parser, M item) throws IOException
+    {
+        expect(parser, JsonToken.START_OBJECT);
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String attributeName = parser.getCurrentName();
+            parser.nextToken();
+            item.put(attributeName, readAttributeValue(parser));
+        }
+        expect(parser, JsonToken.END_OBJECT);
+        return item;
+    }
+
+    /**
+     * Writes an item, or the value of an M attribute, as an object.
+     */
+    static void writeItem(JsonGenerator generator, Map<String, AttributeValue> item) throws IOException
+    {
+        generator.writeStartObject();
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet())
+        {
+            if(entry.getValue() == null)
+                continue;
+
+            generator.writeFieldName(entry.getKey());
+            writeAttributeValue(generator, entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes an attribute value as an object keyed by its type.
+     */
+    static void writeAttributeValue(JsonGenerator generator, AttributeValue attributeValue) throws IOException
+    {
+        generator.writeStartObject();
+        if(attributeValue.getS() != null)
+        {
+            generator.writeStringField("S", attributeValue.getS());
+        }
+        else if(attributeValue.getN() != null)
+        {
+            generator.writeStringField("N", attributeValue.getN());
+        }
+        else if(attributeValue.getB() != null)
+        {
+            generator.writeFieldName("B");
+            writeBinary(generator, attributeValue.getB());
+        }
+        else if(attributeValue.getBOOL() != null)
+        {
+            generator.writeBooleanField("BOOL", attributeValue.getBOOL());
+        }
+        else if(attributeValue.getNULL() != null)
+        {
+            generator.writeBooleanField("NULL", attributeValue.getNULL());
+        }
+        else if(attributeValue.getSS() != null)
+        {
+            writeStrings(generator, "SS", attributeValue.getSS());
+        }
+        else if(attributeValue.getNS() != null)
+        {
+            writeStrings(generator, "NS", attributeValue.getNS());
+        }
+        else if(attributeValue.getBS() != null)
+        {
+            generator.writeArrayFieldStart("BS");
+            for (ByteBuffer binary : attributeValue.getBS())
+                writeBinary(generator, binary);
+            generator.writeEndArray();
+        }
+        else if(attributeValue.getL() != null)
+        {
+            generator.writeArrayFieldStart("L");
+            for (AttributeValue element : attributeValue.getL())
+                writeAttributeValue(generator, element);
+            generator.writeEndArray();
+        }
+        else if(attributeValue.getM() != null)
+        {
+            generator.writeFieldName("M");
+            writeItem(generator, attributeValue.getM());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator generator, String type, List<String> strings) throws IOException
+    {
+        generator.writeArrayFieldStart(type);
+        for (String string : strings)
+            generator.writeString(string);
+        generator.writeEndArray();
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer as Base64 without
+     * moving its position. Buffers without an accessible array,
+     * such as direct buffers, are streamed rather than copied.
+     */
+    private static void writeBinary(JsonGenerator generator, ByteBuffer binary) throws IOException
+    {
+        if(binary.hasArray())
+            generator.writeBinary(binary.array(), binary.arrayOffset() + binary.position(), binary.remaining());
+        else
+            generator.writeBinary(new ByteBufferInputStream(binary.duplicate()), binary.remaining());
+    }
+
+    static void expect(JsonParser parser, JsonToken expectedToken)
+    {
+        if(parser.getCurrentToken() != expectedToken)
+            throw new MalformedItemException("Expected " + expectedToken + " but found " + parser.getCurrentToken());
+    }
+
+    private static List<String> readStrings(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_ARRAY);
+
+        List<String> strings = new ArrayList<>();
+        while(parser.nextToken() != JsonToken.END_ARRAY)
+            strings.add(parser.getText());
+        return strings;
+    }
+
+    private static List<ByteBuffer> readBinaries(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_ARRAY);
+
+        List<ByteBuffer> binaries = new ArrayList<>();
+        while(parser.nextToken() != JsonToken.END_ARRAY)
+            binaries.add(ByteBuffer.wrap(parser.getBinaryValue()));
+        return binaries;
+    }
+
+    private static List<AttributeValue> readList(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_ARRAY);
+
+        List<AttributeValue> list = new ArrayList<>();
+        while(parser.nextToken() != JsonToken.END_ARRAY)
+            list.add(readAttributeValue(parser));
+        return list;
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer.
+     */
+    static class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length)
+        {
+            if(length == 0)
+                return 0;
+            if(!buffer.hasRemaining())
+                return -1;
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available()
+        {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads items from DynamoDB JSON, streaming each attribute straight
+ * into an item without building an intermediate tree.
+ * <p>
+ * The input is a sequence of items separated by whitespace, such as
+ * the output of {@link DynamoJsonWriter}. Readers are not thread-safe.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class DynamoJsonReader implements Closeable
+{
+    private final JsonParser parser;
+
+    /**
+     * Creates a reader for a stream. Closing the reader closes the stream.
+     *
+     * @param inputStream the stream to read from
+     * @throws IOException if the stream cannot be read
+     */
+    public DynamoJsonReader(InputStream inputStream) throws IOException
+    {
+        parser = DynamoJson.JSON_FACTORY.createParser(inputStream);
+    }
+
+    /**
+     * Creates a reader for an array. The array is not copied,
+     * and must not be modified while it is read.
+     *
+     * @param json the UTF-8 encoded DynamoDB JSON to read
+     * @throws IOException if the array cannot be read
+     */
+    public DynamoJsonReader(byte[] json) throws IOException
+    {
+        parser = DynamoJson.JSON_FACTORY.createParser(json);
+    }
+
+    /**
+     * Creates a reader for the remaining bytes of a buffer. The
+     * buffer's position is not changed, and its bytes are not copied.
+     *
+     * @param buffer the buffer to read from
+     * @throws IOException if the buffer cannot be read
+     */
+    public DynamoJsonReader(ByteBuffer buffer) throws IOException
+    {
+        if(buffer.hasArray())
+            parser = DynamoJson.JSON_FACTORY.createParser(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        else
+            parser = DynamoJson.JSON_FACTORY.createParser(new DynamoJson.ByteBufferInputStream(buffer.duplicate()));
+    }
+
+    /**
+     * Reads the next item.
+     *
+     * @return the item, or null if there are no more items
+     * @throws IOException if the input cannot be read
+     * @throws MalformedItemException if the input is not valid DynamoDB JSON
+     * @since 0.4
+     */
+    public DynamoItem readItem() throws IOException
+    {
+        JsonToken token = parser.nextToken();
+        if(token == null)
+            return null;
+
+        return DynamoJson.readItem(parser, DynamoItemFactory.createItem());
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        parser.close();
+    }
+}
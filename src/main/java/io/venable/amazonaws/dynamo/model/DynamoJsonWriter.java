@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Writes items as DynamoDB JSON, streaming each attribute straight
+ * to the output without building an intermediate tree.
+ * <p>
+ * A writer writes a sequence of items to one stream, one item per
+ * line, which {@link DynamoJsonReader} reads back. Writers are not
+ * thread-safe.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class DynamoJsonWriter implements Closeable, Flushable
+{
+    private static final SerializedString LINE_SEPARATOR = new SerializedString("\n");
+
+    private final JsonGenerator generator;
+
+    /**
+     * Creates a writer for a stream. Closing the writer closes the stream.
+     *
+     * @param outputStream the stream to write to
+     * @throws IOException if the stream cannot be written to
+     */
+    public DynamoJsonWriter(OutputStream outputStream) throws IOException
+    {
+        generator = DynamoJson.JSON_FACTORY.createGenerator(outputStream);
+        generator.setRootValueSeparator(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes an item.
+     *
+     * @param item the item to write
+     * @throws IOException if the stream cannot be written to
+     * @since 0.4
+     */
+    public void writeItem(Map<String, AttributeValue> item) throws IOException
+    {
+        DynamoJson.writeItem(generator, item);
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        generator.close();
+    }
+
+    /**
+     * Writes one item into a buffer, which may be reused from item to item.
+     * <p>
+     * The buffer is cleared, and then filled from its start. If it is
+     * too small, a larger buffer of the same kind is allocated in its
+     * place, and should be passed to the next call.
+     *
+     * @param item the item to write
+     * @param buffer the buffer to write into, or null to allocate one
+     * @return the buffer holding the item, ready to be read
+     * @since 0.4
+     */
+    public static ByteBuffer writeItem(Map<String, AttributeValue> item, ByteBuffer buffer)
+    {
+        ByteBufferOutputStream outputStream = new ByteBufferOutputStream(buffer != null ? buffer : ByteBuffer.allocate(1024));
+        try(JsonGenerator itemGenerator = DynamoJson.JSON_FACTORY.createGenerator(outputStream))
+        {
+            DynamoJson.writeItem(itemGenerator, item);
+        }
+        catch (IOException ex)
+        {
+            throw new IllegalStateException("Writing to a buffer failed.", ex);
+        }
+
+        ByteBuffer result = outputStream.buffer;
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Writes into a buffer, replacing it with a larger
+     * one whenever it fills.
+     */
+    private static class ByteBufferOutputStream extends OutputStream
+    {
+        private ByteBuffer buffer;
+
+        ByteBufferOutputStream(ByteBuffer buffer)
+        {
+            buffer.clear();
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b)
+        {
+            ensureRemaining(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+        {
+            ensureRemaining(length);
+            buffer.put(bytes, offset, length);
+        }
+
+        private void ensureRemaining(int length)
+        {
+            if(buffer.remaining() >= length)
+                return;
+
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + length);
+            ByteBuffer largerBuffer = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+            buffer.flip();
+            largerBuffer.put(buffer);
+            buffer = largerBuffer;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An internal, immutable implementation of {@link DynamoItem}.
+ * <p>
+ * The attributes are copied when the item is created, so later changes
+ * to the original item are not seen. Numbers and the hash code are
+ * computed up front, so reads never modify any state and the item can
+ * be shared between threads without locking. The values are copied into
+ * {@link ImmutableAttributeValue} instances, so changing a value returned
+ * from the item throws {@link UnsupportedOperationException}.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+final class FrozenDynamoItem extends AbstractDynamoItem
+{
+    private final ItemShape attributeNames;
+    private final AttributeValue[] values;
+    private final ParsedNumber[] parsedNumbers;
+    private final int hashCode;
+    private volatile long sizeInBytes = -1;
+
+    public FrozenDynamoItem(Map<String, AttributeValue> item)
+    {
+        List<String> names = new ArrayList<>(item.size());
+        List<AttributeValue> copiedValues = new ArrayList<>(item.size());
+        for (Entry<String, AttributeValue> entry : item.entrySet())
+        {
+            names.add(entry.getKey());
+            copiedValues.add(ImmutableAttributeValue.copyOf(entry.getValue()));
+        }
+
+        attributeNames = new ItemShape(names);
+        values = copiedValues.toArray(new AttributeValue[copiedValues.size()]);
+        parsedNumbers = new ParsedNumber[values.length];
+        for (int i = 0; i < values.length; i++)
+            parsedNumbers[i] = parseIntegralNumber(values[i]);
+
+        hashCode = attributesHashCode();
+    }
+
+    private static ParsedNumber parseIntegralNumber(AttributeValue attributeValue)
+    {
+        if(attributeValue == null || attributeValue.getN() == null)
+            return null;
+
+        try
+        {
+            return new ParsedNumber(attributeValue);
+        }
+        catch (NumberFormatException ex)
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public DynamoItem freeze()
+    {
+        return this;
+    }
+
+    @Override
+    public DynamoItem mutableCopy()
+    {
+        return new CopyOnWriteDynamoItem(this);
+    }
+
+    /**
+     * Measures the size once, the first time it is needed.
+     * Threads which race to measure it all get the same size.
+     */
+    @Override
+    public long sizeInBytes()
+    {
+        long size = sizeInBytes;
+        if(size < 0)
+        {
+            size = AttributeSizes.sizeOf(this);
+            sizeInBytes = size;
+        }
+        return size;
+    }
+
+    /**
+     * Gets a map attribute as a read-only item.
+     */
+    @Override
+    public DynamoItem getItem(String attributeName)
+    {
+        AttributeValue attributeValue = get(attributeName);
+        if(attributeValue == null || attributeValue.getM() == null)
+            return null;
+
+        return new StandardDynamoItem(Collections.unmodifiableMap(attributeValue.getM()));
+    }
+
+    /**
+     * Immutable items cannot have strings put into them, and
+     * so cannot have a compression policy.
+     */
+    @Override
+    public void setCompressionPolicy(CompressionPolicy compressionPolicy)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size()
+    {
+        return values.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return values.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return attributeNames.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        for (AttributeValue attributeValue : values)
+        {
+            if(value == null ? attributeValue == null : value.equals(attributeValue))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public AttributeValue get(Object key)
+    {
+        int index = attributeNames.indexOf(key);
+        if(index < 0)
+            return null;
+        return values[index];
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AttributeValue remove(Object key)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return new AbstractSet<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                return new IndexIterator<String>()
+                {
+                    @Override
+                    String element(int index)
+                    {
+                        return attributeNames.getAttributeNames().get(index);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return values.length;
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return containsKey(o);
+            }
+        };
+    }
+
+    @Override
+    public Collection<AttributeValue> values()
+    {
+        return new AbstractCollection<AttributeValue>()
+        {
+            @Override
+            public Iterator<AttributeValue> iterator()
+            {
+                return new IndexIterator<AttributeValue>()
+                {
+                    @Override
+                    AttributeValue element(int index)
+                    {
+                        return values[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return values.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet()
+    {
+        return new AbstractSet<Entry<String, AttributeValue>>()
+        {
+            @Override
+            public Iterator<Entry<String, AttributeValue>> iterator()
+            {
+                return new IndexIterator<Entry<String, AttributeValue>>()
+                {
+                    @Override
+                    Entry<String, AttributeValue> element(int index)
+                    {
+                        return new AbstractMap.SimpleImmutableEntry<>(attributeNames.getAttributeNames().get(index), values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return values.length;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(o instanceof FrozenDynamoItem && ((FrozenDynamoItem) o).hashCode != hashCode)
+            return false;
+
+        return attributesEqual(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return attributesToString();
+    }
+
+    @Override
+    protected ParsedNumber parsedNumber(String attributeName, AttributeValue attributeValue)
+    {
+        int index = attributeNames.indexOf(attributeName);
+        if(index >= 0 && parsedNumbers[index] != null && parsedNumbers[index].isParsedFrom(attributeValue))
+            return parsedNumbers[index];
+
+        return new ParsedNumber(attributeValue);
+    }
+
+    private abstract class IndexIterator<E> implements Iterator<E>
+    {
+        private int nextIndex;
+
+        abstract E element(int index);
+
+        @Override
+        public boolean hasNext()
+        {
+            return nextIndex < values.length;
+        }
+
+        @Override
+        public E next()
+        {
+            if(nextIndex >= values.length)
+                throw new NoSuchElementException();
+            return element(nextIndex++);
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
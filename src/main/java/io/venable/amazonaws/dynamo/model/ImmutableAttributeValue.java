@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An internal {@link AttributeValue} which cannot be changed once
+ * it is created, so that one instance can be shared by many items.
+ * <p>
+ * The setters of {@link AttributeValue} copy sets and lists into lists
+ * which can be changed through its getters. So this class keeps its own
+ * unmodifiable sets, lists and maps, which hold immutable values, and
+ * returns them from the getters instead. Binary values are returned as
+ * new read-only buffers, so that reading them cannot move the position
+ * of the shared buffer.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+final class ImmutableAttributeValue extends AttributeValue
+{
+    private static final long serialVersionUID = 1L;
+
+    private final boolean initialized;
+    private final ByteBuffer b;
+    private final List<String> ss;
+    private final List<String> ns;
+    private final List<ByteBuffer> bs;
+    private final List<AttributeValue> l;
+    private final Map<String, AttributeValue> m;
+
+    private ImmutableAttributeValue(String s, String n, Boolean bool, Boolean nullValue)
+    {
+        this(s, n, bool, nullValue, null, null, null, null, null, null);
+    }
+
+    private ImmutableAttributeValue(String s, String n, Boolean bool, Boolean nullValue, ByteBuffer b,
+                                    List<String> ss, List<String> ns, List<ByteBuffer> bs,
+                                    List<AttributeValue> l, Map<String, AttributeValue> m)
+    {
+        super.setS(s);
+        super.setN(n);
+        super.setBOOL(bool);
+        super.setNULL(nullValue);
+        this.b = b;
+        this.ss = ss;
+        this.ns = ns;
+        this.bs = bs;
+        this.l = l;
+        this.m = m;
+        initialized = true;
+    }
+
+    static ImmutableAttributeValue ofString(String value)
+    {
+        return new ImmutableAttributeValue(value, null, null, null);
+    }
+
+    static ImmutableAttributeValue ofNumber(String value)
+    {
+        return new ImmutableAttributeValue(null, value, null, null);
+    }
+
+    static ImmutableAttributeValue ofBoolean(boolean value)
+    {
+        return new ImmutableAttributeValue(null, null, value, null);
+    }
+
+    static ImmutableAttributeValue ofNull()
+    {
+        return new ImmutableAttributeValue(null, null, null, true);
+    }
+
+    /**
+     * Copies an attribute value, including any sets, lists and maps
+     * within it, into values which cannot be changed. Binary values
+     * share the content of the original buffers.
+     */
+    static ImmutableAttributeValue copyOf(AttributeValue attributeValue)
+    {
+        if(attributeValue == null)
+            return null;
+        if(attributeValue instanceof ImmutableAttributeValue)
+            return (ImmutableAttributeValue) attributeValue;
+
+        ByteBuffer b = attributeValue.getB() != null ? attributeValue.getB().asReadOnlyBuffer() : null;
+        List<String> ss = attributeValue.getSS() != null ? unmodifiableCopy(attributeValue.getSS()) : null;
+        List<String> ns = attributeValue.getNS() != null ? unmodifiableCopy(attributeValue.getNS()) : null;
+
+        List<ByteBuffer> bs = null;
+        if(attributeValue.getBS() != null)
+        {
+            List<ByteBuffer> binaries = new ArrayList<>(attributeValue.getBS().size());
+            for (ByteBuffer binary : attributeValue.getBS())
+                binaries.add(binary.asReadOnlyBuffer());
+            bs = Collections.unmodifiableList(binaries);
+        }
+
+        List<AttributeValue> l = null;
+        if(attributeValue.getL() != null)
+        {
+            List<AttributeValue> list = new ArrayList<>(attributeValue.getL().size());
+            for (AttributeValue element : attributeValue.getL())
+                list.add(copyOf(element));
+            l = Collections.unmodifiableList(list);
+        }
+
+        Map<String, AttributeValue> m = null;
+        if(attributeValue.getM() != null)
+        {
+            Map<String, AttributeValue> map = new HashMap<>();
+            for (Map.Entry<String, AttributeValue> entry : attributeValue.getM().entrySet())
+                map.put(entry.getKey(), copyOf(entry.getValue()));
+            m = Collections.unmodifiableMap(map);
+        }
+
+        return new ImmutableAttributeValue(attributeValue.getS(), attributeValue.getN(), attributeValue.getBOOL(), attributeValue.getNULL(),
+                b, ss, ns, bs, l, m);
+    }
+
+    private static <T> List<T> unmodifiableCopy(List<T> list)
+    {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    @Override
+    public ByteBuffer getB()
+    {
+        return b != null ? b.duplicate() : null;
+    }
+
+    @Override
+    public List<String> getSS()
+    {
+        return ss;
+    }
+
+    @Override
+    public List<String> getNS()
+    {
+        return ns;
+    }
+
+    /**
+     * Gets the binary set. Each call returns new read-only
+     * buffers, so that reading them cannot move the shared ones.
+     */
+    @Override
+    public List<ByteBuffer> getBS()
+    {
+        if(bs == null)
+            return null;
+
+        List<ByteBuffer> binaries = new ArrayList<>(bs.size());
+        for (ByteBuffer binary : bs)
+            binaries.add(binary.duplicate());
+        return Collections.unmodifiableList(binaries);
+    }
+
+    @Override
+    public List<AttributeValue> getL()
+    {
+        return l;
+    }
+
+    @Override
+    public Map<String, AttributeValue> getM()
+    {
+        return m;
+    }
+
+    @Override
+    public void setS(String s)
+    {
+        checkModifiable();
+        super.setS(s);
+    }
+
+    @Override
+    public void setN(String n)
+    {
+        checkModifiable();
+        super.setN(n);
+    }
+
+    @Override
+    public void setB(ByteBuffer b)
+    {
+        checkModifiable();
+        super.setB(b);
+    }
+
+    @Override
+    public void setSS(Collection<String> ss)
+    {
+        checkModifiable();
+        super.setSS(ss);
+    }
+
+    @Override
+    public void setNS(Collection<String> ns)
+    {
+        checkModifiable();
+        super.setNS(ns);
+    }
+
+    @Override
+    public void setBS(Collection<ByteBuffer> bs)
+    {
+        checkModifiable();
+        super.setBS(bs);
+    }
+
+    @Override
+    public void setM(Map<String, AttributeValue> m)
+    {
+        checkModifiable();
+        super.setM(m);
+    }
+
+    @Override
+    public AttributeValue addMEntry(String key, AttributeValue value)
+    {
+        checkModifiable();
+        return super.addMEntry(key, value);
+    }
+
+    @Override
+    public AttributeValue clearMEntries()
+    {
+        checkModifiable();
+        return super.clearMEntries();
+    }
+
+    @Override
+    public void setL(Collection<AttributeValue> l)
+    {
+        checkModifiable();
+        super.setL(l);
+    }
+
+    @Override
+    public void setNULL(Boolean nullValue)
+    {
+        checkModifiable();
+        super.setNULL(nullValue);
+    }
+
+    @Override
+    public void setBOOL(Boolean bool)
+    {
+        checkModifiable();
+        super.setBOOL(bool);
+    }
+
+    @Override
+    public AttributeValue withS(String s)
+    {
+        checkModifiable();
+        return super.withS(s);
+    }
+
+    @Override
+    public AttributeValue withN(String n)
+    {
+        checkModifiable();
+        return super.withN(n);
+    }
+
+    @Override
+    public AttributeValue withB(ByteBuffer b)
+    {
+        checkModifiable();
+        return super.withB(b);
+    }
+
+    @Override
+    public AttributeValue withSS(String... ss)
+    {
+        checkModifiable();
+        return super.withSS(ss);
+    }
+
+    @Override
+    public AttributeValue withSS(Collection<String> ss)
+    {
+        checkModifiable();
+        return super.withSS(ss);
+    }
+
+    @Override
+    public AttributeValue withNS(String... ns)
+    {
+        checkModifiable();
+        return super.withNS(ns);
+    }
+
+    @Override
+    public AttributeValue withNS(Collection<String> ns)
+    {
+        checkModifiable();
+        return super.withNS(ns);
+    }
+
+    @Override
+    public AttributeValue withBS(ByteBuffer... bs)
+    {
+        checkModifiable();
+        return super.withBS(bs);
+    }
+
+    @Override
+    public AttributeValue withBS(Collection<ByteBuffer> bs)
+    {
+        checkModifiable();
+        return super.withBS(bs);
+    }
+
+    @Override
+    public AttributeValue withM(Map<String, AttributeValue> m)
+    {
+        checkModifiable();
+        return super.withM(m);
+    }
+
+    @Override
+    public AttributeValue withL(AttributeValue... l)
+    {
+        checkModifiable();
+        return super.withL(l);
+    }
+
+    @Override
+    public AttributeValue withL(Collection<AttributeValue> l)
+    {
+        checkModifiable();
+        return super.withL(l);
+    }
+
+    @Override
+    public AttributeValue withNULL(Boolean nullValue)
+    {
+        checkModifiable();
+        return super.withNULL(nullValue);
+    }
+
+    @Override
+    public AttributeValue withBOOL(Boolean bool)
+    {
+        checkModifiable();
+        return super.withBOOL(bool);
+    }
+
+    private void checkModifiable()
+    {
+        if(initialized)
+            throw new UnsupportedOperationException("Immutable attribute values cannot be changed.");
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Converts objects of one type to and from {@link DynamoItem} instances.
+ * <p>
+ * Codecs hold no state for individual conversions, and may be
+ * shared between threads.
+ *
+ * @param <T> the type of object converted
+ * @author David Venable
+ * @see ItemMapper#codecFor(Class)
+ * @since 0.4
+ */
+public interface ItemCodec<T>
+{
+    /**
+     * Creates an item holding the attributes of an object.
+     *
+     * @param object the object to convert
+     * @return a new item
+     * @since 0.4
+     */
+    DynamoItem toItem(T object);
+
+    /**
+     * Creates an object from the attributes of an item.
+     *
+     * @param item the item to convert
+     * @return a new object
+     * @since 0.4
+     */
+    T fromItem(Map<String, AttributeValue> item);
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Converts JavaBeans to and from {@link DynamoItem} instances.
+ * <p>
+ * Each class is inspected once, the first time it is mapped. Every
+ * property with a public getter and setter is mapped to an attribute,
+ * named by the property or by {@link DynamoAttribute}. The class must
+ * be public and have a public constructor without arguments.
+ * <p>
+ * The accessors are bound as {@link java.lang.invoke.MethodHandle}s,
+ * so conversions do not use reflection. Primitive {@code long},
+ * {@code int}, {@code double} and {@code boolean} properties are
+ * converted without boxing.
+ * <p>
+ * Supported property types are the primitives above and their
+ * wrappers, {@link String}, {@link java.math.BigDecimal},
+ * {@link java.nio.ByteBuffer}, {@code long[]} and {@code Set<String>}.
+ * Properties which are {@code null} or empty are left out of the item.
+ * <p>
+ * Classes marked with {@link DynamoEntity} use the codec generated
+ * at build time, when there is one.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class ItemMapper
+{
+    private static final ConcurrentMap<Class<?>, ItemCodec<?>> codecsByType = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the codec for a class, creating it the first time.
+     *
+     * @param type the class to map
+     * @param <T> the type to map
+     * @return the codec
+     * @throws ItemMappingException if the class cannot be mapped
+     * @since 0.4
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ItemCodec<T> codecFor(Class<T> type)
+    {
+        ItemCodec<T> codec = (ItemCodec<T>) codecsByType.get(type);
+        if(codec != null)
+            return codec;
+
+        codec = generatedCodecFor(type);
+        if(codec == null)
+            codec = new MethodHandleItemCodec<>(type);
+        ItemCodec<T> existingCodec = (ItemCodec<T>) codecsByType.putIfAbsent(type, codec);
+        return existingCodec != null ? existingCodec : codec;
+    }
+
+    /**
+     * Creates the codec generated for a {@link DynamoEntity} class,
+     * if the annotation processor generated one.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ItemCodec<T> generatedCodecFor(Class<T> type)
+    {
+        if(!type.isAnnotationPresent(DynamoEntity.class))
+            return null;
+
+        String packagePrefix = type.getPackage() == null ? "" : type.getPackage().getName() + ".";
+        String codecName = packagePrefix + type.getName().substring(packagePrefix.length()).replace('$', '_') + "ItemCodec";
+        Class<?> codecClass;
+        try
+        {
+            codecClass = Class.forName(codecName, true, type.getClassLoader());
+        }
+        catch (ClassNotFoundException ex)
+        {
+            return null;
+        }
+
+        try
+        {
+            return (ItemCodec<T>) codecClass.getConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | ClassCastException ex)
+        {
+            throw new ItemMappingException("Unable to create the generated codec " + codecName + ".", ex);
+        }
+    }
+
+    /**
+     * Uses a given codec for a class, in place of the one
+     * the mapper would create.
+     *
+     * @param type the class to map
+     * @param codec the codec to use for the class
+     * @param <T> the type to map
+     * @since 0.4
+     */
+    public static <T> void registerCodec(Class<T> type, ItemCodec<T> codec)
+    {
+        codecsByType.put(type, codec);
+    }
+
+    /**
+     * Creates an item holding the properties of an object.
+     *
+     * @param object the object to convert
+     * @return a new item
+     * @throws ItemMappingException if the class cannot be mapped
+     * @since 0.4
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DynamoItem toItem(T object)
+    {
+        return codecFor((Class<T>) object.getClass()).toItem(object);
+    }
+
+    /**
+     * Creates an object from the attributes of an item.
+     *
+     * @param type the class of object to create
+     * @param item the item to convert
+     * @param <T> the type to create
+     * @return a new object
+     * @throws ItemMappingException if the class cannot be mapped
+     * @since 0.4
+     */
+    public static <T> T fromItem(Class<T> type, Map<String, AttributeValue> item)
+    {
+        return codecFor(type).fromItem(item);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+/**
+ * Thrown when an object cannot be converted to or from an item.
+ *
+ * @author David Venable
+ * @see ItemMapper
+ * @since 0.4
+ */
+public class ItemMappingException extends RuntimeException
+{
+    public ItemMappingException(String message)
+    {
+        super(message);
+    }
+
+    public ItemMappingException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
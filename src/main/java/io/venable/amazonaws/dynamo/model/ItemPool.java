@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+/**
+ * An internal pool of item storage, kept for each thread.
+ * <p>
+ * Outside of debug mode, released items themselves are kept and
+ * borrowed again. In debug mode only their maps are kept, and each
+ * borrower gets a new item. Storage which has grown large is not
+ * kept, so that the pool does not hold on to much memory.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class ItemPool
+{
+    static final Throwable RELEASED = new Throwable("The item was released.", null, false, false) { };
+
+    private static final int MAXIMUM_POOLED_ITEMS = 64;
+    private static final int MAXIMUM_POOLED_ATTRIBUTES = 256;
+
+    private final ThreadLocal<ArrayDeque<PooledDynamoItem>> pooledItems = new ThreadLocal<ArrayDeque<PooledDynamoItem>>()
+    {
+        @Override
+        protected ArrayDeque<PooledDynamoItem> initialValue()
+        {
+            return new ArrayDeque<>();
+        }
+    };
+
+    private volatile boolean debugEnabled;
+
+    boolean isDebugEnabled()
+    {
+        return debugEnabled;
+    }
+
+    void setDebugEnabled(boolean debugEnabled)
+    {
+        this.debugEnabled = debugEnabled;
+    }
+
+    ReusableDynamoItem borrow()
+    {
+        PooledDynamoItem item = pooledItems.get().pollLast();
+        if(item == null)
+            return new PooledDynamoItem(this, new HashMap<String, AttributeValue>());
+
+        if(debugEnabled)
+            return new PooledDynamoItem(this, item.storage());
+
+        item.borrowed();
+        return item;
+    }
+
+    /**
+     * Keeps a released item, unless the pool is full or the item
+     * held so many attributes that its storage has grown large.
+     */
+    void release(PooledDynamoItem item, int attributeCount)
+    {
+        ArrayDeque<PooledDynamoItem> items = pooledItems.get();
+        if(items.size() < MAXIMUM_POOLED_ITEMS && attributeCount <= MAXIMUM_POOLED_ATTRIBUTES)
+            items.addLast(item);
+    }
+
+    /**
+     * Gets the number of items pooled for the current thread.
+     */
+    int pooledItemCount()
+    {
+        return pooledItems.get().size();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An ordered layout of attribute names shared by many items.
+ * <p>
+ * Items from the same table usually have the same attributes.
+ * Items created with a shape only hold an array of values, indexed
+ * by the position of each attribute name in the shape. Shapes are
+ * immutable and may be shared between threads.
+ *
+ * @author David Venable
+ * @see DynamoItemFactory#createItem(ItemShape)
+ * @see DynamoItemFactory#createItem(String, java.util.Map)
+ * @since 0.4
+ */
+public final class ItemShape
+{
+    private final List<String> attributeNames;
+    private final String[] slotNames;
+    private final int[] slotIndexes;
+
+    ItemShape(Collection<String> attributeNames)
+    {
+        List<String> names = new ArrayList<>(attributeNames.size());
+        int capacity = 4;
+        while(capacity < attributeNames.size() * 2)
+            capacity <<= 1;
+
+        slotNames = new String[capacity];
+        slotIndexes = new int[capacity];
+        for (String attributeName : attributeNames)
+        {
+            Objects.requireNonNull(attributeName);
+
+            int slot = slotFor(attributeName);
+            while(slotNames[slot] != null && !slotNames[slot].equals(attributeName))
+                slot = (slot + 1) & (capacity - 1);
+
+            if(slotNames[slot] == null)
+            {
+                slotNames[slot] = attributeName;
+                slotIndexes[slot] = names.size();
+                names.add(attributeName);
+            }
+        }
+
+        this.attributeNames = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Gets the attribute names of this shape, in order.
+     *
+     * @return the attribute names
+     * @since 0.4
+     */
+    public List<String> getAttributeNames()
+    {
+        return attributeNames;
+    }
+
+    /**
+     * Gets the number of attributes in this shape.
+     *
+     * @return the number of attributes
+     * @since 0.4
+     */
+    public int size()
+    {
+        return attributeNames.size();
+    }
+
+    /**
+     * Gets the position of an attribute name in this shape.
+     *
+     * @param attributeName the attribute name
+     * @return the position of the attribute, or -1 if the shape does not have it
+     * @since 0.4
+     */
+    public int indexOf(Object attributeName)
+    {
+        if(attributeName == null)
+            return -1;
+
+        for (int slot = slotFor(attributeName); slotNames[slot] != null; slot = (slot + 1) & (slotNames.length - 1))
+        {
+            if(slotNames[slot] == attributeName || slotNames[slot].equals(attributeName))
+                return slotIndexes[slot];
+        }
+        return -1;
+    }
+
+    private int slotFor(Object attributeName)
+    {
+        int hash = attributeName.hashCode();
+        return (hash ^ (hash >>> 16)) & (slotNames.length - 1);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ItemShape" + attributeNames;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates DynamoDB updates from the changes made to tracked items.
+ * <p>
+ * Writing only the changed attributes with an UpdateItem request
+ * consumes write capacity for the changes rather than for the
+ * whole item.
+ *
+ * @author David Venable
+ * @see DynamoItemFactory#createTrackedItem(Map)
+ * @since 0.4
+ */
+public class ItemUpdates
+{
+    /**
+     * Determines whether a tracked item has changed since
+     * it was loaded or last persisted.
+     *
+     * @param item an item from {@link DynamoItemFactory#createTrackedItem(Map)}
+     * @return true if any attribute was set or removed
+     * @throws IllegalArgumentException if the item is not tracked
+     * @since 0.4
+     */
+    public static boolean hasChanges(DynamoItem item)
+    {
+        Map<String, AttributeValue> setAttributes = new HashMap<>();
+        Set<String> removedAttributes = new LinkedHashSet<>();
+        trackedItem(item).findChanges(setAttributes, removedAttributes);
+        return !setAttributes.isEmpty() || !removedAttributes.isEmpty();
+    }
+
+    /**
+     * Creates an UpdateItem request which sets the changed attributes
+     * of a tracked item and removes its removed attributes.
+     * <p>
+     * Attribute names and values are always passed as expression
+     * placeholders, so names which are DynamoDB reserved words
+     * need no special handling.
+     *
+     * @param tableName the name of the table
+     * @param key the primary key of the item
+     * @param item an item from {@link DynamoItemFactory#createTrackedItem(Map)}
+     * @return the request, or null if the item has not changed
+     * @throws IllegalArgumentException if the item is not tracked, or if a key attribute changed
+     * @since 0.4
+     */
+    public static UpdateItemRequest createUpdateItemRequest(String tableName, Map<String, AttributeValue> key, DynamoItem item)
+    {
+        Map<String, AttributeValue> setAttributes = new LinkedHashMap<>();
+        Set<String> removedAttributes = new LinkedHashSet<>();
+        trackedItem(item).findChanges(setAttributes, removedAttributes);
+
+        for (Map.Entry<String, AttributeValue> keyAttribute : key.entrySet())
+        {
+            AttributeValue value = setAttributes.remove(keyAttribute.getKey());
+            if((value != null && !value.equals(keyAttribute.getValue())) || removedAttributes.contains(keyAttribute.getKey()))
+                throw new IllegalArgumentException("The key attribute " + keyAttribute.getKey() + " cannot be updated.");
+        }
+
+        if(setAttributes.isEmpty() && removedAttributes.isEmpty())
+            return null;
+
+        Map<String, String> expressionAttributeNames = new HashMap<>();
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        StringBuilder updateExpression = new StringBuilder();
+        int nameIndex = 0;
+
+        for (Map.Entry<String, AttributeValue> setAttribute : setAttributes.entrySet())
+        {
+            String namePlaceholder = "#a" + nameIndex;
+            String valuePlaceholder = ":v" + nameIndex;
+            nameIndex++;
+
+            updateExpression.append(updateExpression.length() == 0 ? "SET " : ", ")
+                    .append(namePlaceholder).append(" = ").append(valuePlaceholder);
+            expressionAttributeNames.put(namePlaceholder, setAttribute.getKey());
+            expressionAttributeValues.put(valuePlaceholder, setAttribute.getValue());
+        }
+
+        boolean firstRemoval = true;
+        for (String removedAttribute : removedAttributes)
+        {
+            String namePlaceholder = "#a" + nameIndex++;
+
+            if(firstRemoval)
+            {
+                if(updateExpression.length() > 0)
+                    updateExpression.append(' ');
+                updateExpression.append("REMOVE ");
+                firstRemoval = false;
+            }
+            else
+            {
+                updateExpression.append(", ");
+            }
+            updateExpression.append(namePlaceholder);
+            expressionAttributeNames.put(namePlaceholder, removedAttribute);
+        }
+
+        UpdateItemRequest updateItemRequest = new UpdateItemRequest()
+                .withTableName(tableName)
+                .withKey(key)
+                .withUpdateExpression(updateExpression.toString())
+                .withExpressionAttributeNames(expressionAttributeNames);
+        if(!expressionAttributeValues.isEmpty())
+            updateItemRequest.setExpressionAttributeValues(expressionAttributeValues);
+        return updateItemRequest;
+    }
+
+    /**
+     * Makes the current attributes of a tracked item its persisted
+     * attributes. Call this once an update has succeeded.
+     *
+     * @param item an item from {@link DynamoItemFactory#createTrackedItem(Map)}
+     * @throws IllegalArgumentException if the item is not tracked
+     * @since 0.4
+     */
+    public static void markPersisted(DynamoItem item)
+    {
+        trackedItem(item).markPersisted();
+    }
+
+    private static TrackedDynamoItem trackedItem(DynamoItem item)
+    {
+        if(!(item instanceof TrackedDynamoItem))
+            throw new IllegalArgumentException("The item does not track changes. Create it with DynamoItemFactory.createTrackedItem.");
+        return (TrackedDynamoItem) item;
+    }
+}
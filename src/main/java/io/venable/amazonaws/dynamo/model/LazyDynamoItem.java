@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An internal implementation of {@link DynamoItem} which holds the
+ * DynamoDB JSON of an item and only decodes the attributes which are read.
+ * <p>
+ * The first read finds where each attribute's value is within the JSON,
+ * without decoding the values. Each attribute is then decoded the first
+ * time it is read. Modifying the item, getting any of its views or nested
+ * items, or measuring its size decodes the remaining attributes, after which
+ * the item behaves like any other.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class LazyDynamoItem extends AbstractDynamoItem
+{
+    private final byte[] json;
+    private final int offset;
+    private final int length;
+    private ItemShape attributeNames;
+    private int[] valueStarts;
+    private int[] valueEnds;
+    private AttributeValue[] decodedValues;
+    private DynamoItem decodedItem;
+
+    public LazyDynamoItem(byte[] json)
+    {
+        this(json, 0, json.length);
+    }
+
+    public LazyDynamoItem(byte[] json, int offset, int length)
+    {
+        this.json = json;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int size()
+    {
+        if(decodedItem != null)
+            return decodedItem.size();
+
+        index();
+        return attributeNames.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        if(decodedItem != null)
+            return decodedItem.containsKey(key);
+
+        index();
+        return attributeNames.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        return decode().containsValue(value);
+    }
+
+    @Override
+    public AttributeValue get(Object key)
+    {
+        if(decodedItem != null)
+            return decodedItem.get(key);
+
+        index();
+        int index = attributeNames.indexOf(key);
+        if(index < 0)
+            return null;
+
+        if(decodedValues[index] == null)
+            decodedValues[index] = decodeValue(index);
+        return decodedValues[index];
+    }
+
+    /**
+     * Measures the decoded item, which tracks changes
+     * made through its views as well.
+     */
+    @Override
+    public long sizeInBytes()
+    {
+        return decode().sizeInBytes();
+    }
+
+    @Override
+    public DynamoItem getItem(String attributeName)
+    {
+        return decode().getItem(attributeName);
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value)
+    {
+        attributeChanged(key);
+        return decode().put(key, value);
+    }
+
+    @Override
+    public AttributeValue remove(Object key)
+    {
+        attributeChanged(key);
+        return decode().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m)
+    {
+        for (String key : m.keySet())
+            attributeChanged(key);
+        decode().putAll(m);
+    }
+
+    @Override
+    public void clear()
+    {
+        attributesCleared();
+        decodedItem = new CompactDynamoItem();
+        attributeNames = null;
+        valueStarts = null;
+        valueEnds = null;
+        decodedValues = null;
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return decode().keySet();
+    }
+
+    @Override
+    public Collection<AttributeValue> values()
+    {
+        return decode().values();
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet()
+    {
+        return decode().entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return attributesEqual(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return attributesHashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return attributesToString();
+    }
+
+    /**
+     * Finds the position of each attribute value in the JSON.
+     */
+    private void index()
+    {
+        if(attributeNames != null)
+            return;
+
+        List<String> names = new ArrayList<>();
+        int[] starts = new int[8];
+        int[] ends = new int[8];
+        try(JsonParser parser = DynamoJson.JSON_FACTORY.createParser(json, offset, length))
+        {
+            parser.nextToken();
+            DynamoJson.expect(parser, JsonToken.START_OBJECT);
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                names.add(parser.getCurrentName());
+                parser.nextToken();
+                DynamoJson.expect(parser, JsonToken.START_OBJECT);
+
+                if(names.size() > starts.length)
+                {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                    ends = Arrays.copyOf(ends, ends.length * 2);
+                }
+                starts[names.size() - 1] = (int) parser.getCurrentLocation().getByteOffset() - 1;
+                parser.skipChildren();
+                ends[names.size() - 1] = (int) parser.getCurrentLocation().getByteOffset();
+            }
+            DynamoJson.expect(parser, JsonToken.END_OBJECT);
+        }
+        catch (IOException ex)
+        {
+            throw new MalformedItemException("The item is not valid DynamoDB JSON.", ex);
+        }
+
+        ItemShape indexedNames = new ItemShape(names);
+        if(indexedNames.size() != names.size())
+            throw new MalformedItemException("The item has duplicate attribute names.");
+
+        valueStarts = starts;
+        valueEnds = ends;
+        decodedValues = new AttributeValue[names.size()];
+        attributeNames = indexedNames;
+    }
+
+    private AttributeValue decodeValue(int index)
+    {
+        int start = offset + valueStarts[index];
+        try(JsonParser parser = DynamoJson.JSON_FACTORY.createParser(json, start, valueEnds[index] - valueStarts[index]))
+        {
+            parser.nextToken();
+            return DynamoJson.readAttributeValue(parser);
+        }
+        catch (IOException ex)
+        {
+            throw new MalformedItemException("The attribute " + attributeNames.getAttributeNames().get(index) + " is not valid DynamoDB JSON.", ex);
+        }
+    }
+
+    /**
+     * Decodes all the remaining attributes, after which the
+     * JSON is no longer read.
+     */
+    private DynamoItem decode()
+    {
+        if(decodedItem != null)
+            return decodedItem;
+
+        index();
+        DynamoItem item = DynamoItemFactory.createItem(attributeNames.size());
+        List<String> names = attributeNames.getAttributeNames();
+        for (int i = 0; i < names.size(); i++)
+        {
+            AttributeValue value = decodedValues[i];
+            item.put(names.get(i), value != null ? value : decodeValue(i));
+        }
+
+        decodedItem = item;
+        attributeNames = null;
+        valueStarts = null;
+        valueEnds = null;
+        decodedValues = null;
+        return decodedItem;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An internal class providing the views of an item backed by a map.
+ * <p>
+ * Every change made through the views goes through the item, or calls
+ * {@link AbstractDynamoItem#attributeChanged(Object)} before changing
+ * the map, so that the item can keep tracking its size.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+final class MapViews
+{
+    private MapViews()
+    {
+    }
+
+    static Set<String> keySet(final AbstractDynamoItem item, final Map<String, AttributeValue> map)
+    {
+        return new AbstractSet<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                return new ViewIterator<String>(item, map)
+                {
+                    @Override
+                    String element(Entry<String, AttributeValue> entry)
+                    {
+                        return entry.getKey();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return map.containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o)
+            {
+                if(!map.containsKey(o))
+                    return false;
+
+                item.remove(o);
+                return true;
+            }
+
+            @Override
+            public void clear()
+            {
+                item.clear();
+            }
+        };
+    }
+
+    static Collection<AttributeValue> values(final AbstractDynamoItem item, final Map<String, AttributeValue> map)
+    {
+        return new AbstractCollection<AttributeValue>()
+        {
+            @Override
+            public Iterator<AttributeValue> iterator()
+            {
+                return new ViewIterator<AttributeValue>(item, map)
+                {
+                    @Override
+                    AttributeValue element(Entry<String, AttributeValue> entry)
+                    {
+                        return entry.getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return map.containsValue(o);
+            }
+
+            @Override
+            public void clear()
+            {
+                item.clear();
+            }
+        };
+    }
+
+    static Set<Entry<String, AttributeValue>> entrySet(final AbstractDynamoItem item, final Map<String, AttributeValue> map)
+    {
+        return new AbstractSet<Entry<String, AttributeValue>>()
+        {
+            @Override
+            public Iterator<Entry<String, AttributeValue>> iterator()
+            {
+                return new ViewIterator<Entry<String, AttributeValue>>(item, map)
+                {
+                    @Override
+                    Entry<String, AttributeValue> element(Entry<String, AttributeValue> entry)
+                    {
+                        return new ViewEntry(item, entry);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return map.entrySet().contains(o);
+            }
+
+            @Override
+            public void clear()
+            {
+                item.clear();
+            }
+        };
+    }
+
+    private abstract static class ViewIterator<E> implements Iterator<E>
+    {
+        private final AbstractDynamoItem item;
+        private final Iterator<Entry<String, AttributeValue>> entryIterator;
+        private Entry<String, AttributeValue> lastEntry;
+
+        ViewIterator(AbstractDynamoItem item, Map<String, AttributeValue> map)
+        {
+            this.item = item;
+            entryIterator = map.entrySet().iterator();
+        }
+
+        abstract E element(Entry<String, AttributeValue> entry);
+
+        @Override
+        public boolean hasNext()
+        {
+            return entryIterator.hasNext();
+        }
+
+        @Override
+        public E next()
+        {
+            lastEntry = entryIterator.next();
+            return element(lastEntry);
+        }
+
+        @Override
+        public void remove()
+        {
+            if(lastEntry == null)
+                throw new IllegalStateException();
+
+            item.attributeChanged(lastEntry.getKey());
+            entryIterator.remove();
+            lastEntry = null;
+        }
+    }
+
+    private static class ViewEntry implements Entry<String, AttributeValue>
+    {
+        private final AbstractDynamoItem item;
+        private final Entry<String, AttributeValue> entry;
+
+        private ViewEntry(AbstractDynamoItem item, Entry<String, AttributeValue> entry)
+        {
+            this.item = item;
+            this.entry = entry;
+        }
+
+        @Override
+        public String getKey()
+        {
+            return entry.getKey();
+        }
+
+        @Override
+        public AttributeValue getValue()
+        {
+            return entry.getValue();
+        }
+
+        @Override
+        public AttributeValue setValue(AttributeValue value)
+        {
+            item.attributeChanged(entry.getKey());
+            return entry.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(!(o instanceof Entry))
+                return false;
+
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString()
+        {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An internal {@link ItemCodec} which accesses JavaBean
+ * properties through {@link MethodHandle}s.
+ * <p>
+ * The handles are looked up once and adapted to exact types, and
+ * primitive properties have their own mappings so that their values
+ * are never boxed. The handles are held in instance fields rather
+ * than static final ones though, so the JIT cannot treat them as
+ * constants and inline the accessors through them. Codecs generated
+ * by the annotation processor for {@link DynamoEntity} classes call
+ * the accessors directly, and should be preferred where speed matters.
+ *
+ * @author David Venable
+ * @see ItemMapper
+ * @since 0.4
+ */
+final class MethodHandleItemCodec<T> implements ItemCodec<T>
+{
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final ItemShape shape;
+    private final PropertyMapping[] properties;
+
+    MethodHandleItemCodec(Class<T> type)
+    {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try
+        {
+            constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+
+            BeanInfo beanInfo = Introspector.getBeanInfo(type, Object.class);
+            List<PropertyMapping> mappings = new ArrayList<>();
+            List<String> attributeNames = new ArrayList<>();
+            for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors())
+            {
+                Method getter = descriptor.getReadMethod();
+                Method setter = descriptor.getWriteMethod();
+                if(getter == null || setter == null)
+                    continue;
+
+                String attributeName = attributeNameFor(descriptor.getName(), getter);
+                mappings.add(createMapping(attributeName, getter, lookup.unreflect(getter), lookup.unreflect(setter)));
+                attributeNames.add(attributeName);
+            }
+
+            shape = new ItemShape(attributeNames);
+            if(shape.size() != attributeNames.size())
+                throw new ItemMappingException("The class " + type.getName() + " maps more than one property to the same attribute.");
+            properties = mappings.toArray(new PropertyMapping[mappings.size()]);
+        }
+        catch (NoSuchMethodException ex)
+        {
+            throw new ItemMappingException("The class " + type.getName() + " has no public constructor without arguments.", ex);
+        }
+        catch (IllegalAccessException | IntrospectionException ex)
+        {
+            throw new ItemMappingException("The class " + type.getName() + " cannot be mapped.", ex);
+        }
+    }
+
+    private static String attributeNameFor(String propertyName, Method getter)
+    {
+        DynamoAttribute dynamoAttribute = getter.getAnnotation(DynamoAttribute.class);
+        if(dynamoAttribute != null)
+            return dynamoAttribute.value();
+        return propertyName;
+    }
+
+    private PropertyMapping createMapping(String attributeName, Method getter, MethodHandle getterHandle, MethodHandle setterHandle)
+    {
+        Class<?> propertyType = getter.getReturnType();
+        if(propertyType == long.class)
+            return new LongMapping(attributeName, getterHandle, setterHandle);
+        if(propertyType == int.class)
+            return new IntegerMapping(attributeName, getterHandle, setterHandle);
+        if(propertyType == double.class)
+            return new DoubleMapping(attributeName, getterHandle, setterHandle);
+        if(propertyType == boolean.class)
+            return new BooleanMapping(attributeName, getterHandle, setterHandle);
+
+        ValueType valueType = ValueType.forType(propertyType, getter.getGenericReturnType());
+        if(valueType == null)
+            throw new ItemMappingException("The property " + type.getName() + "." + getter.getName() + " has an unsupported type " + getter.getGenericReturnType() + ".");
+
+        return new ReferenceMapping(attributeName, valueType, getterHandle, setterHandle);
+    }
+
+    @Override
+    public DynamoItem toItem(T object)
+    {
+        DynamoItem item = DynamoItemFactory.createItem(shape);
+        try
+        {
+            for (PropertyMapping property : properties)
+                property.write(object, item);
+        }
+        catch (RuntimeException | Error ex)
+        {
+            throw ex;
+        }
+        catch (Throwable throwable)
+        {
+            throw new ItemMappingException("Unable to read the properties of " + type.getName() + ".", throwable);
+        }
+        return item;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T fromItem(Map<String, AttributeValue> item)
+    {
+        DynamoItem dynamoItem = item instanceof DynamoItem ? (DynamoItem) item : new StandardDynamoItem(item);
+        try
+        {
+            Object object = (Object) constructor.invokeExact();
+            for (PropertyMapping property : properties)
+            {
+                AttributeValue attributeValue = dynamoItem.get(property.attributeName);
+                if(attributeValue != null && !Boolean.TRUE.equals(attributeValue.getNULL()))
+                    property.read(dynamoItem, object);
+            }
+            return (T) object;
+        }
+        catch (RuntimeException | Error ex)
+        {
+            throw ex;
+        }
+        catch (Throwable throwable)
+        {
+            throw new ItemMappingException("Unable to create " + type.getName() + " from an item.", throwable);
+        }
+    }
+
+    /**
+     * Copies one property between an object and an item.
+     */
+    private abstract static class PropertyMapping
+    {
+        final String attributeName;
+
+        PropertyMapping(String attributeName)
+        {
+            this.attributeName = attributeName;
+        }
+
+        abstract void write(Object object, DynamoItem item) throws Throwable;
+
+        /**
+         * Sets the property from the item. Only called when
+         * the item has a value for the attribute.
+         */
+        abstract void read(DynamoItem item, Object object) throws Throwable;
+    }
+
+    private static final class LongMapping extends PropertyMapping
+    {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        LongMapping(String attributeName, MethodHandle getter, MethodHandle setter)
+        {
+            super(attributeName);
+            this.getter = getter.asType(MethodType.methodType(long.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+        }
+
+        @Override
+        void write(Object object, DynamoItem item) throws Throwable
+        {
+            item.putLong(attributeName, (long) getter.invokeExact(object));
+        }
+
+        @Override
+        void read(DynamoItem item, Object object) throws Throwable
+        {
+            setter.invokeExact(object, item.getLong(attributeName, 0L));
+        }
+    }
+
+    private static final class IntegerMapping extends PropertyMapping
+    {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        IntegerMapping(String attributeName, MethodHandle getter, MethodHandle setter)
+        {
+            super(attributeName);
+            this.getter = getter.asType(MethodType.methodType(int.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+        }
+
+        @Override
+        void write(Object object, DynamoItem item) throws Throwable
+        {
+            item.putInteger(attributeName, (int) getter.invokeExact(object));
+        }
+
+        @Override
+        void read(DynamoItem item, Object object) throws Throwable
+        {
+            setter.invokeExact(object, item.getInteger(attributeName, 0));
+        }
+    }
+
+    private static final class DoubleMapping extends PropertyMapping
+    {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        DoubleMapping(String attributeName, MethodHandle getter, MethodHandle setter)
+        {
+            super(attributeName);
+            this.getter = getter.asType(MethodType.methodType(double.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+        }
+
+        @Override
+        void write(Object object, DynamoItem item) throws Throwable
+        {
+            item.putDouble(attributeName, (double) getter.invokeExact(object));
+        }
+
+        @Override
+        void read(DynamoItem item, Object object) throws Throwable
+        {
+            setter.invokeExact(object, item.getDouble(attributeName, 0d));
+        }
+    }
+
+    private static final class BooleanMapping extends PropertyMapping
+    {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        BooleanMapping(String attributeName, MethodHandle getter, MethodHandle setter)
+        {
+            super(attributeName);
+            this.getter = getter.asType(MethodType.methodType(boolean.class, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+        }
+
+        @Override
+        void write(Object object, DynamoItem item) throws Throwable
+        {
+            item.putBoolean(attributeName, (boolean) getter.invokeExact(object));
+        }
+
+        @Override
+        void read(DynamoItem item, Object object) throws Throwable
+        {
+            setter.invokeExact(object, item.getBoolean(attributeName, false));
+        }
+    }
+
+    private static final class ReferenceMapping extends PropertyMapping
+    {
+        private final ValueType valueType;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        ReferenceMapping(String attributeName, ValueType valueType, MethodHandle getter, MethodHandle setter)
+        {
+            super(attributeName);
+            this.valueType = valueType;
+            this.getter = getter.asType(OBJECT_GETTER);
+            this.setter = setter.asType(OBJECT_SETTER);
+        }
+
+        @Override
+        void write(Object object, DynamoItem item) throws Throwable
+        {
+            Object value = (Object) getter.invokeExact(object);
+            if(value != null && !valueType.isEmpty(value))
+                valueType.put(item, attributeName, value);
+        }
+
+        @Override
+        void read(DynamoItem item, Object object) throws Throwable
+        {
+            setter.invokeExact(object, valueType.get(item, attributeName));
+        }
+    }
+
+    /**
+     * The supported types of object properties, and how
+     * each is put into and read from an item.
+     */
+    private enum ValueType
+    {
+        STRING
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putString(attributeName, (String) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getString(attributeName);
+            }
+        },
+        LONG
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putLong(attributeName, (Long) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getLong(attributeName);
+            }
+        },
+        INTEGER
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putInteger(attributeName, (Integer) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getInteger(attributeName);
+            }
+        },
+        DOUBLE
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putDouble(attributeName, (Double) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getDouble(attributeName, 0d);
+            }
+        },
+        BOOLEAN
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putBoolean(attributeName, (Boolean) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getBoolean(attributeName, false);
+            }
+        },
+        DECIMAL
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putDecimal(attributeName, (BigDecimal) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getDecimal(attributeName);
+            }
+        },
+        BINARY
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putBinary(attributeName, (ByteBuffer) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getBinary(attributeName);
+            }
+        },
+        LONG_ARRAY
+        {
+            @Override
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putLongArray(attributeName, (long[]) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                return item.getLongArray(attributeName);
+            }
+
+            @Override
+            boolean isEmpty(Object value)
+            {
+                return ((long[]) value).length == 0;
+            }
+        },
+        STRING_SET
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            void put(DynamoItem item, String attributeName, Object value)
+            {
+                item.putStringSet(attributeName, (Collection<String>) value);
+            }
+
+            @Override
+            Object get(DynamoItem item, String attributeName)
+            {
+                Set<String> strings = item.getStringSet(attributeName);
+                return strings != null ? new LinkedHashSet<>(strings) : null;
+            }
+
+            @Override
+            boolean isEmpty(Object value)
+            {
+                return ((Collection<?>) value).isEmpty();
+            }
+        };
+
+        abstract void put(DynamoItem item, String attributeName, Object value);
+
+        abstract Object get(DynamoItem item, String attributeName);
+
+        boolean isEmpty(Object value)
+        {
+            return false;
+        }
+
+        static ValueType forType(Class<?> type, Type genericType)
+        {
+            if(type == String.class)
+                return STRING;
+            if(type == Long.class)
+                return LONG;
+            if(type == Integer.class)
+                return INTEGER;
+            if(type == Double.class)
+                return DOUBLE;
+            if(type == Boolean.class)
+                return BOOLEAN;
+            if(type == BigDecimal.class)
+                return DECIMAL;
+            if(type == ByteBuffer.class)
+                return BINARY;
+            if(type == long[].class)
+                return LONG_ARRAY;
+            if(type == Set.class && genericType instanceof ParameterizedType
+                    && ((ParameterizedType) genericType).getActualTypeArguments()[0] == String.class)
+                return STRING_SET;
+            return null;
+        }
+    }
+}
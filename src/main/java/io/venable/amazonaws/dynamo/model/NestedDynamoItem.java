@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * An internal implementation of {@link DynamoItem} for an item
+ * nested in an attribute of another item, as returned by
+ * {@link DynamoItem#getItem(String)}.
+ * <p>
+ * It is backed by the map of the attribute, and tells the parent
+ * item that the attribute has changed whenever it is modified, so
+ * that the parent keeps its size up to date.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class NestedDynamoItem extends StandardDynamoItem
+{
+    private final AbstractDynamoItem parent;
+    private final String attributeName;
+
+    public NestedDynamoItem(AbstractDynamoItem parent, String attributeName, Map<String, AttributeValue> map)
+    {
+        super(map);
+        this.parent = parent;
+        this.attributeName = attributeName;
+    }
+
+    @Override
+    protected void attributeChanged(Object attributeName)
+    {
+        super.attributeChanged(attributeName);
+        parent.attributeChanged(this.attributeName);
+    }
+
+    @Override
+    protected void attributesCleared()
+    {
+        super.attributesCleared();
+        parent.attributeChanged(attributeName);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses and formats the text of DynamoDB number attributes.
+ * <p>
+ * DynamoDB stores numbers as text with up to 38 significant digits, and
+ * normalizes them by removing leading and trailing zeros. The formatting
+ * methods produce that same form, without exponents, so that a number
+ * written by an item compares equal to the number read back.
+ * <p>
+ * The parsing methods accept any form DynamoDB accepts, including
+ * decimals and exponents. Plain integers, which are by far the most
+ * common, are parsed directly from the text without allocating.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+final class NumberCodec
+{
+    private static final int MAXIMUM_PRECISION = 38;
+    private static final int MINIMUM_EXPONENT = -130;
+    private static final int MAXIMUM_EXPONENT = 125;
+    private static final double MAXIMUM_EXACT_DOUBLE = 1L << 53;
+
+    private NumberCodec()
+    {
+    }
+
+    /**
+     * Parses a number which must be a whole {@code long} value.
+     *
+     * @param text the number text
+     * @return the value
+     * @throws NumberFormatException if the text is null or not a number, or is not a whole number within range
+     */
+    static long parseLong(String text)
+    {
+        if(text == null)
+            throw new NumberFormatException("null");
+
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if(length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+'))
+        {
+            negative = text.charAt(0) == '-';
+            index = 1;
+        }
+        if(index == length)
+            throw numberFormatException(text);
+
+        // Accumulates negatively, since Long.MIN_VALUE has no positive counterpart.
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplicationLimit = limit / 10;
+        long result = 0;
+        for (; index < length; index++)
+        {
+            int digit = text.charAt(index) - '0';
+            if(digit < 0 || digit > 9 || result < multiplicationLimit)
+                return parseLongSlowly(text);
+
+            result *= 10;
+            if(result < limit + digit)
+                return parseLongSlowly(text);
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses a number as the nearest {@code double} value.
+     *
+     * @param text the number text
+     * @return the value
+     * @throws NumberFormatException if the text is not a number
+     */
+    static double parseDouble(String text)
+    {
+        if(isPlainInteger(text) && text.length() <= 15)
+            return parseLong(text);
+
+        return Double.parseDouble(text);
+    }
+
+    /**
+     * Parses a number exactly.
+     *
+     * @param text the number text
+     * @return the value
+     * @throws NumberFormatException if the text is not a number
+     */
+    static BigDecimal parseDecimal(String text)
+    {
+        return new BigDecimal(text);
+    }
+
+    /**
+     * Formats a {@code long} value.
+     *
+     * @param value the value
+     * @return the number text
+     */
+    static String formatLong(long value)
+    {
+        return Long.toString(value);
+    }
+
+    /**
+     * Formats a {@code double} value in DynamoDB's normalized form,
+     * using the fewest digits which parse back to the same value.
+     *
+     * @param value the value
+     * @return the number text
+     * @throws IllegalArgumentException if DynamoDB cannot store the value
+     */
+    static String formatDouble(double value)
+    {
+        if(Double.isNaN(value) || Double.isInfinite(value))
+            throw new IllegalArgumentException("DynamoDB cannot store the number " + value);
+
+        if(value == Math.rint(value) && Math.abs(value) < MAXIMUM_EXACT_DOUBLE)
+            return Long.toString((long) value);
+
+        return formatDecimal(BigDecimal.valueOf(value));
+    }
+
+    /**
+     * Formats a {@link BigDecimal} value in DynamoDB's normalized form.
+     *
+     * @param value the value
+     * @return the number text
+     * @throws IllegalArgumentException if DynamoDB cannot store the value
+     */
+    static String formatDecimal(BigDecimal value)
+    {
+        if(value.signum() == 0)
+            return "0";
+
+        BigDecimal normalized = value.stripTrailingZeros();
+        if(normalized.precision() > MAXIMUM_PRECISION)
+            throw new IllegalArgumentException("DynamoDB cannot store more than " + MAXIMUM_PRECISION + " significant digits: " + value);
+
+        int exponent = normalized.precision() - normalized.scale() - 1;
+        if(exponent < MINIMUM_EXPONENT || exponent > MAXIMUM_EXPONENT)
+            throw new IllegalArgumentException("DynamoDB cannot store the number " + value);
+
+        return normalized.toPlainString();
+    }
+
+    private static boolean isPlainInteger(String text)
+    {
+        int length = text.length();
+        int index = 0;
+        if(length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+'))
+            index = 1;
+        if(index == length)
+            return false;
+
+        for (; index < length; index++)
+        {
+            char character = text.charAt(index);
+            if(character < '0' || character > '9')
+                return false;
+        }
+        return true;
+    }
+
+    private static long parseLongSlowly(String text)
+    {
+        BigDecimal value;
+        try
+        {
+            value = new BigDecimal(text);
+        }
+        catch (NumberFormatException ex)
+        {
+            throw numberFormatException(text);
+        }
+
+        try
+        {
+            return value.longValueExact();
+        }
+        catch (ArithmeticException ex)
+        {
+            throw numberFormatException(text);
+        }
+    }
+
+    private static NumberFormatException numberFormatException(String text)
+    {
+        return new NumberFormatException("For input string: \"" + text + "\"");
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A thread-safe {@link ByteBufferAllocator} which keeps released
+ * buffers in pools and allocates from them again.
+ * <p>
+ * Buffers are pooled by power-of-two capacities between 1 KB and a
+ * configurable maximum. Larger requests are allocated without pooling.
+ * Each capacity keeps a bounded number of released buffers.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class PooledByteBufferAllocator implements ByteBufferAllocator
+{
+    private static final int MINIMUM_POOLED_CAPACITY_SHIFT = 10;
+
+    private final boolean direct;
+    private final int maximumPooledCapacity;
+    private final int maximumBuffersPerCapacity;
+    private final List<Queue<ByteBuffer>> pools;
+    private final AtomicIntegerArray pooledCounts;
+
+    /**
+     * Creates an allocator of heap buffers, pooling up to 64 buffers
+     * of each capacity up to 1 MB.
+     */
+    public PooledByteBufferAllocator()
+    {
+        this(false, 1 << 20, 64);
+    }
+
+    /**
+     * Creates an allocator.
+     *
+     * @param direct true to allocate direct buffers, false for heap buffers
+     * @param maximumPooledCapacity the largest capacity which is pooled
+     * @param maximumBuffersPerCapacity the number of released buffers kept for each capacity
+     */
+    public PooledByteBufferAllocator(boolean direct, int maximumPooledCapacity, int maximumBuffersPerCapacity)
+    {
+        if(maximumPooledCapacity < 1 << MINIMUM_POOLED_CAPACITY_SHIFT)
+            throw new IllegalArgumentException("The maximum pooled capacity must be at least " + (1 << MINIMUM_POOLED_CAPACITY_SHIFT));
+
+        this.direct = direct;
+        this.maximumPooledCapacity = Integer.highestOneBit(maximumPooledCapacity);
+        this.maximumBuffersPerCapacity = maximumBuffersPerCapacity;
+
+        int poolCount = Integer.numberOfTrailingZeros(this.maximumPooledCapacity) - MINIMUM_POOLED_CAPACITY_SHIFT + 1;
+        pools = new ArrayList<>(poolCount);
+        for(int i = 0; i < poolCount; i++)
+            pools.add(new ConcurrentLinkedQueue<ByteBuffer>());
+        pooledCounts = new AtomicIntegerArray(poolCount);
+    }
+
+    @Override
+    public ByteBuffer allocate(int capacity)
+    {
+        if(capacity < 0)
+            throw new IllegalArgumentException("The capacity cannot be negative.");
+
+        if(capacity > maximumPooledCapacity)
+            return newBuffer(capacity);
+
+        int poolIndex = poolIndexFor(capacity);
+        ByteBuffer buffer = pools.get(poolIndex).poll();
+        if(buffer == null)
+        {
+            buffer = newBuffer(1 << (poolIndex + MINIMUM_POOLED_CAPACITY_SHIFT));
+        }
+        else
+        {
+            pooledCounts.decrementAndGet(poolIndex);
+            buffer.clear();
+        }
+
+        buffer.limit(capacity);
+        return buffer;
+    }
+
+    @Override
+    public void release(ByteBuffer buffer)
+    {
+        if(buffer == null || buffer.isReadOnly() || buffer.isDirect() != direct)
+            return;
+
+        int capacity = buffer.capacity();
+        if(capacity > maximumPooledCapacity || Integer.bitCount(capacity) != 1 || capacity < 1 << MINIMUM_POOLED_CAPACITY_SHIFT)
+            return;
+
+        int poolIndex = poolIndexFor(capacity);
+        if(pooledCounts.incrementAndGet(poolIndex) > maximumBuffersPerCapacity)
+        {
+            pooledCounts.decrementAndGet(poolIndex);
+            return;
+        }
+        pools.get(poolIndex).offer(buffer);
+    }
+
+    int pooledBufferCount(int capacity)
+    {
+        return pooledCounts.get(poolIndexFor(capacity));
+    }
+
+    private static int poolIndexFor(int capacity)
+    {
+        if(capacity <= 1 << MINIMUM_POOLED_CAPACITY_SHIFT)
+            return 0;
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MINIMUM_POOLED_CAPACITY_SHIFT;
+    }
+
+    private ByteBuffer newBuffer(int capacity)
+    {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An internal implementation of {@link ReusableDynamoItem} which
+ * borrows its map from an {@link ItemPool}.
+ * <p>
+ * Every operation first checks that the item has not been released.
+ * In debug mode, each borrowed item is a new instance over pooled
+ * storage, so that a released item stays released even after its
+ * storage is borrowed again, and remembers where it was released.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class PooledDynamoItem extends AbstractDynamoItem implements ReusableDynamoItem
+{
+    private final ItemPool pool;
+    private HashMap<String, AttributeValue> map;
+    private Throwable releasedAt;
+
+    PooledDynamoItem(ItemPool pool, HashMap<String, AttributeValue> map)
+    {
+        this.pool = pool;
+        this.map = map;
+    }
+
+    HashMap<String, AttributeValue> storage()
+    {
+        return map;
+    }
+
+    /**
+     * Makes a released item usable again, when it is
+     * borrowed from the pool outside of debug mode.
+     */
+    void borrowed()
+    {
+        releasedAt = null;
+    }
+
+    @Override
+    public void reset()
+    {
+        checkNotReleased();
+        map.clear();
+        attributesCleared();
+        setCompressionPolicy(null);
+    }
+
+    @Override
+    public void release()
+    {
+        checkNotReleased();
+        int attributeCount = map.size();
+        reset();
+        releasedAt = pool.isDebugEnabled()
+                ? new Throwable("The item was released here.")
+                : ItemPool.RELEASED;
+        pool.release(this, attributeCount);
+    }
+
+    @Override
+    public int size()
+    {
+        return map().size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return map().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        return map().containsValue(value);
+    }
+
+    @Override
+    public AttributeValue get(Object key)
+    {
+        return map().get(key);
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value)
+    {
+        checkNotReleased();
+        attributeChanged(key);
+        return map.put(key, value);
+    }
+
+    @Override
+    public AttributeValue remove(Object key)
+    {
+        checkNotReleased();
+        attributeChanged(key);
+        return map.remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m)
+    {
+        checkNotReleased();
+        for (String key : m.keySet())
+            attributeChanged(key);
+        map.putAll(m);
+    }
+
+    @Override
+    public void clear()
+    {
+        checkNotReleased();
+        attributesCleared();
+        map.clear();
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        checkNotReleased();
+        return MapViews.keySet(this, map);
+    }
+
+    @Override
+    public Collection<AttributeValue> values()
+    {
+        checkNotReleased();
+        return MapViews.values(this, map);
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet()
+    {
+        checkNotReleased();
+        return MapViews.entrySet(this, map);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        checkNotReleased();
+        return attributesEqual(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        checkNotReleased();
+        return attributesHashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        if(releasedAt != null)
+            return "PooledDynamoItem{released}";
+        return attributesToString();
+    }
+
+    private Map<String, AttributeValue> map()
+    {
+        checkNotReleased();
+        return map;
+    }
+
+    private void checkNotReleased()
+    {
+        if(releasedAt != null)
+            throw new IllegalStateException("The item has been released.", releasedAt == ItemPool.RELEASED ? null : releasedAt);
+    }
+}
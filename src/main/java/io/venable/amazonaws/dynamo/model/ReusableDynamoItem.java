@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+/**
+ * A {@link DynamoItem} whose storage can be reused for other items.
+ * <p>
+ * Consumers processing many short-lived items borrow them with
+ * {@link DynamoItemFactory#borrowItem()}, and release each one when
+ * done with it, instead of creating a new item each time. An item must
+ * not be used after it is released, nor may references to it or to its
+ * views be kept. With {@link DynamoItemFactory#setPoolDebugEnabled(boolean)},
+ * using an item after releasing it throws an {@link IllegalStateException}.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public interface ReusableDynamoItem extends DynamoItem
+{
+    /**
+     * Removes all attributes and the compression policy,
+     * keeping the storage for the next attributes put.
+     *
+     * @since 0.4
+     */
+    void reset();
+
+    /**
+     * Resets this item and returns its storage to the pool of the
+     * current thread. The item must not be used afterwards.
+     *
+     * @throws IllegalStateException if the item was already released
+     * @since 0.4
+     */
+    void release();
+}
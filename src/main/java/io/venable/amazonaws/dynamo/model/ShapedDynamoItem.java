@@ -0,0 +1,512 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An internal implementation of {@link DynamoItem} which stores
+ * its values in an array laid out by a shared {@link ItemShape}.
+ * <p>
+ * Attributes which are not part of the shape, as well as
+ * {@code null} values, are kept in a separate map. That map
+ * is only created when it is first needed.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class ShapedDynamoItem extends AbstractDynamoItem
+{
+    private final ItemShape shape;
+    private final AttributeValue[] values;
+    private Map<String, AttributeValue> overflow;
+    private int valueCount;
+    private int modCount;
+
+    public ShapedDynamoItem(ItemShape shape)
+    {
+        this.shape = shape;
+        values = new AttributeValue[shape.size()];
+    }
+
+    ItemShape getShape()
+    {
+        return shape;
+    }
+
+    @Override
+    public int size()
+    {
+        return valueCount + (overflow == null ? 0 : overflow.size());
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        int index = shape.indexOf(key);
+        if(index >= 0 && values[index] != null)
+            return true;
+
+        return overflow != null && overflow.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        if(value != null)
+        {
+            for (AttributeValue attributeValue : values)
+            {
+                if(value.equals(attributeValue))
+                    return true;
+            }
+        }
+
+        return overflow != null && overflow.containsValue(value);
+    }
+
+    @Override
+    public AttributeValue get(Object key)
+    {
+        int index = shape.indexOf(key);
+        if(index >= 0 && values[index] != null)
+            return values[index];
+
+        if(overflow == null)
+            return null;
+        return overflow.get(key);
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value)
+    {
+        attributeChanged(key);
+
+        int index = shape.indexOf(key);
+        if(index < 0)
+            return putOverflow(key, value);
+
+        AttributeValue previousValue = values[index];
+        if(value == null)
+        {
+            if(previousValue == null)
+                return putOverflow(key, null);
+
+            clearValue(index);
+            putOverflow(key, null);
+            return previousValue;
+        }
+
+        if(previousValue == null)
+        {
+            if(overflow != null && overflow.containsKey(key))
+            {
+                overflow.remove(key);
+            }
+            else
+            {
+                modCount++;
+            }
+            valueCount++;
+        }
+        values[index] = value;
+        return previousValue;
+    }
+
+    @Override
+    public AttributeValue remove(Object key)
+    {
+        attributeChanged(key);
+
+        int index = shape.indexOf(key);
+        if(index >= 0 && values[index] != null)
+        {
+            AttributeValue previousValue = values[index];
+            clearValue(index);
+            return previousValue;
+        }
+
+        if(overflow == null || !overflow.containsKey(key))
+            return null;
+
+        modCount++;
+        return overflow.remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m)
+    {
+        for (Entry<? extends String, ? extends AttributeValue> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public void clear()
+    {
+        attributesCleared();
+
+        for (int i = 0; i < values.length; i++)
+            values[i] = null;
+        valueCount = 0;
+        overflow = null;
+        modCount++;
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return new AbstractSet<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                final Iterator<Entry<String, AttributeValue>> entryIterator = new EntryIterator();
+                return new Iterator<String>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return entryIterator.hasNext();
+                    }
+
+                    @Override
+                    public String next()
+                    {
+                        return entryIterator.next().getKey();
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        entryIterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return ShapedDynamoItem.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return containsKey(o);
+            }
+        };
+    }
+
+    @Override
+    public Collection<AttributeValue> values()
+    {
+        return new AbstractCollection<AttributeValue>()
+        {
+            @Override
+            public Iterator<AttributeValue> iterator()
+            {
+                final Iterator<Entry<String, AttributeValue>> entryIterator = new EntryIterator();
+                return new Iterator<AttributeValue>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return entryIterator.hasNext();
+                    }
+
+                    @Override
+                    public AttributeValue next()
+                    {
+                        return entryIterator.next().getValue();
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        entryIterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return ShapedDynamoItem.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, AttributeValue>> entrySet()
+    {
+        return new AbstractSet<Entry<String, AttributeValue>>()
+        {
+            @Override
+            public Iterator<Entry<String, AttributeValue>> iterator()
+            {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return ShapedDynamoItem.this.size();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return attributesEqual(o);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return attributesHashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return attributesToString();
+    }
+
+    private AttributeValue putOverflow(String key, AttributeValue value)
+    {
+        if(overflow == null)
+            overflow = new HashMap<>(4);
+
+        if(!overflow.containsKey(key))
+            modCount++;
+        return overflow.put(key, value);
+    }
+
+    private void clearValue(int index)
+    {
+        values[index] = null;
+        valueCount--;
+        modCount++;
+    }
+
+    /**
+     * Iterates the values in shape order, followed by
+     * any attributes kept outside of the shape.
+     */
+    private class EntryIterator implements Iterator<Entry<String, AttributeValue>>
+    {
+        private int nextIndex;
+        private int lastIndex = -1;
+        private Iterator<Entry<String, AttributeValue>> overflowIterator;
+        private Entry<String, AttributeValue> lastOverflowEntry;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext()
+        {
+            while(nextIndex < values.length && values[nextIndex] == null)
+                nextIndex++;
+
+            if(nextIndex < values.length)
+                return true;
+
+            return overflowIterator().hasNext();
+        }
+
+        @Override
+        public Entry<String, AttributeValue> next()
+        {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            if(nextIndex < values.length)
+            {
+                lastIndex = nextIndex++;
+                return new ValueEntry(lastIndex);
+            }
+
+            lastIndex = -1;
+            lastOverflowEntry = overflowIterator.next();
+            return new OverflowEntry(lastOverflowEntry);
+        }
+
+        @Override
+        public void remove()
+        {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+
+            if(lastIndex >= 0)
+            {
+                attributeChanged(shape.getAttributeNames().get(lastIndex));
+                clearValue(lastIndex);
+                lastIndex = -1;
+            }
+            else if(lastOverflowEntry != null)
+            {
+                attributeChanged(lastOverflowEntry.getKey());
+                overflowIterator.remove();
+                lastOverflowEntry = null;
+                modCount++;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+            expectedModCount = modCount;
+        }
+
+        private Iterator<Entry<String, AttributeValue>> overflowIterator()
+        {
+            if(overflowIterator == null)
+            {
+                Map<String, AttributeValue> overflowMap = overflow;
+                if(overflowMap == null)
+                    overflowMap = Collections.emptyMap();
+                overflowIterator = overflowMap.entrySet().iterator();
+            }
+            return overflowIterator;
+        }
+    }
+
+    /**
+     * An attribute kept outside of the shape, which tracks
+     * the size of the item when its value is set.
+     */
+    private class OverflowEntry implements Entry<String, AttributeValue>
+    {
+        private final Entry<String, AttributeValue> entry;
+
+        private OverflowEntry(Entry<String, AttributeValue> entry)
+        {
+            this.entry = entry;
+        }
+
+        @Override
+        public String getKey()
+        {
+            return entry.getKey();
+        }
+
+        @Override
+        public AttributeValue getValue()
+        {
+            return entry.getValue();
+        }
+
+        @Override
+        public AttributeValue setValue(AttributeValue value)
+        {
+            attributeChanged(getKey());
+            return entry.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return entry.equals(o);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return entry.toString();
+        }
+    }
+
+    private class ValueEntry implements Entry<String, AttributeValue>
+    {
+        private final int index;
+
+        private ValueEntry(int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey()
+        {
+            return shape.getAttributeNames().get(index);
+        }
+
+        @Override
+        public AttributeValue getValue()
+        {
+            return values[index];
+        }
+
+        @Override
+        public AttributeValue setValue(AttributeValue value)
+        {
+            Objects.requireNonNull(value);
+            attributeChanged(getKey());
+
+            AttributeValue previousValue = values[index];
+            values[index] = value;
+            return previousValue;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(!(o instanceof Entry))
+                return false;
+
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            return getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString()
+        {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
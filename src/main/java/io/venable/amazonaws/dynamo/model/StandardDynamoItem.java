@@ -30,7 +30,7 @@ import java.util.Set;
  * @author David Venable
  * @since 0.1
  */
-class StandardDynamoItem implements DynamoItem
+class StandardDynamoItem extends AbstractDynamoItem
 {
     private final Map<String, AttributeValue> map;
 
@@ -39,62 +39,19 @@ class StandardDynamoItem implements DynamoItem
         map = new HashMap<>();
     }
 
-    public StandardDynamoItem(Map<String, AttributeValue> map)
-    {
-        this.map = map;
-    }
-
-    @Override
-    public String getString(String attributeName)
-    {
-        AttributeValue attributeValue = map.get(attributeName);
-        if(attributeValue == null)
-            return null;
-
-        return attributeValue.getS();
-    }
-
-    @Override
-    public void putString(String attributeName, String value)
-    {
-        map.put(attributeName, new AttributeValue().withS(value));
-    }
-
-    @Override
-    public Long getLong(String attributeName)
+    public StandardDynamoItem(int initialCapacity)
     {
-        AttributeValue attributeValue = map.get(attributeName);
-        if(attributeValue == null)
-            return null;
-
-        return Long.parseLong(attributeValue.getN());
+        map = new HashMap<>(initialCapacity);
     }
 
-    @Override
-    public void putLong(String attributeName, Long value)
-    {
-        putNumber(attributeName, value);
-    }
-
-    @Override
-    public Integer getInteger(String attributeName)
-    {
-        AttributeValue attributeValue = map.get(attributeName);
-        if(attributeValue == null)
-            return null;
-
-        return Integer.parseInt(attributeValue.getN());
-    }
-
-    @Override
-    public void putInteger(String attributeName, Integer value)
-    {
-        putNumber(attributeName, value);
-    }
-
-    private void putNumber(String attributeName, Number value)
+    /**
+     * Creates an item backed by a map which the caller may still
+     * change, so the size of the item is measured each time.
+     */
+    public StandardDynamoItem(Map<String, AttributeValue> map)
     {
-        map.put(attributeName, new AttributeValue().withN(value.toString()));
+        this.map = map;
+        attributesShared();
     }
 
     @Override
@@ -130,42 +87,47 @@ class StandardDynamoItem implements DynamoItem
     @Override
     public AttributeValue put(String key, AttributeValue value)
     {
+        attributeChanged(key);
         return map.put(key, value);
     }
 
     @Override
     public AttributeValue remove(Object key)
     {
+        attributeChanged(key);
         return map.remove(key);
     }
 
     @Override
     public void putAll(Map<? extends String, ? extends AttributeValue> m)
     {
+        for (String key : m.keySet())
+            attributeChanged(key);
         map.putAll(m);
     }
 
     @Override
     public void clear()
     {
+        attributesCleared();
         map.clear();
     }
 
     @Override
     public Set<String> keySet()
     {
-        return map.keySet();
+        return MapViews.keySet(this, map);
     }
 
     @Override
     public Collection<AttributeValue> values()
     {
-        return map.values();
+        return MapViews.values(this, map);
     }
 
     @Override
     public Set<Entry<String, AttributeValue>> entrySet()
     {
-        return map.entrySet();
+        return MapViews.entrySet(this, map);
     }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded dictionary of string values, so that items loaded into
+ * memory share one instance of each repeated string, such as a status,
+ * a country code or a tenant ID, rather than each holding its own.
+ * <p>
+ * String attributes are replaced by a shared {@link AttributeValue},
+ * which cannot be changed in place, and the strings of string sets by
+ * the shared string. Once the dictionary holds its maximum number of
+ * strings, new strings are left as they are. Since the first strings
+ * seen are kept, the dictionary suits attributes with few distinct values.
+ * Strings longer than {@link #MAXIMUM_STRING_LENGTH} are never kept.
+ * <p>
+ * Deduplicators may be shared between threads.
+ *
+ * @author David Venable
+ * @see DynamoItemFactory#setDeduplicator(StringDeduplicator)
+ * @see DynamoItemFactory#setDeduplicator(String, StringDeduplicator)
+ * @since 0.4
+ */
+public final class StringDeduplicator
+{
+    /**
+     * The length of the longest strings which are deduplicated.
+     */
+    public static final int MAXIMUM_STRING_LENGTH = 256;
+
+    private final int maximumSize;
+    private final Set<String> attributeNames;
+    private final ConcurrentMap<String, AttributeValue> values = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates a deduplicator for the strings of all attributes.
+     *
+     * @param maximumSize the largest number of distinct strings to keep
+     */
+    public StringDeduplicator(int maximumSize)
+    {
+        this(maximumSize, Collections.<String>emptySet());
+    }
+
+    /**
+     * Creates a deduplicator for the strings of some attributes.
+     *
+     * @param maximumSize the largest number of distinct strings to keep
+     * @param attributeNames the attributes to deduplicate, or an empty collection for all attributes
+     */
+    public StringDeduplicator(int maximumSize, Collection<String> attributeNames)
+    {
+        if(maximumSize < 0)
+            throw new IllegalArgumentException("The maximum size cannot be negative.");
+
+        this.maximumSize = maximumSize;
+        this.attributeNames = attributeNames.isEmpty() ? null : new HashSet<>(attributeNames);
+    }
+
+    /**
+     * Gets the number of distinct strings kept.
+     *
+     * @return the number of strings
+     * @since 0.4
+     */
+    public int size()
+    {
+        return size.get();
+    }
+
+    /**
+     * Gets the shared instance of a string.
+     *
+     * @param value the string
+     * @return the shared instance, or the given string if it is not kept
+     * @since 0.4
+     */
+    public String deduplicate(String value)
+    {
+        AttributeValue attributeValue = sharedValue(value);
+        return attributeValue != null ? attributeValue.getS() : value;
+    }
+
+    /**
+     * Replaces the string values of an item with shared instances.
+     * This changes the item in place, and the string sets within it.
+     *
+     * @param item the item
+     * @since 0.4
+     */
+    public void deduplicate(Map<String, AttributeValue> item)
+    {
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet())
+        {
+            AttributeValue attributeValue = entry.getValue();
+            if(!isDeduplicated(entry.getKey(), attributeValue))
+                continue;
+
+            if(attributeValue.getS() != null)
+            {
+                AttributeValue sharedValue = sharedValue(attributeValue.getS());
+                if(sharedValue != null)
+                    entry.setValue(sharedValue);
+            }
+            else if(attributeValue.getSS() != null)
+            {
+                List<String> strings = attributeValue.getSS();
+                for (int i = 0; i < strings.size(); i++)
+                    strings.set(i, deduplicate(strings.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Gets an attribute value with its strings replaced by shared
+     * instances. Unlike {@link #deduplicate(Map)}, this does not change
+     * the given value, and copies a string set if any of its strings
+     * are replaced.
+     */
+    AttributeValue deduplicate(String attributeName, AttributeValue attributeValue)
+    {
+        if(!isDeduplicated(attributeName, attributeValue))
+            return attributeValue;
+
+        if(attributeValue.getS() != null)
+        {
+            AttributeValue sharedValue = sharedValue(attributeValue.getS());
+            return sharedValue != null ? sharedValue : attributeValue;
+        }
+        if(attributeValue.getSS() != null)
+        {
+            List<String> strings = attributeValue.getSS();
+            List<String> sharedStrings = null;
+            for (int i = 0; i < strings.size(); i++)
+            {
+                String string = strings.get(i);
+                String sharedString = deduplicate(string);
+                if(sharedString != string)
+                {
+                    if(sharedStrings == null)
+                        sharedStrings = new ArrayList<>(strings);
+                    sharedStrings.set(i, sharedString);
+                }
+            }
+            if(sharedStrings != null)
+                return new AttributeValue().withSS(sharedStrings);
+        }
+        return attributeValue;
+    }
+
+    private boolean isDeduplicated(String attributeName, AttributeValue attributeValue)
+    {
+        if(attributeValue == null || attributeValue instanceof ImmutableAttributeValue)
+            return false;
+        return attributeNames == null || attributeNames.contains(attributeName);
+    }
+
+    private AttributeValue sharedValue(String value)
+    {
+        if(value == null || value.length() > MAXIMUM_STRING_LENGTH)
+            return null;
+
+        AttributeValue attributeValue = values.get(value);
+        if(attributeValue != null || size.get() >= maximumSize)
+            return attributeValue;
+
+        if(size.incrementAndGet() > maximumSize)
+        {
+            size.decrementAndGet();
+            return values.get(value);
+        }
+
+        attributeValue = ImmutableAttributeValue.ofString(value);
+        AttributeValue existingValue = values.putIfAbsent(value, attributeValue);
+        if(existingValue != null)
+        {
+            size.decrementAndGet();
+            return existingValue;
+        }
+        return attributeValue;
+    }
+}
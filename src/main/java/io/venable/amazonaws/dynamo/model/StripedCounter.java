@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * An internal counter which many threads can add to with little
+ * contention, in the manner of {@code java.util.concurrent.atomic.LongAdder}.
+ * <p>
+ * Threads add to a single base value until an addition finds it contended.
+ * Only then is the count spread over several cells, each padded onto its
+ * own cache line, so counters which are never contended stay small. Each
+ * thread adds to one cell, and moves to another whenever it finds its cell
+ * contended. Reading the count sums the base and the cells, so it is not an
+ * atomic snapshot while other threads are adding.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class StripedCounter
+{
+    private static final int PADDING = 8;
+    private static final int CELL_COUNT;
+
+    private static final AtomicLongFieldUpdater<StripedCounter> BASE =
+            AtomicLongFieldUpdater.newUpdater(StripedCounter.class, "base");
+    private static final AtomicReferenceFieldUpdater<StripedCounter, AtomicLongArray> CELLS =
+            AtomicReferenceFieldUpdater.newUpdater(StripedCounter.class, AtomicLongArray.class, "cells");
+
+    private static final ThreadLocal<int[]> probes = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            int probe = (int) Thread.currentThread().getId() * 0x9E3779B9;
+            return new int[] { probe != 0 ? probe : 1 };
+        }
+    };
+
+    static
+    {
+        int cellCount = 1;
+        while(cellCount < Runtime.getRuntime().availableProcessors() && cellCount < 64)
+            cellCount <<= 1;
+        CELL_COUNT = cellCount;
+    }
+
+    private volatile long base;
+    private volatile AtomicLongArray cells;
+
+    StripedCounter(long initialValue)
+    {
+        base = initialValue;
+    }
+
+    void add(long delta)
+    {
+        AtomicLongArray currentCells = cells;
+        if(currentCells == null)
+        {
+            long current = base;
+            if(BASE.compareAndSet(this, current, current + delta))
+                return;
+
+            // With a single processor, the cells would be no less contended than the base.
+            if(CELL_COUNT == 1)
+            {
+                BASE.addAndGet(this, delta);
+                return;
+            }
+            currentCells = stripe();
+        }
+
+        int[] probe = probes.get();
+        while(true)
+        {
+            int index = (probe[0] & (CELL_COUNT - 1)) * PADDING;
+            long current = currentCells.get(index);
+            if(currentCells.compareAndSet(index, current, current + delta))
+                return;
+
+            probe[0] = nextProbe(probe[0]);
+        }
+    }
+
+    long sum()
+    {
+        long sum = base;
+        AtomicLongArray currentCells = cells;
+        if(currentCells != null)
+        {
+            for (int cell = 0; cell < CELL_COUNT; cell++)
+                sum += currentCells.get(cell * PADDING);
+        }
+        return sum;
+    }
+
+    boolean isStriped()
+    {
+        return cells != null;
+    }
+
+    /**
+     * Creates the cells, unless another thread already has.
+     */
+    private AtomicLongArray stripe()
+    {
+        AtomicLongArray newCells = new AtomicLongArray(CELL_COUNT * PADDING);
+        if(CELLS.compareAndSet(this, null, newCells))
+            return newCells;
+        return cells;
+    }
+
+    private static int nextProbe(int probe)
+    {
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        return probe;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An internal implementation of {@link DynamoItem} which records
+ * the attributes changed since it was last persisted.
+ * <p>
+ * It keeps the values it was loaded with, without copying them.
+ * Puts and removes, including those made through the views, record the
+ * attribute's name, and an attribute is only changed if its value no
+ * longer equals the persisted value. Clearing the item compares every
+ * attribute instead. Getting a nested item records the attribute as
+ * changed, since the nested item may be modified in place.
+ *
+ * @author David Venable
+ * @see ItemUpdates
+ * @since 0.4
+ */
+class TrackedDynamoItem extends StandardDynamoItem
+{
+    private Map<String, AttributeValue> persistedValues;
+    private final Set<Object> changedAttributes = new HashSet<>();
+    private final Set<String> modifiedInPlace = new HashSet<>();
+    private boolean compareAll;
+
+    public TrackedDynamoItem(Map<String, AttributeValue> map)
+    {
+        super(map);
+        markPersisted();
+    }
+
+    /**
+     * Makes the current values the persisted values, after
+     * which the item has no changes.
+     */
+    void markPersisted()
+    {
+        persistedValues = new HashMap<>(this);
+        changedAttributes.clear();
+        modifiedInPlace.clear();
+        compareAll = false;
+    }
+
+    /**
+     * Finds the attributes which were set or removed since the
+     * item was last persisted.
+     *
+     * @param setAttributes receives the attributes with new values
+     * @param removedAttributes receives the names of removed attributes
+     */
+    void findChanges(Map<String, AttributeValue> setAttributes, Set<String> removedAttributes)
+    {
+        Collection<?> attributeNames = changedAttributes;
+        if(compareAll)
+        {
+            Set<Object> allNames = new LinkedHashSet<Object>(keySet());
+            allNames.addAll(persistedValues.keySet());
+            attributeNames = allNames;
+        }
+
+        for (Object attributeName : attributeNames)
+            addChange(attributeName, setAttributes, removedAttributes);
+        for (String attributeName : modifiedInPlace)
+        {
+            if(!setAttributes.containsKey(attributeName))
+                addChange(attributeName, setAttributes, removedAttributes);
+        }
+    }
+
+    private void addChange(Object attributeName, Map<String, AttributeValue> setAttributes, Set<String> removedAttributes)
+    {
+        if(!(attributeName instanceof String))
+            return;
+
+        String name = (String) attributeName;
+        AttributeValue value = get(name);
+        AttributeValue persistedValue = persistedValues.get(name);
+        if(value == null)
+        {
+            if(persistedValue != null)
+                removedAttributes.add(name);
+        }
+        else if(modifiedInPlace.contains(name) || !value.equals(persistedValue))
+        {
+            setAttributes.put(name, value);
+        }
+    }
+
+    @Override
+    public DynamoItem getItem(String attributeName)
+    {
+        DynamoItem item = super.getItem(attributeName);
+        if(item != null)
+            modifiedInPlace.add(attributeName);
+        return item;
+    }
+
+    @Override
+    protected void attributeChanged(Object attributeName)
+    {
+        super.attributeChanged(attributeName);
+        changedAttributes.add(attributeName);
+    }
+
+    @Override
+    protected void attributesCleared()
+    {
+        super.attributesCleared();
+        compareAll = true;
+    }
+}
@@ -18,47 +18,322 @@ package io.venable.amazonaws.dynamo.table;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.LimitExceededException;
+import com.amazonaws.services.dynamodbv2.model.ResourceInUseException;
 import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
 import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
 import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Creates tables on demand.
+ * <p>
+ * Each table is only provisioned once per process. Callers which
+ * ask for the same table at the same time share a single request to
+ * describe the table and, if it does not exist, to create it. They
+ * all then wait until the table is active. Once a table is active,
+ * asking for it again returns immediately without calling DynamoDB.
+ * If provisioning fails, the next caller tries again.
+ * <p>
+ * When given a {@link TableMetadataCache}, the table is first looked up in
+ * the cache, so that a process started with an unexpired snapshot of an
+ * active table does not call DescribeTable for it at all. The cache's own
+ * client describes the table, and the cache is updated as the table is
+ * polled until it is active.
+ *
  * @author David Venable
  */
 public class TableHelper
 {
-    private static final Set<String> tablesRequested = Collections.synchronizedSet(new HashSet<String>());
+    private static final long INITIAL_POLL_DELAY_MILLIS = 100;
+    private static final long MAXIMUM_POLL_DELAY_MILLIS = 5000;
+    private static final long MAXIMUM_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final ConcurrentMap<String, Future<TableDescription>> tablesRequested = new ConcurrentHashMap<>();
 
+    /**
+     * Creates a table if it does not exist, and waits until it is active.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param tableName the name of the table
+     * @param tableDefiner defines the table, if it needs to be created
+     * @throws TableProvisioningException if the table does not become active, or the thread is interrupted
+     */
     public static void createTableIfNecessary(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner)
     {
-        if(tablesRequested.contains(tableName))
-            return;
+        createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner, null, null, Clock.SYSTEM);
+    }
 
-        if(doesTableExist(amazonDynamoDB, tableName))
+    /**
+     * Creates a table if it does not exist, and waits until it is active.
+     * A table which the cache holds as active is not described again.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param tableName the name of the table
+     * @param tableDefiner defines the table, if it needs to be created
+     * @param tableMetadataCache the cache to describe the table through
+     * @throws TableProvisioningException if the table does not become active, or the thread is interrupted
+     * @since 0.4
+     */
+    public static void createTableIfNecessary(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner, TableMetadataCache tableMetadataCache)
+    {
+        createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner, null, tableMetadataCache, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a table if it does not exist, and waits until it is active,
+     * holding a permit while the table is being created.
+     *
+     * @param creationPermits limits the tables being created at once, or null for no limit
+     * @param tableMetadataCache the cache to describe the table through, or null to always describe it
+     * @param clock the clock which the time to wait is measured with
+     * @return the description of the active table
+     */
+    static TableDescription createTableIfNecessary(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner, Semaphore creationPermits,
+                                                   TableMetadataCache tableMetadataCache, Clock clock)
+    {
+        FutureTask<TableDescription> newTask = createTask(amazonDynamoDB, tableName, tableDefiner, creationPermits, tableMetadataCache, clock);
+        Future<TableDescription> future = tablesRequested.putIfAbsent(tableName, newTask);
+        if(future == null)
         {
-            tablesRequested.add(tableName);
-            return;
+            future = newTask;
+            newTask.run();
         }
 
-        TableBuilder tableBuilder = new TableBuilder().name(tableName);
-        tableDefiner.defineTable(tableBuilder);
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while waiting for table " + tableName + " to become active.", ex);
+        }
+        catch (ExecutionException ex)
+        {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new TableProvisioningException("Failed to create table " + tableName, ex.getCause());
+        }
+    }
+
+    /**
+     * Creates a table if it does not exist, without blocking the caller.
+     * Provisioning runs on a shared pool of daemon threads.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param tableName the name of the table
+     * @param tableDefiner defines the table, if it needs to be created
+     * @return a future which completes with the description of the table once it is active
+     * @since 0.4
+     */
+    public static Future<TableDescription> createTableIfNecessaryAsync(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner)
+    {
+        return createTableIfNecessaryAsync(amazonDynamoDB, tableName, tableDefiner, null, TableExecutors.DEFAULT);
+    }
 
-        tableBuilder.create(amazonDynamoDB);
+    /**
+     * Creates a table if it does not exist, without blocking the caller.
+     * A table which the cache holds as active is not described again.
+     * Provisioning runs on a shared pool of daemon threads.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param tableName the name of the table
+     * @param tableDefiner defines the table, if it needs to be created
+     * @param tableMetadataCache the cache to describe the table through
+     * @return a future which completes with the description of the table once it is active
+     * @since 0.4
+     */
+    public static Future<TableDescription> createTableIfNecessaryAsync(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner, TableMetadataCache tableMetadataCache)
+    {
+        return createTableIfNecessaryAsync(amazonDynamoDB, tableName, tableDefiner, tableMetadataCache, TableExecutors.DEFAULT);
+    }
 
-        tablesRequested.add(tableName);
+    /**
+     * Creates a table if it does not exist, without blocking the caller.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param tableName the name of the table
+     * @param tableDefiner defines the table, if it needs to be created
+     * @param executor runs the provisioning, if it is not already running
+     * @return a future which completes with the description of the table once it is active
+     * @since 0.4
+     */
+    public static Future<TableDescription> createTableIfNecessaryAsync(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner, Executor executor)
+    {
+        return createTableIfNecessaryAsync(amazonDynamoDB, tableName, tableDefiner, null, executor);
     }
 
-    private static boolean doesTableExist(AmazonDynamoDB dynamo, String tableName) {
-        try {
-            TableDescription table = dynamo.describeTable(new DescribeTableRequest(tableName)).getTable();
-            return TableStatus.ACTIVE.toString().equals(table.getTableStatus());
-        } catch (ResourceNotFoundException ex) {
+    private static Future<TableDescription> createTableIfNecessaryAsync(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner, TableMetadataCache tableMetadataCache, Executor executor)
+    {
+        FutureTask<TableDescription> newTask = createTask(amazonDynamoDB, tableName, tableDefiner, null, tableMetadataCache, Clock.SYSTEM);
+        Future<TableDescription> future = tablesRequested.putIfAbsent(tableName, newTask);
+        if(future != null)
+            return future;
+
+        try
+        {
+            executor.execute(newTask);
+        }
+        catch (RuntimeException ex)
+        {
+            tablesRequested.remove(tableName, newTask);
+            throw ex;
+        }
+        return newTask;
+    }
+
+    /**
+     * Creates a task which provisions the table, and which forgets
+     * the table if it fails or is cancelled, so that it can be tried again.
+     */
+    private static FutureTask<TableDescription> createTask(final AmazonDynamoDB amazonDynamoDB, final String tableName, final TableDefiner tableDefiner, final Semaphore creationPermits,
+                                                           final TableMetadataCache tableMetadataCache, final Clock clock)
+    {
+        return new FutureTask<TableDescription>(new Callable<TableDescription>()
+        {
+            @Override
+            public TableDescription call() throws Exception
+            {
+                return provisionTable(amazonDynamoDB, tableName, tableDefiner, creationPermits, tableMetadataCache, clock);
+            }
+        })
+        {
+            @Override
+            protected void done()
+            {
+                try
+                {
+                    get();
+                }
+                catch (ExecutionException | CancellationException | InterruptedException ex)
+                {
+                    tablesRequested.remove(tableName, this);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates the table if it does not exist, and polls until it is active.
+     * A permit is held from before the table is created until it is active,
+     * since DynamoDB limits the tables which may be created at once. The
+     * time to wait starts again once the permit is held, so that time spent
+     * waiting for a permit does not count against the table's creation.
+     */
+    private static TableDescription provisionTable(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner, Semaphore creationPermits,
+                                                   TableMetadataCache tableMetadataCache, Clock clock) throws InterruptedException
+    {
+        long deadline = clock.currentTimeMillis() + MAXIMUM_WAIT_MILLIS;
+        long delay = INITIAL_POLL_DELAY_MILLIS;
+        boolean createRequested = false;
+        boolean permitHeld = false;
+        boolean polling = false;
+        try
+        {
+            while(true)
+            {
+                TableDescription table = describeTable(amazonDynamoDB, tableName, tableMetadataCache, polling);
+                polling = true;
+                if(table == null && !createRequested)
+                {
+                    if(creationPermits != null && !permitHeld)
+                    {
+                        creationPermits.acquire();
+                        permitHeld = true;
+                        deadline = clock.currentTimeMillis() + MAXIMUM_WAIT_MILLIS;
+                    }
+                    createRequested = createTable(amazonDynamoDB, tableName, tableDefiner);
+                }
+                else if(table != null && TableStatus.ACTIVE.toString().equals(table.getTableStatus()))
+                {
+                    return table;
+                }
+
+                if(clock.currentTimeMillis() + delay > deadline)
+                    throw new TableProvisioningException("Table " + tableName + " did not become active within " + MAXIMUM_WAIT_MILLIS + " ms.");
+
+                Thread.sleep(withJitter(delay));
+                delay = Math.min(delay * 2, MAXIMUM_POLL_DELAY_MILLIS);
+            }
+        }
+        finally
+        {
+            if(permitHeld)
+                creationPermits.release();
+        }
+    }
+
+    /**
+     * Describes the table through the cache, if there is one. Only the first
+     * description may come from the cache, since the table is polled to see it change.
+     */
+    private static TableDescription describeTable(AmazonDynamoDB amazonDynamoDB, String tableName, TableMetadataCache tableMetadataCache, boolean polling)
+    {
+        if(tableMetadataCache == null)
+            return describeTable(amazonDynamoDB, tableName);
+
+        if(polling)
+            tableMetadataCache.invalidate(tableName);
+        return tableMetadataCache.getTable(tableName);
+    }
+
+    private static TableDescription describeTable(AmazonDynamoDB amazonDynamoDB, String tableName)
+    {
+        try
+        {
+            return amazonDynamoDB.describeTable(new DescribeTableRequest(tableName)).getTable();
+        }
+        catch (ResourceNotFoundException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Creates the table, unless another process has just created it.
+     *
+     * @return false if too many tables are already being created, and this should be tried again
+     */
+    private static boolean createTable(AmazonDynamoDB amazonDynamoDB, String tableName, TableDefiner tableDefiner)
+    {
+        TableBuilder tableBuilder = new TableBuilder().name(tableName);
+        tableDefiner.defineTable(tableBuilder);
+
+        try
+        {
+            tableBuilder.create(amazonDynamoDB);
+        }
+        catch (ResourceInUseException ex)
+        {
+            // The table is being created elsewhere. Wait for it.
+        }
+        catch (LimitExceededException ex)
+        {
             return false;
         }
+        return true;
+    }
+
+    /**
+     * Chooses a delay between half of and the full delay, so that
+     * processes which start together do not poll together.
+     */
+    private static long withJitter(long delay)
+    {
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
     }
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the descriptions of tables, so that their key schemas,
+ * indexes and throughput can be read without calling DescribeTable
+ * each time.
+ * <p>
+ * Descriptions are kept for a time to live. Once a description has
+ * reached most of its time to live, reading it refreshes it in the
+ * background, while the cached description is still returned. An expired
+ * description is loaded again before it is returned. Threads which need
+ * the same table at once share a single DescribeTable request.
+ * Tables which do not exist are not cached, so each request for one
+ * calls DescribeTable, until the table has been created.
+ * <p>
+ * The cache may be given a snapshot file. The snapshot is read when
+ * the cache is created, and written whenever a description is loaded,
+ * so that a restarted process can use the descriptions which have not
+ * expired without calling DynamoDB. The snapshot is JSON, and reading it
+ * only ever creates table descriptions. The snapshot is only an optimization:
+ * if it cannot be read or written, the cache works without it.
+ * <p>
+ * Caches may be shared between threads.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class TableMetadataCache
+{
+    private static final double REFRESH_AHEAD_FRACTION = 0.8;
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final long timeToLiveMillis;
+    private final long refreshAheadMillis;
+    private final File snapshotFile;
+    private final Clock clock;
+    private final Executor executor;
+    private final ConcurrentMap<String, CachedTable> tables = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FutureTask<CachedTable>> loads = new ConcurrentHashMap<>();
+    private final Object snapshotLock = new Object();
+
+    /**
+     * Creates a cache without a snapshot file.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param timeToLive how long to keep each description
+     * @param unit the unit of the time to live
+     */
+    public TableMetadataCache(AmazonDynamoDB amazonDynamoDB, long timeToLive, TimeUnit unit)
+    {
+        this(amazonDynamoDB, timeToLive, unit, null);
+    }
+
+    /**
+     * Creates a cache which starts from, and keeps, a snapshot file.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param timeToLive how long to keep each description
+     * @param unit the unit of the time to live
+     * @param snapshotFile the file to keep the descriptions in, or null for none
+     */
+    public TableMetadataCache(AmazonDynamoDB amazonDynamoDB, long timeToLive, TimeUnit unit, File snapshotFile)
+    {
+        this(amazonDynamoDB, unit.toMillis(timeToLive), snapshotFile, Clock.SYSTEM, TableExecutors.DEFAULT);
+    }
+
+    TableMetadataCache(AmazonDynamoDB amazonDynamoDB, long timeToLiveMillis, File snapshotFile, Clock clock, Executor executor)
+    {
+        if(timeToLiveMillis <= 0)
+            throw new IllegalArgumentException("The time to live must be positive.");
+
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.refreshAheadMillis = (long) (timeToLiveMillis * REFRESH_AHEAD_FRACTION);
+        this.snapshotFile = snapshotFile;
+        this.clock = clock;
+        this.executor = executor;
+
+        if(snapshotFile != null)
+            readSnapshot();
+    }
+
+    /**
+     * Gets the description of a table, loading it if
+     * it is not cached or has expired. A table which does
+     * not exist is described again on each call.
+     *
+     * @param tableName the name of the table
+     * @return the description of the table, or null if the table does not exist
+     * @since 0.4
+     */
+    public TableDescription getTable(String tableName)
+    {
+        CachedTable cachedTable = tables.get(tableName);
+        if(cachedTable != null)
+        {
+            long age = clock.currentTimeMillis() - cachedTable.loadedAt;
+            if(age < timeToLiveMillis)
+            {
+                if(age >= refreshAheadMillis)
+                    refreshInBackground(tableName);
+                return cachedTable.table;
+            }
+        }
+
+        FutureTask<CachedTable> newLoad = createLoad(tableName);
+        FutureTask<CachedTable> load = loads.putIfAbsent(tableName, newLoad);
+        if(load == null)
+        {
+            load = newLoad;
+            newLoad.run();
+        }
+
+        CachedTable loadedTable = await(tableName, load);
+        return loadedTable != null ? loadedTable.table : null;
+    }
+
+    /**
+     * Removes the description of a table, so that it is loaded
+     * again the next time it is needed.
+     *
+     * @param tableName the name of the table
+     * @since 0.4
+     */
+    public void invalidate(String tableName)
+    {
+        tables.remove(tableName);
+    }
+
+    /**
+     * Removes the descriptions of all tables.
+     *
+     * @since 0.4
+     */
+    public void invalidateAll()
+    {
+        tables.clear();
+    }
+
+    private void refreshInBackground(String tableName)
+    {
+        FutureTask<CachedTable> newLoad = createLoad(tableName);
+        if(loads.putIfAbsent(tableName, newLoad) != null)
+            return;
+
+        try
+        {
+            executor.execute(newLoad);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            loads.remove(tableName, newLoad);
+        }
+    }
+
+    private FutureTask<CachedTable> createLoad(final String tableName)
+    {
+        return new FutureTask<CachedTable>(new Callable<CachedTable>()
+        {
+            @Override
+            public CachedTable call()
+            {
+                return load(tableName);
+            }
+        })
+        {
+            @Override
+            protected void done()
+            {
+                loads.remove(tableName, this);
+            }
+        };
+    }
+
+    private CachedTable load(String tableName)
+    {
+        CachedTable cachedTable;
+        try
+        {
+            TableDescription table = amazonDynamoDB.describeTable(new DescribeTableRequest(tableName)).getTable();
+            cachedTable = new CachedTable(table, clock.currentTimeMillis());
+            tables.put(tableName, cachedTable);
+        }
+        catch (ResourceNotFoundException ex)
+        {
+            cachedTable = null;
+            tables.remove(tableName);
+        }
+
+        if(snapshotFile != null)
+            writeSnapshot();
+        return cachedTable;
+    }
+
+    private static CachedTable await(String tableName, FutureTask<CachedTable> load)
+    {
+        try
+        {
+            return load.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while describing table " + tableName, ex);
+        }
+        catch (ExecutionException ex)
+        {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new TableProvisioningException("Failed to describe table " + tableName, ex.getCause());
+        }
+    }
+
+    /**
+     * Reads the descriptions in the snapshot, ignoring a snapshot which
+     * is missing or cannot be read, such as one from another version.
+     */
+    private void readSnapshot()
+    {
+        if(!snapshotFile.isFile())
+            return;
+
+        try(InputStream inputStream = new FileInputStream(snapshotFile))
+        {
+            Map<String, CachedTable> snapshot = TableSnapshots.read(inputStream);
+            long now = clock.currentTimeMillis();
+            for (Map.Entry<String, CachedTable> entry : snapshot.entrySet())
+            {
+                if(entry.getValue().loadedAt <= now)
+                    tables.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        catch (IOException ex)
+        {
+            // Start without the snapshot.
+        }
+    }
+
+    /**
+     * Writes the cached descriptions to a temporary file, and then
+     * moves it over the snapshot, so that the snapshot is never partial.
+     */
+    private void writeSnapshot()
+    {
+        synchronized (snapshotLock)
+        {
+            File temporaryFile = new File(snapshotFile.getPath() + ".tmp");
+            try
+            {
+                try(OutputStream outputStream = new FileOutputStream(temporaryFile))
+                {
+                    TableSnapshots.write(outputStream, new HashMap<>(tables));
+                }
+                Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (IOException ex)
+            {
+                // Keep working without the snapshot.
+                temporaryFile.delete();
+            }
+        }
+    }
+
+    static class CachedTable
+    {
+        final TableDescription table;
+        final long loadedAt;
+
+        CachedTable(TableDescription table, long loadedAt)
+        {
+            this.table = table;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provisions many tables at once.
+ * <p>
+ * Each table is provisioned as by
+ * {@link TableHelper#createTableIfNecessary(AmazonDynamoDB, String, TableDefiner)},
+ * but all of them are described, created and waited on in parallel.
+ * DynamoDB limits how many tables may be created or updated at the same time,
+ * so no more than a set number of tables are created at once. The rest wait
+ * until one of those is active. Tables which already exist do not wait.
+ * <p>
+ * The limit applies to the tables provisioned by this provisioner. Tables
+ * created elsewhere count against the same limit in DynamoDB, so creations
+ * which are rejected for exceeding it are tried again.
+ * <p>
+ * A provisioner given a {@link TableMetadataCache} describes the tables
+ * through it, so tables which the cache holds as active are not described.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class TableProvisioner
+{
+    /**
+     * The default number of tables created at once, which is
+     * the limit DynamoDB places on an account.
+     */
+    public static final int DEFAULT_MAXIMUM_CONCURRENT_OPERATIONS = 10;
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final Semaphore creationPermits;
+    private final TableMetadataCache tableMetadataCache;
+    private final Executor executor;
+    private final Clock clock;
+
+    public TableProvisioner(AmazonDynamoDB amazonDynamoDB)
+    {
+        this(amazonDynamoDB, DEFAULT_MAXIMUM_CONCURRENT_OPERATIONS);
+    }
+
+    /**
+     * @param amazonDynamoDB the DynamoDB client
+     * @param maximumConcurrentOperations the most tables to create at once
+     */
+    public TableProvisioner(AmazonDynamoDB amazonDynamoDB, int maximumConcurrentOperations)
+    {
+        this(amazonDynamoDB, maximumConcurrentOperations, null, TableExecutors.DEFAULT, Clock.SYSTEM);
+    }
+
+    /**
+     * @param amazonDynamoDB the DynamoDB client
+     * @param maximumConcurrentOperations the most tables to create at once
+     * @param tableMetadataCache the cache to describe the tables through
+     * @since 0.4
+     */
+    public TableProvisioner(AmazonDynamoDB amazonDynamoDB, int maximumConcurrentOperations, TableMetadataCache tableMetadataCache)
+    {
+        this(amazonDynamoDB, maximumConcurrentOperations, tableMetadataCache, TableExecutors.DEFAULT, Clock.SYSTEM);
+    }
+
+    TableProvisioner(AmazonDynamoDB amazonDynamoDB, int maximumConcurrentOperations, TableMetadataCache tableMetadataCache, Executor executor, Clock clock)
+    {
+        if(maximumConcurrentOperations < 1)
+            throw new IllegalArgumentException("The maximum concurrent operations must be at least 1.");
+
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.creationPermits = new Semaphore(maximumConcurrentOperations, true);
+        this.tableMetadataCache = tableMetadataCache;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the tables which do not exist, and waits until all of them are active.
+     * A failure to provision one table does not stop the others.
+     *
+     * @param tableDefiners the definer of each table, by table name
+     * @return the result for each table, in the iteration order of the map
+     * @throws TableProvisioningException if the thread is interrupted
+     */
+    public List<TableProvisioningResult> provision(Map<String, TableDefiner> tableDefiners)
+    {
+        List<Future<TableProvisioningResult>> futures = new ArrayList<>(tableDefiners.size());
+        for (Map.Entry<String, TableDefiner> entry : tableDefiners.entrySet())
+        {
+            FutureTask<TableProvisioningResult> task = new FutureTask<>(createTask(entry.getKey(), entry.getValue()));
+            executor.execute(task);
+            futures.add(task);
+        }
+
+        List<TableProvisioningResult> results = new ArrayList<>(futures.size());
+        try
+        {
+            for (Future<TableProvisioningResult> future : futures)
+                results.add(future.get());
+        }
+        catch (InterruptedException ex)
+        {
+            for (Future<TableProvisioningResult> future : futures)
+                future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TableProvisioningException("Interrupted while waiting for tables to become active.", ex);
+        }
+        catch (ExecutionException ex)
+        {
+            // Each task reports its own failure.
+            throw new TableProvisioningException("Failed to provision tables.", ex.getCause());
+        }
+        return results;
+    }
+
+    private Callable<TableProvisioningResult> createTask(final String tableName, final TableDefiner tableDefiner)
+    {
+        return new Callable<TableProvisioningResult>()
+        {
+            @Override
+            public TableProvisioningResult call()
+            {
+                long start = System.nanoTime();
+                try
+                {
+                    TableDescription table = TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner, creationPermits, tableMetadataCache, clock);
+                    return new TableProvisioningResult(tableName, elapsedMillis(start), table, null);
+                }
+                catch (RuntimeException ex)
+                {
+                    return new TableProvisioningResult(tableName, elapsedMillis(start), null, ex);
+                }
+            }
+        };
+    }
+
+    private static long elapsedMillis(long startNanos)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+/**
+ * Thrown when a table could not be created or did not become active.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class TableProvisioningException extends RuntimeException
+{
+    public TableProvisioningException(String message)
+    {
+        super(message);
+    }
+
+    public TableProvisioningException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
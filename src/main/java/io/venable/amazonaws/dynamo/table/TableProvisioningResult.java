@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+
+/**
+ * The outcome of provisioning one table with a {@link TableProvisioner}.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class TableProvisioningResult
+{
+    private final String tableName;
+    private final long durationMillis;
+    private final TableDescription table;
+    private final RuntimeException failure;
+
+    TableProvisioningResult(String tableName, long durationMillis, TableDescription table, RuntimeException failure)
+    {
+        this.tableName = tableName;
+        this.durationMillis = durationMillis;
+        this.table = table;
+        this.failure = failure;
+    }
+
+    public String getTableName()
+    {
+        return tableName;
+    }
+
+    /**
+     * @return the time from starting to provision the table until it was active or failed
+     */
+    public long getDurationMillis()
+    {
+        return durationMillis;
+    }
+
+    /**
+     * @return the description of the active table, or null if it failed
+     */
+    public TableDescription getTable()
+    {
+        return table;
+    }
+
+    /**
+     * @return the reason the table was not provisioned, or null if it succeeded
+     */
+    public RuntimeException getFailure()
+    {
+        return failure;
+    }
+
+    public boolean isSuccessful()
+    {
+        return failure == null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return tableName + (isSuccessful() ? " active" : " failed") + " after " + durationMillis + " ms";
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndex;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexUpdate;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.UpdateGlobalSecondaryIndexAction;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compares the definition of a table with the table in DynamoDB,
+ * and updates the table to match its definition without
+ * dropping and recreating it.
+ * <p>
+ * Only throughput can be changed in place. See {@link TableUpdatePlan}
+ * for the changes which are found but not applied.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class TableReconciler
+{
+    private final AmazonDynamoDB amazonDynamoDB;
+
+    public TableReconciler(AmazonDynamoDB amazonDynamoDB)
+    {
+        this.amazonDynamoDB = amazonDynamoDB;
+    }
+
+    /**
+     * Finds the changes needed to make a table match its definition.
+     *
+     * @param tableName the name of the table, which must exist
+     * @param tableDefiner defines the table
+     * @return the changes, which may be empty
+     */
+    public TableUpdatePlan plan(String tableName, TableDefiner tableDefiner)
+    {
+        TableBuilder tableBuilder = new TableBuilder().name(tableName);
+        tableDefiner.defineTable(tableBuilder);
+
+        TableDescription table = amazonDynamoDB.describeTable(new DescribeTableRequest(tableName)).getTable();
+        return plan(tableBuilder.buildCreateTableRequest(), table);
+    }
+
+    /**
+     * Finds the changes needed to make a table match its definition,
+     * and applies those which can be applied.
+     *
+     * @param tableName the name of the table, which must exist
+     * @param tableDefiner defines the table
+     * @return the changes which were found
+     */
+    public TableUpdatePlan reconcile(String tableName, TableDefiner tableDefiner)
+    {
+        TableUpdatePlan plan = plan(tableName, tableDefiner);
+        plan.apply(amazonDynamoDB);
+        return plan;
+    }
+
+    /**
+     * Finds the changes needed to make a table match the request which would create it.
+     *
+     * @param definition the request built from the definition of the table
+     * @param table the description of the existing table
+     * @return the changes, which may be empty
+     */
+    public static TableUpdatePlan plan(CreateTableRequest definition, TableDescription table)
+    {
+        UpdateTableRequest updateTableRequest = new UpdateTableRequest().withTableName(table.getTableName());
+        boolean changed = false;
+
+        if(!sameThroughput(definition.getProvisionedThroughput(), table.getProvisionedThroughput()))
+        {
+            updateTableRequest.setProvisionedThroughput(definition.getProvisionedThroughput());
+            changed = true;
+        }
+
+        Map<String, GlobalSecondaryIndexDescription> existingIndexes = new LinkedHashMap<>();
+        if(table.getGlobalSecondaryIndexes() != null)
+        {
+            for (GlobalSecondaryIndexDescription index : table.getGlobalSecondaryIndexes())
+                existingIndexes.put(index.getIndexName(), index);
+        }
+
+        Map<String, GlobalSecondaryIndex> definedIndexes = new HashMap<>();
+        List<GlobalSecondaryIndex> indexesToCreate = new ArrayList<>();
+        List<GlobalSecondaryIndexUpdate> indexUpdates = new ArrayList<>();
+        if(definition.getGlobalSecondaryIndexes() != null)
+        {
+            for (GlobalSecondaryIndex index : definition.getGlobalSecondaryIndexes())
+            {
+                definedIndexes.put(index.getIndexName(), index);
+
+                GlobalSecondaryIndexDescription existingIndex = existingIndexes.get(index.getIndexName());
+                if(existingIndex == null)
+                {
+                    indexesToCreate.add(index);
+                }
+                else if(!sameThroughput(index.getProvisionedThroughput(), existingIndex.getProvisionedThroughput()))
+                {
+                    indexUpdates.add(new GlobalSecondaryIndexUpdate().withUpdate(new UpdateGlobalSecondaryIndexAction()
+                            .withIndexName(index.getIndexName())
+                            .withProvisionedThroughput(index.getProvisionedThroughput())));
+                }
+            }
+        }
+
+        List<String> indexesToDelete = new ArrayList<>();
+        for (String indexName : existingIndexes.keySet())
+        {
+            if(!definedIndexes.containsKey(indexName))
+                indexesToDelete.add(indexName);
+        }
+
+        if(!indexUpdates.isEmpty())
+        {
+            updateTableRequest.setGlobalSecondaryIndexUpdates(indexUpdates);
+            changed = true;
+        }
+
+        return new TableUpdatePlan(table.getTableName(), changed ? updateTableRequest : null, indexesToCreate, indexesToDelete);
+    }
+
+    private static boolean sameThroughput(ProvisionedThroughput defined, ProvisionedThroughputDescription existing)
+    {
+        if(defined == null || existing == null)
+            return true;
+
+        return Objects.equals(defined.getReadCapacityUnits(), existing.getReadCapacityUnits())
+                && Objects.equals(defined.getWriteCapacityUnits(), existing.getWriteCapacityUnits());
+    }
+}
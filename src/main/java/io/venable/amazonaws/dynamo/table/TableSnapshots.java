@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.LocalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Internal support for reading and writing the snapshot
+ * of a {@link TableMetadataCache} as JSON.
+ * <p>
+ * The snapshot maps each table name to the time its description was
+ * loaded and the description itself. Descriptions use the field names
+ * of the DescribeTable response, with dates as epoch milliseconds.
+ * Reading only creates the description classes, and skips any fields
+ * it does not recognize.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+class TableSnapshots
+{
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private TableSnapshots()
+    { }
+
+    static void write(OutputStream outputStream, Map<String, TableMetadataCache.CachedTable> tables) throws IOException
+    {
+        try(JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream))
+        {
+            generator.writeStartObject();
+            for (Map.Entry<String, TableMetadataCache.CachedTable> entry : tables.entrySet())
+            {
+                generator.writeObjectFieldStart(entry.getKey());
+                generator.writeNumberField("LoadedAt", entry.getValue().loadedAt);
+                generator.writeFieldName("Table");
+                writeTable(generator, entry.getValue().table);
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    static Map<String, TableMetadataCache.CachedTable> read(InputStream inputStream) throws IOException
+    {
+        Map<String, TableMetadataCache.CachedTable> tables = new HashMap<>();
+        try(JsonParser parser = JSON_FACTORY.createParser(inputStream))
+        {
+            parser.nextToken();
+            expect(parser, JsonToken.START_OBJECT);
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String tableName = parser.getCurrentName();
+                parser.nextToken();
+                expect(parser, JsonToken.START_OBJECT);
+
+                Long loadedAt = null;
+                TableDescription table = null;
+                while(parser.nextToken() == JsonToken.FIELD_NAME)
+                {
+                    String fieldName = parser.getCurrentName();
+                    parser.nextToken();
+                    if(fieldName.equals("LoadedAt"))
+                        loadedAt = readLong(parser);
+                    else if(fieldName.equals("Table"))
+                        table = readTable(parser);
+                    else
+                        parser.skipChildren();
+                }
+                if(loadedAt == null || table == null)
+                    throw new JsonParseException("The snapshot of " + tableName + " is incomplete.", parser.getCurrentLocation());
+                tables.put(tableName, new TableMetadataCache.CachedTable(table, loadedAt));
+            }
+            expect(parser, JsonToken.END_OBJECT);
+        }
+        return tables;
+    }
+
+    private static void writeTable(JsonGenerator generator, TableDescription table) throws IOException
+    {
+        generator.writeStartObject();
+        writeString(generator, "TableName", table.getTableName());
+        writeString(generator, "TableStatus", table.getTableStatus());
+        writeDate(generator, "CreationDateTime", table.getCreationDateTime());
+        if(table.getAttributeDefinitions() != null)
+        {
+            generator.writeArrayFieldStart("AttributeDefinitions");
+            for (AttributeDefinition attributeDefinition : table.getAttributeDefinitions())
+            {
+                generator.writeStartObject();
+                writeString(generator, "AttributeName", attributeDefinition.getAttributeName());
+                writeString(generator, "AttributeType", attributeDefinition.getAttributeType());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        writeKeySchema(generator, table.getKeySchema());
+        writeThroughput(generator, table.getProvisionedThroughput());
+        writeLong(generator, "TableSizeBytes", table.getTableSizeBytes());
+        writeLong(generator, "ItemCount", table.getItemCount());
+        if(table.getLocalSecondaryIndexes() != null)
+        {
+            generator.writeArrayFieldStart("LocalSecondaryIndexes");
+            for (LocalSecondaryIndexDescription index : table.getLocalSecondaryIndexes())
+            {
+                generator.writeStartObject();
+                writeString(generator, "IndexName", index.getIndexName());
+                writeKeySchema(generator, index.getKeySchema());
+                writeProjection(generator, index.getProjection());
+                writeLong(generator, "IndexSizeBytes", index.getIndexSizeBytes());
+                writeLong(generator, "ItemCount", index.getItemCount());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        if(table.getGlobalSecondaryIndexes() != null)
+        {
+            generator.writeArrayFieldStart("GlobalSecondaryIndexes");
+            for (GlobalSecondaryIndexDescription index : table.getGlobalSecondaryIndexes())
+            {
+                generator.writeStartObject();
+                writeString(generator, "IndexName", index.getIndexName());
+                writeString(generator, "IndexStatus", index.getIndexStatus());
+                writeKeySchema(generator, index.getKeySchema());
+                writeProjection(generator, index.getProjection());
+                writeThroughput(generator, index.getProvisionedThroughput());
+                writeLong(generator, "IndexSizeBytes", index.getIndexSizeBytes());
+                writeLong(generator, "ItemCount", index.getItemCount());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static TableDescription readTable(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_OBJECT);
+
+        TableDescription table = new TableDescription();
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            switch (fieldName)
+            {
+                case "TableName":
+                    table.setTableName(readString(parser));
+                    break;
+                case "TableStatus":
+                    table.setTableStatus(readString(parser));
+                    break;
+                case "CreationDateTime":
+                    table.setCreationDateTime(readDate(parser));
+                    break;
+                case "AttributeDefinitions":
+                    expect(parser, JsonToken.START_ARRAY);
+                    List<AttributeDefinition> attributeDefinitions = new ArrayList<>();
+                    while(parser.nextToken() == JsonToken.START_OBJECT)
+                    {
+                        AttributeDefinition attributeDefinition = new AttributeDefinition();
+                        while(parser.nextToken() == JsonToken.FIELD_NAME)
+                        {
+                            String attributeField = parser.getCurrentName();
+                            parser.nextToken();
+                            if(attributeField.equals("AttributeName"))
+                                attributeDefinition.setAttributeName(readString(parser));
+                            else if(attributeField.equals("AttributeType"))
+                                attributeDefinition.setAttributeType(readString(parser));
+                            else
+                                parser.skipChildren();
+                        }
+                        attributeDefinitions.add(attributeDefinition);
+                    }
+                    expect(parser, JsonToken.END_ARRAY);
+                    table.setAttributeDefinitions(attributeDefinitions);
+                    break;
+                case "KeySchema":
+                    table.setKeySchema(readKeySchema(parser));
+                    break;
+                case "ProvisionedThroughput":
+                    table.setProvisionedThroughput(readThroughput(parser));
+                    break;
+                case "TableSizeBytes":
+                    table.setTableSizeBytes(readLong(parser));
+                    break;
+                case "ItemCount":
+                    table.setItemCount(readLong(parser));
+                    break;
+                case "LocalSecondaryIndexes":
+                    table.setLocalSecondaryIndexes(readLocalSecondaryIndexes(parser));
+                    break;
+                case "GlobalSecondaryIndexes":
+                    table.setGlobalSecondaryIndexes(readGlobalSecondaryIndexes(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return table;
+    }
+
+    private static List<LocalSecondaryIndexDescription> readLocalSecondaryIndexes(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_ARRAY);
+        List<LocalSecondaryIndexDescription> indexes = new ArrayList<>();
+        while(parser.nextToken() == JsonToken.START_OBJECT)
+        {
+            LocalSecondaryIndexDescription index = new LocalSecondaryIndexDescription();
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                switch (fieldName)
+                {
+                    case "IndexName":
+                        index.setIndexName(readString(parser));
+                        break;
+                    case "KeySchema":
+                        index.setKeySchema(readKeySchema(parser));
+                        break;
+                    case "Projection":
+                        index.setProjection(readProjection(parser));
+                        break;
+                    case "IndexSizeBytes":
+                        index.setIndexSizeBytes(readLong(parser));
+                        break;
+                    case "ItemCount":
+                        index.setItemCount(readLong(parser));
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            indexes.add(index);
+        }
+        expect(parser, JsonToken.END_ARRAY);
+        return indexes;
+    }
+
+    private static List<GlobalSecondaryIndexDescription> readGlobalSecondaryIndexes(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_ARRAY);
+        List<GlobalSecondaryIndexDescription> indexes = new ArrayList<>();
+        while(parser.nextToken() == JsonToken.START_OBJECT)
+        {
+            GlobalSecondaryIndexDescription index = new GlobalSecondaryIndexDescription();
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                switch (fieldName)
+                {
+                    case "IndexName":
+                        index.setIndexName(readString(parser));
+                        break;
+                    case "IndexStatus":
+                        index.setIndexStatus(readString(parser));
+                        break;
+                    case "KeySchema":
+                        index.setKeySchema(readKeySchema(parser));
+                        break;
+                    case "Projection":
+                        index.setProjection(readProjection(parser));
+                        break;
+                    case "ProvisionedThroughput":
+                        index.setProvisionedThroughput(readThroughput(parser));
+                        break;
+                    case "IndexSizeBytes":
+                        index.setIndexSizeBytes(readLong(parser));
+                        break;
+                    case "ItemCount":
+                        index.setItemCount(readLong(parser));
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            indexes.add(index);
+        }
+        expect(parser, JsonToken.END_ARRAY);
+        return indexes;
+    }
+
+    private static void writeKeySchema(JsonGenerator generator, List<KeySchemaElement> keySchema) throws IOException
+    {
+        if(keySchema == null)
+            return;
+
+        generator.writeArrayFieldStart("KeySchema");
+        for (KeySchemaElement keySchemaElement : keySchema)
+        {
+            generator.writeStartObject();
+            writeString(generator, "AttributeName", keySchemaElement.getAttributeName());
+            writeString(generator, "KeyType", keySchemaElement.getKeyType());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static List<KeySchemaElement> readKeySchema(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_ARRAY);
+        List<KeySchemaElement> keySchema = new ArrayList<>();
+        while(parser.nextToken() == JsonToken.START_OBJECT)
+        {
+            KeySchemaElement keySchemaElement = new KeySchemaElement();
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                if(fieldName.equals("AttributeName"))
+                    keySchemaElement.setAttributeName(readString(parser));
+                else if(fieldName.equals("KeyType"))
+                    keySchemaElement.setKeyType(readString(parser));
+                else
+                    parser.skipChildren();
+            }
+            keySchema.add(keySchemaElement);
+        }
+        expect(parser, JsonToken.END_ARRAY);
+        return keySchema;
+    }
+
+    private static void writeProjection(JsonGenerator generator, Projection projection) throws IOException
+    {
+        if(projection == null)
+            return;
+
+        generator.writeObjectFieldStart("Projection");
+        writeString(generator, "ProjectionType", projection.getProjectionType());
+        if(projection.getNonKeyAttributes() != null)
+        {
+            generator.writeArrayFieldStart("NonKeyAttributes");
+            for (String attributeName : projection.getNonKeyAttributes())
+                generator.writeString(attributeName);
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static Projection readProjection(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_OBJECT);
+        Projection projection = new Projection();
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if(fieldName.equals("ProjectionType"))
+            {
+                projection.setProjectionType(readString(parser));
+            }
+            else if(fieldName.equals("NonKeyAttributes"))
+            {
+                expect(parser, JsonToken.START_ARRAY);
+                List<String> nonKeyAttributes = new ArrayList<>();
+                while(parser.nextToken() == JsonToken.VALUE_STRING)
+                    nonKeyAttributes.add(parser.getText());
+                expect(parser, JsonToken.END_ARRAY);
+                projection.setNonKeyAttributes(nonKeyAttributes);
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+        return projection;
+    }
+
+    private static void writeThroughput(JsonGenerator generator, ProvisionedThroughputDescription throughput) throws IOException
+    {
+        if(throughput == null)
+            return;
+
+        generator.writeObjectFieldStart("ProvisionedThroughput");
+        writeLong(generator, "ReadCapacityUnits", throughput.getReadCapacityUnits());
+        writeLong(generator, "WriteCapacityUnits", throughput.getWriteCapacityUnits());
+        writeLong(generator, "NumberOfDecreasesToday", throughput.getNumberOfDecreasesToday());
+        writeDate(generator, "LastIncreaseDateTime", throughput.getLastIncreaseDateTime());
+        writeDate(generator, "LastDecreaseDateTime", throughput.getLastDecreaseDateTime());
+        generator.writeEndObject();
+    }
+
+    private static ProvisionedThroughputDescription readThroughput(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.START_OBJECT);
+        ProvisionedThroughputDescription throughput = new ProvisionedThroughputDescription();
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            switch (fieldName)
+            {
+                case "ReadCapacityUnits":
+                    throughput.setReadCapacityUnits(readLong(parser));
+                    break;
+                case "WriteCapacityUnits":
+                    throughput.setWriteCapacityUnits(readLong(parser));
+                    break;
+                case "NumberOfDecreasesToday":
+                    throughput.setNumberOfDecreasesToday(readLong(parser));
+                    break;
+                case "LastIncreaseDateTime":
+                    throughput.setLastIncreaseDateTime(readDate(parser));
+                    break;
+                case "LastDecreaseDateTime":
+                    throughput.setLastDecreaseDateTime(readDate(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return throughput;
+    }
+
+    private static void writeString(JsonGenerator generator, String fieldName, String value) throws IOException
+    {
+        if(value != null)
+            generator.writeStringField(fieldName, value);
+    }
+
+    private static void writeLong(JsonGenerator generator, String fieldName, Long value) throws IOException
+    {
+        if(value != null)
+            generator.writeNumberField(fieldName, value);
+    }
+
+    private static void writeDate(JsonGenerator generator, String fieldName, Date value) throws IOException
+    {
+        if(value != null)
+            generator.writeNumberField(fieldName, value.getTime());
+    }
+
+    private static String readString(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.VALUE_STRING);
+        return parser.getText();
+    }
+
+    private static Long readLong(JsonParser parser) throws IOException
+    {
+        expect(parser, JsonToken.VALUE_NUMBER_INT);
+        return parser.getLongValue();
+    }
+
+    private static Date readDate(JsonParser parser) throws IOException
+    {
+        return new Date(readLong(parser));
+    }
+
+    private static void expect(JsonParser parser, JsonToken expectedToken) throws IOException
+    {
+        if(parser.getCurrentToken() != expectedToken)
+            throw new JsonParseException("Expected " + expectedToken + " but found " + parser.getCurrentToken(), parser.getCurrentLocation());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndex;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableResult;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes needed to make an existing table match its definition,
+ * as found by a {@link TableReconciler}.
+ * <p>
+ * Throughput changes for the table and its global secondary indexes
+ * are combined into a single <code>UpdateTable</code> request.
+ * Global secondary indexes which are defined but missing, or which exist
+ * but are no longer defined, are reported but not applied, since the
+ * version of the DynamoDB client in use cannot add or remove indexes
+ * from an existing table.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class TableUpdatePlan
+{
+    private final String tableName;
+    private final UpdateTableRequest updateTableRequest;
+    private final List<GlobalSecondaryIndex> indexesToCreate;
+    private final List<String> indexesToDelete;
+
+    TableUpdatePlan(String tableName, UpdateTableRequest updateTableRequest, List<GlobalSecondaryIndex> indexesToCreate, List<String> indexesToDelete)
+    {
+        this.tableName = tableName;
+        this.updateTableRequest = updateTableRequest;
+        this.indexesToCreate = Collections.unmodifiableList(indexesToCreate);
+        this.indexesToDelete = Collections.unmodifiableList(indexesToDelete);
+    }
+
+    public String getTableName()
+    {
+        return tableName;
+    }
+
+    /**
+     * @return the request which updates the throughput of the table and its indexes, or null if none has changed
+     */
+    public UpdateTableRequest getUpdateTableRequest()
+    {
+        return updateTableRequest;
+    }
+
+    /**
+     * @return the global secondary indexes which are defined, but which the table does not have
+     */
+    public List<GlobalSecondaryIndex> getIndexesToCreate()
+    {
+        return indexesToCreate;
+    }
+
+    /**
+     * @return the names of global secondary indexes which the table has, but which are not defined
+     */
+    public List<String> getIndexesToDelete()
+    {
+        return indexesToDelete;
+    }
+
+    /**
+     * @return true if the table already matches its definition
+     */
+    public boolean isEmpty()
+    {
+        return updateTableRequest == null && indexesToCreate.isEmpty() && indexesToDelete.isEmpty();
+    }
+
+    /**
+     * @return true if the table differs from its definition in ways which {@link #apply(AmazonDynamoDB)} cannot change
+     */
+    public boolean hasUnappliedChanges()
+    {
+        return !indexesToCreate.isEmpty() || !indexesToDelete.isEmpty();
+    }
+
+    /**
+     * Updates the throughput of the table and its indexes,
+     * with at most one call to DynamoDB.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @return the result of the update, or null if nothing needed to change
+     */
+    public UpdateTableResult apply(AmazonDynamoDB amazonDynamoDB)
+    {
+        if(updateTableRequest == null)
+            return null;
+        return amazonDynamoDB.updateTable(updateTableRequest);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TableUpdatePlan{" +
+                "tableName='" + tableName + '\'' +
+                ", updateTableRequest=" + updateTableRequest +
+                ", indexesToCreate=" + indexesToCreate +
+                ", indexesToDelete=" + indexesToDelete +
+                '}';
+    }
+}
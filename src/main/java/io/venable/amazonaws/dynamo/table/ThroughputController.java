@@ -0,0 +1,594 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.Capacity;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndex;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexUpdate;
+import com.amazonaws.services.dynamodbv2.model.LimitExceededException;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.ResourceInUseException;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.UpdateGlobalSecondaryIndexAction;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adjusts the provisioned throughput of tables and their global
+ * secondary indexes to follow the capacity they consume.
+ * <p>
+ * The application reports the capacity consumed by its own operations,
+ * for example from the {@link ConsumedCapacity} of each result. At each
+ * interval, the controller works out the rate consumed by the table and
+ * by each global secondary index since the last interval, and the capacity
+ * which would serve that rate at the target utilization. Each table is
+ * registered with a minimum and a maximum definition, from the same kind of
+ * {@link TableDefiner} used to create it, and the capacity is kept between
+ * the two.
+ * <p>
+ * Capacity is increased as soon as the consumed rate goes over the target
+ * utilization. It is only decreased once the consumed rate has been low for
+ * the scale down delay, and no more often in a UTC day than DynamoDB allows.
+ * All of the changes for a table are made with a single <code>UpdateTable</code>
+ * request. If DynamoDB rejects the request because the table is already being
+ * updated or a limit has been reached, it is tried again at the next interval.
+ * <p>
+ * The controller only needs an {@link AmazonDynamoDB} client, so it can be
+ * run against a local stand-in for DynamoDB by setting the client's endpoint.
+ * Controllers may be shared between threads.
+ *
+ * @author David Venable
+ * @since 0.4
+ */
+public class ThroughputController implements Closeable
+{
+    public static final double DEFAULT_TARGET_UTILIZATION = 0.7;
+    public static final long DEFAULT_SCALE_DOWN_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    public static final int DEFAULT_MAXIMUM_DECREASES_PER_DAY = 4;
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+    private static final double MILLIUNITS = 1000.0;
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final long intervalMillis;
+    private final Clock clock;
+    private final ConcurrentMap<String, ControlledTable> tables = new ConcurrentHashMap<>();
+    private volatile double targetUtilization = DEFAULT_TARGET_UTILIZATION;
+    private volatile long scaleDownDelayMillis = DEFAULT_SCALE_DOWN_DELAY_MILLIS;
+    private volatile int maximumDecreasesPerDay = DEFAULT_MAXIMUM_DECREASES_PER_DAY;
+    private volatile RuntimeException lastFailure;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param amazonDynamoDB the DynamoDB client
+     * @param interval how often to adjust the throughput, once started
+     * @param unit the unit of the interval
+     */
+    public ThroughputController(AmazonDynamoDB amazonDynamoDB, long interval, TimeUnit unit)
+    {
+        this(amazonDynamoDB, unit.toMillis(interval), Clock.SYSTEM);
+    }
+
+    ThroughputController(AmazonDynamoDB amazonDynamoDB, long intervalMillis, Clock clock)
+    {
+        if(intervalMillis <= 0)
+            throw new IllegalArgumentException("The interval must be positive.");
+
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.intervalMillis = intervalMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the fraction of the provisioned capacity which the consumed rate should use.
+     *
+     * @param targetUtilization a fraction greater than 0 and at most 1
+     */
+    public void setTargetUtilization(double targetUtilization)
+    {
+        if(!(targetUtilization > 0 && targetUtilization <= 1))
+            throw new IllegalArgumentException("The target utilization must be greater than 0 and at most 1.");
+        this.targetUtilization = targetUtilization;
+    }
+
+    /**
+     * Sets how long the consumed rate must stay low before capacity is decreased.
+     */
+    public void setScaleDownDelay(long delay, TimeUnit unit)
+    {
+        if(delay < 0)
+            throw new IllegalArgumentException("The scale down delay cannot be negative.");
+        this.scaleDownDelayMillis = unit.toMillis(delay);
+    }
+
+    /**
+     * Sets how many times in a UTC day the capacity of a table,
+     * or of one of its global secondary indexes, may be decreased.
+     */
+    public void setMaximumDecreasesPerDay(int maximumDecreasesPerDay)
+    {
+        if(maximumDecreasesPerDay < 0)
+            throw new IllegalArgumentException("The maximum decreases per day cannot be negative.");
+        this.maximumDecreasesPerDay = maximumDecreasesPerDay;
+    }
+
+    /**
+     * Starts controlling the throughput of a table. The minimum and maximum
+     * definitions must have the same global secondary indexes. Only their
+     * throughput is used.
+     *
+     * @param tableName the name of the table, which must exist
+     * @param minimum defines the lowest throughput of the table and its indexes
+     * @param maximum defines the highest throughput of the table and its indexes
+     */
+    public void register(String tableName, TableDefiner minimum, TableDefiner maximum)
+    {
+        CreateTableRequest minimumRequest = buildRequest(tableName, minimum);
+        CreateTableRequest maximumRequest = buildRequest(tableName, maximum);
+
+        ControlledTable table = new ControlledTable(tableName,
+                new Target(null, minimumRequest.getProvisionedThroughput(), maximumRequest.getProvisionedThroughput()));
+
+        Map<String, ProvisionedThroughput> maximumIndexes = indexThroughput(maximumRequest);
+        Map<String, ProvisionedThroughput> minimumIndexes = indexThroughput(minimumRequest);
+        if(!minimumIndexes.keySet().equals(maximumIndexes.keySet()))
+            throw new IllegalArgumentException("The minimum and maximum definitions of " + tableName + " have different global secondary indexes.");
+
+        for (Map.Entry<String, ProvisionedThroughput> entry : minimumIndexes.entrySet())
+        {
+            String indexName = entry.getKey();
+            table.indexes.put(indexName, new Target(indexName, entry.getValue(), maximumIndexes.get(indexName)));
+        }
+
+        tables.put(tableName, table);
+    }
+
+    /**
+     * Stops controlling the throughput of a table.
+     */
+    public void unregister(String tableName)
+    {
+        tables.remove(tableName);
+    }
+
+    /**
+     * Reports read capacity consumed by an operation.
+     *
+     * @param tableName the name of the table
+     * @param indexName the global secondary index read, or null for the table
+     * @param capacityUnits the capacity units consumed
+     */
+    public void recordRead(String tableName, String indexName, double capacityUnits)
+    {
+        Target target = findTarget(tableName, indexName);
+        if(target != null)
+            target.consumedRead.addAndGet(toMilliunits(capacityUnits));
+    }
+
+    /**
+     * Reports write capacity consumed by an operation.
+     *
+     * @param tableName the name of the table
+     * @param indexName the global secondary index written, or null for the table
+     * @param capacityUnits the capacity units consumed
+     */
+    public void recordWrite(String tableName, String indexName, double capacityUnits)
+    {
+        Target target = findTarget(tableName, indexName);
+        if(target != null)
+            target.consumedWrite.addAndGet(toMilliunits(capacityUnits));
+    }
+
+    /**
+     * Reports the read capacity consumed by an operation, as returned by DynamoDB.
+     * With only a total, all of it is counted against the table. The capacity
+     * of local secondary indexes is also counted against the table.
+     */
+    public void recordRead(ConsumedCapacity consumedCapacity)
+    {
+        record(consumedCapacity, false);
+    }
+
+    /**
+     * Reports the write capacity consumed by an operation, as returned by DynamoDB.
+     * With only a total, all of it is counted against the table. The capacity
+     * of local secondary indexes is also counted against the table.
+     */
+    public void recordWrite(ConsumedCapacity consumedCapacity)
+    {
+        record(consumedCapacity, true);
+    }
+
+    /**
+     * Adjusts the throughput of the registered tables every interval,
+     * on a daemon thread, until closed. A failure does not stop the
+     * controller, but can be seen with {@link #getLastFailure()}.
+     */
+    public synchronized void start()
+    {
+        if(scheduler != null)
+            return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "dynamo-throughput-controller");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    adjust();
+                }
+                catch (RuntimeException ex)
+                {
+                    // Recorded as the last failure. The next interval tries again.
+                }
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops adjusting the throughput in the background.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if(scheduler != null)
+        {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Gets the failure of the most recent adjustment, whether it was
+     * made in the background or by calling {@link #adjust()}.
+     *
+     * @return the first failure of the most recent adjustment, or null if it succeeded
+     * @since 0.4
+     */
+    public RuntimeException getLastFailure()
+    {
+        return lastFailure;
+    }
+
+    /**
+     * Adjusts the throughput of each registered table now. The first time
+     * a table is adjusted, its current throughput is read from DynamoDB,
+     * and the consumed rate is measured from then on.
+     *
+     * @throws RuntimeException the first failure, after trying every table
+     */
+    public synchronized void adjust()
+    {
+        RuntimeException failure = null;
+        for (ControlledTable table : tables.values())
+        {
+            try
+            {
+                adjust(table, clock.currentTimeMillis());
+            }
+            catch (RuntimeException ex)
+            {
+                if(failure == null)
+                    failure = ex;
+            }
+        }
+        lastFailure = failure;
+        if(failure != null)
+            throw failure;
+    }
+
+    private void adjust(ControlledTable table, long now)
+    {
+        if(table.lastAdjustedMillis < 0)
+        {
+            readCurrentThroughput(table, now);
+            return;
+        }
+
+        long elapsedMillis = now - table.lastAdjustedMillis;
+        if(elapsedMillis <= 0)
+            return;
+        table.lastAdjustedMillis = now;
+
+        UpdateTableRequest updateTableRequest = new UpdateTableRequest().withTableName(table.tableName);
+        List<Target> changed = new ArrayList<>();
+        ProvisionedThroughput tableThroughput = table.table.plan(elapsedMillis, now);
+        if(tableThroughput != null)
+        {
+            updateTableRequest.setProvisionedThroughput(tableThroughput);
+            changed.add(table.table);
+        }
+
+        List<GlobalSecondaryIndexUpdate> indexUpdates = new ArrayList<>();
+        for (Target index : table.indexes.values())
+        {
+            ProvisionedThroughput indexThroughput = index.plan(elapsedMillis, now);
+            if(indexThroughput != null)
+            {
+                indexUpdates.add(new GlobalSecondaryIndexUpdate().withUpdate(new UpdateGlobalSecondaryIndexAction()
+                        .withIndexName(index.indexName)
+                        .withProvisionedThroughput(indexThroughput)));
+                changed.add(index);
+            }
+        }
+        if(!indexUpdates.isEmpty())
+            updateTableRequest.setGlobalSecondaryIndexUpdates(indexUpdates);
+
+        if(changed.isEmpty())
+            return;
+
+        try
+        {
+            amazonDynamoDB.updateTable(updateTableRequest);
+        }
+        catch (ResourceInUseException | LimitExceededException ex)
+        {
+            // The table is being updated, or no more changes are allowed now. Try again next interval.
+            return;
+        }
+
+        for (Target target : changed)
+            target.applied(now);
+    }
+
+    private void readCurrentThroughput(ControlledTable table, long now)
+    {
+        TableDescription description = amazonDynamoDB.describeTable(new DescribeTableRequest(table.tableName)).getTable();
+        table.table.current(description.getProvisionedThroughput(), now);
+
+        if(description.getGlobalSecondaryIndexes() != null)
+        {
+            for (GlobalSecondaryIndexDescription index : description.getGlobalSecondaryIndexes())
+            {
+                Target target = table.indexes.get(index.getIndexName());
+                if(target != null)
+                    target.current(index.getProvisionedThroughput(), now);
+            }
+        }
+
+        for (Target index : table.indexes.values())
+        {
+            if(!index.described)
+                throw new IllegalStateException("Table " + table.tableName + " does not have the global secondary index " + index.indexName);
+        }
+        table.lastAdjustedMillis = now;
+    }
+
+    private void record(ConsumedCapacity consumedCapacity, boolean write)
+    {
+        String tableName = consumedCapacity.getTableName();
+        if(consumedCapacity.getTable() == null && consumedCapacity.getGlobalSecondaryIndexes() == null
+                && consumedCapacity.getLocalSecondaryIndexes() == null)
+        {
+            record(tableName, null, consumedCapacity.getCapacityUnits(), write);
+            return;
+        }
+
+        if(consumedCapacity.getTable() != null)
+            record(tableName, null, consumedCapacity.getTable().getCapacityUnits(), write);
+
+        if(consumedCapacity.getGlobalSecondaryIndexes() != null)
+        {
+            for (Map.Entry<String, Capacity> entry : consumedCapacity.getGlobalSecondaryIndexes().entrySet())
+                record(tableName, entry.getKey(), entry.getValue().getCapacityUnits(), write);
+        }
+
+        // Local secondary indexes use the throughput of their table.
+        if(consumedCapacity.getLocalSecondaryIndexes() != null)
+        {
+            for (Capacity capacity : consumedCapacity.getLocalSecondaryIndexes().values())
+                record(tableName, null, capacity.getCapacityUnits(), write);
+        }
+    }
+
+    private void record(String tableName, String indexName, Double capacityUnits, boolean write)
+    {
+        if(capacityUnits == null)
+            return;
+
+        if(write)
+            recordWrite(tableName, indexName, capacityUnits);
+        else
+            recordRead(tableName, indexName, capacityUnits);
+    }
+
+    private Target findTarget(String tableName, String indexName)
+    {
+        ControlledTable table = tables.get(tableName);
+        if(table == null)
+            return null;
+        return indexName == null ? table.table : table.indexes.get(indexName);
+    }
+
+    private static long toMilliunits(double capacityUnits)
+    {
+        return Math.round(capacityUnits * MILLIUNITS);
+    }
+
+    private static CreateTableRequest buildRequest(String tableName, TableDefiner tableDefiner)
+    {
+        TableBuilder tableBuilder = new TableBuilder().name(tableName);
+        tableDefiner.defineTable(tableBuilder);
+        return tableBuilder.buildCreateTableRequest();
+    }
+
+    private static Map<String, ProvisionedThroughput> indexThroughput(CreateTableRequest createTableRequest)
+    {
+        Map<String, ProvisionedThroughput> throughput = new HashMap<>();
+        if(createTableRequest.getGlobalSecondaryIndexes() != null)
+        {
+            for (GlobalSecondaryIndex index : createTableRequest.getGlobalSecondaryIndexes())
+                throughput.put(index.getIndexName(), index.getProvisionedThroughput());
+        }
+        return throughput;
+    }
+
+    private static class ControlledTable
+    {
+        private final String tableName;
+        private final Target table;
+        private final Map<String, Target> indexes = new HashMap<>();
+        private long lastAdjustedMillis = -1;
+
+        private ControlledTable(String tableName, Target table)
+        {
+            this.tableName = tableName;
+            this.table = table;
+        }
+    }
+
+    /**
+     * The throughput of a table, or of one of its global secondary indexes.
+     * Only the consumed counters are used outside of {@link #adjust()}.
+     */
+    private class Target
+    {
+        private final String indexName;
+        private final long minimumRead;
+        private final long minimumWrite;
+        private final long maximumRead;
+        private final long maximumWrite;
+        private final AtomicLong consumedRead = new AtomicLong();
+        private final AtomicLong consumedWrite = new AtomicLong();
+        private boolean described;
+        private long currentRead;
+        private long currentWrite;
+        private long plannedRead;
+        private long plannedWrite;
+        private long readLowSinceMillis = -1;
+        private long writeLowSinceMillis = -1;
+        private long decreaseDay;
+        private int decreasesToday;
+
+        private Target(String indexName, ProvisionedThroughput minimum, ProvisionedThroughput maximum)
+        {
+            this.indexName = indexName;
+            this.minimumRead = minimum.getReadCapacityUnits();
+            this.minimumWrite = minimum.getWriteCapacityUnits();
+            this.maximumRead = maximum.getReadCapacityUnits();
+            this.maximumWrite = maximum.getWriteCapacityUnits();
+
+            if(minimumRead > maximumRead || minimumWrite > maximumWrite)
+                throw new IllegalArgumentException("The minimum throughput " + minimum + " is greater than the maximum " + maximum
+                        + (indexName == null ? "" : " for index " + indexName));
+        }
+
+        private void current(ProvisionedThroughputDescription throughput, long now)
+        {
+            described = true;
+            currentRead = throughput.getReadCapacityUnits();
+            currentWrite = throughput.getWriteCapacityUnits();
+            decreaseDay = now / MILLIS_PER_DAY;
+            decreasesToday = throughput.getNumberOfDecreasesToday() == null ? 0 : throughput.getNumberOfDecreasesToday().intValue();
+            consumedRead.set(0);
+            consumedWrite.set(0);
+        }
+
+        /**
+         * Works out the throughput for the rate consumed since the last interval.
+         *
+         * @return the new throughput, or null if it should not change
+         */
+        private ProvisionedThroughput plan(long elapsedMillis, long now)
+        {
+            double elapsedSeconds = elapsedMillis / 1000.0;
+            long desiredRead = desired(consumedRead.getAndSet(0) / MILLIUNITS / elapsedSeconds, minimumRead, maximumRead);
+            long desiredWrite = desired(consumedWrite.getAndSet(0) / MILLIUNITS / elapsedSeconds, minimumWrite, maximumWrite);
+
+            readLowSinceMillis = desiredRead < currentRead ? (readLowSinceMillis < 0 ? now : readLowSinceMillis) : -1;
+            writeLowSinceMillis = desiredWrite < currentWrite ? (writeLowSinceMillis < 0 ? now : writeLowSinceMillis) : -1;
+
+            plannedRead = Math.max(currentRead, desiredRead);
+            plannedWrite = Math.max(currentWrite, desiredWrite);
+
+            boolean readMayDecrease = readLowSinceMillis >= 0 && now - readLowSinceMillis >= scaleDownDelayMillis;
+            boolean writeMayDecrease = writeLowSinceMillis >= 0 && now - writeLowSinceMillis >= scaleDownDelayMillis;
+            if((readMayDecrease || writeMayDecrease) && decreasesRemaining(now) > 0)
+            {
+                if(readMayDecrease)
+                    plannedRead = desiredRead;
+                if(writeMayDecrease)
+                    plannedWrite = desiredWrite;
+            }
+
+            if(plannedRead == currentRead && plannedWrite == currentWrite)
+                return null;
+            return new ProvisionedThroughput(plannedRead, plannedWrite);
+        }
+
+        private void applied(long now)
+        {
+            if(plannedRead < currentRead || plannedWrite < currentWrite)
+            {
+                decreasesToday++;
+                if(plannedRead < currentRead)
+                    readLowSinceMillis = -1;
+                if(plannedWrite < currentWrite)
+                    writeLowSinceMillis = -1;
+            }
+            currentRead = plannedRead;
+            currentWrite = plannedWrite;
+        }
+
+        private int decreasesRemaining(long now)
+        {
+            long today = now / MILLIS_PER_DAY;
+            if(today != decreaseDay)
+            {
+                decreaseDay = today;
+                decreasesToday = 0;
+            }
+            return maximumDecreasesPerDay - decreasesToday;
+        }
+
+        private long desired(double rate, long minimum, long maximum)
+        {
+            long desired = (long) Math.ceil(rate / targetUtilization);
+            return Math.min(maximum, Math.max(minimum, desired));
+        }
+    }
+}
@@ -129,7 +129,14 @@ public class TableBuilder
         return dynamoDB.createTable(createTableRequest);
     }
 
-    private CreateTableRequest buildCreateTableRequest()
+    /**
+     * Builds the request to create the table, without sending it.
+     * This is useful for comparing the definition with an existing table.
+     *
+     * @return the {@link CreateTableRequest} for the table
+     * @since 0.4
+     */
+    public CreateTableRequest buildCreateTableRequest()
     {
         Collection<KeySchemaElement> keySchemaElementCollection = new ArrayList<>();
         Collection<AttributeDefinition> attributeDefinitionCollection = new ArrayList<>();
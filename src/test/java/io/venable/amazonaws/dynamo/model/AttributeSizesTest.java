@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AttributeSizesTest
+{
+    @Test
+    public void utf8Length_should_count_encoded_bytes()
+    {
+        assertThat(AttributeSizes.utf8Length("abc"), is(3L));
+        assertThat(AttributeSizes.utf8Length("é"), is(2L));
+        assertThat(AttributeSizes.utf8Length("€"), is(3L));
+        assertThat(AttributeSizes.utf8Length("😀"), is(4L));
+    }
+
+    @Test
+    public void numberSize_should_count_one_byte_per_two_significant_digits_plus_one()
+    {
+        assertThat(AttributeSizes.numberSize("0"), is(1L));
+        assertThat(AttributeSizes.numberSize("7"), is(2L));
+        assertThat(AttributeSizes.numberSize("12"), is(2L));
+        assertThat(AttributeSizes.numberSize("123"), is(3L));
+        assertThat(AttributeSizes.numberSize("-1200000"), is(2L));
+        assertThat(AttributeSizes.numberSize("0.00125"), is(3L));
+        assertThat(AttributeSizes.numberSize("1.5E10"), is(2L));
+    }
+
+    @Test
+    public void sizeOf_should_include_attribute_name()
+    {
+        assertThat(AttributeSizes.sizeOf("name", new AttributeValue().withS("value")), is(9L));
+        assertThat(AttributeSizes.sizeOf("name", null), is(4L));
+    }
+
+    @Test
+    public void sizeOf_should_measure_scalar_values()
+    {
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withB(ByteBuffer.wrap(new byte[10]))), is(10L));
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withBOOL(true)), is(1L));
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withNULL(true)), is(1L));
+    }
+
+    @Test
+    public void sizeOf_should_sum_set_elements()
+    {
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withSS("ab", "cde")), is(5L));
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withNS("1", "123")), is(5L));
+    }
+
+    @Test
+    public void sizeOf_should_add_overhead_for_lists_and_maps()
+    {
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withL(new AttributeValue().withS("ab"), new AttributeValue().withBOOL(false))), is(8L));
+
+        Map<String, AttributeValue> entries = new HashMap<>();
+        entries.put("k", new AttributeValue().withS("ab"));
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withM(entries)), is(7L));
+        assertThat(AttributeSizes.sizeOf(new AttributeValue().withM(new HashMap<String, AttributeValue>())), is(3L));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class AttributeValuesTest
+{
+    @Test
+    public void copyOf_should_return_null_for_null()
+    {
+        assertThat(AttributeValues.copyOf(null), nullValue());
+    }
+
+    @Test
+    public void copyOf_should_return_an_equal_value()
+    {
+        Map<String, AttributeValue> map = new HashMap<>();
+        map.put("inner", new AttributeValue().withN("1"));
+        AttributeValue[] attributeValues = new AttributeValue[] {
+                new AttributeValue().withS("s"),
+                new AttributeValue().withN("1"),
+                new AttributeValue().withBOOL(true),
+                new AttributeValue().withNULL(true),
+                new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 1 })),
+                new AttributeValue().withSS("a", "b"),
+                new AttributeValue().withNS("1", "2"),
+                new AttributeValue().withBS(ByteBuffer.wrap(new byte[] { 2 })),
+                new AttributeValue().withL(new AttributeValue().withS("x")),
+                new AttributeValue().withM(map)
+        };
+
+        for (AttributeValue attributeValue : attributeValues)
+        {
+            AttributeValue copy = AttributeValues.copyOf(attributeValue);
+            assertThat(copy, is(attributeValue));
+            assertThat(copy, not(sameInstance(attributeValue)));
+        }
+    }
+
+    @Test
+    public void copyOf_should_copy_nested_values()
+    {
+        AttributeValue inner = new AttributeValue().withS("a");
+        AttributeValue original = new AttributeValue().withM(Collections.singletonMap("inner", inner));
+
+        AttributeValue copy = AttributeValues.copyOf(original);
+        inner.setS("b");
+
+        assertThat(copy.getM().get("inner").getS(), is("a"));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CommonAttributeValuesTest
+{
+    @Test
+    public void ofLong_should_share_small_integers()
+    {
+        assertThat(CommonAttributeValues.ofLong(0), sameInstance(CommonAttributeValues.ofLong(0)));
+        assertThat(CommonAttributeValues.ofLong(-128), sameInstance(CommonAttributeValues.ofLong(-128)));
+        assertThat(CommonAttributeValues.ofLong(1024), sameInstance(CommonAttributeValues.ofLong(1024)));
+        assertThat(CommonAttributeValues.ofLong(1024).getN(), is("1024"));
+        assertThat(CommonAttributeValues.ofLong(-7).getN(), is("-7"));
+    }
+
+    @Test
+    public void ofLong_should_create_other_integers()
+    {
+        AttributeValue value = CommonAttributeValues.ofLong(1025);
+
+        assertThat(value, not(sameInstance(CommonAttributeValues.ofLong(1025))));
+        assertThat(value.getN(), is("1025"));
+        assertThat(CommonAttributeValues.ofLong(Long.MIN_VALUE).getN(), is("-9223372036854775808"));
+    }
+
+    @Test
+    public void ofBoolean_should_share_values()
+    {
+        assertThat(CommonAttributeValues.ofBoolean(true), sameInstance(CommonAttributeValues.ofBoolean(true)));
+        assertThat(CommonAttributeValues.ofBoolean(true).getBOOL(), is(true));
+        assertThat(CommonAttributeValues.ofBoolean(false).getBOOL(), is(false));
+        assertThat(CommonAttributeValues.ofNull().getNULL(), is(true));
+    }
+
+    @Test
+    public void ofString_should_share_registered_strings()
+    {
+        CommonAttributeValues.registerStrings(Arrays.asList("ACTIVE", "DELETED"));
+
+        assertThat(CommonAttributeValues.ofString("ACTIVE"), sameInstance(CommonAttributeValues.ofString("ACTIVE")));
+        assertThat(CommonAttributeValues.ofString("DELETED").getS(), is("DELETED"));
+        assertThat(CommonAttributeValues.ofString(""), sameInstance(CommonAttributeValues.ofString("")));
+    }
+
+    @Test
+    public void ofString_should_create_unregistered_strings()
+    {
+        AttributeValue value = CommonAttributeValues.ofString("unregistered value");
+
+        assertThat(value, not(sameInstance(CommonAttributeValues.ofString("unregistered value"))));
+        assertThat(value.getS(), is("unregistered value"));
+        assertThat(CommonAttributeValues.ofString(null), equalTo(new AttributeValue()));
+    }
+
+    @Test
+    public void shared_values_should_equal_other_values()
+    {
+        assertThat(CommonAttributeValues.ofLong(5), equalTo(new AttributeValue().withN("5")));
+        assertThat(new AttributeValue().withN("5"), equalTo(CommonAttributeValues.ofLong(5)));
+        assertThat(CommonAttributeValues.ofLong(5).hashCode(), is(new AttributeValue().withN("5").hashCode()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shared_values_should_not_be_changed_by_setters()
+    {
+        CommonAttributeValues.ofLong(5).setN("6");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shared_values_should_not_be_changed_by_with_methods()
+    {
+        CommonAttributeValues.ofBoolean(true).withS("x");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shared_values_should_not_be_changed_by_adding_list_elements()
+    {
+        CommonAttributeValues.ofBoolean(true).withL(new AttributeValue().withS("x"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shared_values_should_not_be_changed_by_adding_map_entries()
+    {
+        CommonAttributeValues.ofNull().addMEntry("x", new AttributeValue().withS("x"));
+    }
+
+    @Test
+    public void put_methods_should_use_shared_values()
+    {
+        CommonAttributeValues.registerString("PENDING");
+        DynamoItem item = DynamoItemFactory.createItem();
+
+        item.putInteger("Count", 3);
+        item.putLong("Total", 3L);
+        item.putBoolean("Active", true);
+        item.putString("Status", "PENDING");
+
+        assertThat(item.get("Count"), sameInstance(CommonAttributeValues.ofLong(3)));
+        assertThat(item.get("Total"), sameInstance(CommonAttributeValues.ofLong(3)));
+        assertThat(item.get("Active"), sameInstance(CommonAttributeValues.ofBoolean(true)));
+        assertThat(item.get("Status"), sameInstance(CommonAttributeValues.ofString("PENDING")));
+        assertThat(item.getLong("Count"), is(3L));
+        assertThat(item.getString("Status"), is("PENDING"));
+    }
+
+    @Test
+    public void shared_values_should_be_copied_as_mutable_values()
+    {
+        AttributeValue copy = AttributeValues.copyOf(CommonAttributeValues.ofLong(3));
+
+        copy.setN("4");
+
+        assertThat(copy.getN(), is("4"));
+        assertThat(CommonAttributeValues.ofLong(3).getN(), is("3"));
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class CompactDynamoItemTest
+{
+    private Random random;
+    private String attributeName;
+
+    @Before
+    public void setUp()
+    {
+        random = new Random();
+        attributeName = UUID.randomUUID().toString();
+    }
+
+    private DynamoItem createObjectUnderTest()
+    {
+        return new CompactDynamoItem();
+    }
+
+    private static AttributeValue randomValue()
+    {
+        return new AttributeValue().withS(UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void new_item_should_be_empty()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.isEmpty(), is(true));
+        assertThat(objectUnderTest.size(), is(0));
+        assertThat(objectUnderTest.get(attributeName), nullValue());
+    }
+
+    @Test
+    public void get_should_return_value_from_put()
+    {
+        AttributeValue value = randomValue();
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.put(attributeName, value), nullValue());
+
+        assertThat(objectUnderTest.get(attributeName), is(value));
+        assertThat(objectUnderTest.containsKey(attributeName), is(true));
+        assertThat(objectUnderTest.containsValue(value), is(true));
+        assertThat(objectUnderTest.size(), is(1));
+    }
+
+    @Test
+    public void put_should_replace_and_return_previous_value()
+    {
+        AttributeValue firstValue = randomValue();
+        AttributeValue secondValue = randomValue();
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put(attributeName, firstValue);
+
+        assertThat(objectUnderTest.put(attributeName, secondValue), is(firstValue));
+
+        assertThat(objectUnderTest.get(attributeName), is(secondValue));
+        assertThat(objectUnderTest.size(), is(1));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void put_should_throw_for_null_attribute_name()
+    {
+        createObjectUnderTest().put(null, randomValue());
+    }
+
+    @Test
+    public void remove_should_return_and_remove_value()
+    {
+        AttributeValue value = randomValue();
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put(attributeName, value);
+
+        assertThat(objectUnderTest.remove(attributeName), is(value));
+
+        assertThat(objectUnderTest.containsKey(attributeName), is(false));
+        assertThat(objectUnderTest.isEmpty(), is(true));
+    }
+
+    @Test
+    public void clear_should_remove_all_attributes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        for(int i = 0; i < 10; i++)
+            objectUnderTest.put(UUID.randomUUID().toString(), randomValue());
+
+        objectUnderTest.clear();
+
+        assertThat(objectUnderTest.isEmpty(), is(true));
+        assertThat(objectUnderTest.entrySet().iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void typed_accessors_should_read_their_own_writes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        long value = random.nextLong();
+
+        objectUnderTest.putLong(attributeName, value);
+        objectUnderTest.putString("s", "value");
+
+        assertThat(objectUnderTest.getLong(attributeName, 0L), is(value));
+        assertThat(objectUnderTest.getString("s"), is("value"));
+    }
+
+    @Test
+    public void should_behave_like_a_HashMap_for_random_operations()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        Map<String, AttributeValue> expected = new HashMap<>();
+
+        List<String> names = new ArrayList<>();
+        for(int i = 0; i < 40; i++)
+            names.add(UUID.randomUUID().toString());
+
+        for(int i = 0; i < 5000; i++)
+        {
+            String name = names.get(random.nextInt(names.size()));
+            if(random.nextInt(3) == 0)
+            {
+                assertThat(objectUnderTest.remove(name), is(expected.remove(name)));
+            }
+            else
+            {
+                AttributeValue value = randomValue();
+                assertThat(objectUnderTest.put(name, value), is(expected.put(name, value)));
+            }
+
+            assertThat(objectUnderTest.size(), is(expected.size()));
+        }
+
+        for (String name : names)
+            assertThat(objectUnderTest.get(name), is(expected.get(name)));
+
+        assertThat(objectUnderTest.equals(expected), is(true));
+        assertThat(expected.equals(objectUnderTest), is(true));
+        assertThat(objectUnderTest.hashCode(), is(expected.hashCode()));
+        assertThat(objectUnderTest.keySet(), is(expected.keySet()));
+        assertThat(new HashSet<>(objectUnderTest.values()), is(new HashSet<>(expected.values())));
+    }
+
+    @Test
+    public void entrySet_iterator_remove_should_visit_and_remove_every_attribute()
+    {
+        DynamoItem objectUnderTest = new CompactDynamoItem(12);
+        Set<String> names = new HashSet<>();
+        for(int i = 0; i < 12; i++)
+        {
+            String name = UUID.randomUUID().toString();
+            names.add(name);
+            objectUnderTest.put(name, randomValue());
+        }
+
+        Set<String> visited = new HashSet<>();
+        Iterator<Map.Entry<String, AttributeValue>> iterator = objectUnderTest.entrySet().iterator();
+        while(iterator.hasNext())
+        {
+            visited.add(iterator.next().getKey());
+            iterator.remove();
+        }
+
+        assertThat(visited, is(names));
+        assertThat(objectUnderTest.isEmpty(), is(true));
+    }
+
+    @Test
+    public void keySet_iterator_remove_should_keep_remaining_attributes_reachable()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        Map<String, AttributeValue> expected = new HashMap<>();
+        for(int i = 0; i < 30; i++)
+        {
+            String name = UUID.randomUUID().toString();
+            AttributeValue value = randomValue();
+            objectUnderTest.put(name, value);
+            expected.put(name, value);
+        }
+
+        Iterator<String> iterator = objectUnderTest.keySet().iterator();
+        int visited = 0;
+        while(iterator.hasNext())
+        {
+            String name = iterator.next();
+            visited++;
+            if(random.nextBoolean())
+            {
+                iterator.remove();
+                expected.remove(name);
+            }
+        }
+
+        assertThat(visited, is(30));
+        assertThat(objectUnderTest.equals(expected), is(true));
+        for (String name : expected.keySet())
+            assertThat(objectUnderTest.get(name), is(expected.get(name)));
+    }
+
+    @Test
+    public void entry_setValue_should_update_item()
+    {
+        AttributeValue value = randomValue();
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put(attributeName, randomValue());
+
+        objectUnderTest.entrySet().iterator().next().setValue(value);
+
+        assertThat(objectUnderTest.get(attributeName), is(value));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterator_should_fail_if_item_is_modified()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put(attributeName, randomValue());
+        objectUnderTest.put(UUID.randomUUID().toString(), randomValue());
+
+        Iterator<String> iterator = objectUnderTest.keySet().iterator();
+        iterator.next();
+        objectUnderTest.put(UUID.randomUUID().toString(), randomValue());
+        iterator.next();
+    }
+
+    @Test
+    public void sizeInBytes_should_follow_puts_and_removes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put("id", new AttributeValue().withS("abc"));
+
+        assertThat(objectUnderTest.sizeInBytes(), is(5L));
+
+        objectUnderTest.put("id", new AttributeValue().withS("abcdef"));
+        objectUnderTest.putLong("count", 123L);
+        assertThat(objectUnderTest.sizeInBytes(), is(8L + 8L));
+
+        objectUnderTest.remove("id");
+        objectUnderTest.remove("missing");
+        assertThat(objectUnderTest.sizeInBytes(), is(8L));
+
+        objectUnderTest.clear();
+        assertThat(objectUnderTest.sizeInBytes(), is(0L));
+    }
+
+    @Test
+    public void sizeInBytes_should_follow_removes_through_views()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put("a", new AttributeValue().withS("1"));
+        objectUnderTest.put("b", new AttributeValue().withS("22"));
+        objectUnderTest.sizeInBytes();
+
+        objectUnderTest.keySet().remove("a");
+
+        assertThat(objectUnderTest.sizeInBytes(), is(3L));
+    }
+
+    @Test
+    public void estimated_units_should_round_up_to_whole_units()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        assertThat(objectUnderTest.estimatedWriteUnits(), is(1));
+        assertThat(objectUnderTest.estimatedReadUnits(), is(1));
+
+        objectUnderTest.putBinary("data", ByteBuffer.allocate(5000));
+
+        assertThat(objectUnderTest.estimatedWriteUnits(), is(5));
+        assertThat(objectUnderTest.estimatedReadUnits(), is(2));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionPolicyTest
+{
+    private static String createDocument(int length)
+    {
+        StringBuilder builder = new StringBuilder("{\"entries\":[");
+        for (int i = 0; builder.length() < length; i++)
+            builder.append("{\"id\":").append(i).append(",\"name\":\"entry é ").append(i).append("\"},");
+        builder.setCharAt(builder.length() - 1, ']');
+        return builder.append('}').toString();
+    }
+
+    private static String createRandomString(int length)
+    {
+        Random random = new Random(7);
+        char[] characters = new char[length];
+        for (int i = 0; i < length; i++)
+            characters[i] = (char) (33 + random.nextInt(94));
+        return new String(characters);
+    }
+
+    @Test
+    public void putString_should_store_large_strings_compressed()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(1024));
+        String document = createDocument(20000);
+
+        item.putString("Document", document);
+
+        AttributeValue attributeValue = item.get("Document");
+        assertThat(attributeValue.getS(), nullValue());
+        assertThat(attributeValue.getB(), notNullValue());
+        assertTrue(attributeValue.getB().remaining() < document.length() / 2);
+        assertThat(item.getString("Document"), is(document));
+    }
+
+    @Test
+    public void putString_should_store_small_strings_as_they_are()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(1024));
+
+        item.putString("Name", "value");
+
+        assertThat(item.get("Name").getS(), is("value"));
+    }
+
+    @Test
+    public void putString_should_measure_threshold_in_utf8_bytes()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(40));
+        String name = "ééééééééééééééééééééééééééééé";
+
+        item.putString("Name", name);
+
+        assertThat(item.get("Name").getS(), nullValue());
+        assertThat(item.getString("Name"), is(name));
+    }
+
+    @Test
+    public void putString_should_store_incompressible_strings_as_they_are()
+    {
+        CompressionPolicy policy = new CompressionPolicy(16);
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(policy);
+        String random = createRandomString(64);
+
+        item.putString("Random", random);
+
+        assertThat(item.get("Random").getS(), is(random));
+        assertThat(policy.getStats().getIncompressibleCount(), is(1L));
+        assertThat(policy.getStats().getCompressedCount(), is(0L));
+    }
+
+    @Test
+    public void putString_should_store_null()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(0));
+
+        item.putString("Name", null);
+
+        assertThat(item.getString("Name"), nullValue());
+    }
+
+    @Test
+    public void getString_should_inflate_without_policy()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(100));
+        String document = createDocument(5000);
+        item.putString("Document", document);
+
+        DynamoItem copy = DynamoItemFactory.createItem(item);
+
+        assertThat(copy.getCompressionPolicy(), nullValue());
+        assertThat(copy.getString("Document"), is(document));
+        assertThat(item.freeze().getString("Document"), is(document));
+    }
+
+    @Test
+    public void getString_should_return_null_for_other_binary_values()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+
+        item.putBinary("Data", ByteBuffer.wrap(new byte[] { 0, 'D', 'Z' }));
+
+        assertThat(item.getString("Data"), nullValue());
+    }
+
+    @Test
+    public void getString_should_return_null_for_binary_values_with_the_previous_short_marker()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+
+        item.putBinary("Data", ByteBuffer.wrap(new byte[] { 0, 'D', 'Z', 1, 0, 0, 0, 5, 1, 2, 3, 4, 5, 6, 7, 8 }));
+
+        assertThat(item.getString("Data"), nullValue());
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void getString_should_reject_a_length_which_the_compressed_bytes_cannot_hold()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        ByteBuffer value = ByteBuffer.allocate(19);
+        value.put(new byte[] { 0, 'D', 'D', 'Z', 'S', 'T', 'R', 2 }).putInt(0x7FFFFFF0).putInt(0).put(new byte[] { 1, 2, 3 });
+        value.flip();
+        item.putBinary("Data", value);
+
+        item.getString("Data");
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void getString_should_reject_a_value_which_does_not_match_its_checksum()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(100));
+        item.putString("Document", createDocument(5000));
+        ByteBuffer compressed = item.get("Document").getB();
+        byte[] bytes = Arrays.copyOfRange(compressed.array(), compressed.arrayOffset() + compressed.position(),
+                compressed.arrayOffset() + compressed.limit());
+        bytes[12] ^= 1;
+        item.putBinary("Document", ByteBuffer.wrap(bytes));
+
+        item.getString("Document");
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void getString_should_throw_for_corrupt_values()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(100));
+        item.putString("Document", createDocument(5000));
+        ByteBuffer compressed = item.get("Document").getB();
+        ByteBuffer truncated = ByteBuffer.wrap(compressed.array(), 0, compressed.remaining() / 2);
+        item.putBinary("Document", truncated);
+
+        item.getString("Document");
+    }
+
+    @Test
+    public void stats_should_record_compression_and_inflation()
+    {
+        CompressionPolicy policy = new CompressionPolicy(1024, 9);
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(policy);
+        String document = createDocument(50000);
+
+        item.putString("Document", document);
+        item.getString("Document");
+        item.getString("Document");
+
+        CompressionStats stats = policy.getStats();
+        assertThat(stats.getCompressedCount(), is(1L));
+        assertThat(stats.getUncompressedBytes(), is((long) AttributeSizes.utf8Length(document)));
+        assertThat(stats.getCompressedBytes(), is((long) item.get("Document").getB().remaining()));
+        assertThat(stats.getBytesSaved(), is(stats.getUncompressedBytes() - stats.getCompressedBytes()));
+        assertTrue(stats.getCompressionRatio() < 0.5);
+        assertTrue(stats.getEstimatedWriteUnitsSaved() > 10);
+        assertThat(stats.getDecompressedCount(), is(2L));
+    }
+
+    @Test
+    public void stats_should_report_ratio_of_one_before_compressing()
+    {
+        CompressionStats stats = new CompressionPolicy(1024).getStats();
+
+        assertThat(stats.getCompressionRatio(), is(1.0));
+        assertThat(stats.getAverageCompressionNanos(), is(0L));
+        assertThat(stats.getAverageDecompressionNanos(), is(0L));
+    }
+
+    @Test
+    public void sizeInBytes_should_measure_compressed_value()
+    {
+        DynamoItem item = DynamoItemFactory.createItem();
+        item.setCompressionPolicy(new CompressionPolicy(1024));
+        item.putString("Document", createDocument(20000));
+
+        assertThat(item.sizeInBytes(), is(8L + item.get("Document").getB().remaining()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_for_negative_threshold()
+    {
+        new CompressionPolicy(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_for_invalid_level()
+    {
+        new CompressionPolicy(1024, 10);
+    }
+}
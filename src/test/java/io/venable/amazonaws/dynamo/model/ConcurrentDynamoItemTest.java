@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ConcurrentDynamoItemTest
+{
+    private static final int THREAD_COUNT = 8;
+
+    @Test
+    public void item_should_hold_attributes()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+
+        item.putString("Id", "abc");
+        item.putLong("Count", 5);
+
+        assertThat(item.size(), is(2));
+        assertThat(item.getString("Id"), is("abc"));
+        assertThat(item.getLong("Count"), is(5L));
+        assertThat(item.sizeInBytes(), is(12L));
+    }
+
+    @Test
+    public void addLong_should_start_from_zero()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+
+        item.addLong("Count", 3);
+        item.addLong("Count", 4);
+
+        assertThat(item.getLong("Count"), is(7L));
+        assertThat(item.get("Count").getN(), is("7"));
+        assertThat(item.containsKey("Count"), is(true));
+        assertThat(item.size(), is(1));
+    }
+
+    @Test
+    public void addLong_should_add_to_existing_number()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+        item.putLong("Count", 10);
+
+        item.addLong("Count", 5);
+
+        assertThat(item.getLong("Count"), is(15L));
+        assertThat(item.size(), is(1));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void addLong_should_throw_for_decimal()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+        item.putDouble("Count", 1.5);
+
+        item.addLong("Count", 1);
+    }
+
+    @Test
+    public void put_should_replace_counter()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+        item.addLong("Count", 3);
+
+        AttributeValue previousValue = item.put("Count", new AttributeValue().withS("x"));
+
+        assertThat(previousValue.getN(), is("3"));
+        assertThat(item.getString("Count"), is("x"));
+        assertThat(item.size(), is(1));
+    }
+
+    @Test
+    public void remove_should_remove_counter()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+        item.addLong("Count", 3);
+
+        assertThat(item.remove("Count").getN(), is("3"));
+        assertThat(item.get("Count"), nullValue());
+        assertThat(item.isEmpty(), is(true));
+    }
+
+    @Test
+    public void entrySet_should_include_counters()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+        item.putString("Id", "abc");
+        item.addLong("Count", 3);
+
+        Map<String, AttributeValue> expected = new HashMap<>();
+        expected.put("Id", new AttributeValue().withS("abc"));
+        expected.put("Count", new AttributeValue().withN("3"));
+
+        assertThat(new HashMap<>(item), equalTo(expected));
+        assertThat(item.keySet(), equalTo(expected.keySet()));
+        assertThat(new HashSet<>(item.values()), equalTo(new HashSet<>(expected.values())));
+        assertThat(item.equals(expected), is(true));
+        assertThat(item.hashCode(), is(expected.hashCode()));
+    }
+
+    @Test
+    public void entrySet_should_write_through()
+    {
+        DynamoItem item = new ConcurrentDynamoItem();
+        item.putString("Id", "abc");
+        item.addLong("Count", 3);
+
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet())
+        {
+            if(entry.getKey().equals("Count"))
+                entry.setValue(new AttributeValue().withN("10"));
+        }
+        Iterator<String> iterator = item.keySet().iterator();
+        while(iterator.hasNext())
+        {
+            if(iterator.next().equals("Id"))
+                iterator.remove();
+        }
+
+        assertThat(item.getLong("Count"), is(10L));
+        assertThat(item.containsKey("Id"), is(false));
+        assertThat(item.size(), is(1));
+    }
+
+    @Test
+    public void addLong_should_not_lose_additions_across_threads() throws Exception
+    {
+        final DynamoItem item = new ConcurrentDynamoItem();
+        item.putLong("Existing", 100);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREAD_COUNT; thread++)
+            {
+                final int threadNumber = thread;
+                futures.add(executor.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        start.await();
+                        for (int i = 0; i < 10000; i++)
+                        {
+                            item.addLong("Count", 1);
+                            item.addLong("Existing", 2);
+                            item.putInteger("Thread" + threadNumber, i);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures)
+                future.get();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertThat(item.getLong("Count"), is((long) THREAD_COUNT * 10000));
+        assertThat(item.getLong("Existing"), is(100L + THREAD_COUNT * 20000));
+        assertThat(item.size(), is(THREAD_COUNT + 2));
+    }
+
+    @Test
+    public void createConcurrentItem_should_create_concurrent_item()
+    {
+        assertThat(DynamoItemFactory.createConcurrentItem() instanceof ConcurrentDynamoItem, is(true));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CopyOnWriteDynamoItemTest
+{
+    private FrozenDynamoItem original;
+
+    @Before
+    public void setUp()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", new AttributeValue().withS("a"));
+        item.put("version", new AttributeValue().withN("1"));
+        original = new FrozenDynamoItem(item);
+    }
+
+    private DynamoItem createObjectUnderTest()
+    {
+        return new CopyOnWriteDynamoItem(original);
+    }
+
+    @Test
+    public void should_read_attributes_of_the_original()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.getString("id"), is("a"));
+        assertThat(objectUnderTest.getLong("version"), is(1L));
+        assertThat(objectUnderTest.size(), is(2));
+        assertThat(objectUnderTest.equals(original), is(true));
+        assertThat(objectUnderTest.hashCode(), is(original.hashCode()));
+    }
+
+    @Test
+    public void freeze_should_return_the_original_if_not_modified()
+    {
+        assertThat(createObjectUnderTest().freeze(), sameInstance((DynamoItem) original));
+    }
+
+    @Test
+    public void put_should_modify_the_copy_only()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.putLong("version", 2L);
+        objectUnderTest.putString("other", "b");
+
+        assertThat(objectUnderTest.getLong("version"), is(2L));
+        assertThat(objectUnderTest.getString("other"), is("b"));
+        assertThat(original.getLong("version"), is(1L));
+        assertThat(original.containsKey("other"), is(false));
+    }
+
+    @Test
+    public void remove_should_modify_the_copy_only()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.remove("id");
+
+        assertThat(objectUnderTest.get("id"), nullValue());
+        assertThat(original.getString("id"), is("a"));
+    }
+
+    @Test
+    public void clear_should_modify_the_copy_only()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.clear();
+
+        assertThat(objectUnderTest.isEmpty(), is(true));
+        assertThat(original.size(), is(2));
+    }
+
+    @Test
+    public void freeze_after_modification_should_return_a_new_snapshot()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.putLong("version", 2L);
+
+        DynamoItem snapshot = objectUnderTest.freeze();
+
+        assertThat(snapshot.getLong("version"), is(2L));
+        assertThat(snapshot.equals(objectUnderTest), is(true));
+    }
+
+    @Test
+    public void entrySet_should_be_modifiable()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.keySet().remove("id");
+
+        assertThat(objectUnderTest.containsKey("id"), is(false));
+        assertThat(original.containsKey("id"), is(true));
+    }
+
+    @Test
+    public void getItem_should_not_modify_the_original_nested_item()
+    {
+        Map<String, AttributeValue> nested = new HashMap<>();
+        nested.put("score", new AttributeValue().withN("1"));
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("stats", new AttributeValue().withM(nested));
+        FrozenDynamoItem frozen = new FrozenDynamoItem(item);
+        DynamoItem objectUnderTest = new CopyOnWriteDynamoItem(frozen);
+
+        objectUnderTest.getItem("stats").putLong("score", 2L);
+
+        assertThat(objectUnderTest.getItem("stats").getLong("score"), is(2L));
+        assertThat(frozen.getItem("stats").getLong("score"), is(1L));
+    }
+
+    @Test
+    public void sizeInBytes_should_follow_changes_to_the_copy()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        long originalSize = objectUnderTest.sizeInBytes();
+
+        objectUnderTest.putString("other", "b");
+
+        assertThat(objectUnderTest.sizeInBytes(), is(originalSize + 6L));
+        assertThat(original.sizeInBytes(), is(originalSize));
+    }
+
+    @Test
+    public void sizeInBytes_should_see_changes_made_through_views()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.putString("other", "b");
+        long size = objectUnderTest.sizeInBytes();
+
+        Iterator<Map.Entry<String, AttributeValue>> iterator = objectUnderTest.entrySet().iterator();
+        while(iterator.hasNext())
+        {
+            if(iterator.next().getKey().equals("other"))
+                iterator.remove();
+        }
+
+        assertThat(objectUnderTest.sizeInBytes(), is(size - 6L));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DynamoBinaryTest
+{
+    private static Map<String, AttributeValue> createItem()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("Id", new AttributeValue().withS("abc-123"));
+        item.put("Count", new AttributeValue().withN("42"));
+        item.put("Negative", new AttributeValue().withN("-9223372036854775808"));
+        item.put("Price", new AttributeValue().withN("19.990"));
+        item.put("Large", new AttributeValue().withN("123456789012345678901234567890"));
+        item.put("Exponent", new AttributeValue().withN("1E+3"));
+        item.put("Padded", new AttributeValue().withN("007"));
+        item.put("Data", new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 0, 1, (byte) 255 })));
+        item.put("Active", new AttributeValue().withBOOL(true));
+        item.put("Deleted", new AttributeValue().withBOOL(false));
+        item.put("Nothing", new AttributeValue().withNULL(true));
+        item.put("Tags", new AttributeValue().withSS("x", "é"));
+        item.put("Scores", new AttributeValue().withNS("1", "2.5", "-3"));
+        item.put("Blobs", new AttributeValue().withBS(ByteBuffer.wrap(new byte[] { 1 }), ByteBuffer.wrap(new byte[0])));
+        item.put("List", new AttributeValue().withL(new AttributeValue().withS("a"), new AttributeValue().withN("1")));
+        item.put("Map", new AttributeValue().withM(Collections.singletonMap("Id", new AttributeValue().withS("nested"))));
+        return item;
+    }
+
+    @Test
+    public void decode_should_return_encoded_item()
+    {
+        DynamoBinary binary = new DynamoBinary();
+        Map<String, AttributeValue> item = createItem();
+
+        DynamoItem decodedItem = binary.decode(binary.encode(item));
+
+        assertThat(new HashMap<>(decodedItem), equalTo(item));
+    }
+
+    @Test
+    public void decode_should_return_encoded_item_with_shape()
+    {
+        Map<String, AttributeValue> item = createItem();
+        DynamoBinary binary = new DynamoBinary(new ItemShape(Arrays.asList("Id", "Count", "Price", "Map")));
+
+        DynamoItem decodedItem = binary.decode(binary.encode(item));
+
+        assertThat(new HashMap<>(decodedItem), equalTo(item));
+        assertThat(decodedItem, instanceOf(ShapedDynamoItem.class));
+    }
+
+    @Test
+    public void encode_with_shape_should_be_smaller()
+    {
+        Map<String, AttributeValue> item = createItem();
+        DynamoBinary binaryWithShape = new DynamoBinary(new ItemShape(item.keySet()));
+
+        assertTrue(binaryWithShape.encode(item).length < new DynamoBinary().encode(item).length);
+    }
+
+    @Test
+    public void encode_should_be_smaller_than_json()
+    {
+        Map<String, AttributeValue> item = createItem();
+
+        ByteBuffer json = DynamoJsonWriter.writeItem(item, null);
+
+        assertTrue(new DynamoBinary().encode(item).length < json.remaining());
+    }
+
+    @Test
+    public void encode_should_write_small_integers_in_one_byte()
+    {
+        DynamoBinary binary = new DynamoBinary(new ItemShape(Collections.singletonList("Count")));
+
+        byte[] bytes = binary.encode(Collections.singletonMap("Count", new AttributeValue().withN("-5")));
+
+        assertThat(bytes.length, is(6 + 1 + 1 + 1 + 1));
+    }
+
+    @Test
+    public void encode_should_skip_null_values()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("Id", new AttributeValue().withS("abc"));
+        item.put("Missing", null);
+        DynamoBinary binary = new DynamoBinary();
+
+        DynamoItem decodedItem = binary.decode(binary.encode(item));
+
+        assertThat(decodedItem.keySet(), equalTo(Collections.singleton("Id")));
+    }
+
+    @Test
+    public void encode_should_not_move_binary_position()
+    {
+        ByteBuffer data = ByteBuffer.wrap(new byte[] { 1, 2, 3 });
+        data.get();
+        DynamoBinary binary = new DynamoBinary();
+
+        DynamoItem decodedItem = binary.decode(binary.encode(Collections.singletonMap("Data", new AttributeValue().withB(data))));
+
+        assertThat(data.position(), is(1));
+        assertThat(decodedItem.get("Data").getB(), equalTo(ByteBuffer.wrap(new byte[] { 2, 3 })));
+    }
+
+    @Test
+    public void decodeAll_should_return_encoded_items_in_order()
+    {
+        Map<String, AttributeValue> first = createItem();
+        Map<String, AttributeValue> second = Collections.singletonMap("Id", new AttributeValue().withS("second"));
+        DynamoBinary binary = new DynamoBinary(new ItemShape(Collections.singletonList("Id")));
+
+        List<DynamoItem> items = binary.decodeAll(binary.encodeAll(Arrays.asList(first, second)));
+
+        assertThat(items.size(), is(2));
+        assertThat(new HashMap<>(items.get(0)), equalTo(first));
+        assertThat(new HashMap<>(items.get(1)), equalTo(second));
+    }
+
+    @Test
+    public void decodeAll_should_return_empty_list_for_empty_batch()
+    {
+        DynamoBinary binary = new DynamoBinary();
+
+        List<Map<String, AttributeValue>> noItems = Collections.emptyList();
+
+        assertThat(binary.decodeAll(binary.encodeAll(noItems)).isEmpty(), is(true));
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void decode_should_throw_for_different_shape()
+    {
+        byte[] bytes = new DynamoBinary(new ItemShape(Arrays.asList("Id", "Name"))).encode(createItem());
+
+        new DynamoBinary(new ItemShape(Arrays.asList("Name", "Id"))).decode(bytes);
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void decode_should_throw_for_batch()
+    {
+        DynamoBinary binary = new DynamoBinary();
+
+        binary.decode(binary.encodeAll(Collections.singletonList(createItem())));
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void decode_should_throw_for_unsupported_version()
+    {
+        DynamoBinary binary = new DynamoBinary();
+        byte[] bytes = binary.encode(createItem());
+        bytes[1] = (byte) (DynamoBinary.FORMAT_VERSION + 1);
+
+        binary.decode(bytes);
+    }
+
+    @Test
+    public void decode_should_throw_for_truncated_bytes()
+    {
+        DynamoBinary binary = new DynamoBinary();
+        byte[] bytes = binary.encode(createItem());
+
+        for (int length = 0; length < bytes.length; length++)
+        {
+            try
+            {
+                binary.decode(Arrays.copyOf(bytes, length));
+                throw new AssertionError("Expected a MalformedItemException for length " + length);
+            }
+            catch (MalformedItemException ex)
+            {
+                // Expected
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class DynamoItemFactoryTest
+{
+    @Test
+    public void createItem_should_create_compact_item_for_small_expected_size()
+    {
+        assertThat(DynamoItemFactory.createItem(8), instanceOf(CompactDynamoItem.class));
+    }
+
+    @Test
+    public void createItem_should_create_standard_item_for_large_expected_size()
+    {
+        assertThat(DynamoItemFactory.createItem(100), instanceOf(StandardDynamoItem.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createItem_should_throw_for_negative_expected_size()
+    {
+        DynamoItemFactory.createItem(-1);
+    }
+
+    @Test
+    public void createItem_for_table_should_share_shape_between_items()
+    {
+        String tableName = UUID.randomUUID().toString();
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", new AttributeValue().withS("a"));
+        item.put("count", new AttributeValue().withN("1"));
+
+        DynamoItem firstItem = DynamoItemFactory.createItem(tableName, item);
+        DynamoItem secondItem = DynamoItemFactory.createItem(tableName, item);
+
+        assertThat(firstItem, instanceOf(ShapedDynamoItem.class));
+        assertThat(((ShapedDynamoItem) secondItem).getShape(), sameInstance(((ShapedDynamoItem) firstItem).getShape()));
+        assertThat(DynamoItemFactory.getShape(tableName), sameInstance(((ShapedDynamoItem) firstItem).getShape()));
+        assertThat(firstItem.equals(item), is(true));
+    }
+
+    @Test
+    public void createItem_for_table_should_keep_attributes_outside_the_shape()
+    {
+        String tableName = UUID.randomUUID().toString();
+        DynamoItemFactory.defineShape(tableName, Arrays.asList("id"));
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", new AttributeValue().withS("a"));
+        item.put("extra", new AttributeValue().withS("b"));
+
+        DynamoItem dynamoItem = DynamoItemFactory.createItem(tableName, item);
+
+        assertThat(dynamoItem.getString("id"), is("a"));
+        assertThat(dynamoItem.getString("extra"), is("b"));
+        assertThat(dynamoItem.size(), is(2));
+    }
+
+    @Test
+    public void createLazyItems_should_read_items_of_a_scan_response()
+    {
+        String payload = "{\"Count\":2,\"Items\":[{\"Id\":{\"S\":\"a\"}},{\"Id\":{\"S\":\"b\"},\"N\":{\"N\":\"1\"}}]," +
+                "\"LastEvaluatedKey\":{\"Id\":{\"S\":\"b\"}},\"ScannedCount\":2}";
+
+        List<DynamoItem> items = DynamoItemFactory.createLazyItems(payload.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(items.size(), is(2));
+        assertThat(items.get(0).getString("Id"), is("a"));
+        assertThat(items.get(1).getString("Id"), is("b"));
+        assertThat(items.get(1).getLong("N"), is(1L));
+    }
+
+    @Test
+    public void createLazyItems_should_read_item_of_a_get_response()
+    {
+        String payload = "{\"Item\":{\"Id\":{\"S\":\"a\"}}}";
+
+        List<DynamoItem> items = DynamoItemFactory.createLazyItems(payload.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(items.size(), is(1));
+        assertThat(items.get(0).getString("Id"), is("a"));
+    }
+
+    @Test
+    public void createLazyItems_should_return_empty_list_for_response_without_items()
+    {
+        List<DynamoItem> items = DynamoItemFactory.createLazyItems("{}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(items.isEmpty(), is(true));
+    }
+
+    @Test
+    public void immutableCopy_should_create_frozen_item()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("Id", new AttributeValue().withS("a"));
+
+        DynamoItem frozenItem = DynamoItemFactory.immutableCopy(item);
+
+        assertThat(frozenItem, instanceOf(FrozenDynamoItem.class));
+        assertThat(frozenItem.equals(item), is(true));
+        assertThat(DynamoItemFactory.immutableCopy(frozenItem), sameInstance(frozenItem));
+    }
+}
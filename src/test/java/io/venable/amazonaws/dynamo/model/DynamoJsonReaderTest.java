@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class DynamoJsonReaderTest
+{
+    @Test
+    public void readItem_should_read_each_item_then_null() throws Exception
+    {
+        byte[] json = "{\"Id\":{\"S\":\"a\"}}\n{\"Id\":{\"S\":\"b\"},\"Count\":{\"N\":\"3\"}}\n".getBytes(StandardCharsets.UTF_8);
+
+        try(DynamoJsonReader reader = new DynamoJsonReader(new ByteArrayInputStream(json)))
+        {
+            DynamoItem first = reader.readItem();
+            DynamoItem second = reader.readItem();
+
+            assertThat(first.getString("Id"), is("a"));
+            assertThat(second.getString("Id"), is("b"));
+            assertThat(second.getLong("Count"), is(3L));
+            assertThat(reader.readItem(), nullValue());
+        }
+    }
+
+    @Test
+    public void readItem_should_read_remaining_bytes_of_heap_buffer() throws Exception
+    {
+        byte[] json = "xx{\"Id\":{\"S\":\"a\"}}".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(json);
+        buffer.position(2);
+
+        try(DynamoJsonReader reader = new DynamoJsonReader(buffer))
+        {
+            assertThat(reader.readItem().getString("Id"), is("a"));
+        }
+        assertThat(buffer.position(), is(2));
+    }
+
+    @Test
+    public void readItem_should_read_direct_buffer() throws Exception
+    {
+        byte[] json = "{\"Id\":{\"S\":\"a\"}}".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(json.length);
+        buffer.put(json);
+        buffer.flip();
+
+        try(DynamoJsonReader reader = new DynamoJsonReader(buffer))
+        {
+            assertThat(reader.readItem().getString("Id"), is("a"));
+        }
+        assertThat(buffer.position(), is(0));
+    }
+
+    @Test
+    public void readItem_should_read_what_writer_wrote() throws Exception
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("Id", new AttributeValue().withS("abc"));
+        item.put("Tags", new AttributeValue().withSS("x", "y"));
+        item.put("Data", new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 0, 1, 2, (byte) 255 })));
+        item.put("Nested", new AttributeValue().withM(Collections.singletonMap("List",
+                new AttributeValue().withL(new AttributeValue().withBOOL(false), new AttributeValue().withNULL(true)))));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try(DynamoJsonWriter writer = new DynamoJsonWriter(outputStream))
+        {
+            writer.writeItem(item);
+            writer.writeItem(item);
+        }
+
+        try(DynamoJsonReader reader = new DynamoJsonReader(ByteBuffer.wrap(outputStream.toByteArray())))
+        {
+            assertThat(new HashMap<>(reader.readItem()), equalTo(item));
+            assertThat(new HashMap<>(reader.readItem()), equalTo(item));
+            assertThat(reader.readItem(), nullValue());
+        }
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void readItem_should_throw_for_unknown_types() throws Exception
+    {
+        byte[] json = "{\"Id\":{\"X\":\"a\"}}".getBytes(StandardCharsets.UTF_8);
+
+        try(DynamoJsonReader reader = new DynamoJsonReader(json))
+        {
+            reader.readItem();
+        }
+    }
+}
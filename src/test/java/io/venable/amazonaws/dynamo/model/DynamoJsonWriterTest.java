@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class DynamoJsonWriterTest
+{
+    @Test
+    public void writeItem_should_write_each_attribute_type() throws Exception
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("S", new AttributeValue().withS("abc"));
+        item.put("N", new AttributeValue().withN("5"));
+        item.put("B", new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 1, 2, 3 })));
+        item.put("BOOL", new AttributeValue().withBOOL(true));
+        item.put("NULL", new AttributeValue().withNULL(true));
+        item.put("SS", new AttributeValue().withSS("a", "b"));
+        item.put("NS", new AttributeValue().withNS("1", "2"));
+        item.put("BS", new AttributeValue().withBS(ByteBuffer.wrap(new byte[] { 1 }), ByteBuffer.wrap(new byte[] { 2 })));
+        item.put("L", new AttributeValue().withL(new AttributeValue().withS("x"), new AttributeValue().withN("1")));
+        item.put("M", new AttributeValue().withM(Collections.singletonMap("inner", new AttributeValue().withS("y"))));
+
+        ByteBuffer buffer = DynamoJsonWriter.writeItem(item, null);
+
+        assertThat(new HashMap<>(read(buffer)), equalTo(item));
+    }
+
+    @Test
+    public void writeItem_should_write_json_format() throws Exception
+    {
+        Map<String, AttributeValue> item = Collections.singletonMap("Id", new AttributeValue().withS("abc"));
+
+        ByteBuffer buffer = DynamoJsonWriter.writeItem(item, ByteBuffer.allocate(64));
+
+        assertThat(StandardCharsets.UTF_8.decode(buffer).toString(), is("{\"Id\":{\"S\":\"abc\"}}"));
+    }
+
+    @Test
+    public void writeItem_should_skip_null_values() throws Exception
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("Id", new AttributeValue().withS("abc"));
+        item.put("Missing", null);
+
+        ByteBuffer buffer = DynamoJsonWriter.writeItem(item, null);
+
+        assertThat(StandardCharsets.UTF_8.decode(buffer).toString(), is("{\"Id\":{\"S\":\"abc\"}}"));
+    }
+
+    @Test
+    public void writeItem_should_write_direct_binary_without_moving_position() throws Exception
+    {
+        ByteBuffer binary = ByteBuffer.allocateDirect(4);
+        binary.put(new byte[] { 9, 8, 7, 6 });
+        binary.flip();
+        binary.get();
+        Map<String, AttributeValue> item = Collections.singletonMap("B", new AttributeValue().withB(binary));
+
+        ByteBuffer buffer = DynamoJsonWriter.writeItem(item, null);
+
+        assertThat(binary.position(), is(1));
+        assertThat(read(buffer).get("B").getB(), equalTo(ByteBuffer.wrap(new byte[] { 8, 7, 6 })));
+    }
+
+    @Test
+    public void writeItem_should_reuse_buffer_which_is_large_enough() throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.put((byte) 'x');
+
+        ByteBuffer result = DynamoJsonWriter.writeItem(Collections.singletonMap("Id", new AttributeValue().withS("abc")), buffer);
+
+        assertThat(result, sameInstance(buffer));
+        assertThat(result.position(), is(0));
+    }
+
+    @Test
+    public void writeItem_should_grow_buffer_of_same_kind() throws Exception
+    {
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'a');
+        Map<String, AttributeValue> item = Collections.singletonMap("Id", new AttributeValue().withS(new String(chars)));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+
+        ByteBuffer result = DynamoJsonWriter.writeItem(item, buffer);
+
+        assertThat(result, not(sameInstance(buffer)));
+        assertThat(result.isDirect(), is(true));
+        assertThat(new HashMap<>(read(result)), equalTo(item));
+    }
+
+    @Test
+    public void writer_should_write_items_on_separate_lines() throws Exception
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try(DynamoJsonWriter writer = new DynamoJsonWriter(outputStream))
+        {
+            writer.writeItem(Collections.singletonMap("Id", new AttributeValue().withN("1")));
+            writer.writeItem(Collections.singletonMap("Id", new AttributeValue().withN("2")));
+        }
+
+        assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8),
+                is("{\"Id\":{\"N\":\"1\"}}\n{\"Id\":{\"N\":\"2\"}}"));
+    }
+
+    private static DynamoItem read(ByteBuffer buffer) throws Exception
+    {
+        try(DynamoJsonReader reader = new DynamoJsonReader(buffer))
+        {
+            return reader.readItem();
+        }
+    }
+}
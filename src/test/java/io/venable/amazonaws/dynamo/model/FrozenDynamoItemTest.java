@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class FrozenDynamoItemTest
+{
+    private Map<String, AttributeValue> original;
+
+    @Before
+    public void setUp()
+    {
+        original = new HashMap<>();
+        original.put("id", new AttributeValue().withS(UUID.randomUUID().toString()));
+        original.put("version", new AttributeValue().withN("12"));
+        original.put("price", new AttributeValue().withN("1.5"));
+        original.put("tags", new AttributeValue().withSS("a", "b"));
+    }
+
+    private DynamoItem createObjectUnderTest()
+    {
+        return new FrozenDynamoItem(original);
+    }
+
+    @Test
+    public void should_have_the_attributes_of_the_original()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.equals(original), is(true));
+        assertThat(original.equals(objectUnderTest), is(true));
+        assertThat(objectUnderTest.hashCode(), is(original.hashCode()));
+        assertThat(objectUnderTest.size(), is(4));
+        assertThat(objectUnderTest.keySet(), is(original.keySet()));
+    }
+
+    @Test
+    public void typed_accessors_should_read_attributes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.getString("id"), is(original.get("id").getS()));
+        assertThat(objectUnderTest.getLong("version"), is(12L));
+        assertThat(objectUnderTest.getInteger("version", 0), is(12));
+        assertThat(objectUnderTest.getDouble("price", 0d), is(1.5d));
+        assertThat(objectUnderTest.getLong("missing"), nullValue());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void getLong_should_throw_for_decimal_numbers()
+    {
+        createObjectUnderTest().getLong("price");
+    }
+
+    @Test
+    public void should_not_see_later_changes_to_the_original()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        original.get("version").setN("13");
+        original.get("tags").getSS().add("c");
+        original.put("other", new AttributeValue().withS("x"));
+
+        assertThat(objectUnderTest.getLong("version"), is(12L));
+        assertThat(objectUnderTest.get("tags").getSS(), is(Arrays.asList("a", "b")));
+        assertThat(objectUnderTest.containsKey("other"), is(false));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void values_should_reject_being_changed_in_place()
+    {
+        createObjectUnderTest().get("id").setS("changed");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void string_sets_should_reject_being_changed_in_place()
+    {
+        createObjectUnderTest().get("tags").getSS().add("c");
+    }
+
+    @Test
+    public void nested_values_should_reject_being_changed_in_place()
+    {
+        Map<String, AttributeValue> nested = new HashMap<>();
+        nested.put("name", new AttributeValue().withS("a"));
+        original.put("map", new AttributeValue().withM(nested));
+        original.put("list", new AttributeValue().withL(new AttributeValue().withN("1")));
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        int hashCode = objectUnderTest.hashCode();
+
+        assertRejected(objectUnderTest.get("map").getM().get("name"));
+        assertRejected(objectUnderTest.get("list").getL().get(0));
+        try
+        {
+            objectUnderTest.get("map").getM().put("other", new AttributeValue().withS("b"));
+            fail("Expected an UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException ex)
+        {
+            // Expected
+        }
+
+        assertThat(objectUnderTest.hashCode(), is(hashCode));
+        assertThat(objectUnderTest.hashCode(), is(original.hashCode()));
+    }
+
+    private static void assertRejected(AttributeValue attributeValue)
+    {
+        try
+        {
+            attributeValue.setS("changed");
+            fail("Expected an UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException ex)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void reading_a_binary_attribute_should_not_move_the_frozen_buffer()
+    {
+        original.put("data", new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 1, 2, 3 })));
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.get("data").getB().get();
+
+        assertThat(objectUnderTest.get("data").getB().remaining(), is(3));
+    }
+
+    @Test
+    public void binary_attributes_should_share_content_with_a_read_only_view()
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3 });
+        original.put("data", new AttributeValue().withB(buffer));
+
+        ByteBuffer frozenBuffer = createObjectUnderTest().get("data").getB();
+
+        assertThat(frozenBuffer.isReadOnly(), is(true));
+        assertThat(frozenBuffer, is(buffer));
+    }
+
+    @Test
+    public void freeze_should_return_the_same_item()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.freeze(), sameInstance(objectUnderTest));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void put_should_throw()
+    {
+        createObjectUnderTest().putString("id", "x");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void remove_should_throw()
+    {
+        createObjectUnderTest().remove("id");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void clear_should_throw()
+    {
+        createObjectUnderTest().clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setCompressionPolicy_should_throw()
+    {
+        createObjectUnderTest().setCompressionPolicy(new CompressionPolicy(1024));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void entrySet_iterator_remove_should_throw()
+    {
+        Iterator<Map.Entry<String, AttributeValue>> iterator = createObjectUnderTest().entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void entry_setValue_should_throw()
+    {
+        createObjectUnderTest().entrySet().iterator().next().setValue(new AttributeValue().withS("x"));
+    }
+
+    @Test
+    public void mutableCopy_should_not_change_the_frozen_item()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        DynamoItem copy = objectUnderTest.mutableCopy();
+        copy.putLong("version", 13L);
+
+        assertThat(copy.getLong("version"), is(13L));
+        assertThat(objectUnderTest.getLong("version"), is(12L));
+        assertThat(copy, not(objectUnderTest));
+    }
+
+    @Test
+    public void concurrent_reads_should_see_the_same_values() throws Exception
+    {
+        final DynamoItem objectUnderTest = createObjectUnderTest();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for(int i = 0; i < 8; i++)
+            {
+                futures.add(executorService.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call()
+                    {
+                        for(int j = 0; j < 10000; j++)
+                        {
+                            if(objectUnderTest.getLong("version", 0L) != 12L)
+                                return false;
+                        }
+                        return true;
+                    }
+                }));
+            }
+
+            for (Future<Boolean> future : futures)
+                assertThat(future.get(), is(true));
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getItem_should_return_read_only_nested_item()
+    {
+        Map<String, AttributeValue> nested = new HashMap<>();
+        nested.put("score", new AttributeValue().withN("1"));
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("stats", new AttributeValue().withM(nested));
+        DynamoItem objectUnderTest = new FrozenDynamoItem(item);
+
+        assertThat(objectUnderTest.getItem("stats").getLong("score"), is(1L));
+        objectUnderTest.getItem("stats").putLong("score", 2L);
+    }
+
+    @Test
+    public void sizeInBytes_should_match_the_original()
+    {
+        assertThat(createObjectUnderTest().sizeInBytes(), is(AttributeSizes.sizeOf(original)));
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ItemMapperTest
+{
+    @Test
+    public void toItem_should_put_each_property()
+    {
+        Player player = createPlayer();
+
+        DynamoItem item = ItemMapper.toItem(player);
+
+        assertThat(item.getString("name"), is("Ada"));
+        assertThat(item.getLong("score"), is(1200L));
+        assertThat(item.getInteger("level", 0), is(7));
+        assertThat(item.getDouble("ratio", 0d), is(0.5));
+        assertThat(item.getBoolean("active", false), is(true));
+        assertThat(item.getLong("version"), is(3L));
+        assertThat(item.getDecimal("balance"), is(new BigDecimal("10.25")));
+        assertThat(item.getBinary("avatar"), is(ByteBuffer.wrap(new byte[] { 1, 2 })));
+        assertThat(item.getLongArray("history"), is(new long[] { 5, 6 }));
+        assertThat(item.getStringSet("tags"), is((Set<String>) new HashSet<>(Arrays.asList("a", "b"))));
+    }
+
+    @Test
+    public void toItem_should_use_DynamoAttribute_name()
+    {
+        Player player = createPlayer();
+
+        DynamoItem item = ItemMapper.toItem(player);
+
+        assertThat(item.getString("team_name"), is("blue"));
+        assertThat(item.containsKey("team"), is(false));
+    }
+
+    @Test
+    public void toItem_should_leave_out_null_and_empty_properties()
+    {
+        DynamoItem item = ItemMapper.toItem(new Player());
+
+        assertThat(item.containsKey("name"), is(false));
+        assertThat(item.containsKey("version"), is(false));
+        assertThat(item.containsKey("history"), is(false));
+        assertThat(item.containsKey("tags"), is(false));
+        assertThat(item.containsKey("score"), is(true));
+    }
+
+    @Test
+    public void fromItem_should_restore_the_object()
+    {
+        Player player = createPlayer();
+
+        Player copy = ItemMapper.fromItem(Player.class, ItemMapper.toItem(player));
+
+        assertThat(copy.getName(), is("Ada"));
+        assertThat(copy.getScore(), is(1200L));
+        assertThat(copy.getLevel(), is(7));
+        assertThat(copy.getRatio(), is(0.5));
+        assertThat(copy.isActive(), is(true));
+        assertThat(copy.getVersion(), is(3L));
+        assertThat(copy.getBalance(), is(new BigDecimal("10.25")));
+        assertThat(copy.getAvatar(), is(ByteBuffer.wrap(new byte[] { 1, 2 })));
+        assertThat(copy.getHistory(), is(new long[] { 5, 6 }));
+        assertThat(copy.getTags(), is((Set<String>) new HashSet<>(Arrays.asList("a", "b"))));
+        assertThat(copy.getTeam(), is("blue"));
+    }
+
+    @Test
+    public void fromItem_should_accept_a_plain_map()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("name", new AttributeValue().withS("Grace"));
+        item.put("score", new AttributeValue().withN("42"));
+
+        Player player = ItemMapper.fromItem(Player.class, item);
+
+        assertThat(player.getName(), is("Grace"));
+        assertThat(player.getScore(), is(42L));
+    }
+
+    @Test
+    public void fromItem_should_read_a_string_set_which_is_not_a_string_set_as_null()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("tags", new AttributeValue().withS("a"));
+
+        Player player = ItemMapper.fromItem(Player.class, item);
+
+        assertThat(player.getTags(), nullValue());
+    }
+
+    @Test
+    public void fromItem_should_leave_missing_and_null_attributes_unset()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("name", new AttributeValue().withNULL(true));
+
+        Player player = ItemMapper.fromItem(Player.class, item);
+
+        assertThat(player.getName(), nullValue());
+        assertThat(player.getScore(), is(0L));
+        assertThat(player.getVersion(), nullValue());
+    }
+
+    @Test
+    public void codecFor_should_return_the_same_codec_for_a_class()
+    {
+        assertThat(ItemMapper.codecFor(Player.class), sameInstance(ItemMapper.codecFor(Player.class)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void registerCodec_should_replace_the_codec_for_a_class()
+    {
+        ItemCodec<Registered> codec = mock(ItemCodec.class);
+
+        ItemMapper.registerCodec(Registered.class, codec);
+
+        assertThat(ItemMapper.codecFor(Registered.class), sameInstance(codec));
+    }
+
+    @Test
+    public void codecFor_should_map_DynamoEntity_at_runtime_when_no_codec_was_generated()
+    {
+        Entity entity = new Entity();
+        entity.setName("a");
+
+        assertThat(ItemMapper.toItem(entity).getString("name"), is("a"));
+    }
+
+    @Test(expected = ItemMappingException.class)
+    public void codecFor_should_throw_for_unsupported_property_types()
+    {
+        ItemMapper.codecFor(Unsupported.class);
+    }
+
+    @Test(expected = ItemMappingException.class)
+    public void codecFor_should_throw_for_classes_without_default_constructor()
+    {
+        ItemMapper.codecFor(NoDefaultConstructor.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void toItem_should_rethrow_exceptions_from_getters()
+    {
+        ItemMapper.toItem(new Failing());
+    }
+
+    private static Player createPlayer()
+    {
+        Player player = new Player();
+        player.setName("Ada");
+        player.setScore(1200L);
+        player.setLevel(7);
+        player.setRatio(0.5);
+        player.setActive(true);
+        player.setVersion(3L);
+        player.setBalance(new BigDecimal("10.250"));
+        player.setAvatar(ByteBuffer.wrap(new byte[] { 1, 2 }));
+        player.setHistory(new long[] { 5, 6 });
+        player.setTags(new HashSet<>(Arrays.asList("a", "b")));
+        player.setTeam("blue");
+        return player;
+    }
+
+    public static class Player
+    {
+        private String name;
+        private long score;
+        private int level;
+        private double ratio;
+        private boolean active;
+        private Long version;
+        private BigDecimal balance;
+        private ByteBuffer avatar;
+        private long[] history;
+        private Set<String> tags = Collections.emptySet();
+        private String team;
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public long getScore()
+        {
+            return score;
+        }
+
+        public void setScore(long score)
+        {
+            this.score = score;
+        }
+
+        public int getLevel()
+        {
+            return level;
+        }
+
+        public void setLevel(int level)
+        {
+            this.level = level;
+        }
+
+        public double getRatio()
+        {
+            return ratio;
+        }
+
+        public void setRatio(double ratio)
+        {
+            this.ratio = ratio;
+        }
+
+        public boolean isActive()
+        {
+            return active;
+        }
+
+        public void setActive(boolean active)
+        {
+            this.active = active;
+        }
+
+        public Long getVersion()
+        {
+            return version;
+        }
+
+        public void setVersion(Long version)
+        {
+            this.version = version;
+        }
+
+        public BigDecimal getBalance()
+        {
+            return balance;
+        }
+
+        public void setBalance(BigDecimal balance)
+        {
+            this.balance = balance;
+        }
+
+        public ByteBuffer getAvatar()
+        {
+            return avatar;
+        }
+
+        public void setAvatar(ByteBuffer avatar)
+        {
+            this.avatar = avatar;
+        }
+
+        public long[] getHistory()
+        {
+            return history;
+        }
+
+        public void setHistory(long[] history)
+        {
+            this.history = history;
+        }
+
+        public Set<String> getTags()
+        {
+            return tags;
+        }
+
+        public void setTags(Set<String> tags)
+        {
+            this.tags = tags;
+        }
+
+        @DynamoAttribute("team_name")
+        public String getTeam()
+        {
+            return team;
+        }
+
+        public void setTeam(String team)
+        {
+            this.team = team;
+        }
+
+        public String getDisplayName()
+        {
+            return "Player " + name;
+        }
+    }
+
+    @DynamoEntity
+    public static class Entity
+    {
+        private String name;
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    public static class Registered
+    {
+    }
+
+    public static class Unsupported
+    {
+        private List<Object> values;
+
+        public List<Object> getValues()
+        {
+            return values;
+        }
+
+        public void setValues(List<Object> values)
+        {
+            this.values = values;
+        }
+    }
+
+    public static class NoDefaultConstructor
+    {
+        public NoDefaultConstructor(String name)
+        {
+        }
+    }
+
+    public static class Failing
+    {
+        public String getName()
+        {
+            throw new IllegalStateException();
+        }
+
+        public void setName(String name)
+        {
+        }
+    }
+}
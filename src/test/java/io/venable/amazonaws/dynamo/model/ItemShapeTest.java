@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ItemShapeTest
+{
+    @Test
+    public void indexOf_should_return_position_of_each_attribute_name()
+    {
+        ItemShape objectUnderTest = new ItemShape(Arrays.asList("a", "b", "c"));
+
+        assertThat(objectUnderTest.indexOf("a"), is(0));
+        assertThat(objectUnderTest.indexOf("b"), is(1));
+        assertThat(objectUnderTest.indexOf("c"), is(2));
+    }
+
+    @Test
+    public void indexOf_should_return_negative_for_unknown_attribute_name()
+    {
+        ItemShape objectUnderTest = new ItemShape(Arrays.asList("a", "b", "c"));
+
+        assertThat(objectUnderTest.indexOf(UUID.randomUUID().toString()), is(-1));
+        assertThat(objectUnderTest.indexOf(null), is(-1));
+    }
+
+    @Test
+    public void should_ignore_duplicate_attribute_names()
+    {
+        ItemShape objectUnderTest = new ItemShape(Arrays.asList("a", "b", "a"));
+
+        assertThat(objectUnderTest.size(), is(2));
+        assertThat(objectUnderTest.getAttributeNames(), is(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void indexOf_should_find_every_name_in_a_large_shape()
+    {
+        String[] names = new String[200];
+        for(int i = 0; i < names.length; i++)
+            names[i] = UUID.randomUUID().toString();
+
+        ItemShape objectUnderTest = new ItemShape(Arrays.asList(names));
+
+        for(int i = 0; i < names.length; i++)
+            assertThat(objectUnderTest.indexOf(names[i]), is(i));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getAttributeNames_should_not_be_modifiable()
+    {
+        new ItemShape(Arrays.asList("a")).getAttributeNames().add("b");
+    }
+}
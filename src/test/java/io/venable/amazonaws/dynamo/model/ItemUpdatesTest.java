@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ItemUpdatesTest
+{
+    private Map<String, AttributeValue> key;
+    private DynamoItem item;
+
+    @Before
+    public void setUp()
+    {
+        key = Collections.singletonMap("id", new AttributeValue().withS("a"));
+        Map<String, AttributeValue> loaded = new HashMap<>(key);
+        loaded.put("count", new AttributeValue().withN("1"));
+        loaded.put("note", new AttributeValue().withS("hello"));
+        item = DynamoItemFactory.createTrackedItem(loaded);
+    }
+
+    @Test
+    public void createUpdateItemRequest_should_return_null_when_nothing_changed()
+    {
+        assertThat(ItemUpdates.createUpdateItemRequest("Table", key, item), nullValue());
+        assertThat(ItemUpdates.hasChanges(item), is(false));
+    }
+
+    @Test
+    public void createUpdateItemRequest_should_set_changed_attributes()
+    {
+        item.putLong("count", 2L);
+
+        UpdateItemRequest request = ItemUpdates.createUpdateItemRequest("Table", key, item);
+
+        assertThat(request.getTableName(), is("Table"));
+        assertThat(request.getKey(), is(key));
+        assertThat(request.getUpdateExpression(), is("SET #a0 = :v0"));
+        assertThat(request.getExpressionAttributeNames(), is(Collections.singletonMap("#a0", "count")));
+        assertThat(request.getExpressionAttributeValues(), is(Collections.singletonMap(":v0", new AttributeValue().withN("2"))));
+    }
+
+    @Test
+    public void createUpdateItemRequest_should_remove_removed_attributes()
+    {
+        item.remove("note");
+
+        UpdateItemRequest request = ItemUpdates.createUpdateItemRequest("Table", key, item);
+
+        assertThat(request.getUpdateExpression(), is("REMOVE #a0"));
+        assertThat(request.getExpressionAttributeNames(), is(Collections.singletonMap("#a0", "note")));
+        assertThat(request.getExpressionAttributeValues(), nullValue());
+    }
+
+    @Test
+    public void createUpdateItemRequest_should_combine_set_and_remove()
+    {
+        item.putLong("count", 2L);
+        item.putString("other", "b");
+        item.remove("note");
+
+        UpdateItemRequest request = ItemUpdates.createUpdateItemRequest("Table", key, item);
+
+        assertThat(request.getUpdateExpression(), is("SET #a0 = :v0, #a1 = :v1 REMOVE #a2"));
+        assertThat(request.getExpressionAttributeNames().get("#a2"), is("note"));
+    }
+
+    @Test
+    public void createUpdateItemRequest_should_not_set_unchanged_key_attributes()
+    {
+        item.putString("id", "a");
+        item.putLong("count", 2L);
+
+        UpdateItemRequest request = ItemUpdates.createUpdateItemRequest("Table", key, item);
+
+        assertThat(request.getUpdateExpression(), is("SET #a0 = :v0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createUpdateItemRequest_should_throw_when_key_attribute_changed()
+    {
+        item.putString("id", "b");
+
+        ItemUpdates.createUpdateItemRequest("Table", key, item);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createUpdateItemRequest_should_throw_for_untracked_items()
+    {
+        ItemUpdates.createUpdateItemRequest("Table", key, DynamoItemFactory.createItem());
+    }
+
+    @Test
+    public void markPersisted_should_leave_no_changes()
+    {
+        item.putLong("count", 2L);
+
+        ItemUpdates.markPersisted(item);
+
+        assertThat(ItemUpdates.hasChanges(item), is(false));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class LazyDynamoItemTest
+{
+    private static final String JSON = "{" +
+            "\"Id\":{\"S\":\"abc\"}," +
+            "\"Count\":{\"N\":\"42\"}," +
+            "\"Data\":{\"B\":\"AQID\"}," +
+            "\"Active\":{\"BOOL\":true}," +
+            "\"Nothing\":{\"NULL\":true}," +
+            "\"Tags\":{\"SS\":[\"a\",\"b\"]}," +
+            "\"Scores\":{\"NS\":[\"1\",\"2\"]}," +
+            "\"List\":{\"L\":[{\"S\":\"x\"},{\"N\":\"1\"}]}," +
+            "\"Map\":{\"M\":{\"Inner\":{\"S\":\"y\"}}}" +
+            "}";
+
+    private DynamoItem createObjectUnderTest()
+    {
+        return new LazyDynamoItem(JSON.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, AttributeValue> expectedItem()
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("Id", new AttributeValue().withS("abc"));
+        item.put("Count", new AttributeValue().withN("42"));
+        item.put("Data", new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 1, 2, 3 })));
+        item.put("Active", new AttributeValue().withBOOL(true));
+        item.put("Nothing", new AttributeValue().withNULL(true));
+        item.put("Tags", new AttributeValue().withSS("a", "b"));
+        item.put("Scores", new AttributeValue().withNS("1", "2"));
+        item.put("List", new AttributeValue().withL(new AttributeValue().withS("x"), new AttributeValue().withN("1")));
+        Map<String, AttributeValue> inner = new HashMap<>();
+        inner.put("Inner", new AttributeValue().withS("y"));
+        item.put("Map", new AttributeValue().withM(inner));
+        return item;
+    }
+
+    @Test
+    public void typed_accessors_should_decode_attributes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.getString("Id"), is("abc"));
+        assertThat(objectUnderTest.getLong("Count"), is(42L));
+        assertThat(objectUnderTest.getBoolean("Active", false), is(true));
+    }
+
+    @Test
+    public void get_should_decode_every_attribute_type()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        Map<String, AttributeValue> expected = expectedItem();
+
+        for (String attributeName : expected.keySet())
+            assertThat(objectUnderTest.get(attributeName), is(expected.get(attributeName)));
+    }
+
+    @Test
+    public void get_should_decode_each_attribute_only_once()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.get("Id"), sameInstance(objectUnderTest.get("Id")));
+    }
+
+    @Test
+    public void get_should_return_null_for_missing_attribute()
+    {
+        assertThat(createObjectUnderTest().get("Missing"), nullValue());
+    }
+
+    @Test
+    public void size_and_containsKey_should_not_need_values()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.size(), is(9));
+        assertThat(objectUnderTest.containsKey("Tags"), is(true));
+        assertThat(objectUnderTest.containsKey("Missing"), is(false));
+    }
+
+    @Test
+    public void entrySet_should_decode_the_whole_item()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.get("Id");
+
+        assertThat(objectUnderTest.entrySet().size(), is(9));
+        assertThat(objectUnderTest.equals(expectedItem()), is(true));
+    }
+
+    @Test
+    public void put_and_remove_should_modify_the_decoded_item()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.putString("Id", "def");
+        objectUnderTest.remove("Count");
+
+        assertThat(objectUnderTest.getString("Id"), is("def"));
+        assertThat(objectUnderTest.containsKey("Count"), is(false));
+        assertThat(objectUnderTest.getString("Tags"), nullValue());
+        assertThat(objectUnderTest.get("Tags").getSS(), is(Arrays.asList("a", "b")));
+        assertThat(objectUnderTest.size(), is(8));
+    }
+
+    @Test
+    public void clear_should_remove_all_attributes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.clear();
+
+        assertThat(objectUnderTest.isEmpty(), is(true));
+        assertThat(objectUnderTest.get("Id"), nullValue());
+    }
+
+    @Test
+    public void should_read_item_within_a_larger_array()
+    {
+        byte[] json = ("[1," + JSON + ",2]").getBytes(StandardCharsets.UTF_8);
+
+        DynamoItem objectUnderTest = new LazyDynamoItem(json, 3, JSON.length());
+
+        assertThat(objectUnderTest.getString("Id"), is("abc"));
+        assertThat(objectUnderTest.equals(expectedItem()), is(true));
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void get_should_throw_for_invalid_json()
+    {
+        new LazyDynamoItem("{\"Id\":".getBytes(StandardCharsets.UTF_8)).get("Id");
+    }
+
+    @Test(expected = MalformedItemException.class)
+    public void get_should_throw_for_unknown_attribute_type()
+    {
+        new LazyDynamoItem("{\"Id\":{\"X\":\"1\"}}".getBytes(StandardCharsets.UTF_8)).get("Id");
+    }
+
+    @Test
+    public void sizeInBytes_should_see_changes_made_through_views()
+    {
+        DynamoItem objectUnderTest = new LazyDynamoItem("{\"Id\":{\"S\":\"a\"},\"Data\":{\"S\":\"0123456789\"}}".getBytes(StandardCharsets.UTF_8));
+        assertThat(objectUnderTest.sizeInBytes(), is(17L));
+
+        objectUnderTest.keySet().remove("Data");
+
+        assertThat(objectUnderTest.sizeInBytes(), is(3L));
+    }
+
+    @Test
+    public void sizeInBytes_should_see_strings_put_into_nested_items()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        long size = objectUnderTest.sizeInBytes();
+
+        objectUnderTest.getItem("Map").putString("Other", "z");
+
+        assertThat(objectUnderTest.sizeInBytes(), is(size + 7L));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class NumberCodecTest
+{
+    @Test
+    public void parseLong_should_parse_plain_integers()
+    {
+        assertThat(NumberCodec.parseLong("0"), is(0L));
+        assertThat(NumberCodec.parseLong("42"), is(42L));
+        assertThat(NumberCodec.parseLong("-42"), is(-42L));
+        assertThat(NumberCodec.parseLong("+7"), is(7L));
+        assertThat(NumberCodec.parseLong("007"), is(7L));
+    }
+
+    @Test
+    public void parseLong_should_parse_the_full_long_range()
+    {
+        assertThat(NumberCodec.parseLong(Long.toString(Long.MAX_VALUE)), is(Long.MAX_VALUE));
+        assertThat(NumberCodec.parseLong(Long.toString(Long.MIN_VALUE)), is(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void parseLong_should_match_Long_parseLong_for_random_values()
+    {
+        Random random = new Random();
+        for (int i = 0; i < 1000; i++)
+        {
+            long value = random.nextLong();
+            assertThat(NumberCodec.parseLong(Long.toString(value)), is(value));
+        }
+    }
+
+    @Test
+    public void parseLong_should_parse_whole_decimals_and_exponents()
+    {
+        assertThat(NumberCodec.parseLong("5.0"), is(5L));
+        assertThat(NumberCodec.parseLong("1E3"), is(1000L));
+        assertThat(NumberCodec.parseLong("-2.5e1"), is(-25L));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseLong_should_throw_for_fractions()
+    {
+        NumberCodec.parseLong("1.5");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseLong_should_throw_for_overflow()
+    {
+        NumberCodec.parseLong("9223372036854775808");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseLong_should_throw_for_sign_without_digits()
+    {
+        NumberCodec.parseLong("-");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseLong_should_throw_for_null()
+    {
+        NumberCodec.parseLong(null);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseLong_should_throw_for_text()
+    {
+        NumberCodec.parseLong("abc");
+    }
+
+    @Test
+    public void parseDouble_should_parse_integers_decimals_and_exponents()
+    {
+        assertThat(NumberCodec.parseDouble("12"), is(12.0));
+        assertThat(NumberCodec.parseDouble("-0.125"), is(-0.125));
+        assertThat(NumberCodec.parseDouble("1.5E-3"), is(0.0015));
+        assertThat(NumberCodec.parseDouble("123456789012345678901"), is(1.2345678901234568E20));
+    }
+
+    @Test
+    public void formatDouble_should_write_whole_numbers_as_integers()
+    {
+        assertThat(NumberCodec.formatDouble(3.0), is("3"));
+        assertThat(NumberCodec.formatDouble(-0.0), is("0"));
+        assertThat(NumberCodec.formatDouble(-1234.0), is("-1234"));
+    }
+
+    @Test
+    public void formatDouble_should_write_without_exponent()
+    {
+        assertThat(NumberCodec.formatDouble(0.25), is("0.25"));
+        assertThat(NumberCodec.formatDouble(1.5E-7), is("0.00000015"));
+        assertThat(NumberCodec.formatDouble(1.0E20), is("100000000000000000000"));
+    }
+
+    @Test
+    public void formatDouble_should_round_trip_random_values()
+    {
+        Random random = new Random();
+        for (int i = 0; i < 1000; i++)
+        {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+            assertThat(NumberCodec.parseDouble(NumberCodec.formatDouble(value)), is(value));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatDouble_should_throw_for_NaN()
+    {
+        NumberCodec.formatDouble(Double.NaN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatDouble_should_throw_for_numbers_out_of_DynamoDB_range()
+    {
+        NumberCodec.formatDouble(1.0E200);
+    }
+
+    @Test
+    public void formatDecimal_should_remove_trailing_zeros()
+    {
+        assertThat(NumberCodec.formatDecimal(new BigDecimal("1.500")), is("1.5"));
+        assertThat(NumberCodec.formatDecimal(new BigDecimal("1.2E+3")), is("1200"));
+        assertThat(NumberCodec.formatDecimal(new BigDecimal("0.000")), is("0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatDecimal_should_throw_for_more_than_38_significant_digits()
+    {
+        NumberCodec.formatDecimal(new BigDecimal("123456789012345678901234567890123456789"));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PooledByteBufferAllocatorTest
+{
+    private PooledByteBufferAllocator objectUnderTest;
+
+    @Before
+    public void setUp()
+    {
+        objectUnderTest = new PooledByteBufferAllocator(false, 8192, 2);
+    }
+
+    @Test
+    public void allocate_should_return_buffer_limited_to_requested_capacity()
+    {
+        ByteBuffer buffer = objectUnderTest.allocate(100);
+
+        assertThat(buffer.position(), is(0));
+        assertThat(buffer.limit(), is(100));
+        assertThat(buffer.capacity(), is(1024));
+    }
+
+    @Test
+    public void allocate_should_round_capacity_up_to_power_of_two()
+    {
+        assertThat(objectUnderTest.allocate(1025).capacity(), is(2048));
+        assertThat(objectUnderTest.allocate(4096).capacity(), is(4096));
+    }
+
+    @Test
+    public void allocate_should_reuse_released_buffer()
+    {
+        ByteBuffer buffer = objectUnderTest.allocate(3000);
+        buffer.putInt(5);
+        objectUnderTest.release(buffer);
+
+        ByteBuffer reused = objectUnderTest.allocate(2500);
+
+        assertThat(reused, sameInstance(buffer));
+        assertThat(reused.position(), is(0));
+        assertThat(reused.limit(), is(2500));
+        assertThat(objectUnderTest.pooledBufferCount(4096), is(0));
+    }
+
+    @Test
+    public void allocate_should_not_pool_buffers_larger_than_maximum()
+    {
+        ByteBuffer buffer = objectUnderTest.allocate(10000);
+        objectUnderTest.release(buffer);
+
+        assertThat(buffer.capacity(), is(10000));
+        assertThat(objectUnderTest.allocate(10000), not(sameInstance(buffer)));
+    }
+
+    @Test
+    public void release_should_keep_at_most_the_maximum_buffers_per_capacity()
+    {
+        objectUnderTest.release(objectUnderTest.allocate(10));
+        objectUnderTest.release(ByteBuffer.allocate(1024));
+        objectUnderTest.release(ByteBuffer.allocate(1024));
+
+        assertThat(objectUnderTest.pooledBufferCount(1024), is(2));
+    }
+
+    @Test
+    public void release_should_ignore_buffers_which_do_not_fit_a_pool()
+    {
+        objectUnderTest.release(ByteBuffer.allocate(1500));
+        objectUnderTest.release(ByteBuffer.allocateDirect(1024));
+        objectUnderTest.release(ByteBuffer.allocate(1024).asReadOnlyBuffer());
+        objectUnderTest.release(null);
+
+        assertThat(objectUnderTest.pooledBufferCount(1024), is(0));
+        assertThat(objectUnderTest.pooledBufferCount(2048), is(0));
+    }
+
+    @Test
+    public void allocate_should_return_direct_buffers_when_configured()
+    {
+        objectUnderTest = new PooledByteBufferAllocator(true, 8192, 2);
+
+        assertThat(objectUnderTest.allocate(10).isDirect(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void allocate_should_throw_for_negative_capacity()
+    {
+        objectUnderTest.allocate(-1);
+    }
+}
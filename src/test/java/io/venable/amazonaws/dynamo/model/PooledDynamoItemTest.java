@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class PooledDynamoItemTest
+{
+    private ItemPool pool;
+
+    @Before
+    public void setUp()
+    {
+        pool = new ItemPool();
+    }
+
+    @Test
+    public void borrow_should_return_empty_item()
+    {
+        ReusableDynamoItem item = pool.borrow();
+
+        assertThat(item.isEmpty(), is(true));
+        assertThat(item.sizeInBytes(), is(0L));
+    }
+
+    @Test
+    public void item_should_hold_attributes()
+    {
+        ReusableDynamoItem item = pool.borrow();
+
+        item.putString("Id", "abc");
+        item.putLong("Count", 5);
+
+        assertThat(item.size(), is(2));
+        assertThat(item.getString("Id"), is("abc"));
+        assertThat(item.getLong("Count"), is(5L));
+        assertThat(item.sizeInBytes(), is(12L));
+    }
+
+    @Test
+    public void reset_should_remove_attributes_and_compression_policy()
+    {
+        ReusableDynamoItem item = pool.borrow();
+        item.putString("Id", "abc");
+        item.setCompressionPolicy(new CompressionPolicy(1024));
+
+        item.reset();
+
+        assertThat(item.isEmpty(), is(true));
+        assertThat(item.getString("Id"), nullValue());
+        assertThat(item.getCompressionPolicy(), nullValue());
+        assertThat(item.sizeInBytes(), is(0L));
+    }
+
+    @Test
+    public void borrow_should_reuse_released_item()
+    {
+        ReusableDynamoItem item = pool.borrow();
+        item.putString("Id", "abc");
+        item.release();
+
+        ReusableDynamoItem borrowedItem = pool.borrow();
+
+        assertThat(borrowedItem, sameInstance(item));
+        assertThat(borrowedItem.isEmpty(), is(true));
+        assertThat(pool.pooledItemCount(), is(0));
+    }
+
+    @Test
+    public void borrow_should_return_new_instance_over_released_storage_in_debug_mode()
+    {
+        pool.setDebugEnabled(true);
+        PooledDynamoItem item = (PooledDynamoItem) pool.borrow();
+        item.release();
+
+        PooledDynamoItem borrowedItem = (PooledDynamoItem) pool.borrow();
+
+        assertThat(borrowedItem, not(sameInstance(item)));
+        assertThat(borrowedItem.storage(), sameInstance(item.storage()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void get_should_throw_after_release()
+    {
+        ReusableDynamoItem item = pool.borrow();
+        item.release();
+
+        item.getString("Id");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void put_should_throw_after_release()
+    {
+        ReusableDynamoItem item = pool.borrow();
+        item.release();
+
+        item.put("Id", new AttributeValue().withS("abc"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void release_should_throw_when_already_released()
+    {
+        ReusableDynamoItem item = pool.borrow();
+        item.release();
+
+        item.release();
+    }
+
+    @Test
+    public void debug_mode_should_detect_use_after_storage_is_borrowed_again()
+    {
+        pool.setDebugEnabled(true);
+        ReusableDynamoItem item = pool.borrow();
+        item.release();
+        pool.borrow().putString("Id", "other");
+
+        try
+        {
+            item.getString("Id");
+            fail("Expected an IllegalStateException");
+        }
+        catch (IllegalStateException ex)
+        {
+            assertThat(ex.getCause(), notNullValue());
+        }
+    }
+
+    @Test
+    public void release_should_not_keep_large_items()
+    {
+        ReusableDynamoItem item = pool.borrow();
+        for (int i = 0; i < 1000; i++)
+            item.putInteger("Attribute" + i, i);
+
+        item.release();
+
+        assertThat(pool.pooledItemCount(), is(0));
+    }
+
+    @Test
+    public void release_should_keep_items_for_each_thread() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            final ReusableDynamoItem item = pool.borrow();
+            executor.submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    item.release();
+                    return null;
+                }
+            }).get();
+
+            assertThat(pool.pooledItemCount(), is(0));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void borrowItem_should_borrow_from_factory_pool()
+    {
+        ReusableDynamoItem item = DynamoItemFactory.borrowItem();
+
+        assertThat(item, instanceOf(PooledDynamoItem.class));
+        item.release();
+    }
+
+    @Test
+    public void sizeInBytes_should_see_changes_made_through_views()
+    {
+        ReusableDynamoItem item = pool.borrow();
+        item.putString("a", "1");
+        item.putString("b", "22");
+        assertThat(item.sizeInBytes(), is(5L));
+
+        item.keySet().remove("b");
+
+        assertThat(item.sizeInBytes(), is(2L));
+        item.release();
+    }
+}
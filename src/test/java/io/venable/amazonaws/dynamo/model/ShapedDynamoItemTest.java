@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ShapedDynamoItemTest
+{
+    private Random random;
+    private ItemShape shape;
+
+    @Before
+    public void setUp()
+    {
+        random = new Random();
+        shape = new ItemShape(Arrays.asList("id", "name", "version"));
+    }
+
+    private DynamoItem createObjectUnderTest()
+    {
+        return new ShapedDynamoItem(shape);
+    }
+
+    private static AttributeValue randomValue()
+    {
+        return new AttributeValue().withS(UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void new_item_should_be_empty()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.isEmpty(), is(true));
+        assertThat(objectUnderTest.containsKey("id"), is(false));
+        assertThat(objectUnderTest.get("id"), nullValue());
+    }
+
+    @Test
+    public void get_should_return_value_from_put_for_shape_attribute()
+    {
+        AttributeValue value = randomValue();
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        assertThat(objectUnderTest.put("name", value), nullValue());
+
+        assertThat(objectUnderTest.get("name"), is(value));
+        assertThat(objectUnderTest.size(), is(1));
+    }
+
+    @Test
+    public void get_should_return_value_from_put_for_attribute_outside_shape()
+    {
+        AttributeValue value = randomValue();
+        DynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.put("other", value);
+
+        assertThat(objectUnderTest.get("other"), is(value));
+        assertThat(objectUnderTest.containsKey("other"), is(true));
+        assertThat(objectUnderTest.size(), is(1));
+    }
+
+    @Test
+    public void put_should_keep_null_values()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put("name", randomValue());
+
+        objectUnderTest.put("name", null);
+
+        assertThat(objectUnderTest.containsKey("name"), is(true));
+        assertThat(objectUnderTest.get("name"), nullValue());
+        assertThat(objectUnderTest.size(), is(1));
+    }
+
+    @Test
+    public void remove_should_remove_attributes_inside_and_outside_shape()
+    {
+        AttributeValue value = randomValue();
+        AttributeValue otherValue = randomValue();
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put("id", value);
+        objectUnderTest.put("other", otherValue);
+
+        assertThat(objectUnderTest.remove("id"), is(value));
+        assertThat(objectUnderTest.remove("other"), is(otherValue));
+
+        assertThat(objectUnderTest.isEmpty(), is(true));
+    }
+
+    @Test
+    public void typed_accessors_should_read_their_own_writes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        long value = random.nextLong();
+
+        objectUnderTest.putLong("version", value);
+
+        assertThat(objectUnderTest.getLong("version"), is(value));
+    }
+
+    @Test
+    public void should_behave_like_a_HashMap_for_random_operations()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        Map<String, AttributeValue> expected = new HashMap<>();
+        List<String> names = Arrays.asList("id", "name", "version", "a", "b", "c");
+
+        for(int i = 0; i < 2000; i++)
+        {
+            String name = names.get(random.nextInt(names.size()));
+            int operation = random.nextInt(4);
+            if(operation == 0)
+            {
+                assertThat(objectUnderTest.remove(name), is(expected.remove(name)));
+            }
+            else
+            {
+                AttributeValue value = operation == 1 ? null : randomValue();
+                assertThat(objectUnderTest.put(name, value), is(expected.put(name, value)));
+            }
+
+            assertThat(objectUnderTest.size(), is(expected.size()));
+            assertThat(objectUnderTest.containsKey(name), is(expected.containsKey(name)));
+        }
+
+        assertThat(objectUnderTest.equals(expected), is(true));
+        assertThat(expected.equals(objectUnderTest), is(true));
+        assertThat(objectUnderTest.hashCode(), is(expected.hashCode()));
+        assertThat(objectUnderTest.keySet(), is(expected.keySet()));
+    }
+
+    @Test
+    public void entrySet_iterator_remove_should_remove_every_attribute()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put("id", randomValue());
+        objectUnderTest.put("version", randomValue());
+        objectUnderTest.put("other", randomValue());
+
+        Set<String> visited = new HashSet<>();
+        Iterator<Map.Entry<String, AttributeValue>> iterator = objectUnderTest.entrySet().iterator();
+        while(iterator.hasNext())
+        {
+            visited.add(iterator.next().getKey());
+            iterator.remove();
+        }
+
+        assertThat(visited, is((Set<String>) new HashSet<>(Arrays.asList("id", "version", "other"))));
+        assertThat(objectUnderTest.isEmpty(), is(true));
+    }
+
+    @Test
+    public void clear_should_remove_all_attributes()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.put("id", randomValue());
+        objectUnderTest.put("other", randomValue());
+
+        objectUnderTest.clear();
+
+        assertThat(objectUnderTest.isEmpty(), is(true));
+        assertThat(objectUnderTest.get("other"), nullValue());
+    }
+
+    @Test
+    public void sizeInBytes_should_see_attributes_outside_the_shape_removed_by_iterator()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.putString("id", "a");
+        objectUnderTest.putString("other", "0123456789");
+        assertThat(objectUnderTest.sizeInBytes(), is(18L));
+
+        Iterator<Map.Entry<String, AttributeValue>> iterator = objectUnderTest.entrySet().iterator();
+        while(iterator.hasNext())
+        {
+            if(iterator.next().getKey().equals("other"))
+                iterator.remove();
+        }
+
+        assertThat(objectUnderTest.sizeInBytes(), is(3L));
+    }
+
+    @Test
+    public void sizeInBytes_should_see_attributes_outside_the_shape_set_by_entry()
+    {
+        DynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.putString("other", "0");
+        assertThat(objectUnderTest.sizeInBytes(), is(6L));
+
+        objectUnderTest.entrySet().iterator().next().setValue(new AttributeValue().withS("0123456789"));
+
+        assertThat(objectUnderTest.sizeInBytes(), is(15L));
+    }
+}
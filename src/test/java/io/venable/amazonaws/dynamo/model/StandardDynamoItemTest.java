@@ -22,9 +22,13 @@ import org.hamcrest.Description;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.*;
@@ -54,6 +58,23 @@ public class StandardDynamoItemTest
         return new StandardDynamoItem(innerItem);
     }
 
+    private static BaseMatcher<AttributeValue> hasNumber(final String number)
+    {
+        return new BaseMatcher<AttributeValue>()
+        {
+            @Override
+            public boolean matches(Object o)
+            {
+                AttributeValue providedAttributeValue = (AttributeValue) o;
+                return number.equals(providedAttributeValue.getN());
+            }
+
+            @Override
+            public void describeTo(Description description)
+            { }
+        };
+    }
+
     @Test
     public void putString_should_put_AttributeValue_as_string_on_inner_item()
     {
@@ -150,6 +171,409 @@ public class StandardDynamoItemTest
         assertThat(createObjectUnderTest().getInteger(attributeName), is(value));
     }
 
+    @Test
+    public void getLong_should_parse_the_number_text_once_for_repeated_reads()
+    {
+        final Long value = random.nextLong();
+        stub(attributeValue.getN()).toReturn(value.toString());
+        Map<String, AttributeValue> map = new HashMap<>();
+        map.put(attributeName, attributeValue);
+
+        DynamoItem objectUnderTest = new StandardDynamoItem(map);
+
+        Long firstValue = objectUnderTest.getLong(attributeName);
+        for(int i = 0; i < 5; i++)
+            assertThat(objectUnderTest.getLong(attributeName), sameInstance(firstValue));
+        assertThat(firstValue, is(value));
+    }
+
+    @Test
+    public void getLong_should_return_new_value_after_put()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, 5L);
+        assertThat(objectUnderTest.getLong(attributeName), is(5L));
+
+        objectUnderTest.putLong(attributeName, 7L);
+
+        assertThat(objectUnderTest.getLong(attributeName), is(7L));
+    }
+
+    @Test
+    public void getLong_should_return_new_value_after_putAll()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, 5L);
+        assertThat(objectUnderTest.getLong(attributeName), is(5L));
+
+        objectUnderTest.putAll(Collections.singletonMap(attributeName, new AttributeValue().withN("9")));
+
+        assertThat(objectUnderTest.getLong(attributeName), is(9L));
+    }
+
+    @Test
+    public void getLong_should_return_null_after_remove()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, 5L);
+        assertThat(objectUnderTest.getLong(attributeName), is(5L));
+
+        objectUnderTest.remove(attributeName);
+
+        assertThat(objectUnderTest.getLong(attributeName), nullValue());
+    }
+
+    @Test
+    public void getLong_should_return_new_value_when_AttributeValue_is_changed_in_place()
+    {
+        AttributeValue numberValue = new AttributeValue().withN("5");
+        Map<String, AttributeValue> map = new HashMap<>();
+        map.put(attributeName, numberValue);
+        DynamoItem objectUnderTest = new StandardDynamoItem(map);
+        assertThat(objectUnderTest.getLong(attributeName), is(5L));
+
+        numberValue.setN("11");
+
+        assertThat(objectUnderTest.getLong(attributeName), is(11L));
+    }
+
+    @Test
+    public void getInteger_should_return_value_previously_read_with_getLong()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, 42L);
+        assertThat(objectUnderTest.getLong(attributeName), is(42L));
+
+        assertThat(objectUnderTest.getInteger(attributeName), is(42));
+    }
+
+    @Test
+    public void getLong_should_box_the_value_once_for_repeated_reads()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, 123456789L);
+        assertThat(objectUnderTest.getLong(attributeName, 0), is(123456789L));
+
+        Long first = objectUnderTest.getLong(attributeName);
+
+        assertThat(first, is(123456789L));
+        assertThat(objectUnderTest.getLong(attributeName) == first, is(true));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void getLong_should_throw_NumberFormatException_for_an_attribute_which_is_not_a_number()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putString(attributeName, "abc");
+
+        objectUnderTest.getLong(attributeName);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void getInteger_should_throw_NumberFormatException_for_an_attribute_which_is_not_a_number()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putBoolean(attributeName, true);
+
+        objectUnderTest.getInteger(attributeName);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void getInteger_should_throw_if_the_number_does_not_fit_in_an_integer()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, Integer.MAX_VALUE + 1L);
+
+        objectUnderTest.getInteger(attributeName);
+    }
+
+    @Test
+    public void getLong_with_default_should_return_primitive_value_from_inner_item()
+    {
+        final long value = random.nextLong();
+        stub(attributeValue.getN()).toReturn(Long.toString(value));
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getLong(attributeName, 0L), is(value));
+    }
+
+    @Test
+    public void getLong_with_default_should_return_default_if_attribute_is_missing()
+    {
+        final long defaultValue = random.nextLong();
+
+        assertThat(createObjectUnderTest().getLong(attributeName, defaultValue), is(defaultValue));
+    }
+
+    @Test
+    public void getLong_with_default_should_return_default_if_attribute_is_not_a_number()
+    {
+        final long defaultValue = random.nextLong();
+        stub(attributeValue.getS()).toReturn(UUID.randomUUID().toString());
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getLong(attributeName, defaultValue), is(defaultValue));
+    }
+
+    @Test
+    public void putLong_primitive_should_put_AttributeValue_as_number_on_inner_item()
+    {
+        final long value = random.nextLong();
+
+        createObjectUnderTest().putLong(attributeName, value);
+
+        verify(innerItem).put(eq(attributeName), argThat(hasNumber(Long.toString(value))));
+    }
+
+    @Test
+    public void getInteger_with_default_should_return_primitive_value_from_inner_item()
+    {
+        final int value = random.nextInt();
+        stub(attributeValue.getN()).toReturn(Integer.toString(value));
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getInteger(attributeName, 0), is(value));
+    }
+
+    @Test
+    public void getInteger_with_default_should_return_default_if_attribute_is_missing()
+    {
+        final int defaultValue = random.nextInt();
+
+        assertThat(createObjectUnderTest().getInteger(attributeName, defaultValue), is(defaultValue));
+    }
+
+    @Test
+    public void putInteger_primitive_should_put_AttributeValue_as_number_on_inner_item()
+    {
+        final int value = random.nextInt();
+
+        createObjectUnderTest().putInteger(attributeName, value);
+
+        verify(innerItem).put(eq(attributeName), argThat(hasNumber(Integer.toString(value))));
+    }
+
+    @Test
+    public void getDouble_should_return_primitive_value_from_inner_item()
+    {
+        final double value = random.nextDouble();
+        stub(attributeValue.getN()).toReturn(Double.toString(value));
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getDouble(attributeName, 0d), is(value));
+    }
+
+    @Test
+    public void getDouble_should_return_default_if_attribute_is_missing()
+    {
+        final double defaultValue = random.nextDouble();
+
+        assertThat(createObjectUnderTest().getDouble(attributeName, defaultValue), is(defaultValue));
+    }
+
+    @Test
+    public void putDouble_should_put_AttributeValue_as_number_on_inner_item()
+    {
+        createObjectUnderTest().putDouble(attributeName, 0.25);
+
+        verify(innerItem).put(eq(attributeName), argThat(hasNumber("0.25")));
+    }
+
+    @Test
+    public void putDouble_should_put_whole_numbers_without_decimal_point()
+    {
+        createObjectUnderTest().putDouble(attributeName, 3.0);
+
+        verify(innerItem).put(eq(attributeName), argThat(hasNumber("3")));
+    }
+
+    @Test
+    public void getDouble_should_parse_exponent_form()
+    {
+        stub(attributeValue.getN()).toReturn("2.5E3");
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getDouble(attributeName, 0), is(2500.0));
+    }
+
+    @Test
+    public void getLong_should_parse_whole_numbers_in_exponent_form()
+    {
+        stub(attributeValue.getN()).toReturn("1.2E3");
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getLong(attributeName, 0), is(1200L));
+    }
+
+    @Test
+    public void getDecimal_should_return_exact_value_from_inner_item()
+    {
+        stub(attributeValue.getN()).toReturn("12345678901234567890.123456789");
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getDecimal(attributeName), is(new BigDecimal("12345678901234567890.123456789")));
+    }
+
+    @Test
+    public void getDecimal_should_return_null_if_attribute_is_missing()
+    {
+        assertThat(createObjectUnderTest().getDecimal(attributeName), nullValue());
+    }
+
+    @Test
+    public void putDecimal_should_put_normalized_number_on_inner_item()
+    {
+        createObjectUnderTest().putDecimal(attributeName, new BigDecimal("1.500"));
+
+        verify(innerItem).put(eq(attributeName), argThat(hasNumber("1.5")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putDecimal_should_throw_for_more_than_38_significant_digits()
+    {
+        createObjectUnderTest().putDecimal(attributeName, new BigDecimal("1.234567890123456789012345678901234567891"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putDouble_should_throw_for_NaN()
+    {
+        createObjectUnderTest().putDouble(attributeName, Double.NaN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putDouble_should_throw_for_infinity()
+    {
+        createObjectUnderTest().putDouble(attributeName, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void getBoolean_should_return_primitive_value_from_inner_item()
+    {
+        final boolean value = random.nextBoolean();
+        stub(attributeValue.getBOOL()).toReturn(value);
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getBoolean(attributeName, !value), is(value));
+    }
+
+    @Test
+    public void getBoolean_should_return_default_if_attribute_is_missing()
+    {
+        final boolean defaultValue = random.nextBoolean();
+
+        assertThat(createObjectUnderTest().getBoolean(attributeName, defaultValue), is(defaultValue));
+    }
+
+    @Test
+    public void putBoolean_should_put_AttributeValue_as_boolean_on_inner_item()
+    {
+        final boolean value = random.nextBoolean();
+
+        createObjectUnderTest().putBoolean(attributeName, value);
+
+        verify(innerItem).put(eq(attributeName), argThat(new BaseMatcher<AttributeValue>()
+        {
+            @Override
+            public boolean matches(Object o)
+            {
+                AttributeValue providedAttributeValue = (AttributeValue) o;
+                return providedAttributeValue.getBOOL() == value;
+            }
+
+            @Override
+            public void describeTo(Description description)
+            { }
+        }));
+    }
+
+    @Test
+    public void freeze_should_return_snapshot_unaffected_by_later_changes()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, 5L);
+
+        DynamoItem snapshot = objectUnderTest.freeze();
+        objectUnderTest.putLong(attributeName, 6L);
+
+        assertThat(snapshot.getLong(attributeName), is(5L));
+    }
+
+    @Test
+    public void mutableCopy_should_return_copy_unaffected_by_later_changes()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong(attributeName, 5L);
+
+        DynamoItem copy = objectUnderTest.mutableCopy();
+        objectUnderTest.putLong(attributeName, 6L);
+
+        assertThat(copy.getLong(attributeName), is(5L));
+    }
+
+    @Test
+    public void putBinary_should_store_the_buffer_without_copying()
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+
+        objectUnderTest.putBinary(attributeName, buffer);
+
+        assertThat(objectUnderTest.get(attributeName).getB(), sameInstance(buffer));
+    }
+
+    @Test
+    public void getBinary_should_return_read_only_view_of_the_stored_buffer()
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3 });
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putBinary(attributeName, buffer);
+
+        ByteBuffer view = objectUnderTest.getBinary(attributeName);
+        buffer.put(1, (byte) 7);
+
+        assertThat(view.isReadOnly(), is(true));
+        assertThat(view.remaining(), is(3));
+        assertThat(view.get(1), is((byte) 7));
+    }
+
+    @Test
+    public void getBinary_should_not_move_the_stored_buffer_position()
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3 });
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putBinary(attributeName, buffer);
+
+        objectUnderTest.getBinary(attributeName).get();
+
+        assertThat(buffer.position(), is(0));
+    }
+
+    @Test
+    public void getBinary_should_return_null_when_attribute_is_not_binary()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putString(attributeName, "value");
+
+        assertThat(objectUnderTest.getBinary(attributeName), nullValue());
+        assertThat(objectUnderTest.getBinary(key), nullValue());
+    }
+
+    @Test
+    public void getBinarySet_should_return_read_only_views_of_putBinarySet_buffers()
+    {
+        ByteBuffer first = ByteBuffer.wrap(new byte[] { 1 });
+        ByteBuffer second = ByteBuffer.wrap(new byte[] { 2, 3 });
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putBinarySet(attributeName, Arrays.asList(first, second));
+
+        List<ByteBuffer> views = objectUnderTest.getBinarySet(attributeName);
+
+        assertThat(views.size(), is(2));
+        assertThat(views.get(0).isReadOnly(), is(true));
+        assertThat(views.get(0), is(first));
+        assertThat(views.get(1), is(second));
+    }
+
     @Test
     public void size_should_return_inner_map_size()
     {
@@ -250,29 +674,216 @@ public class StandardDynamoItemTest
     }
 
     @Test
-    public void keySet_should_return_inner_map_keySet()
+    public void keySet_should_be_backed_by_inner_map()
     {
-        Set<String> keySet = mock(Set.class);
-        stub(innerItem.keySet()).toReturn(keySet);
+        stub(innerItem.containsKey(attributeName)).toReturn(true);
+        stub(innerItem.size()).toReturn(3);
 
-        assertThat(createObjectUnderTest().keySet(), is(keySet));
+        Set<String> keySet = createObjectUnderTest().keySet();
+
+        assertThat(keySet.contains(attributeName), is(true));
+        assertThat(keySet.contains(key), is(false));
+        assertThat(keySet.size(), is(3));
     }
 
     @Test
-    public void values_should_return_inner_map_values()
+    public void values_should_be_backed_by_inner_map()
     {
-        Collection<AttributeValue> values = mock(Collection.class);
-        stub(innerItem.values()).toReturn(values);
+        stub(innerItem.containsValue(attributeValue)).toReturn(true);
+        stub(innerItem.size()).toReturn(3);
+
+        Collection<AttributeValue> values = createObjectUnderTest().values();
 
-        assertThat(createObjectUnderTest().values(), is(values));
+        assertThat(values.contains(attributeValue), is(true));
+        assertThat(values.size(), is(3));
     }
 
     @Test
-    public void entrySet_should_return_inner_map_entrySet()
+    public void entrySet_should_be_backed_by_inner_map()
     {
-        Set<Map.Entry<String, AttributeValue>> entrySet = mock(Set.class);
-        stub(innerItem.entrySet()).toReturn(entrySet);
+        Map<String, AttributeValue> map = Collections.singletonMap(attributeName, attributeValue);
+        stub(innerItem.entrySet()).toReturn(map.entrySet());
 
-        assertThat(createObjectUnderTest().entrySet(), is(entrySet));
+        Map.Entry<String, AttributeValue> entry = createObjectUnderTest().entrySet().iterator().next();
+
+        assertThat(entry.getKey(), is(attributeName));
+        assertThat(entry.getValue(), is(attributeValue));
+    }
+
+    @Test
+    public void getLongArray_should_return_numbers_of_number_set()
+    {
+        stub(attributeValue.getNS()).toReturn(Arrays.asList("3", "-7", "1200"));
+        stub(innerItem.get(attributeName)).toReturn(attributeValue);
+
+        assertThat(createObjectUnderTest().getLongArray(attributeName), is(new long[] { 3, -7, 1200 }));
+    }
+
+    @Test
+    public void getLongArray_should_return_null_if_attribute_is_not_number_set()
+    {
+        stub(innerItem.get(attributeName)).toReturn(new AttributeValue().withS("value"));
+
+        assertThat(createObjectUnderTest().getLongArray(attributeName), nullValue());
+        assertThat(createObjectUnderTest().getLongArray(key), nullValue());
+    }
+
+    @Test
+    public void putLongArray_should_put_number_set_on_inner_item()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+
+        objectUnderTest.putLongArray(attributeName, new long[] { 5, Long.MIN_VALUE });
+
+        assertThat(objectUnderTest.get(attributeName).getNS(), is(Arrays.asList("5", Long.toString(Long.MIN_VALUE))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putLongArray_should_throw_for_empty_array()
+    {
+        createObjectUnderTest().putLongArray(attributeName, new long[0]);
+    }
+
+    @Test
+    public void getStringSet_should_return_strings_of_string_set()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putStringSet(attributeName, Arrays.asList("a", "b"));
+
+        assertThat(objectUnderTest.getStringSet(attributeName), is((Set<String>) new HashSet<>(Arrays.asList("a", "b"))));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getStringSet_should_return_unmodifiable_set()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putStringSet(attributeName, Arrays.asList("a", "b"));
+
+        objectUnderTest.getStringSet(attributeName).add("c");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putStringSet_should_throw_for_empty_collection()
+    {
+        createObjectUnderTest().putStringSet(attributeName, Collections.<String>emptyList());
+    }
+
+    @Test
+    public void getItem_should_return_view_over_nested_map()
+    {
+        Map<String, AttributeValue> nested = new HashMap<>();
+        nested.put("score", new AttributeValue().withN("10"));
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putItem(attributeName, nested);
+
+        DynamoItem nestedItem = objectUnderTest.getItem(attributeName);
+        nestedItem.putLong("rank", 3L);
+
+        assertThat(nestedItem.getLong("score"), is(10L));
+        assertThat(nested.get("rank").getN(), is("3"));
+        assertThat(objectUnderTest.get(attributeName).getM(), sameInstance(nested));
+    }
+
+    @Test
+    public void getItem_should_return_null_if_attribute_is_not_map()
+    {
+        stub(innerItem.get(attributeName)).toReturn(new AttributeValue().withS("value"));
+
+        assertThat(createObjectUnderTest().getItem(attributeName), nullValue());
+        assertThat(createObjectUnderTest().getItem(key), nullValue());
+    }
+
+    @Test
+    public void sizeInBytes_should_see_changes_made_through_views()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putString("a", "1");
+        objectUnderTest.putString("b", "22");
+        assertThat(objectUnderTest.sizeInBytes(), is(5L));
+
+        objectUnderTest.entrySet().iterator().next().setValue(new AttributeValue().withS("4444"));
+
+        assertThat(objectUnderTest.sizeInBytes() > 5L, is(true));
+    }
+
+    @Test
+    public void addLong_should_add_to_number()
+    {
+        DynamoItem objectUnderTest = new StandardDynamoItem(new HashMap<String, AttributeValue>());
+        objectUnderTest.putLong("count", 5);
+
+        objectUnderTest.addLong("count", 3);
+        objectUnderTest.addLong("missing", -2);
+
+        assertThat(objectUnderTest.getLong("count"), is(8L));
+        assertThat(objectUnderTest.getLong("missing"), is(-2L));
+    }
+
+    @Test
+    public void sizeInBytes_should_see_strings_put_into_nested_items()
+    {
+        DynamoItem objectUnderTest = DynamoItemFactory.createItem();
+        objectUnderTest.putItem("m", new HashMap<String, AttributeValue>());
+        assertThat(objectUnderTest.sizeInBytes(), is(4L));
+
+        objectUnderTest.getItem("m").putString("s", createString(5000));
+
+        assertThat(objectUnderTest.sizeInBytes(), is(5006L));
+    }
+
+    @Test
+    public void sizeInBytes_should_see_nested_items_changed_after_measuring()
+    {
+        DynamoItem objectUnderTest = DynamoItemFactory.createItem();
+        objectUnderTest.putItem("m", new HashMap<String, AttributeValue>());
+        DynamoItem nestedItem = objectUnderTest.getItem("m");
+        nestedItem.putItem("n", new HashMap<String, AttributeValue>());
+        DynamoItem doublyNestedItem = nestedItem.getItem("n");
+        objectUnderTest.sizeInBytes();
+
+        doublyNestedItem.putString("s", "abc");
+        assertThat(objectUnderTest.sizeInBytes(), is(AttributeSizes.sizeOf(new HashMap<>(objectUnderTest))));
+
+        nestedItem.clear();
+        assertThat(objectUnderTest.sizeInBytes(), is(4L));
+    }
+
+    @Test
+    public void sizeInBytes_should_see_changes_through_views_taken_before_measuring()
+    {
+        DynamoItem objectUnderTest = DynamoItemFactory.createItem();
+        objectUnderTest.putString("a", "1");
+        objectUnderTest.putString("b", createString(40));
+        Set<String> keySet = objectUnderTest.keySet();
+        Collection<AttributeValue> values = objectUnderTest.values();
+        assertThat(objectUnderTest.sizeInBytes(), is(43L));
+
+        keySet.remove("b");
+        assertThat(objectUnderTest.sizeInBytes(), is(2L));
+
+        Iterator<AttributeValue> iterator = values.iterator();
+        iterator.next();
+        iterator.remove();
+        assertThat(objectUnderTest.sizeInBytes(), is(0L));
+    }
+
+    @Test
+    public void sizeInBytes_should_see_changes_made_to_the_map_it_was_created_from()
+    {
+        Map<String, AttributeValue> map = new HashMap<>();
+        map.put("a", new AttributeValue().withS("1"));
+        DynamoItem objectUnderTest = DynamoItemFactory.createItem(map);
+        assertThat(objectUnderTest.sizeInBytes(), is(2L));
+
+        map.put("b", new AttributeValue().withS("22"));
+
+        assertThat(objectUnderTest.sizeInBytes(), is(5L));
+    }
+
+    private static String createString(int length)
+    {
+        char[] characters = new char[length];
+        Arrays.fill(characters, 'x');
+        return new String(characters);
     }
-}
\ No newline at end of file
+}
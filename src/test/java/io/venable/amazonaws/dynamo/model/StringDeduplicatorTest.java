@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class StringDeduplicatorTest
+{
+    @After
+    public void tearDown()
+    {
+        DynamoItemFactory.setDeduplicator(null);
+        DynamoItemFactory.setDeduplicator("StringDeduplicatorTest", null);
+    }
+
+    private static Map<String, AttributeValue> createItem(String status)
+    {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("Status", new AttributeValue().withS(new String(status)));
+        item.put("Country", new AttributeValue().withS(new String("US")));
+        item.put("Tags", new AttributeValue().withSS(new String("a"), new String("b")));
+        item.put("Count", new AttributeValue().withN("1"));
+        return item;
+    }
+
+    @Test
+    public void deduplicate_should_share_equal_strings()
+    {
+        StringDeduplicator deduplicator = new StringDeduplicator(100);
+        String first = new String("ACTIVE");
+        String second = new String("ACTIVE");
+
+        assertThat(deduplicator.deduplicate(first), sameInstance(first));
+        assertThat(deduplicator.deduplicate(second), sameInstance(first));
+        assertThat(deduplicator.size(), is(1));
+    }
+
+    @Test
+    public void deduplicate_should_share_attribute_values_between_items()
+    {
+        StringDeduplicator deduplicator = new StringDeduplicator(100);
+        Map<String, AttributeValue> first = createItem("ACTIVE");
+        Map<String, AttributeValue> second = createItem("ACTIVE");
+
+        deduplicator.deduplicate(first);
+        deduplicator.deduplicate(second);
+
+        assertThat(second.get("Status"), sameInstance(first.get("Status")));
+        assertThat(second.get("Country"), sameInstance(first.get("Country")));
+        assertThat(second.get("Tags").getSS().get(0), sameInstance(first.get("Tags").getSS().get(0)));
+        assertThat(second.get("Status").getS(), is("ACTIVE"));
+        assertThat(second.get("Count").getN(), is("1"));
+    }
+
+    @Test
+    public void deduplicate_should_only_change_given_attributes()
+    {
+        StringDeduplicator deduplicator = new StringDeduplicator(100, Collections.singleton("Status"));
+        Map<String, AttributeValue> first = createItem("ACTIVE");
+        Map<String, AttributeValue> second = createItem("ACTIVE");
+
+        deduplicator.deduplicate(first);
+        deduplicator.deduplicate(second);
+
+        assertThat(second.get("Status"), sameInstance(first.get("Status")));
+        assertThat(second.get("Country"), not(sameInstance(first.get("Country"))));
+        assertThat(deduplicator.size(), is(1));
+    }
+
+    @Test
+    public void deduplicate_should_stop_keeping_strings_when_full()
+    {
+        StringDeduplicator deduplicator = new StringDeduplicator(2);
+        deduplicator.deduplicate("a");
+        deduplicator.deduplicate("b");
+        String c = new String("c");
+
+        assertThat(deduplicator.deduplicate(c), sameInstance(c));
+        assertThat(deduplicator.deduplicate(new String("c")), not(sameInstance(c)));
+        assertThat(deduplicator.deduplicate(new String("a")), sameInstance(deduplicator.deduplicate("a")));
+        assertThat(deduplicator.size(), is(2));
+    }
+
+    @Test
+    public void deduplicate_should_not_keep_long_strings()
+    {
+        StringDeduplicator deduplicator = new StringDeduplicator(100);
+        char[] characters = new char[StringDeduplicator.MAXIMUM_STRING_LENGTH + 1];
+        Arrays.fill(characters, 'x');
+
+        deduplicator.deduplicate(new String(characters));
+
+        assertThat(deduplicator.size(), is(0));
+    }
+
+    @Test
+    public void deduplicate_should_stay_bounded_across_threads() throws Exception
+    {
+        final StringDeduplicator deduplicator = new StringDeduplicator(50);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++)
+            {
+                futures.add(executor.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                    {
+                        for (int i = 0; i < 1000; i++)
+                            deduplicator.deduplicate("value" + (i % 100));
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures)
+                future.get();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertThat(deduplicator.size(), is(50));
+    }
+
+    @Test
+    public void createItem_should_apply_deduplicator()
+    {
+        DynamoItemFactory.setDeduplicator(new StringDeduplicator(100));
+
+        DynamoItem first = DynamoItemFactory.createItem(createItem("ACTIVE"));
+        DynamoItem second = DynamoItemFactory.createItem(createItem("ACTIVE"));
+
+        assertThat(second.get("Status"), sameInstance(first.get("Status")));
+        assertThat(second.getString("Status"), is("ACTIVE"));
+    }
+
+    @Test
+    public void createItem_for_table_should_apply_table_deduplicator()
+    {
+        DynamoItemFactory.setDeduplicator("StringDeduplicatorTest", new StringDeduplicator(100));
+
+        DynamoItem first = DynamoItemFactory.createItem("StringDeduplicatorTest", createItem("ACTIVE"));
+        DynamoItem second = DynamoItemFactory.createItem("StringDeduplicatorTest", createItem("ACTIVE"));
+        DynamoItem other = DynamoItemFactory.createItem(createItem("ACTIVE"));
+
+        assertThat(second.get("Status"), sameInstance(first.get("Status")));
+        assertThat(other.get("Status"), not(sameInstance(first.get("Status"))));
+    }
+
+    @Test
+    public void createItem_for_table_should_not_change_the_given_map()
+    {
+        DynamoItemFactory.setDeduplicator("StringDeduplicatorTest", new StringDeduplicator(100));
+        DynamoItem first = DynamoItemFactory.createItem("StringDeduplicatorTest", createItem("ACTIVE"));
+        Map<String, AttributeValue> item = createItem("ACTIVE");
+        AttributeValue status = item.get("Status");
+        AttributeValue tags = item.get("Tags");
+        String tag = tags.getSS().get(0);
+
+        DynamoItem second = DynamoItemFactory.createItem("StringDeduplicatorTest", item);
+
+        assertThat(item.get("Status"), sameInstance(status));
+        assertThat(item.get("Tags"), sameInstance(tags));
+        assertThat(tags.getSS().get(0), sameInstance(tag));
+        assertThat(second.get("Status"), sameInstance(first.get("Status")));
+        assertThat(second.get("Tags").getSS().get(0), sameInstance(first.get("Tags").getSS().get(0)));
+    }
+}
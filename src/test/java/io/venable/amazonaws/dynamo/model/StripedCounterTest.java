@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.venable.amazonaws.dynamo.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StripedCounterTest
+{
+    private static final int THREAD_COUNT = 8;
+    private static final int ADDS_PER_THREAD = 10000;
+
+    @Test
+    public void sum_should_start_from_initial_value()
+    {
+        assertThat(new StripedCounter(42).sum(), is(42L));
+    }
+
+    @Test
+    public void add_should_not_stripe_without_contention()
+    {
+        StripedCounter counter = new StripedCounter(1);
+
+        for (int i = 0; i < 1000; i++)
+            counter.add(2);
+
+        assertThat(counter.sum(), is(2001L));
+        assertThat(counter.isStriped(), is(false));
+    }
+
+    @Test
+    public void add_should_count_every_addition_from_many_threads() throws Exception
+    {
+        final StripedCounter counter = new StripedCounter(0);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++)
+            {
+                futures.add(executor.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        start.await();
+                        for (int j = 0; j < ADDS_PER_THREAD; j++)
+                            counter.add(1);
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures)
+                future.get();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertThat(counter.sum(), is((long) THREAD_COUNT * ADDS_PER_THREAD));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.model;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TrackedDynamoItemTest
+{
+    private Map<String, AttributeValue> loaded;
+    private Map<String, AttributeValue> setAttributes;
+    private Set<String> removedAttributes;
+
+    @Before
+    public void setUp()
+    {
+        loaded = new HashMap<>();
+        loaded.put("id", new AttributeValue().withS("a"));
+        loaded.put("count", new AttributeValue().withN("1"));
+        loaded.put("note", new AttributeValue().withS("hello"));
+        setAttributes = new LinkedHashMap<>();
+        removedAttributes = new LinkedHashSet<>();
+    }
+
+    private TrackedDynamoItem createObjectUnderTest()
+    {
+        return new TrackedDynamoItem(loaded);
+    }
+
+    @Test
+    public void findChanges_should_find_nothing_for_an_unchanged_item()
+    {
+        createObjectUnderTest().findChanges(setAttributes, removedAttributes);
+
+        assertThat(setAttributes.isEmpty(), is(true));
+        assertThat(removedAttributes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void findChanges_should_find_put_and_removed_attributes()
+    {
+        TrackedDynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.putLong("count", 2L);
+        objectUnderTest.putString("other", "b");
+        objectUnderTest.remove("note");
+
+        objectUnderTest.findChanges(setAttributes, removedAttributes);
+
+        assertThat(setAttributes.keySet(), is((Set<String>) new LinkedHashSet<>(Arrays.asList("count", "other"))));
+        assertThat(removedAttributes, is(Collections.singleton("note")));
+    }
+
+    @Test
+    public void findChanges_should_ignore_puts_of_equal_values()
+    {
+        TrackedDynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.putLong("count", 1L);
+        objectUnderTest.remove("missing");
+
+        objectUnderTest.findChanges(setAttributes, removedAttributes);
+
+        assertThat(setAttributes.isEmpty(), is(true));
+        assertThat(removedAttributes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void findChanges_should_find_changes_made_through_views()
+    {
+        TrackedDynamoItem objectUnderTest = createObjectUnderTest();
+        Iterator<String> iterator = objectUnderTest.keySet().iterator();
+        while(iterator.hasNext())
+        {
+            if(iterator.next().equals("note"))
+                iterator.remove();
+        }
+
+        objectUnderTest.findChanges(setAttributes, removedAttributes);
+
+        assertThat(removedAttributes, is(Collections.singleton("note")));
+    }
+
+    @Test
+    public void findChanges_should_find_all_attributes_removed_by_clear()
+    {
+        TrackedDynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.clear();
+
+        objectUnderTest.findChanges(setAttributes, removedAttributes);
+
+        assertThat(removedAttributes.size(), is(3));
+    }
+
+    @Test
+    public void findChanges_should_find_nested_items_which_may_be_modified()
+    {
+        loaded.put("stats", new AttributeValue().withM(new HashMap<String, AttributeValue>()));
+        TrackedDynamoItem objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.getItem("stats").putLong("wins", 3L);
+        objectUnderTest.findChanges(setAttributes, removedAttributes);
+
+        assertThat(setAttributes.keySet(), is(Collections.singleton("stats")));
+    }
+
+    @Test
+    public void markPersisted_should_clear_changes()
+    {
+        TrackedDynamoItem objectUnderTest = createObjectUnderTest();
+        objectUnderTest.putLong("count", 2L);
+        objectUnderTest.keySet();
+
+        objectUnderTest.markPersisted();
+        objectUnderTest.findChanges(setAttributes, removedAttributes);
+
+        assertThat(setAttributes.isEmpty(), is(true));
+        assertThat(removedAttributes.isEmpty(), is(true));
+    }
+}
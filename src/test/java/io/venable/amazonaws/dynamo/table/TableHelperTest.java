@@ -22,18 +22,39 @@ import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
 public class TableHelperTest
 {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private AmazonDynamoDB amazonDynamoDB;
     private TableDefiner tableDefiner;
 
@@ -75,21 +96,45 @@ public class TableHelperTest
         return new DescribeTableMatcher(tableName);
     }
 
-    private void stubTableToExistActive(String tableName)
+    private static DescribeTableResult describeTableResult(String tableName, TableStatus tableStatus)
     {
         TableDescription tableDescription = mock(TableDescription.class);
         stub(tableDescription.getTableName()).toReturn(tableName);
-        stub(tableDescription.getTableStatus()).toReturn(TableStatus.ACTIVE.toString());
+        stub(tableDescription.getTableStatus()).toReturn(tableStatus.toString());
 
         DescribeTableResult describeTableResult = mock(DescribeTableResult.class);
         stub(describeTableResult.getTable()).toReturn(tableDescription);
+        return describeTableResult;
+    }
 
-        stub(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName)))).toReturn(describeTableResult);
+    private void stubTableToExistActive(String tableName)
+    {
+        DescribeTableResult active = describeTableResult(tableName, TableStatus.ACTIVE);
+        stub(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName)))).toReturn(active);
     }
 
-    private void stubTableToNotExist(String tableName)
+    private void stubTableToBeCreated(String tableName)
     {
-        when(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName)))).thenThrow(ResourceNotFoundException.class);
+        DescribeTableResult creating = describeTableResult(tableName, TableStatus.CREATING);
+        DescribeTableResult active = describeTableResult(tableName, TableStatus.ACTIVE);
+        when(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName))))
+                .thenThrow(ResourceNotFoundException.class)
+                .thenReturn(creating)
+                .thenReturn(active);
+    }
+
+    private void stubTableDefiner()
+    {
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
+                TableBuilder tableBuilder = (TableBuilder) invocationOnMock.getArguments()[0];
+
+                tableBuilder.primary().hash().name(UUID.randomUUID().toString()).type(ScalarAttributeType.S);
+                tableBuilder.primary().readCapacity(1).writeCapacity(1);
+                return null;
+            }
+        }).when(tableDefiner).defineTable(any(TableBuilder.class));
     }
 
     @Test
@@ -110,21 +155,224 @@ public class TableHelperTest
     {
         String tableName = UUID.randomUUID().toString();
 
-        stubTableToNotExist(tableName);
+        stubTableToBeCreated(tableName);
+        stubTableDefiner();
 
-        doAnswer(new Answer<Object>() {
-            @Override
-            public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
-                TableBuilder tableBuilder = (TableBuilder) invocationOnMock.getArguments()[0];
+        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
 
-                tableBuilder.primary().hash().name(UUID.randomUUID().toString()).type(ScalarAttributeType.S);
-                tableBuilder.primary().readCapacity(1).writeCapacity(1);
-                return null;
+        verify(amazonDynamoDB).createTable(any(CreateTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessary_should_wait_until_the_table_is_active()
+    {
+        String tableName = UUID.randomUUID().toString();
+
+        stubTableToBeCreated(tableName);
+        stubTableDefiner();
+
+        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
+
+        verify(amazonDynamoDB, times(3)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessary_should_not_create_a_table_which_is_being_created()
+    {
+        String tableName = UUID.randomUUID().toString();
+
+        DescribeTableResult creating = describeTableResult(tableName, TableStatus.CREATING);
+        DescribeTableResult active = describeTableResult(tableName, TableStatus.ACTIVE);
+        when(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName))))
+                .thenReturn(creating)
+                .thenReturn(active);
+
+        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
+
+        verify(amazonDynamoDB, never()).createTable(any(CreateTableRequest.class));
+        verify(tableDefiner, never()).defineTable(any(TableBuilder.class));
+    }
+
+    @Test
+    public void createTableIfNecessary_should_wait_when_another_process_creates_the_table()
+    {
+        String tableName = UUID.randomUUID().toString();
+
+        stubTableToBeCreated(tableName);
+        stubTableDefiner();
+        when(amazonDynamoDB.createTable(any(CreateTableRequest.class))).thenThrow(ResourceInUseException.class);
+
+        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
+
+        verify(amazonDynamoDB, times(3)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessary_should_create_again_when_too_many_tables_are_being_created()
+    {
+        String tableName = UUID.randomUUID().toString();
+
+        DescribeTableResult active = describeTableResult(tableName, TableStatus.ACTIVE);
+        when(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName))))
+                .thenThrow(ResourceNotFoundException.class)
+                .thenThrow(ResourceNotFoundException.class)
+                .thenReturn(active);
+        stubTableDefiner();
+        when(amazonDynamoDB.createTable(any(CreateTableRequest.class)))
+                .thenThrow(LimitExceededException.class)
+                .thenReturn(null);
+
+        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
+
+        verify(amazonDynamoDB, times(2)).createTable(any(CreateTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessary_should_describe_and_create_once_for_concurrent_callers() throws Exception
+    {
+        final String tableName = UUID.randomUUID().toString();
+
+        stubTableToBeCreated(tableName);
+        stubTableDefiner();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++)
+            {
+                futures.add(executor.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        start.await();
+                        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
+                        return null;
+                    }
+                }));
             }
-        }).when(tableDefiner).defineTable(any(TableBuilder.class));
+            start.countDown();
+            for (Future<Void> future : futures)
+                future.get(10, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
 
+        verify(amazonDynamoDB, times(3)).describeTable(any(DescribeTableRequest.class));
+        verify(amazonDynamoDB, times(1)).createTable(any(CreateTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessary_should_try_again_after_a_failure()
+    {
+        String tableName = UUID.randomUUID().toString();
+
+        DescribeTableResult active = describeTableResult(tableName, TableStatus.ACTIVE);
+        when(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName))))
+                .thenThrow(new InternalServerErrorException("failure"))
+                .thenReturn(active);
+
+        try
+        {
+            TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
+            fail("Expected an InternalServerErrorException");
+        }
+        catch (InternalServerErrorException ex)
+        {
+            // Expected
+        }
         TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner);
 
+        verify(amazonDynamoDB, times(2)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessary_should_not_describe_a_table_which_a_snapshot_holds_as_active()
+    {
+        String tableName = UUID.randomUUID().toString();
+        File snapshotFile = new File(temporaryFolder.getRoot(), "tables.json");
+        stubTableToExistActive(tableName);
+        new TableMetadataCache(amazonDynamoDB, 1, TimeUnit.HOURS, snapshotFile).getTable(tableName);
+
+        AmazonDynamoDB restartedDynamoDB = mock(AmazonDynamoDB.class);
+        TableMetadataCache tableMetadataCache = new TableMetadataCache(restartedDynamoDB, 1, TimeUnit.HOURS, snapshotFile);
+        TableHelper.createTableIfNecessary(restartedDynamoDB, tableName, tableDefiner, tableMetadataCache);
+
+        verifyZeroInteractions(restartedDynamoDB);
+    }
+
+    @Test
+    public void createTableIfNecessary_should_keep_the_active_table_in_the_cache()
+    {
+        String tableName = UUID.randomUUID().toString();
+        stubTableToBeCreated(tableName);
+        stubTableDefiner();
+        TableMetadataCache tableMetadataCache = new TableMetadataCache(amazonDynamoDB, 1, TimeUnit.HOURS);
+
+        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, tableDefiner, tableMetadataCache);
+
+        assertThat(tableMetadataCache.getTable(tableName).getTableStatus(), is(TableStatus.ACTIVE.toString()));
         verify(amazonDynamoDB).createTable(any(CreateTableRequest.class));
+        verify(amazonDynamoDB, times(3)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessaryAsync_should_complete_once_the_table_is_active() throws Exception
+    {
+        String tableName = UUID.randomUUID().toString();
+
+        stubTableToBeCreated(tableName);
+        stubTableDefiner();
+
+        Future<TableDescription> future = TableHelper.createTableIfNecessaryAsync(amazonDynamoDB, tableName, tableDefiner);
+
+        assertThat(future.get(10, TimeUnit.SECONDS).getTableStatus(), is(TableStatus.ACTIVE.toString()));
+        verify(amazonDynamoDB).createTable(any(CreateTableRequest.class));
+    }
+
+    @Test
+    public void createTableIfNecessaryAsync_should_share_the_future_for_the_same_table()
+    {
+        String tableName = UUID.randomUUID().toString();
+        final List<Runnable> tasks = new ArrayList<>();
+
+        Future<TableDescription> first = TableHelper.createTableIfNecessaryAsync(amazonDynamoDB, tableName, tableDefiner, new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                tasks.add(command);
+            }
+        });
+        Future<TableDescription> second = TableHelper.createTableIfNecessaryAsync(amazonDynamoDB, tableName, tableDefiner);
+
+        assertThat(second, sameInstance(first));
+        assertThat(tasks.size(), is(1));
+        first.cancel(false);
+    }
+
+    @Test
+    public void createTableIfNecessaryAsync_should_report_failures() throws Exception
+    {
+        String tableName = UUID.randomUUID().toString();
+
+        when(amazonDynamoDB.describeTable(argThat(requestsToDescribeTable(tableName))))
+                .thenThrow(new InternalServerErrorException("failure"));
+
+        Future<TableDescription> future = TableHelper.createTableIfNecessaryAsync(amazonDynamoDB, tableName, tableDefiner);
+
+        try
+        {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        }
+        catch (ExecutionException ex)
+        {
+            assertThat(ex.getCause(), instanceOf(InternalServerErrorException.class));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.IndexStatus;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.LocalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProjectionType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.TableStatus;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class TableMetadataCacheTest
+{
+    private static final long TIME_TO_LIVE = 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private AmazonDynamoDB amazonDynamoDB;
+    private long now;
+    private Clock clock;
+    private List<Runnable> backgroundTasks;
+    private Executor executor;
+
+    @Before
+    public void setUp()
+    {
+        amazonDynamoDB = mock(AmazonDynamoDB.class);
+        now = 100000;
+        clock = new Clock()
+        {
+            @Override
+            public long currentTimeMillis()
+            {
+                return now;
+            }
+        };
+        backgroundTasks = new ArrayList<>();
+        executor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                backgroundTasks.add(command);
+            }
+        };
+        when(amazonDynamoDB.describeTable(any(DescribeTableRequest.class))).thenAnswer(new Answer<DescribeTableResult>()
+        {
+            @Override
+            public DescribeTableResult answer(InvocationOnMock invocation)
+            {
+                String tableName = ((DescribeTableRequest) invocation.getArguments()[0]).getTableName();
+                if(tableName.startsWith("Missing"))
+                    throw new ResourceNotFoundException(tableName);
+                return new DescribeTableResult().withTable(describe(tableName));
+            }
+        });
+    }
+
+    private static TableDescription describe(String tableName)
+    {
+        return new TableDescription()
+                .withTableName(tableName)
+                .withTableStatus(TableStatus.ACTIVE)
+                .withKeySchema(new KeySchemaElement("Id", KeyType.HASH));
+    }
+
+    private TableMetadataCache createObjectUnderTest(File snapshotFile)
+    {
+        return new TableMetadataCache(amazonDynamoDB, TIME_TO_LIVE, snapshotFile, clock, executor);
+    }
+
+    @Test
+    public void getTable_should_describe_table_once_while_it_is_fresh()
+    {
+        TableMetadataCache objectUnderTest = createObjectUnderTest(null);
+
+        TableDescription table = objectUnderTest.getTable("Table");
+        now += TIME_TO_LIVE / 2;
+        objectUnderTest.getTable("Table");
+
+        assertThat(table.getTableName(), is("Table"));
+        assertThat(table.getKeySchema().get(0).getAttributeName(), is("Id"));
+        verify(amazonDynamoDB, times(1)).describeTable(any(DescribeTableRequest.class));
+        assertThat(backgroundTasks.size(), is(0));
+    }
+
+    @Test
+    public void getTable_should_refresh_ahead_in_the_background()
+    {
+        TableMetadataCache objectUnderTest = createObjectUnderTest(null);
+        TableDescription table = objectUnderTest.getTable("Table");
+
+        now += TIME_TO_LIVE * 9 / 10;
+
+        assertThat(objectUnderTest.getTable("Table") == table, is(true));
+        assertThat(objectUnderTest.getTable("Table") == table, is(true));
+        assertThat(backgroundTasks.size(), is(1));
+
+        backgroundTasks.get(0).run();
+        now += TIME_TO_LIVE / 2;
+
+        assertThat(objectUnderTest.getTable("Table") == table, is(false));
+        verify(amazonDynamoDB, times(2)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void getTable_should_load_expired_table()
+    {
+        TableMetadataCache objectUnderTest = createObjectUnderTest(null);
+        objectUnderTest.getTable("Table");
+
+        now += TIME_TO_LIVE;
+        objectUnderTest.getTable("Table");
+
+        verify(amazonDynamoDB, times(2)).describeTable(any(DescribeTableRequest.class));
+        assertThat(backgroundTasks.size(), is(0));
+    }
+
+    @Test
+    public void getTable_should_return_null_for_missing_table()
+    {
+        TableMetadataCache objectUnderTest = createObjectUnderTest(null);
+
+        assertThat(objectUnderTest.getTable("MissingTable"), nullValue());
+    }
+
+    @Test
+    public void invalidate_should_load_table_again()
+    {
+        TableMetadataCache objectUnderTest = createObjectUnderTest(null);
+        objectUnderTest.getTable("Table");
+        objectUnderTest.getTable("Other");
+
+        objectUnderTest.invalidate("Table");
+        objectUnderTest.getTable("Table");
+        objectUnderTest.getTable("Other");
+        objectUnderTest.invalidateAll();
+        objectUnderTest.getTable("Other");
+
+        verify(amazonDynamoDB, times(4)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void snapshot_should_let_new_cache_skip_describing_tables() throws Exception
+    {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "tables.snapshot");
+        createObjectUnderTest(snapshotFile).getTable("Table");
+
+        now += TIME_TO_LIVE / 2;
+        TableDescription table = createObjectUnderTest(snapshotFile).getTable("Table");
+
+        assertThat(table.getTableName(), is("Table"));
+        assertThat(table.getKeySchema().get(0).getKeyType(), is(KeyType.HASH.toString()));
+        verify(amazonDynamoDB, times(1)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void snapshot_should_not_keep_expired_tables() throws Exception
+    {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "tables.snapshot");
+        createObjectUnderTest(snapshotFile).getTable("Table");
+
+        now += TIME_TO_LIVE;
+        createObjectUnderTest(snapshotFile).getTable("Table");
+
+        verify(amazonDynamoDB, times(2)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void snapshot_should_be_ignored_when_it_cannot_be_read() throws Exception
+    {
+        File snapshotFile = temporaryFolder.newFile("tables.snapshot");
+        try(FileOutputStream outputStream = new FileOutputStream(snapshotFile))
+        {
+            outputStream.write(new byte[] { 1, 2, 3 });
+        }
+
+        TableDescription table = createObjectUnderTest(snapshotFile).getTable("Table");
+
+        assertThat(table.getTableName(), is("Table"));
+        verify(amazonDynamoDB, times(1)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    public void snapshot_should_keep_every_part_of_the_description() throws Exception
+    {
+        final TableDescription description = new TableDescription()
+                .withTableName("Full")
+                .withTableStatus(TableStatus.ACTIVE)
+                .withCreationDateTime(new Date(1450000000123L))
+                .withAttributeDefinitions(new AttributeDefinition("Id", ScalarAttributeType.S), new AttributeDefinition("Time", ScalarAttributeType.N))
+                .withKeySchema(new KeySchemaElement("Id", KeyType.HASH), new KeySchemaElement("Time", KeyType.RANGE))
+                .withProvisionedThroughput(new ProvisionedThroughputDescription()
+                        .withReadCapacityUnits(5L)
+                        .withWriteCapacityUnits(10L)
+                        .withNumberOfDecreasesToday(1L)
+                        .withLastDecreaseDateTime(new Date(1450000000456L)))
+                .withTableSizeBytes(2048L)
+                .withItemCount(12L)
+                .withLocalSecondaryIndexes(new LocalSecondaryIndexDescription()
+                        .withIndexName("ByTime")
+                        .withKeySchema(new KeySchemaElement("Id", KeyType.HASH), new KeySchemaElement("Time", KeyType.RANGE))
+                        .withProjection(new Projection().withProjectionType(ProjectionType.INCLUDE).withNonKeyAttributes("Name"))
+                        .withIndexSizeBytes(100L)
+                        .withItemCount(3L))
+                .withGlobalSecondaryIndexes(new GlobalSecondaryIndexDescription()
+                        .withIndexName("ByName")
+                        .withIndexStatus(IndexStatus.ACTIVE)
+                        .withKeySchema(new KeySchemaElement("Name", KeyType.HASH))
+                        .withProjection(new Projection().withProjectionType(ProjectionType.KEYS_ONLY))
+                        .withProvisionedThroughput(new ProvisionedThroughputDescription().withReadCapacityUnits(1L).withWriteCapacityUnits(2L))
+                        .withIndexSizeBytes(50L)
+                        .withItemCount(4L));
+        when(amazonDynamoDB.describeTable(new DescribeTableRequest("Full"))).thenReturn(new DescribeTableResult().withTable(description));
+        File snapshotFile = new File(temporaryFolder.getRoot(), "tables.snapshot");
+        createObjectUnderTest(snapshotFile).getTable("Full");
+
+        TableDescription table = createObjectUnderTest(snapshotFile).getTable("Full");
+
+        assertThat(table, is(description));
+        verify(amazonDynamoDB, times(1)).describeTable(any(DescribeTableRequest.class));
+        assertThat(new String(Files.readAllBytes(snapshotFile.toPath()), StandardCharsets.UTF_8).startsWith("{\"Full\":"), is(true));
+    }
+
+    @Test
+    public void snapshot_should_not_deserialize_java_objects() throws Exception
+    {
+        File snapshotFile = temporaryFolder.newFile("tables.snapshot");
+        try(ObjectOutputStream outputStream = new ObjectOutputStream(new FileOutputStream(snapshotFile)))
+        {
+            outputStream.writeObject(new HashMap<String, Object>());
+        }
+
+        TableDescription table = createObjectUnderTest(snapshotFile).getTable("Table");
+
+        assertThat(table.getTableName(), is("Table"));
+        verify(amazonDynamoDB, times(1)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_for_non_positive_time_to_live()
+    {
+        new TableMetadataCache(amazonDynamoDB, 0, null, clock, executor);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.InternalServerErrorException;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.TableStatus;
+import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class TableProvisionerTest
+{
+    private AmazonDynamoDB amazonDynamoDB;
+    private TableDefiner tableDefiner;
+    private FakeTables fakeTables;
+
+    @Before
+    public void setUp()
+    {
+        amazonDynamoDB = mock(AmazonDynamoDB.class);
+        tableDefiner = mock(TableDefiner.class);
+        fakeTables = new FakeTables();
+
+        when(amazonDynamoDB.describeTable(any(DescribeTableRequest.class))).thenAnswer(fakeTables.describe);
+        when(amazonDynamoDB.createTable(any(CreateTableRequest.class))).thenAnswer(fakeTables.create);
+
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
+                TableBuilder tableBuilder = (TableBuilder) invocationOnMock.getArguments()[0];
+
+                tableBuilder.primary().hash().name("Id").type(ScalarAttributeType.S);
+                tableBuilder.primary().readCapacity(1).writeCapacity(1);
+                return null;
+            }
+        }).when(tableDefiner).defineTable(any(TableBuilder.class));
+    }
+
+    /**
+     * Tables which are created on request, and which are active
+     * the second time they are described after being created.
+     */
+    private static class FakeTables
+    {
+        private final Map<String, AtomicInteger> describesSinceCreated = new HashMap<>();
+        private final AtomicInteger creating = new AtomicInteger();
+        private final AtomicInteger mostCreating = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        private volatile String failingTable;
+
+        void add(String tableName)
+        {
+            synchronized (describesSinceCreated)
+            {
+                describesSinceCreated.put(tableName, new AtomicInteger(2));
+            }
+        }
+
+        final Answer<DescribeTableResult> describe = new Answer<DescribeTableResult>()
+        {
+            @Override
+            public DescribeTableResult answer(InvocationOnMock invocation)
+            {
+                String tableName = ((DescribeTableRequest) invocation.getArguments()[0]).getTableName();
+                if(tableName.equals(failingTable))
+                    throw new InternalServerErrorException("failure");
+
+                AtomicInteger describes;
+                synchronized (describesSinceCreated)
+                {
+                    describes = describesSinceCreated.get(tableName);
+                }
+                if(describes == null)
+                    throw new ResourceNotFoundException(tableName);
+
+                TableStatus status = TableStatus.CREATING;
+                if(describes.incrementAndGet() == 2)
+                {
+                    status = TableStatus.ACTIVE;
+                    creating.decrementAndGet();
+                }
+                else if(describes.get() > 2)
+                {
+                    status = TableStatus.ACTIVE;
+                }
+                return new DescribeTableResult().withTable(new TableDescription().withTableName(tableName).withTableStatus(status));
+            }
+        };
+
+        final Answer<Object> create = new Answer<Object>()
+        {
+            @Override
+            public Object answer(InvocationOnMock invocation)
+            {
+                String tableName = ((CreateTableRequest) invocation.getArguments()[0]).getTableName();
+                int now = creating.incrementAndGet();
+                while(true)
+                {
+                    int most = mostCreating.get();
+                    if(now <= most || mostCreating.compareAndSet(most, now))
+                        break;
+                }
+                created.incrementAndGet();
+                synchronized (describesSinceCreated)
+                {
+                    describesSinceCreated.put(tableName, new AtomicInteger());
+                }
+                return null;
+            }
+        };
+    }
+
+    private Map<String, TableDefiner> tables(int count)
+    {
+        Map<String, TableDefiner> tables = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++)
+            tables.put(UUID.randomUUID().toString(), tableDefiner);
+        return tables;
+    }
+
+    @Test
+    public void provision_should_create_all_of_the_tables()
+    {
+        Map<String, TableDefiner> tables = tables(4);
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB).provision(tables);
+
+        assertThat(results.size(), is(4));
+        for (TableProvisioningResult result : results)
+        {
+            assertThat(result.isSuccessful(), is(true));
+            assertThat(result.getFailure(), nullValue());
+            assertThat(result.getTable().getTableStatus(), is(TableStatus.ACTIVE.toString()));
+        }
+        assertThat(fakeTables.created.get(), is(4));
+    }
+
+    @Test
+    public void provision_should_report_results_in_the_order_of_the_tables()
+    {
+        Map<String, TableDefiner> tables = tables(5);
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB).provision(tables);
+
+        int i = 0;
+        for (String tableName : tables.keySet())
+        {
+            assertThat(results.get(i).getTableName(), is(tableName));
+            assertThat(results.get(i).getTable().getTableName(), is(tableName));
+            i++;
+        }
+    }
+
+    @Test
+    public void provision_should_not_create_more_tables_at_once_than_the_maximum()
+    {
+        Map<String, TableDefiner> tables = tables(8);
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB, 2).provision(tables);
+
+        assertThat(results.size(), is(8));
+        assertThat(fakeTables.created.get(), is(8));
+        assertTrue(fakeTables.mostCreating.get() <= 2);
+    }
+
+    @Test
+    public void provision_should_not_count_the_wait_for_a_permit_against_the_time_to_become_active()
+    {
+        final AtomicLong now = new AtomicLong();
+        Clock clock = new Clock()
+        {
+            @Override
+            public long currentTimeMillis()
+            {
+                return now.get();
+            }
+        };
+        // Each creation takes four minutes, so the last of four tables only gets its permit after twelve.
+        doAnswer(new Answer<Object>()
+        {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable
+            {
+                now.addAndGet(TimeUnit.MINUTES.toMillis(4));
+                return fakeTables.create.answer(invocation);
+            }
+        }).when(amazonDynamoDB).createTable(any(CreateTableRequest.class));
+        Map<String, TableDefiner> tables = tables(4);
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB, 1, null, TableExecutors.DEFAULT, clock).provision(tables);
+
+        for (TableProvisioningResult result : results)
+            assertThat(result.getFailure(), nullValue());
+        assertThat(fakeTables.created.get(), is(4));
+    }
+
+    @Test
+    public void provision_should_create_tables_in_parallel()
+    {
+        Map<String, TableDefiner> tables = tables(6);
+
+        new TableProvisioner(amazonDynamoDB, 6).provision(tables);
+
+        assertTrue(fakeTables.mostCreating.get() > 1);
+    }
+
+    @Test
+    public void provision_should_report_the_time_taken_for_each_table()
+    {
+        Map<String, TableDefiner> tables = tables(2);
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB).provision(tables);
+
+        // Each table waits at least half of the first poll delay before it is active.
+        for (TableProvisioningResult result : results)
+            assertTrue(result.getDurationMillis() >= 50);
+    }
+
+    @Test
+    public void provision_should_continue_when_one_table_fails()
+    {
+        Map<String, TableDefiner> tables = tables(3);
+        String failingTable = UUID.randomUUID().toString();
+        tables.put(failingTable, tableDefiner);
+
+        fakeTables.failingTable = failingTable;
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB).provision(tables);
+
+        assertThat(results.size(), is(4));
+        for (int i = 0; i < 3; i++)
+            assertThat(results.get(i).isSuccessful(), is(true));
+        assertThat(results.get(3).isSuccessful(), is(false));
+        assertThat(results.get(3).getTable(), nullValue());
+        assertThat(results.get(3).getFailure(), instanceOf(InternalServerErrorException.class));
+    }
+
+    @Test
+    public void provision_should_not_create_tables_which_exist()
+    {
+        String tableName = UUID.randomUUID().toString();
+        fakeTables.add(tableName);
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB).provision(Collections.singletonMap(tableName, tableDefiner));
+
+        assertThat(results.get(0).getTable(), notNullValue());
+        verify(amazonDynamoDB, never()).createTable(any(CreateTableRequest.class));
+    }
+
+    @Test
+    public void provision_should_not_describe_tables_which_the_cache_holds_as_active()
+    {
+        String tableName = UUID.randomUUID().toString();
+        fakeTables.add(tableName);
+        TableMetadataCache tableMetadataCache = new TableMetadataCache(amazonDynamoDB, 1, TimeUnit.HOURS);
+        tableMetadataCache.getTable(tableName);
+
+        List<TableProvisioningResult> results = new TableProvisioner(amazonDynamoDB, 2, tableMetadataCache)
+                .provision(Collections.singletonMap(tableName, tableDefiner));
+
+        assertThat(results.get(0).getTable().getTableStatus(), is(TableStatus.ACTIVE.toString()));
+        verify(amazonDynamoDB, times(1)).describeTable(any(DescribeTableRequest.class));
+        verify(amazonDynamoDB, never()).createTable(any(CreateTableRequest.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_require_at_least_one_concurrent_operation()
+    {
+        new TableProvisioner(amazonDynamoDB, 0);
+    }
+}
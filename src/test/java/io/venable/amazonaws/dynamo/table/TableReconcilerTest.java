@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexUpdate;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class TableReconcilerTest
+{
+    private AmazonDynamoDB amazonDynamoDB;
+    private String tableName;
+
+    @Before
+    public void setUp()
+    {
+        amazonDynamoDB = mock(AmazonDynamoDB.class);
+        tableName = UUID.randomUUID().toString();
+    }
+
+    private TableReconciler createObjectUnderTest()
+    {
+        return new TableReconciler(amazonDynamoDB);
+    }
+
+    /**
+     * Defines a table with the given capacity, and a global index
+     * on each of the given names with the given index capacity.
+     */
+    private static TableDefiner definer(final long tableCapacity, final long indexCapacity, final String... indexNames)
+    {
+        return new TableDefiner()
+        {
+            @Override
+            public void defineTable(TableBuilder tableBuilder)
+            {
+                tableBuilder.primary()
+                        .hash().name("Id").type(ScalarAttributeType.S)
+                        .readCapacity(tableCapacity).writeCapacity(tableCapacity);
+                for (String indexName : indexNames)
+                {
+                    tableBuilder.global()
+                            .name(indexName)
+                            .hash().name(indexName + "Key").type(ScalarAttributeType.S)
+                            .projection().keys()
+                            .readCapacity(indexCapacity).writeCapacity(indexCapacity);
+                }
+            }
+        };
+    }
+
+    private void stubTable(long tableCapacity, long indexCapacity, String... indexNames)
+    {
+        TableDescription table = new TableDescription()
+                .withTableName(tableName)
+                .withProvisionedThroughput(throughput(tableCapacity));
+        if(indexNames.length > 0)
+        {
+            GlobalSecondaryIndexDescription[] indexes = new GlobalSecondaryIndexDescription[indexNames.length];
+            for (int i = 0; i < indexNames.length; i++)
+                indexes[i] = new GlobalSecondaryIndexDescription().withIndexName(indexNames[i]).withProvisionedThroughput(throughput(indexCapacity));
+            table.withGlobalSecondaryIndexes(indexes);
+        }
+        DescribeTableResult describeTableResult = new DescribeTableResult().withTable(table);
+        when(amazonDynamoDB.describeTable(any(DescribeTableRequest.class))).thenReturn(describeTableResult);
+    }
+
+    private static ProvisionedThroughputDescription throughput(long capacity)
+    {
+        return new ProvisionedThroughputDescription().withReadCapacityUnits(capacity).withWriteCapacityUnits(capacity);
+    }
+
+    @Test
+    public void plan_should_be_empty_when_the_table_matches()
+    {
+        stubTable(5, 2, "ByName");
+
+        TableUpdatePlan plan = createObjectUnderTest().plan(tableName, definer(5, 2, "ByName"));
+
+        assertThat(plan.isEmpty(), is(true));
+        assertThat(plan.getUpdateTableRequest(), nullValue());
+        assertThat(plan.hasUnappliedChanges(), is(false));
+    }
+
+    @Test
+    public void plan_should_update_the_table_throughput()
+    {
+        stubTable(5, 2);
+
+        TableUpdatePlan plan = createObjectUnderTest().plan(tableName, definer(10, 2));
+
+        UpdateTableRequest request = plan.getUpdateTableRequest();
+        assertThat(request.getTableName(), is(tableName));
+        assertThat(request.getProvisionedThroughput().getReadCapacityUnits(), is(10L));
+        assertThat(request.getProvisionedThroughput().getWriteCapacityUnits(), is(10L));
+        assertThat(request.getGlobalSecondaryIndexUpdates(), nullValue());
+    }
+
+    @Test
+    public void plan_should_only_update_indexes_whose_throughput_changed()
+    {
+        stubTable(5, 2, "ByName", "ByDate");
+
+        TableUpdatePlan plan = createObjectUnderTest().plan(tableName, new TableDefiner()
+        {
+            @Override
+            public void defineTable(TableBuilder tableBuilder)
+            {
+                definer(5, 2, "ByName").defineTable(tableBuilder);
+                tableBuilder.global()
+                        .name("ByDate")
+                        .hash().name("Date").type(ScalarAttributeType.S)
+                        .projection().keys()
+                        .readCapacity(4).writeCapacity(3);
+            }
+        });
+
+        UpdateTableRequest request = plan.getUpdateTableRequest();
+        assertThat(request.getProvisionedThroughput(), nullValue());
+        assertThat(request.getGlobalSecondaryIndexUpdates().size(), is(1));
+        GlobalSecondaryIndexUpdate update = request.getGlobalSecondaryIndexUpdates().get(0);
+        assertThat(update.getUpdate().getIndexName(), is("ByDate"));
+        assertThat(update.getUpdate().getProvisionedThroughput().getReadCapacityUnits(), is(4L));
+        assertThat(update.getUpdate().getProvisionedThroughput().getWriteCapacityUnits(), is(3L));
+    }
+
+    @Test
+    public void plan_should_report_indexes_to_create_and_delete()
+    {
+        stubTable(5, 2, "ByName", "ByDate");
+
+        TableUpdatePlan plan = createObjectUnderTest().plan(tableName, definer(5, 2, "ByName", "ByOwner"));
+
+        assertThat(plan.getIndexesToCreate().size(), is(1));
+        assertThat(plan.getIndexesToCreate().get(0).getIndexName(), is("ByOwner"));
+        assertThat(plan.getIndexesToDelete().size(), is(1));
+        assertThat(plan.getIndexesToDelete().get(0), is("ByDate"));
+        assertThat(plan.getUpdateTableRequest(), nullValue());
+        assertThat(plan.isEmpty(), is(false));
+        assertThat(plan.hasUnappliedChanges(), is(true));
+    }
+
+    @Test
+    public void reconcile_should_update_the_table_and_indexes_in_one_call()
+    {
+        stubTable(5, 2, "ByName", "ByDate");
+
+        createObjectUnderTest().reconcile(tableName, definer(6, 3, "ByName", "ByDate"));
+
+        ArgumentCaptor<UpdateTableRequest> captor = ArgumentCaptor.forClass(UpdateTableRequest.class);
+        verify(amazonDynamoDB, times(1)).updateTable(captor.capture());
+        assertThat(captor.getValue().getProvisionedThroughput(), notNullValue());
+        assertThat(captor.getValue().getGlobalSecondaryIndexUpdates().size(), is(2));
+    }
+
+    @Test
+    public void reconcile_should_not_call_update_when_the_table_matches()
+    {
+        stubTable(5, 2, "ByName");
+
+        createObjectUnderTest().reconcile(tableName, definer(5, 2, "ByName"));
+
+        verify(amazonDynamoDB, never()).updateTable(any(UpdateTableRequest.class));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.internal.StaticCredentialsProvider;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
+import io.venable.amazonaws.dynamo.test.TableTestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ThroughputControllerIT
+{
+    private AmazonDynamoDBClient amazonDynamoDB;
+    private String tableName;
+    private long now;
+    private Clock clock;
+
+    @Before
+    public void setUp()
+    {
+        StaticCredentialsProvider credentialsProvider = new StaticCredentialsProvider(new BasicAWSCredentials("", ""));
+        amazonDynamoDB = new AmazonDynamoDBClient(credentialsProvider);
+        amazonDynamoDB.setEndpoint("http://localhost:8000");
+
+        tableName = UUID.randomUUID().toString();
+
+        now = System.currentTimeMillis();
+        clock = new Clock()
+        {
+            @Override
+            public long currentTimeMillis()
+            {
+                return now;
+            }
+        };
+
+        TableHelper.createTableIfNecessary(amazonDynamoDB, tableName, definer(5));
+    }
+
+    @After
+    public void tearDown()
+    {
+        if(TableTestUtils.doesTableExist(amazonDynamoDB, tableName))
+            amazonDynamoDB.deleteTable(tableName);
+    }
+
+    private static TableDefiner definer(final long capacity)
+    {
+        return new TableDefiner()
+        {
+            @Override
+            public void defineTable(TableBuilder tableBuilder)
+            {
+                tableBuilder.primary()
+                        .hash().name("Id").type(ScalarAttributeType.S)
+                        .readCapacity(capacity).writeCapacity(capacity);
+            }
+        };
+    }
+
+    private ProvisionedThroughputDescription describeThroughput()
+    {
+        return amazonDynamoDB.describeTable(new DescribeTableRequest(tableName)).getTable().getProvisionedThroughput();
+    }
+
+    @Test
+    public void adjust_should_scale_up_a_table_to_the_consumed_rate()
+    {
+        ThroughputController objectUnderTest = new ThroughputController(amazonDynamoDB, TimeUnit.SECONDS.toMillis(10), clock);
+        objectUnderTest.register(tableName, definer(5), definer(100));
+        objectUnderTest.adjust();
+
+        objectUnderTest.recordRead(tableName, null, 100);
+        now += TimeUnit.SECONDS.toMillis(10);
+        objectUnderTest.adjust();
+
+        assertThat(describeThroughput().getReadCapacityUnits(), is(15L));
+        assertThat(describeThroughput().getWriteCapacityUnits(), is(5L));
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2016 David Venable.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.venable.amazonaws.dynamo.table;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.Capacity;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexUpdate;
+import com.amazonaws.services.dynamodbv2.model.LimitExceededException;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import io.venable.amazonaws.dynamo.table.builder.TableBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class ThroughputControllerTest
+{
+    private static final long INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    private static final long SCALE_DOWN_DELAY = ThroughputController.DEFAULT_SCALE_DOWN_DELAY_MILLIS;
+
+    private AmazonDynamoDB amazonDynamoDB;
+    private String tableName;
+    private long now;
+    private Clock clock;
+
+    @Before
+    public void setUp()
+    {
+        amazonDynamoDB = mock(AmazonDynamoDB.class);
+        tableName = UUID.randomUUID().toString();
+        now = TimeUnit.DAYS.toMillis(100);
+        clock = new Clock()
+        {
+            @Override
+            public long currentTimeMillis()
+            {
+                return now;
+            }
+        };
+    }
+
+    private ThroughputController createObjectUnderTest()
+    {
+        return new ThroughputController(amazonDynamoDB, INTERVAL, clock);
+    }
+
+    private static TableDefiner definer(final long tableCapacity, final long indexCapacity, final String... indexNames)
+    {
+        return new TableDefiner()
+        {
+            @Override
+            public void defineTable(TableBuilder tableBuilder)
+            {
+                tableBuilder.primary()
+                        .hash().name("Id").type(ScalarAttributeType.S)
+                        .readCapacity(tableCapacity).writeCapacity(tableCapacity);
+                for (String indexName : indexNames)
+                {
+                    tableBuilder.global()
+                            .name(indexName)
+                            .hash().name(indexName + "Key").type(ScalarAttributeType.S)
+                            .projection().keys()
+                            .readCapacity(indexCapacity).writeCapacity(indexCapacity);
+                }
+            }
+        };
+    }
+
+    private void stubTable(long tableCapacity, long indexCapacity, String... indexNames)
+    {
+        TableDescription table = new TableDescription()
+                .withTableName(tableName)
+                .withProvisionedThroughput(throughput(tableCapacity));
+        for (String indexName : indexNames)
+            table.withGlobalSecondaryIndexes(new GlobalSecondaryIndexDescription().withIndexName(indexName).withProvisionedThroughput(throughput(indexCapacity)));
+        DescribeTableResult describeTableResult = new DescribeTableResult().withTable(table);
+        when(amazonDynamoDB.describeTable(any(DescribeTableRequest.class))).thenReturn(describeTableResult);
+    }
+
+    private static ProvisionedThroughputDescription throughput(long capacity)
+    {
+        return new ProvisionedThroughputDescription().withReadCapacityUnits(capacity).withWriteCapacityUnits(capacity).withNumberOfDecreasesToday(0L);
+    }
+
+    /**
+     * Moves the clock forward by an interval and adjusts.
+     */
+    private void adjustAfter(ThroughputController objectUnderTest, long elapsedMillis)
+    {
+        now += elapsedMillis;
+        objectUnderTest.adjust();
+    }
+
+    private List<UpdateTableRequest> updates(int count)
+    {
+        ArgumentCaptor<UpdateTableRequest> captor = ArgumentCaptor.forClass(UpdateTableRequest.class);
+        verify(amazonDynamoDB, times(count)).updateTable(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    public void adjust_should_read_the_current_throughput_the_first_time()
+    {
+        stubTable(5, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+
+        objectUnderTest.adjust();
+        objectUnderTest.adjust();
+
+        verify(amazonDynamoDB, times(1)).describeTable(any(DescribeTableRequest.class));
+        verify(amazonDynamoDB, never()).updateTable(any(UpdateTableRequest.class));
+    }
+
+    @Test
+    public void adjust_should_not_update_when_consumption_is_within_the_target()
+    {
+        stubTable(10, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(10, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        objectUnderTest.recordRead(tableName, null, 60);
+        objectUnderTest.recordWrite(tableName, null, 60);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        verify(amazonDynamoDB, never()).updateTable(any(UpdateTableRequest.class));
+    }
+
+    @Test
+    public void adjust_should_scale_up_as_soon_as_consumption_is_over_the_target()
+    {
+        stubTable(5, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        objectUnderTest.recordRead(tableName, null, 100);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        UpdateTableRequest request = updates(1).get(0);
+        assertThat(request.getTableName(), is(tableName));
+        assertThat(request.getProvisionedThroughput().getReadCapacityUnits(), is(15L));
+        assertThat(request.getProvisionedThroughput().getWriteCapacityUnits(), is(5L));
+        assertThat(request.getGlobalSecondaryIndexUpdates(), nullValue());
+    }
+
+    @Test
+    public void adjust_should_not_scale_above_the_maximum()
+    {
+        stubTable(5, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(20, 0));
+        objectUnderTest.adjust();
+
+        objectUnderTest.recordWrite(tableName, null, 10000);
+        adjustAfter(objectUnderTest, INTERVAL);
+        objectUnderTest.recordWrite(tableName, null, 10000);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        UpdateTableRequest request = updates(1).get(0);
+        assertThat(request.getProvisionedThroughput().getWriteCapacityUnits(), is(20L));
+    }
+
+    @Test
+    public void adjust_should_only_scale_down_after_the_delay()
+    {
+        stubTable(50, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        adjustAfter(objectUnderTest, INTERVAL);
+        adjustAfter(objectUnderTest, SCALE_DOWN_DELAY - 1);
+        verify(amazonDynamoDB, never()).updateTable(any(UpdateTableRequest.class));
+
+        adjustAfter(objectUnderTest, 1);
+
+        UpdateTableRequest request = updates(1).get(0);
+        assertThat(request.getProvisionedThroughput().getReadCapacityUnits(), is(5L));
+        assertThat(request.getProvisionedThroughput().getWriteCapacityUnits(), is(5L));
+    }
+
+    @Test
+    public void adjust_should_restart_the_delay_when_consumption_rises()
+    {
+        stubTable(50, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.setTargetUtilization(0.5);
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        adjustAfter(objectUnderTest, INTERVAL);
+        objectUnderTest.recordRead(tableName, null, 25 * SCALE_DOWN_DELAY / 1000);
+        objectUnderTest.recordWrite(tableName, null, 25 * SCALE_DOWN_DELAY / 1000);
+        adjustAfter(objectUnderTest, SCALE_DOWN_DELAY);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        verify(amazonDynamoDB, never()).updateTable(any(UpdateTableRequest.class));
+    }
+
+    @Test
+    public void adjust_should_not_scale_down_more_often_than_allowed_in_a_day()
+    {
+        stubTable(50, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.setMaximumDecreasesPerDay(1);
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        adjustAfter(objectUnderTest, INTERVAL);
+        adjustAfter(objectUnderTest, SCALE_DOWN_DELAY);
+
+        objectUnderTest.recordRead(tableName, null, 700);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        adjustAfter(objectUnderTest, INTERVAL);
+        adjustAfter(objectUnderTest, SCALE_DOWN_DELAY);
+        assertThat(updates(2).get(1).getProvisionedThroughput().getReadCapacityUnits(), is(100L));
+
+        now = (now / TimeUnit.DAYS.toMillis(1) + 1) * TimeUnit.DAYS.toMillis(1);
+        objectUnderTest.adjust();
+
+        List<UpdateTableRequest> requests = updates(3);
+        assertThat(requests.get(0).getProvisionedThroughput().getReadCapacityUnits(), is(5L));
+        assertThat(requests.get(2).getProvisionedThroughput().getReadCapacityUnits(), is(5L));
+    }
+
+    @Test
+    public void adjust_should_count_decreases_already_made_today()
+    {
+        TableDescription table = new TableDescription()
+                .withTableName(tableName)
+                .withProvisionedThroughput(throughput(50).withNumberOfDecreasesToday(4L));
+        DescribeTableResult describeTableResult = new DescribeTableResult().withTable(table);
+        when(amazonDynamoDB.describeTable(any(DescribeTableRequest.class))).thenReturn(describeTableResult);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        adjustAfter(objectUnderTest, INTERVAL);
+        adjustAfter(objectUnderTest, SCALE_DOWN_DELAY);
+
+        verify(amazonDynamoDB, never()).updateTable(any(UpdateTableRequest.class));
+    }
+
+    @Test
+    public void adjust_should_update_the_table_and_indexes_in_one_request()
+    {
+        stubTable(5, 2, "ByName", "ByDate");
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 2, "ByName", "ByDate"), definer(100, 50, "ByName", "ByDate"));
+        objectUnderTest.adjust();
+
+        ConsumedCapacity consumedCapacity = new ConsumedCapacity()
+                .withTableName(tableName)
+                .withTable(new Capacity().withCapacityUnits(100.0))
+                .withGlobalSecondaryIndexes(Collections.singletonMap("ByDate", new Capacity().withCapacityUnits(70.0)));
+        objectUnderTest.recordWrite(consumedCapacity);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        UpdateTableRequest request = updates(1).get(0);
+        assertThat(request.getProvisionedThroughput().getWriteCapacityUnits(), is(15L));
+        assertThat(request.getGlobalSecondaryIndexUpdates().size(), is(1));
+        GlobalSecondaryIndexUpdate update = request.getGlobalSecondaryIndexUpdates().get(0);
+        assertThat(update.getUpdate().getIndexName(), is("ByDate"));
+        assertThat(update.getUpdate().getProvisionedThroughput().getReadCapacityUnits(), is(2L));
+        assertThat(update.getUpdate().getProvisionedThroughput().getWriteCapacityUnits(), is(10L));
+    }
+
+    @Test
+    public void recordWrite_should_count_local_secondary_indexes_against_the_table()
+    {
+        stubTable(5, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        Map<String, Capacity> localSecondaryIndexes = new HashMap<>();
+        localSecondaryIndexes.put("ByName", new Capacity().withCapacityUnits(30.0));
+        localSecondaryIndexes.put("ByDate", new Capacity().withCapacityUnits(40.0));
+        ConsumedCapacity consumedCapacity = new ConsumedCapacity()
+                .withTableName(tableName)
+                .withTable(new Capacity().withCapacityUnits(30.0))
+                .withLocalSecondaryIndexes(localSecondaryIndexes);
+        objectUnderTest.recordWrite(consumedCapacity);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        assertThat(updates(1).get(0).getProvisionedThroughput().getWriteCapacityUnits(), is(15L));
+    }
+
+    @Test
+    public void recordRead_should_count_a_total_against_the_table()
+    {
+        stubTable(5, 0);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        objectUnderTest.recordRead(new ConsumedCapacity().withTableName(tableName).withCapacityUnits(70.0));
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        assertThat(updates(1).get(0).getProvisionedThroughput().getReadCapacityUnits(), is(10L));
+    }
+
+    @Test
+    public void adjust_should_try_again_when_the_update_is_rejected()
+    {
+        stubTable(5, 0);
+        when(amazonDynamoDB.updateTable(any(UpdateTableRequest.class)))
+                .thenThrow(new LimitExceededException("limit"))
+                .thenReturn(null);
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 0), definer(100, 0));
+        objectUnderTest.adjust();
+
+        objectUnderTest.recordRead(tableName, null, 100);
+        adjustAfter(objectUnderTest, INTERVAL);
+        objectUnderTest.recordRead(tableName, null, 100);
+        adjustAfter(objectUnderTest, INTERVAL);
+
+        List<UpdateTableRequest> requests = updates(2);
+        assertThat(requests.get(1).getProvisionedThroughput().getReadCapacityUnits(), is(15L));
+    }
+
+    @Test
+    public void recordRead_should_ignore_tables_which_are_not_registered()
+    {
+        ThroughputController objectUnderTest = createObjectUnderTest();
+
+        objectUnderTest.recordRead(tableName, null, 100);
+        objectUnderTest.recordWrite(tableName, "ByName", 100);
+        objectUnderTest.adjust();
+
+        verifyZeroInteractions(amazonDynamoDB);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void register_should_reject_a_minimum_above_the_maximum()
+    {
+        createObjectUnderTest().register(tableName, definer(10, 0), definer(5, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void register_should_reject_definitions_with_different_indexes()
+    {
+        createObjectUnderTest().register(tableName, definer(5, 2, "ByName"), definer(10, 4, "ByDate"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void adjust_should_fail_when_the_table_is_missing_a_defined_index()
+    {
+        stubTable(5, 2, "ByName");
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 2, "ByName", "ByDate"), definer(10, 4, "ByName", "ByDate"));
+
+        objectUnderTest.adjust();
+    }
+
+    @Test
+    public void getLastFailure_should_follow_the_most_recent_adjustment()
+    {
+        stubTable(5, 2, "ByName");
+        ThroughputController objectUnderTest = createObjectUnderTest();
+        objectUnderTest.register(tableName, definer(5, 2, "ByName", "ByDate"), definer(10, 4, "ByName", "ByDate"));
+        try
+        {
+            objectUnderTest.adjust();
+            fail();
+        }
+        catch (IllegalStateException ex)
+        {
+            assertThat(objectUnderTest.getLastFailure(), sameInstance((RuntimeException) ex));
+        }
+
+        objectUnderTest.unregister(tableName);
+        objectUnderTest.adjust();
+
+        assertThat(objectUnderTest.getLastFailure(), nullValue());
+    }
+
+    @Test
+    public void start_should_record_failures_in_the_background() throws Exception
+    {
+        RuntimeException failure = new IllegalStateException();
+        when(amazonDynamoDB.describeTable(any(DescribeTableRequest.class))).thenThrow(failure);
+        ThroughputController objectUnderTest = new ThroughputController(amazonDynamoDB, 10, TimeUnit.MILLISECONDS);
+        objectUnderTest.register(tableName, definer(5, 2), definer(10, 4));
+
+        objectUnderTest.start();
+        try
+        {
+            for (int i = 0; i < 500 && objectUnderTest.getLastFailure() == null; i++)
+                Thread.sleep(10);
+        }
+        finally
+        {
+            objectUnderTest.close();
+        }
+
+        assertThat(objectUnderTest.getLastFailure(), sameInstance(failure));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setTargetUtilization_should_reject_more_than_one()
+    {
+        createObjectUnderTest().setTargetUtilization(1.5);
+    }
+}